@@ -1,6 +1,8 @@
 package com.ainovel.app.admin.ops;
 
 import com.ainovel.app.metrics.ApiRequestMetrics;
+import com.ainovel.app.metrics.GenerationContextMetrics;
+import com.ainovel.app.metrics.StageLatencyMetrics;
 import com.ainovel.app.settings.SettingsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -27,6 +29,8 @@ import java.util.Map;
 @SecurityRequirement(name = "bearerAuth")
 public class AdminOpsController {
     private final ApiRequestMetrics requestMetrics;
+    private final StageLatencyMetrics stageLatencyMetrics;
+    private final GenerationContextMetrics generationContextMetrics;
     private final DependencyHealthService dependencyHealthService;
     private final OpsRecordSearchService recordSearchService;
     private final SettingsService settingsService;
@@ -39,11 +43,15 @@ public class AdminOpsController {
 
     public AdminOpsController(
             ApiRequestMetrics requestMetrics,
+            StageLatencyMetrics stageLatencyMetrics,
+            GenerationContextMetrics generationContextMetrics,
             DependencyHealthService dependencyHealthService,
             OpsRecordSearchService recordSearchService,
             SettingsService settingsService
     ) {
         this.requestMetrics = requestMetrics;
+        this.stageLatencyMetrics = stageLatencyMetrics;
+        this.generationContextMetrics = generationContextMetrics;
         this.dependencyHealthService = dependencyHealthService;
         this.recordSearchService = recordSearchService;
         this.settingsService = settingsService;
@@ -57,6 +65,8 @@ public class AdminOpsController {
         long down = dependencies.stream().filter(item -> !"UP".equals(item.get("status"))).count();
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("requests", snapshot);
+        result.put("stageLatency", stageLatencyMetrics.snapshot());
+        result.put("generationContext", generationContextMetrics.snapshot());
         result.put("dependencyTotal", dependencies.size());
         result.put("dependencyIssues", down);
         result.put("maintenanceMode", settingsService.getGlobalSettings().isMaintenanceMode());
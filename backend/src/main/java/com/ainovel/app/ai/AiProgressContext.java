@@ -2,26 +2,107 @@ package com.ainovel.app.ai;
 
 import com.ainovel.app.integration.AiGatewayGrpcClient;
 
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /** Propagates progress only across the worker thread executing one AI operation. */
 public final class AiProgressContext {
     private static final ThreadLocal<AiGatewayGrpcClient.StreamProgressListener> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<DraftListener> DRAFT = new ThreadLocal<>();
 
     private AiProgressContext() {}
 
+    /** Receives the user-visible text an operation is producing, as marked by {@link #streamDraft}. */
+    public interface DraftListener {
+        /** {@code reset} starts a new draft for {@code attempt}; otherwise {@code text} is appended. */
+        void onDraftDelta(int attempt, boolean reset, String text);
+
+        void onDraftAccepted(String text);
+    }
+
+    /** Sees the content of one streamed call and may stop it early, see {@link #observeContent}. */
+    public interface ContentObserver {
+        void onContent(String delta);
+
+        boolean stopRequested();
+    }
+
     public static AiGatewayGrpcClient.StreamProgressListener current() {
         return CURRENT.get();
     }
 
     public static <T> T withListener(AiGatewayGrpcClient.StreamProgressListener listener, Supplier<T> action) {
-        AiGatewayGrpcClient.StreamProgressListener previous = CURRENT.get();
-        CURRENT.set(listener);
+        return with(CURRENT, listener, action);
+    }
+
+    public static <T> T withDraftListener(DraftListener listener, Supplier<T> action) {
+        return with(DRAFT, listener, action);
+    }
+
+    /**
+     * Runs one AI call whose streamed content is the draft itself and forwards that content to the draft
+     * listener. Other calls in the same operation (quality checks, repairs) stay silent.
+     */
+    public static <T> T streamDraft(int attempt, Supplier<T> call) {
+        DraftListener draft = DRAFT.get();
+        AiGatewayGrpcClient.StreamProgressListener progress = CURRENT.get();
+        if (draft == null || progress == null) {
+            return call.get();
+        }
+        draft.onDraftDelta(attempt, true, "");
+        return withListener(forwarding(progress, delta -> draft.onDraftDelta(attempt, false, delta), () -> false), call);
+    }
+
+    /**
+     * Lets {@code observer} watch the content of the streamed AI call made by {@code call} and cancel it early.
+     * Outside a streaming operation the call is made unchanged and the observer sees nothing.
+     */
+    public static <T> T observeContent(ContentObserver observer, Supplier<T> call) {
+        AiGatewayGrpcClient.StreamProgressListener progress = CURRENT.get();
+        if (progress == null) {
+            return call.get();
+        }
+        return withListener(forwarding(progress, observer::onContent, observer::stopRequested), call);
+    }
+
+    /** Publishes the text that passed the quality gate, replacing whatever draft was streamed. */
+    public static void acceptDraft(String text) {
+        DraftListener draft = DRAFT.get();
+        if (draft != null) draft.onDraftAccepted(text);
+    }
+
+    /** {@code delegate} plus an extra content consumer and stop condition. */
+    private static AiGatewayGrpcClient.StreamProgressListener forwarding(
+            AiGatewayGrpcClient.StreamProgressListener delegate, Consumer<String> content, BooleanSupplier stop) {
+        return new AiGatewayGrpcClient.StreamProgressListener() {
+            @Override public void onStarted(String requestId, String modelKey) {
+                delegate.onStarted(requestId, modelKey);
+            }
+            @Override public void onContent(String delta) {
+                delegate.onContent(delta);
+                content.accept(delta);
+            }
+            @Override public void onDelta(long outputTokens, boolean estimated) {
+                delegate.onDelta(outputTokens, estimated);
+            }
+            @Override public void onCompleted(long completionTokens, long promptTokens, long cacheTokens) {
+                delegate.onCompleted(completionTokens, promptTokens, cacheTokens);
+            }
+            @Override public boolean stopRequested() {
+                return stop.getAsBoolean() || delegate.stopRequested();
+            }
+        };
+    }
+
+    private static <L, T> T with(ThreadLocal<L> holder, L listener, Supplier<T> action) {
+        L previous = holder.get();
+        holder.set(listener);
         try {
             return action.get();
         } finally {
-            if (previous == null) CURRENT.remove();
-            else CURRENT.set(previous);
+            if (previous == null) holder.remove();
+            else holder.set(previous);
         }
     }
 }
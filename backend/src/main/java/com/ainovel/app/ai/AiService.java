@@ -71,7 +71,8 @@ public class AiService {
                         cacheHitRate(result.promptTokens(), result.cacheTokens()),
                         charge.charged()
                 ),
-                balance.totalCredits()
+                balance.totalCredits(),
+                balance.publicCreditsAgeMs()
         );
     }
 
@@ -83,7 +84,7 @@ public class AiService {
                 null
         );
         AiChatResponse resp = chat(user, chatRequest);
-        return new AiRefineResponse(resp.content(), resp.usage(), resp.remainingCredits());
+        return new AiRefineResponse(resp.content(), resp.usage(), resp.remainingCredits(), resp.publicCreditsAgeMs());
     }
 
     private Long resolveGatewayUserId(User user) {
@@ -0,0 +1,59 @@
+package com.ainovel.app.ai;
+
+import com.ainovel.app.integration.AiGatewayGrpcClient;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets several streamed calls running at once report to one listener that expects a single stream at a time.
+ * Each call streams into a {@link #child()} of its own; the children add their token deltas to one running
+ * total, so the parent sees one stream: started by the first call to start, growing with every call's output,
+ * and completed once by {@link #complete()} with the combined usage. Children can be nested the same way.
+ */
+public final class ConcurrentStreamProgress {
+    private final AiGatewayGrpcClient.StreamProgressListener parent;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final AtomicLong outputTokens = new AtomicLong();
+    private final AtomicLong promptTokens = new AtomicLong();
+    private final AtomicLong cacheTokens = new AtomicLong();
+
+    public ConcurrentStreamProgress(AiGatewayGrpcClient.StreamProgressListener parent) {
+        this.parent = parent;
+    }
+
+    /** Listener for one call; {@code null} when there is no parent, so the call streams silently as before. */
+    public AiGatewayGrpcClient.StreamProgressListener child() {
+        if (parent == null) {
+            return null;
+        }
+        AtomicLong reported = new AtomicLong();
+        return new AiGatewayGrpcClient.StreamProgressListener() {
+            @Override public void onStarted(String requestId, String modelKey) {
+                if (started.compareAndSet(false, true)) {
+                    parent.onStarted(requestId, modelKey);
+                }
+            }
+            @Override public void onDelta(long callOutputTokens, boolean estimated) {
+                long total = outputTokens.addAndGet(callOutputTokens - reported.getAndSet(callOutputTokens));
+                parent.onDelta(total, estimated);
+            }
+            @Override public boolean stopRequested() {
+                return parent.stopRequested();
+            }
+            @Override public void onCompleted(long completionTokens, long callPromptTokens, long callCacheTokens) {
+                outputTokens.addAndGet(completionTokens - reported.getAndSet(completionTokens));
+                promptTokens.addAndGet(callPromptTokens);
+                cacheTokens.addAndGet(callCacheTokens);
+            }
+        };
+    }
+
+    /** Reports the combined usage of every child to the parent, once, if any child started streaming. */
+    public void complete() {
+        if (parent != null && started.get() && completed.compareAndSet(false, true)) {
+            parent.onCompleted(outputTokens.get(), promptTokens.get(), cacheTokens.get());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ainovel.app.ai;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps the latest streamed token count of one running AI call in memory and hands it to a {@link Sink}
+ * at most once per interval, so per-token deltas do not become per-token database writes. Callers flush
+ * explicitly at the end of a call; readers on the same node can use {@link #current()} in between.
+ */
+public final class StreamProgressCoalescer {
+    public static final long DEFAULT_INTERVAL_MS = 250;
+
+    @FunctionalInterface
+    public interface Sink {
+        void write(long outputTokens, boolean estimated);
+    }
+
+    public record Snapshot(long outputTokens, boolean estimated) {
+    }
+
+    private final Sink sink;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicReference<Snapshot> latest = new AtomicReference<>(new Snapshot(0, true));
+    private final AtomicReference<Snapshot> written = new AtomicReference<>(latest.get());
+    private final AtomicLong lastWriteNanos;
+
+    public StreamProgressCoalescer(Sink sink) {
+        this(sink, DEFAULT_INTERVAL_MS, System::nanoTime);
+    }
+
+    public StreamProgressCoalescer(Sink sink, long intervalMs, LongSupplier nanoClock) {
+        this.sink = sink;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMs));
+        this.nanoClock = nanoClock;
+        this.lastWriteNanos = new AtomicLong(nanoClock.getAsLong() - intervalNanos);
+    }
+
+    /** Records a delta; token counts only move forward. Writes when the interval has elapsed. */
+    public void offer(long outputTokens, boolean estimated) {
+        Snapshot offered = new Snapshot(outputTokens, estimated);
+        latest.accumulateAndGet(offered, (current, next) -> next.outputTokens() >= current.outputTokens() ? next : current);
+        long now = nanoClock.getAsLong();
+        long previous = lastWriteNanos.get();
+        if (now - previous >= intervalNanos && lastWriteNanos.compareAndSet(previous, now)) {
+            write();
+        }
+    }
+
+    /** Writes the latest value if it has not been written yet. */
+    public void flush() {
+        lastWriteNanos.set(nanoClock.getAsLong());
+        write();
+    }
+
+    /**
+     * Replaces the value without writing it, for callers that persist an authoritative count themselves
+     * (a completed call's usage, or a reset when the next step starts).
+     */
+    public void settle(long outputTokens, boolean estimated) {
+        Snapshot value = new Snapshot(outputTokens, estimated);
+        latest.set(value);
+        written.set(value);
+    }
+
+    public Snapshot current() {
+        return latest.get();
+    }
+
+    private void write() {
+        Snapshot value = latest.get();
+        Snapshot previous = written.getAndSet(value);
+        if (!value.equals(previous)) {
+            sink.write(value.outputTokens(), value.estimated());
+        }
+    }
+}
@@ -11,5 +11,11 @@ public record AiChatResponse(
         @Schema(description = "token 使用统计")
         AiUsageDto usage,
         @Schema(description = "剩余资产", example = "1200.0")
-        double remainingCredits
-) {}
+        double remainingCredits,
+        @Schema(description = "剩余资产中通用积分余额距上次向计费服务确认的毫秒数", example = "0")
+        long publicCreditsAgeMs
+) {
+    public AiChatResponse(String role, String content, AiUsageDto usage, double remainingCredits) {
+        this(role, content, usage, remainingCredits, 0L);
+    }
+}
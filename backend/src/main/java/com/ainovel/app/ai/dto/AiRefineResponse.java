@@ -9,5 +9,11 @@ public record AiRefineResponse(
         @Schema(description = "token 使用统计")
         AiUsageDto usage,
         @Schema(description = "剩余资产", example = "1150.0")
-        double remainingCredits
-) {}
+        double remainingCredits,
+        @Schema(description = "剩余资产中通用积分余额距上次向计费服务确认的毫秒数", example = "0")
+        long publicCreditsAgeMs
+) {
+    public AiRefineResponse(String result, AiUsageDto usage, double remainingCredits) {
+        this(result, usage, remainingCredits, 0L);
+    }
+}
@@ -1,21 +1,22 @@
 package com.ainovel.app.aioperation;
 
+import com.ainovel.app.config.AdmittingTaskExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.util.concurrent.Executor;
 
 @Configuration
 public class AiOperationAsyncConfig {
+    /**
+     * At most {@code max-concurrent-runs} operations run at a time; the rest wait on their own parked virtual
+     * thread instead of all reaching AiGatewayGrpcClient at once and failing once its in-flight wait times out.
+     * Past {@code max-waiting-runs} waiting, new runs are rejected and fail with a "queue full" message.
+     */
     @Bean("aiOperationExecutor")
-    public Executor aiOperationExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(64);
-        executor.setThreadNamePrefix("ai-operation-");
-        executor.initialize();
-        return executor;
+    public AdmittingTaskExecutor aiOperationExecutor(
+            @Value("${app.ai-operation.max-concurrent-runs:16}") int maxConcurrentRuns,
+            @Value("${app.ai-operation.max-waiting-runs:256}") int maxWaitingRuns,
+            @Value("${app.ai-operation.termination-timeout-ms:30000}") long terminationTimeoutMs) {
+        return new AdmittingTaskExecutor("ai-operation-", maxConcurrentRuns, maxWaitingRuns, terminationTimeoutMs);
     }
 }
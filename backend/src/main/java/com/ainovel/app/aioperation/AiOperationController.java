@@ -36,8 +36,9 @@ public class AiOperationController {
     }
 
     @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter events(@AuthenticationPrincipal UserDetails principal, @PathVariable UUID id) {
-        return service.events(users.require(principal), id);
+    public SseEmitter events(@AuthenticationPrincipal UserDetails principal, @PathVariable UUID id,
+                             @RequestParam(defaultValue = "false") boolean draft) {
+        return service.events(users.require(principal), id, draft);
     }
 
     @PostMapping("/{id}/retry")
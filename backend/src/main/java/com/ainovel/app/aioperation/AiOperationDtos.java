@@ -7,6 +7,10 @@ public final class AiOperationDtos {
     private AiOperationDtos() {}
 
     public record Accepted(UUID operationId) {}
+    /** {@code draft} event: {@code reset} replaces the preview with {@code text}, otherwise it is appended. */
+    public record DraftDelta(UUID operationId, int attempt, boolean reset, String text) {}
+    /** {@code accepted} event: the text that passed the quality gate and is being saved. */
+    public record DraftAccepted(UUID operationId, String text) {}
     public record Progress(
             UUID id, String operationType, String scopeType, UUID scopeId, AiOperationStatus status,
             String currentStep, int totalSteps, int completedSteps, int remainingSteps,
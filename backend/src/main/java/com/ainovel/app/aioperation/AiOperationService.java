@@ -1,6 +1,7 @@
 package com.ainovel.app.aioperation;
 
 import com.ainovel.app.ai.AiProgressContext;
+import com.ainovel.app.ai.StreamProgressCoalescer;
 import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.integration.AiGatewayGrpcClient;
 import com.ainovel.app.user.User;
@@ -11,6 +12,9 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.event.EventListener;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -21,9 +25,12 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -41,7 +48,10 @@ public class AiOperationService {
     private final Executor executor;
     private final Map<String, AiOperationHandler> handlers = new HashMap<>();
     private final Map<UUID, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<DraftSubscriber>> draftSubscribers = new ConcurrentHashMap<>();
+    private final Map<UUID, DraftStream> drafts = new ConcurrentHashMap<>();
     private final Map<UUID, Future<?>> tasks = new ConcurrentHashMap<>();
+    private final Map<UUID, StreamProgressCoalescer> liveProgress = new ConcurrentHashMap<>();
 
     public AiOperationService(AiOperationRepository repository,
                               ObjectMapper objectMapper,
@@ -58,12 +68,48 @@ public class AiOperationService {
     public AiOperationDtos.Accepted submit(User user, String type, String scopeType, UUID scopeId,
                                            Object payload, int totalSteps, String firstStep) {
         if (!handlers.containsKey(type)) throw new BusinessException("不支持的 AI 操作：" + type);
-        if (scopeType != null && scopeId != null) {
-            Optional<AiOperationRun> active = repository
-                    .findFirstByUserIdAndScopeTypeAndScopeIdAndStatusInOrderByCreatedAtDesc(
-                            user.getId(), scopeType, scopeId, ACTIVE);
-            if (active.isPresent()) return new AiOperationDtos.Accepted(active.get().getId());
+        Optional<AiOperationRun> active = findInScope(user, scopeType, scopeId, ACTIVE);
+        if (active.isPresent()) return new AiOperationDtos.Accepted(active.get().getId());
+        AiOperationRun run = create(user, type, scopeType, scopeId, payload, totalSteps, firstStep);
+        dispatch(run.getId());
+        return new AiOperationDtos.Accepted(run.getId());
+    }
+
+    /**
+     * Queues a background operation from inside the caller's transaction: the run row commits together with
+     * the caller's writes (or not at all), and work starts only after that commit, so the handler reads what
+     * the caller wrote. A run that never gets dispatched because the node stops is picked up by
+     * {@link #recover()}. Only a still-queued run for the same scope is reused, since a running one may already
+     * have read older data.
+     */
+    public AiOperationDtos.Accepted submitAfterCommit(User user, String type, String scopeType, UUID scopeId,
+                                                      Object payload, int totalSteps, String firstStep) {
+        if (!handlers.containsKey(type)) throw new BusinessException("不支持的 AI 操作：" + type);
+        Optional<AiOperationRun> queued = findInScope(user, scopeType, scopeId, EnumSet.of(AiOperationStatus.QUEUED));
+        if (queued.isPresent()) return new AiOperationDtos.Accepted(queued.get().getId());
+        UUID id = create(user, type, scopeType, scopeId, payload, totalSteps, firstStep).getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dispatch(id);
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(id);
+                }
+            });
         }
+        return new AiOperationDtos.Accepted(id);
+    }
+
+    private Optional<AiOperationRun> findInScope(User user, String scopeType, UUID scopeId,
+                                                Set<AiOperationStatus> statuses) {
+        if (scopeType == null || scopeId == null) return Optional.empty();
+        return repository.findFirstByUserIdAndScopeTypeAndScopeIdAndStatusInOrderByCreatedAtDesc(
+                user.getId(), scopeType, scopeId, statuses);
+    }
+
+    private AiOperationRun create(User user, String type, String scopeType, UUID scopeId, Object payload,
+                                  int totalSteps, String firstStep) {
         AiOperationRun run = new AiOperationRun();
         run.setUser(user);
         run.setOperationType(type);
@@ -76,9 +122,7 @@ public class AiOperationService {
         run.setOutputTokens(0);
         run.setOutputTokensEstimated(true);
         run.setPayloadJson(write(payload));
-        repository.save(run);
-        dispatch(run.getId());
-        return new AiOperationDtos.Accepted(run.getId());
+        return repository.save(run);
     }
 
     public AiOperationDtos.Progress get(User user, UUID id) {
@@ -91,10 +135,17 @@ public class AiOperationService {
                 .map(this::snapshot).orElse(null);
     }
 
-    public SseEmitter events(User user, UUID id) {
+    /**
+     * Progress events for the operation. With {@code draft}, the stream also carries {@code draft} events with
+     * the text being generated (starting with whatever has been generated so far) and an {@code accepted}
+     * event once the text has passed the quality gate.
+     */
+    public SseEmitter events(User user, UUID id, boolean draft) {
         AiOperationRun run = requireOwned(id, user);
         SseEmitter emitter = new SseEmitter(30 * 60_000L);
         emitters.computeIfAbsent(id, ignored -> ConcurrentHashMap.newKeySet()).add(emitter);
+        DraftSubscriber subscriber = draft ? new DraftSubscriber(id, emitter) : null;
+        if (draft) draftSubscribers.computeIfAbsent(id, ignored -> ConcurrentHashMap.newKeySet()).add(subscriber);
         emitter.onCompletion(() -> removeEmitter(id, emitter));
         emitter.onTimeout(() -> removeEmitter(id, emitter));
         emitter.onError(ignored -> removeEmitter(id, emitter));
@@ -102,6 +153,9 @@ public class AiOperationService {
         if (isTerminal(run.getStatus())) {
             emitter.complete();
             removeEmitter(id, emitter);
+        } else if (draft) {
+            DraftStream stream = drafts.get(id);
+            if (stream != null) stream.replay(id, subscriber);
         }
         return emitter;
     }
@@ -160,7 +214,28 @@ public class AiOperationService {
             return null;
         });
         reference.set(task);
-        if (tasks.putIfAbsent(id, task) == null) executor.execute(task);
+        if (tasks.putIfAbsent(id, task) != null) return;
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ex) {
+            tasks.remove(id, task);
+            rejected(id);
+        }
+    }
+
+    /** Fails a run the executor has no room for; the user can retry it once the queue drains. */
+    private void rejected(UUID id) {
+        log.warn("AI operation queue is full, failing operationId={}", id);
+        // afterCommit still sees the finished transaction as active, so the write needs one of its own.
+        TransactionTemplate ownTransaction = new TransactionTemplate(transactions.getTransactionManager());
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ownTransaction.executeWithoutResult(status -> repository.findById(id).ifPresent(run -> {
+            if (run.getStatus() != AiOperationStatus.QUEUED) return;
+            run.setStatus(AiOperationStatus.FAILED);
+            run.setErrorMessage("AI 操作队列已满，请稍后重试");
+            run.setCompletedAt(Instant.now());
+        }));
+        publish(id);
     }
 
     private void cancelTask(UUID id) {
@@ -186,8 +261,22 @@ public class AiOperationService {
             fail(id, new IllegalStateException("AI operation handler is unavailable"));
             return;
         }
-        AtomicLong lastUpdate = new AtomicLong();
         AtomicLong currentStepTokenBase = new AtomicLong();
+        StreamProgressCoalescer progress = new StreamProgressCoalescer((outputTokens, estimated) -> update(id, run -> {
+            run.setOutputTokens(outputTokens);
+            run.setOutputTokensEstimated(estimated);
+        }));
+        liveProgress.put(id, progress);
+        DraftStream draft = new DraftStream();
+        drafts.put(id, draft);
+        AiProgressContext.DraftListener draftListener = new AiProgressContext.DraftListener() {
+            @Override public void onDraftDelta(int attempt, boolean reset, String text) {
+                draft.append(id, attempt, reset, text);
+            }
+            @Override public void onDraftAccepted(String text) {
+                draft.accept(id, text);
+            }
+        };
         AiGatewayGrpcClient.StreamProgressListener listener = new AiGatewayGrpcClient.StreamProgressListener() {
             @Override public void onStarted(String requestId, String modelKey) {
                 currentStepTokenBase.set(repository.findById(id).map(AiOperationRun::getOutputTokens).orElse(0L));
@@ -199,19 +288,12 @@ public class AiOperationService {
                 });
             }
             @Override public void onDelta(long outputTokens, boolean estimated) {
-                long now = System.nanoTime();
-                long previous = lastUpdate.get();
-                if (now - previous < 250_000_000L && outputTokens > 0) return;
-                if (lastUpdate.compareAndSet(previous, now)) {
-                    update(id, run -> {
-                        run.setOutputTokens(currentStepTokenBase.get() + outputTokens);
-                        run.setOutputTokensEstimated(estimated);
-                    });
-                }
+                progress.offer(currentStepTokenBase.get() + outputTokens, estimated);
             }
             @Override public void onCompleted(long completionTokens, long promptTokens, long cacheTokens) {
                 long completedTotal = currentStepTokenBase.get() + completionTokens;
                 currentStepTokenBase.set(completedTotal);
+                progress.settle(completedTotal, false);
                 update(id, run -> {
                     run.setOutputTokens(completedTotal);
                     run.setOutputTokensEstimated(false);
@@ -228,24 +310,30 @@ public class AiOperationService {
             SecurityContextHolder.setContext(context);
             Object result;
             try {
-                result = AiProgressContext.withListener(listener, () -> {
+                result = AiProgressContext.withListener(listener, () -> AiProgressContext.withDraftListener(draftListener, () -> {
                     try {
                         return handler.execute(new AiOperationExecution(id, claim.user(), claim.payloadJson(), objectMapper,
-                                (label, completed, total) -> update(id, run -> {
-                                    run.setCurrentStep(label);
-                                    run.setCompletedSteps(Math.max(0, completed));
-                                    run.setTotalSteps(Math.max(1, total));
-                                    run.setOutputTokens(0);
-                                    run.setOutputTokensEstimated(true);
-                                })));
+                                (label, completed, total) -> {
+                                    progress.settle(0, true);
+                                    update(id, run -> {
+                                        run.setCurrentStep(label);
+                                        run.setCompletedSteps(Math.max(0, completed));
+                                        run.setTotalSteps(Math.max(1, total));
+                                        run.setOutputTokens(0);
+                                        run.setOutputTokensEstimated(true);
+                                    });
+                                }));
                     } catch (RuntimeException ex) {
                         throw ex;
                     } catch (Exception ex) {
                         throw new RuntimeException(ex);
                     }
-                });
+                }));
             } finally {
                 SecurityContextHolder.clearContext();
+                liveProgress.remove(id, progress);
+                flushStreamProgress(id, progress);
+                drafts.remove(id, draft);
             }
             update(id, run -> {
                 if (run.getStatus() == AiOperationStatus.CANCELLED) return;
@@ -262,6 +350,15 @@ public class AiOperationService {
         }
     }
 
+    /** Persists the last coalesced delta, e.g. when the handler failed mid-stream. */
+    private void flushStreamProgress(UUID id, StreamProgressCoalescer progress) {
+        try {
+            progress.flush();
+        } catch (RuntimeException ex) {
+            log.warn("AI operation stream progress flush failed operationId={} reason={}", id, ex.getMessage());
+        }
+    }
+
     private int getAttemptCount(UUID id) {
         return repository.findById(id).map(AiOperationRun::getAttemptCount).orElse(0);
     }
@@ -290,6 +387,7 @@ public class AiOperationService {
         if (isTerminal(progress.status())) {
             listeners.forEach(SseEmitter::complete);
             emitters.remove(id);
+            draftSubscribers.remove(id);
         }
     }
 
@@ -303,10 +401,19 @@ public class AiOperationService {
     }
 
     private void removeEmitter(UUID id, SseEmitter emitter) {
-        Set<SseEmitter> listeners = emitters.get(id);
+        removeEmitter(emitters, id, emitter);
+        Set<DraftSubscriber> subscribers = draftSubscribers.get(id);
+        if (subscribers != null) {
+            subscribers.removeIf(subscriber -> subscriber.emitter == emitter);
+            if (subscribers.isEmpty()) draftSubscribers.remove(id);
+        }
+    }
+
+    private void removeEmitter(Map<UUID, Set<SseEmitter>> registry, UUID id, SseEmitter emitter) {
+        Set<SseEmitter> listeners = registry.get(id);
         if (listeners != null) {
             listeners.remove(emitter);
-            if (listeners.isEmpty()) emitters.remove(id);
+            if (listeners.isEmpty()) registry.remove(id);
         }
     }
 
@@ -322,9 +429,17 @@ public class AiOperationService {
 
     private AiOperationDtos.Progress snapshot(AiOperationRun run) {
         int remaining = Math.max(0, run.getTotalSteps() - run.getCompletedSteps());
+        long outputTokens = run.getOutputTokens();
+        boolean outputTokensEstimated = run.isOutputTokensEstimated();
+        StreamProgressCoalescer live = run.getStatus() == AiOperationStatus.STREAMING ? liveProgress.get(run.getId()) : null;
+        if (live != null && live.current().outputTokens() > outputTokens) {
+            // Running on this node: report tokens received since the last throttled write.
+            outputTokens = live.current().outputTokens();
+            outputTokensEstimated = live.current().estimated();
+        }
         return new AiOperationDtos.Progress(run.getId(), run.getOperationType(), run.getScopeType(), run.getScopeId(),
                 run.getStatus(), run.getCurrentStep(), run.getTotalSteps(), run.getCompletedSteps(), remaining,
-                run.getOutputTokens(), run.isOutputTokensEstimated(), run.getAttemptCount(), run.getResultJson(),
+                outputTokens, outputTokensEstimated, run.getAttemptCount(), run.getResultJson(),
                 run.getErrorMessage(), run.getCreatedAt(), run.getUpdatedAt(), run.getCompletedAt());
     }
 
@@ -339,4 +454,92 @@ public class AiOperationService {
     }
 
     private record Claim(UUID id, User user, String type, String payloadJson) {}
+
+    /**
+     * Draft text of one running operation on this node. Appends and replays share the lock so a late
+     * subscriber sees the full text once and then every later delta exactly once. Under the lock events are
+     * only queued on each {@link DraftSubscriber}; nothing is written to a client while it is held.
+     */
+    private final class DraftStream {
+        private final StringBuilder text = new StringBuilder();
+        private int attempt;
+        private boolean accepted;
+
+        synchronized void append(UUID id, int draftAttempt, boolean reset, String delta) {
+            if (reset) {
+                attempt = draftAttempt;
+                accepted = false;
+                text.setLength(0);
+            }
+            text.append(delta);
+            broadcast(id, "draft", new AiOperationDtos.DraftDelta(id, draftAttempt, reset, delta));
+        }
+
+        synchronized void accept(UUID id, String acceptedText) {
+            accepted = true;
+            text.setLength(0);
+            text.append(acceptedText == null ? "" : acceptedText);
+            broadcast(id, "accepted", new AiOperationDtos.DraftAccepted(id, text.toString()));
+        }
+
+        synchronized void replay(UUID id, DraftSubscriber subscriber) {
+            if (accepted) {
+                subscriber.replace("accepted", new AiOperationDtos.DraftAccepted(id, text.toString()));
+            } else if (attempt > 0) {
+                subscriber.replace("draft", new AiOperationDtos.DraftDelta(id, attempt, true, text.toString()));
+            }
+        }
+
+        private void broadcast(UUID id, String name, Object data) {
+            Set<DraftSubscriber> subscribers = draftSubscribers.get(id);
+            if (subscribers != null) subscribers.forEach(subscriber -> subscriber.offer(name, data));
+        }
+    }
+
+    /**
+     * Draft events waiting for one client. A virtual thread writes them in order while any are queued, so a
+     * slow client only delays its own events and never the operation producing them.
+     */
+    private final class DraftSubscriber {
+        private final UUID id;
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        DraftSubscriber(UUID id, SseEmitter emitter) {
+            this.id = id;
+            this.emitter = emitter;
+        }
+
+        void offer(String name, Object data) {
+            pending.add(SseEmitter.event().name(name).data(data));
+            drain();
+        }
+
+        /** Queues a replay in place of the deltas still waiting, whose text it already contains. */
+        void replace(String name, Object data) {
+            pending.clear();
+            offer(name, data);
+        }
+
+        private void drain() {
+            if (draining.compareAndSet(false, true)) {
+                Thread.ofVirtual().name("ai-operation-draft-" + id).start(this::flush);
+            }
+        }
+
+        private void flush() {
+            for (SseEmitter.SseEventBuilder event = pending.poll(); event != null; event = pending.poll()) {
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException ex) {
+                    pending.clear();
+                    removeEmitter(id, emitter);
+                }
+            }
+            draining.set(false);
+            // An event queued after the last poll but before the flag was cleared found the drain still running.
+            if (!pending.isEmpty()) drain();
+        }
+    }
 }
@@ -3,6 +3,7 @@ package com.ainovel.app.aioperation;
 import com.ainovel.app.manuscript.GenerationMode;
 import com.ainovel.app.manuscript.ManuscriptService;
 import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.metrics.StageLatencyMetrics;
 import com.ainovel.app.quality.PlotQualityService;
 import com.ainovel.app.quality.SlopDiagnosticService;
 import com.ainovel.app.quality.SlopDriftService;
@@ -15,12 +16,15 @@ import com.ainovel.app.world.WorldService;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 @Component
 public class CoreAiOperationHandler implements AiOperationHandler {
     public static final String TYPE = "AINOVEL_LONG_TASK";
+    /** Plot-quality analysis queued by scene generation once the section is committed. */
+    public static final String SCENE_PLOT_QUALITY = "SCENE_PLOT_QUALITY";
 
     private final StoryService stories;
     private final OutlineService outlines;
@@ -30,10 +34,12 @@ public class CoreAiOperationHandler implements AiOperationHandler {
     private final SlopDiagnosticService slop;
     private final SlopDriftService drift;
     private final PlotQualityService plot;
+    private final StageLatencyMetrics latency;
 
     public CoreAiOperationHandler(StoryService stories, OutlineService outlines, WorldService worlds,
                                   ManuscriptService manuscripts, ResourceAccessGuard accessGuard,
-                                  SlopDiagnosticService slop, SlopDriftService drift, PlotQualityService plot) {
+                                  SlopDiagnosticService slop, SlopDriftService drift, PlotQualityService plot,
+                                  StageLatencyMetrics latency) {
         this.stories = stories;
         this.outlines = outlines;
         this.worlds = worlds;
@@ -42,6 +48,7 @@ public class CoreAiOperationHandler implements AiOperationHandler {
         this.slop = slop;
         this.drift = drift;
         this.plot = plot;
+        this.latency = latency;
     }
 
     @Override public String type() { return TYPE; }
@@ -67,29 +74,31 @@ public class CoreAiOperationHandler implements AiOperationHandler {
             }
             case "WORLD_PUBLISH" -> {
                 var preview = worlds.preview(payload.primaryId());
-                int total = Math.max(2, preview.modulesToGenerate().size() + 2);
-                execution.progress().step("准备世界观发布", 0, total);
+                execution.progress().step("准备世界观发布", 0, 2);
                 worlds.publish(payload.primaryId());
-                int completed = 1;
-                for (String module : preview.modulesToGenerate()) {
-                    execution.progress().step("生成世界模块：" + module, completed, total);
-                    worlds.generateModule(payload.primaryId(), module);
-                    completed++;
-                }
-                execution.progress().step("完成世界观发布", total - 1, total);
+                int[] fieldTotal = {0};
+                worlds.generateModules(payload.primaryId(), preview.modulesToGenerate(), (completed, total) -> {
+                    fieldTotal[0] = total;
+                    execution.progress().step("生成世界字段 " + completed + "/" + total, completed + 1, total + 2);
+                });
+                execution.progress().step("完成世界观发布", fieldTotal[0] + 1, fieldTotal[0] + 2);
                 yield worlds.get(payload.primaryId());
             }
             case "WORLD_MODULE" -> {
                 execution.progress().step("生成世界模块：" + payload.mode(), 0, 2);
-                Object result = worlds.generateModule(payload.primaryId(), payload.mode());
-                execution.progress().step("保存世界模块", 1, 2);
+                int[] fieldTotal = {0};
+                Object result = worlds.generateModules(payload.primaryId(), List.of(payload.mode()), (completed, total) -> {
+                    fieldTotal[0] = total;
+                    execution.progress().step("生成世界字段 " + completed + "/" + total, completed, total + 1);
+                });
+                execution.progress().step("保存世界模块", fieldTotal[0], fieldTotal[0] + 1);
                 yield result;
             }
             case "SCENE_GENERATION" -> {
                 execution.progress().step("生成场景正文", 0, 5);
                 Object result = manuscripts.generateForScene(payload.primaryId(), payload.secondaryId(),
                         GenerationMode.valueOf(payload.mode()));
-                execution.progress().step("保存正文与质量结果", 4, 5);
+                execution.progress().step("保存正文", 4, 5);
                 yield result;
             }
             case "SLOP_DIAGNOSIS" -> {
@@ -110,6 +119,17 @@ public class CoreAiOperationHandler implements AiOperationHandler {
                 var run = plot.analyzeScene(execution.user(), manuscript, payload.secondaryId());
                 yield Map.of("resourceId", run.getId());
             }
+            case SCENE_PLOT_QUALITY -> {
+                Manuscript manuscript = accessGuard.requireOwnedManuscript(payload.primaryId(), execution.user());
+                if (payload.request() != null && payload.request().has("queuedAt")) {
+                    latency.record(StageLatencyMetrics.SCENE_PLOT_QUALITY_WAIT,
+                            System.currentTimeMillis() - payload.request().get("queuedAt").asLong());
+                }
+                execution.progress().step("执行剧情质量诊断", 0, 2);
+                var run = latency.time(StageLatencyMetrics.SCENE_PLOT_QUALITY,
+                        () -> plot.analyzeScene(execution.user(), manuscript, payload.secondaryId()));
+                yield Map.of("resourceId", run.getId());
+            }
             case "PLOT_REVISION" -> {
                 Manuscript manuscript = accessGuard.requireOwnedManuscript(payload.primaryId(), execution.user());
                 execution.progress().step("生成剧情修订候选", 0, 2);
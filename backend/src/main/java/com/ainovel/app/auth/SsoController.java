@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import com.ainovel.app.security.SessionAuthenticationCache;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -27,12 +28,16 @@ public class SsoController {
     private static final String DEFAULT_NEXT_PATH = "/workbench";
     private final SsoEntryService ssoEntryService;
     private final SsoTokenExchangeService ssoTokenExchangeService;
+    private final SessionAuthenticationCache sessionCache;
     @Value("${sso.callback-origin:}")
     private String callbackOrigin;
 
-    public SsoController(SsoEntryService ssoEntryService, SsoTokenExchangeService ssoTokenExchangeService) {
+    public SsoController(SsoEntryService ssoEntryService,
+                         SsoTokenExchangeService ssoTokenExchangeService,
+                         SessionAuthenticationCache sessionCache) {
         this.ssoEntryService = ssoEntryService;
         this.ssoTokenExchangeService = ssoTokenExchangeService;
+        this.sessionCache = sessionCache;
     }
 
     @Operation(summary = "跳转统一登录页", description = "由后端生成 userservice 登录入口并 302 跳转。")
@@ -74,6 +79,16 @@ public class SsoController {
         return ResponseEntity.ok(ssoTokenExchangeService.exchange(request.code(), request.redirect()));
     }
 
+    @Operation(summary = "退出登录", description = "清除当前会话在本服务的校验缓存，下次携带该会话的请求会重新向 userservice 校验。")
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        if (request.getAttribute(SessionAuthenticationCache.SESSION_ATTRIBUTE) instanceof SessionAuthenticationCache.Session session) {
+            sessionCache.invalidateSession(session.uid(), session.sid());
+            sessionCache.invalidateUser(session.username());
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     private ResponseEntity<Void> redirect(String mode, String next, String state, HttpServletRequest request) {
         if (state == null || state.isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "STATE_REQUIRED");
@@ -0,0 +1,74 @@
+package com.ainovel.app.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs tasks on virtual threads, at most {@code maxRunning} at a time. Submitting never blocks: tasks over the
+ * limit wait in arrival order on their own parked thread, and once {@code maxWaiting} of them are waiting further
+ * submissions are rejected with {@link RejectedExecutionException}, like a full pool queue.
+ *
+ * <p>Closing (on context shutdown) lets running tasks finish for up to {@code terminationTimeoutMs}, then
+ * interrupts the threads that are left. A task still waiting for its turn when closing starts never runs.
+ */
+public final class AdmittingTaskExecutor implements Executor, AutoCloseable {
+    private final SimpleAsyncTaskExecutor threads;
+    private final Semaphore running;
+    private final Semaphore admitted;
+    private final int maxWaiting;
+
+    public AdmittingTaskExecutor(String threadNamePrefix, int maxRunning, int maxWaiting, long terminationTimeoutMs) {
+        int runs = Math.max(1, maxRunning);
+        this.maxWaiting = Math.max(0, maxWaiting);
+        this.running = new Semaphore(runs, true);
+        this.admitted = new Semaphore(runs + this.maxWaiting);
+        this.threads = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        threads.setVirtualThreads(true);
+        threads.setTaskTerminationTimeout(Math.max(1L, terminationTimeoutMs));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException(threads.getThreadNamePrefix() + "executor already has "
+                    + maxWaiting + " tasks waiting");
+        }
+        try {
+            threads.execute(() -> {
+                try {
+                    runWhenAdmitted(command);
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RuntimeException | Error ex) {
+            admitted.release();
+            throw ex;
+        }
+    }
+
+    private void runWhenAdmitted(Runnable command) {
+        try {
+            running.acquire();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            // A turn that came up after close() started belongs to a task close() is about to interrupt.
+            if (threads.isActive()) {
+                command.run();
+            }
+        } finally {
+            running.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        threads.close();
+    }
+}
@@ -0,0 +1,21 @@
+package com.ainovel.app.economy;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class EconomyAsyncConfig {
+    @Bean("publicBalanceRefreshExecutor")
+    public Executor publicBalanceRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(256);
+        executor.setThreadNamePrefix("public-balance-");
+        executor.initialize();
+        return executor;
+    }
+}
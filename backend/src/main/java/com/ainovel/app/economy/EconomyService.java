@@ -17,6 +17,8 @@ import com.ainovel.app.integration.BillingGrpcClient;
 import com.ainovel.app.user.User;
 import com.ainovel.app.user.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -25,10 +27,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Locale;
 import java.util.UUID;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
 
 @Service
 public class EconomyService {
@@ -45,6 +55,16 @@ public class EconomyService {
     private RedeemCodeRepository redeemCodeRepository;
     @Autowired
     private RedeemCodeUsageRepository redeemCodeUsageRepository;
+    @Autowired
+    @Qualifier("publicBalanceRefreshExecutor")
+    private Executor publicBalanceRefreshExecutor;
+    @Value("${app.economy.public-balance.fresh-ms:5000}")
+    private long publicBalanceFreshMs = 5000;
+    @Value("${app.economy.public-balance.max-stale-ms:60000}")
+    private long publicBalanceMaxStaleMs = 60000;
+    private LongSupplier nanoClock = System::nanoTime;
+    /** Last public balance billing reported, by remote uid. Project credits are local and always read fresh. */
+    private final ConcurrentMap<Long, CachedPublicBalance> publicBalances = new ConcurrentHashMap<>();
 
     public EconomyService(
             BillingGrpcClient billingGrpcClient,
@@ -56,7 +76,14 @@ public class EconomyService {
         this.conversionOrderRepository = conversionOrderRepository;
     }
 
-    public record BalanceSnapshot(long projectCredits, long publicCredits, long totalCredits) {
+    /**
+     * {@code publicCreditsAgeMs} is how long ago billing reported {@code publicCredits}; it can lag by up to
+     * {@code app.economy.public-balance.max-stale-ms}, or more while billing is unreachable.
+     */
+    public record BalanceSnapshot(long projectCredits, long publicCredits, long totalCredits, long publicCreditsAgeMs) {
+        public BalanceSnapshot(long projectCredits, long publicCredits, long totalCredits) {
+            this(projectCredits, publicCredits, totalCredits, 0L);
+        }
     }
 
     public record CreditChangeResult(
@@ -181,8 +208,8 @@ public class EconomyService {
     @Transactional(readOnly = true)
     public BalanceSnapshot currentBalance(User user) {
         long project = accountRepository.findByUser(user).map(ProjectCreditAccount::getBalance).orElse(Math.round(user.getCredits()));
-        long pub = fetchPublicBalance(user);
-        return new BalanceSnapshot(project, pub, project + pub);
+        PublicBalance pub = publicBalance(user);
+        return new BalanceSnapshot(project, pub.credits(), project + pub.credits(), pub.ageMs());
     }
 
     @Transactional(readOnly = true)
@@ -283,7 +310,7 @@ public class EconomyService {
         }
 
         long projectBefore = projectBalance(user);
-        long publicBefore = fetchPublicBalance(user);
+        long publicBefore = loadPublicBalance(user).credits();
 
         String orderNo = "CVT-" + UUID.randomUUID().toString().replace("-", "").substring(0, 20).toUpperCase(Locale.ROOT);
         CreditConversionOrder order = new CreditConversionOrder();
@@ -304,6 +331,8 @@ public class EconomyService {
         try {
             remote = billingGrpcClient.convertPublicToProject(remoteUid, amount, order.getRemoteRequestId());
         } catch (RuntimeException ex) {
+            // The remote debit may or may not have happened; make the next read ask billing.
+            invalidatePublicBalance(user);
             order.setStatus(ConversionOrderStatus.FAILED);
             order.setRemoteMessage(ex.getMessage());
             conversionOrderRepository.save(order);
@@ -328,7 +357,14 @@ public class EconomyService {
                 "通用积分兑换项目专属积分",
                 "convert:" + idempotencyKey
         );
-        long publicAfter = remote.publicRemainingTokens() >= 0 ? remote.publicRemainingTokens() : fetchPublicBalance(user);
+        long publicAfter;
+        if (remote.publicRemainingTokens() >= 0) {
+            publicAfter = remote.publicRemainingTokens();
+            publicBalances.put(remoteUid, new CachedPublicBalance(publicAfter, nanoClock.getAsLong()));
+        } else {
+            invalidatePublicBalance(user);
+            publicAfter = loadPublicBalance(user).credits();
+        }
         order.setConvertedAmount(converted);
         order.setStatus(ConversionOrderStatus.SUCCESS);
         order.setRemoteMessage(remote.errorMessage());
@@ -545,26 +581,90 @@ public class EconomyService {
         return Math.max(1L, cost);
     }
 
+    /** Drops the cached public balance so the next read goes to billing, e.g. after an out-of-band top-up. */
+    public void invalidatePublicBalance(User user) {
+        Long remoteUid = user == null ? null : user.getRemoteUid();
+        if (remoteUid != null) {
+            publicBalances.remove(remoteUid);
+        }
+    }
+
     private long fetchPublicBalance(User user) {
+        return publicBalance(user).credits();
+    }
+
+    /**
+     * Cached public balance: returned as is while younger than the fresh window, returned and refreshed in
+     * the background while younger than the staleness bound, and reloaded synchronously after that.
+     */
+    private PublicBalance publicBalance(User user) {
         Long remoteUid = user.getRemoteUid();
         if (remoteUid == null || remoteUid <= 0) {
-            return 0L;
+            return new PublicBalance(0L, 0L);
+        }
+        CachedPublicBalance cached = publicBalances.get(remoteUid);
+        if (cached != null) {
+            long ageMs = cached.ageMs(nanoClock.getAsLong());
+            if (ageMs <= publicBalanceMaxStaleMs) {
+                if (ageMs > publicBalanceFreshMs) {
+                    refreshInBackground(remoteUid, cached);
+                }
+                return new PublicBalance(cached.credits(), ageMs);
+            }
+        }
+        return loadPublicBalance(user);
+    }
+
+    private void refreshInBackground(long remoteUid, CachedPublicBalance cached) {
+        if (!cached.refreshing().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            publicBalanceRefreshExecutor.execute(() -> {
+                try {
+                    long credits = billingGrpcClient.publicBalance(remoteUid);
+                    publicBalances.put(remoteUid, new CachedPublicBalance(credits, nanoClock.getAsLong()));
+                } catch (RuntimeException ex) {
+                    log.debug("Background public balance refresh failed for remoteUid={}: {}", remoteUid, ex.getMessage());
+                } finally {
+                    cached.refreshing().set(false);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            cached.refreshing().set(false);
+        }
+    }
+
+    private PublicBalance loadPublicBalance(User user) {
+        Long remoteUid = user.getRemoteUid();
+        if (remoteUid == null || remoteUid <= 0) {
+            return new PublicBalance(0L, 0L);
         }
         RuntimeException lastError = null;
         for (int attempt = 1; attempt <= 2; attempt++) {
             try {
-                return billingGrpcClient.publicBalance(remoteUid);
+                long credits = billingGrpcClient.publicBalance(remoteUid);
+                publicBalances.put(remoteUid, new CachedPublicBalance(credits, nanoClock.getAsLong()));
+                return new PublicBalance(credits, 0L);
             } catch (RuntimeException ex) {
                 lastError = ex;
             }
         }
 
-        long fallback = conversionOrderRepository.findFirstByUserOrderByCreatedAtDesc(user)
-                .map(item -> item.getPublicAfter() > 0 ? item.getPublicAfter() : item.getPublicBefore())
-                .orElse(0L);
         String reason = lastError == null ? "unknown" : lastError.getMessage();
+        CachedPublicBalance cached = publicBalances.get(remoteUid);
+        if (cached != null) {
+            long ageMs = cached.ageMs(nanoClock.getAsLong());
+            log.warn("Failed to fetch public balance for remoteUid={}, serving cached value aged {}ms reason={}", remoteUid, ageMs, reason);
+            return new PublicBalance(cached.credits(), ageMs);
+        }
+        CreditConversionOrder lastOrder = conversionOrderRepository.findFirstByUserOrderByCreatedAtDesc(user).orElse(null);
+        long fallback = lastOrder == null ? 0L
+                : lastOrder.getPublicAfter() > 0 ? lastOrder.getPublicAfter() : lastOrder.getPublicBefore();
+        long ageMs = lastOrder == null || lastOrder.getCreatedAt() == null ? 0L
+                : Math.max(0L, Duration.between(lastOrder.getCreatedAt(), Instant.now()).toMillis());
         log.warn("Failed to fetch public balance for remoteUid={}, fallback={} reason={}", remoteUid, fallback, reason);
-        return fallback;
+        return new PublicBalance(fallback, ageMs);
     }
 
     private String normalizeRedeemCode(String code) {
@@ -587,6 +687,19 @@ public class EconomyService {
         userRepository.save(user);
     }
 
+    private record PublicBalance(long credits, long ageMs) {
+    }
+
+    private record CachedPublicBalance(long credits, long loadedAtNanos, AtomicBoolean refreshing) {
+        CachedPublicBalance(long credits, long loadedAtNanos) {
+            this(credits, loadedAtNanos, new AtomicBoolean());
+        }
+
+        long ageMs(long now) {
+            return TimeUnit.NANOSECONDS.toMillis(Math.max(0L, now - loadedAtNanos));
+        }
+    }
+
     private String normalizeRemoteError(String raw, String fallback) {
         if (raw == null || raw.isBlank()) {
             return fallback;
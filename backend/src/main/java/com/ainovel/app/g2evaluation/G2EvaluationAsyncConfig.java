@@ -1,21 +1,27 @@
 package com.ainovel.app.g2evaluation;
 
+import com.ainovel.app.config.AdmittingTaskExecutor;
+import com.ainovel.app.manuscript.SceneGenerationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.util.concurrent.Executor;
 
 @Configuration
 public class G2EvaluationAsyncConfig {
+    /**
+     * Admits as many samples at once as {@code ai-call-budget} model calls allow with each sample keeping both
+     * of its candidates in flight. Past {@code max-waiting-samples} waiting, new samples are rejected and fail.
+     */
     @Bean("g2EvaluationExecutor")
-    public Executor g2EvaluationExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(1);
-        executor.setMaxPoolSize(2);
-        executor.setQueueCapacity(24);
-        executor.setThreadNamePrefix("g2-evaluation-");
-        executor.initialize();
-        return executor;
+    public AdmittingTaskExecutor g2EvaluationExecutor(
+            @Value("${app.g2-evaluation.ai-call-budget:8}") int aiCallBudget,
+            @Value("${app.g2-evaluation.max-waiting-samples:64}") int maxWaitingSamples,
+            @Value("${app.g2-evaluation.termination-timeout-ms:30000}") long terminationTimeoutMs) {
+        return new AdmittingTaskExecutor("g2-evaluation-", samplesFor(aiCallBudget), maxWaitingSamples,
+                terminationTimeoutMs);
+    }
+
+    static int samplesFor(int aiCallBudget) {
+        return Math.max(1, aiCallBudget / SceneGenerationService.EVALUATION_CANDIDATES);
     }
 }
@@ -11,7 +11,9 @@ import com.ainovel.app.manuscript.repo.ManuscriptRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -24,52 +26,96 @@ public class G2EvaluationGenerationWorker {
     private final ManuscriptRepository manuscriptRepository;
     private final SceneGenerationService sceneGenerationService;
     private final EconomyService economyService;
+    private final TransactionTemplate transactionTemplate;
 
     public G2EvaluationGenerationWorker(G2EvaluationSampleRepository sampleRepository,
                                         ManuscriptRepository manuscriptRepository,
                                         SceneGenerationService sceneGenerationService,
-                                        EconomyService economyService) {
+                                        EconomyService economyService,
+                                        PlatformTransactionManager transactionManager) {
         this.sampleRepository = sampleRepository;
         this.manuscriptRepository = manuscriptRepository;
         this.sceneGenerationService = sceneGenerationService;
         this.economyService = economyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * Claims a pending sample, generates its pair and records the outcome, each database step in a short
+     * transaction of its own so that no connection is held while the candidates are being generated.
+     */
     public void generate(UUID sampleId) {
-        G2EvaluationSample sample = sampleRepository.findById(sampleId)
-                .orElseThrow(() -> new BusinessException("盲测样本不存在"));
-        if (sample.getStatus() != G2EvaluationSampleStatus.PENDING) {
+        Claim claim = transactionTemplate.execute(status -> claim(sampleId));
+        if (claim == null) {
             return;
         }
-        sample.setStatus(G2EvaluationSampleStatus.RUNNING);
-        sampleRepository.save(sample);
         try {
-            Manuscript manuscript = manuscriptRepository.findWithStoryById(sample.getManuscriptId())
+            Manuscript manuscript = manuscriptRepository.findWithStoryById(claim.manuscriptId())
                     .orElseThrow(() -> new BusinessException("盲测稿件不存在"));
             if (manuscript.getOutline() == null || manuscript.getOutline().getStory() == null
                     || manuscript.getOutline().getStory().getUser() == null
-                    || !sample.getAuthor().getId().equals(manuscript.getOutline().getStory().getUser().getId())) {
+                    || !claim.authorId().equals(manuscript.getOutline().getStory().getUser().getId())) {
                 throw new BusinessException("盲测稿件不属于投稿作者");
             }
             SceneGenerationService.EvaluationPair pair = sceneGenerationService.generateEvaluationPair(
-                    manuscript, sample.getSceneId(), sample.getId());
-            sample.setFastText(pair.fastText());
-            sample.setCraftedText(pair.craftedText());
-            sample.setStatus(G2EvaluationSampleStatus.READY);
-            sampleRepository.save(sample);
-            log.info("G2 evaluation sample generated sampleId={} experimentId={}", sample.getId(), sample.getExperiment().getId());
+                    manuscript, claim.sceneId(), sampleId);
+            transactionTemplate.executeWithoutResult(status -> markReady(sampleId, pair));
         } catch (RuntimeException ex) {
-            sample.setStatus(G2EvaluationSampleStatus.FAILED);
-            sample.setFailureMessage(truncate(ex.getMessage(), 500));
-            long refunded = economyService.refundFailedEvaluation(sample.getAuthor(), sample.getId());
-            if (refunded > 0) {
-                sample.setRefundedAt(Instant.now());
+            transactionTemplate.executeWithoutResult(status -> markFailed(sampleId, ex));
+        }
+    }
+
+    /**
+     * Fails a sample the executor has no room for, refunding its author. Runs in a transaction of its own,
+     * since afterCommit still sees the submitting transaction as active.
+     */
+    public void reject(UUID sampleId, String reason) {
+        log.warn("G2 evaluation queue is full, failing sampleId={}", sampleId);
+        TransactionTemplate ownTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ownTransaction.executeWithoutResult(status -> {
+            G2EvaluationSample sample = sampleRepository.findById(sampleId).orElse(null);
+            if (sample != null && sample.getStatus() == G2EvaluationSampleStatus.PENDING) {
+                markFailed(sampleId, new BusinessException(reason));
             }
-            sampleRepository.save(sample);
-            log.warn("G2 evaluation sample failed sampleId={} refunded={} reason={}",
-                    sample.getId(), refunded, ex.getMessage());
+        });
+    }
+
+    /** Moves a pending sample to RUNNING; {@code null} when it was already picked up or settled. */
+    private Claim claim(UUID sampleId) {
+        G2EvaluationSample sample = sampleRepository.findById(sampleId)
+                .orElseThrow(() -> new BusinessException("盲测样本不存在"));
+        if (sample.getStatus() != G2EvaluationSampleStatus.PENDING) {
+            return null;
+        }
+        sample.setStatus(G2EvaluationSampleStatus.RUNNING);
+        sampleRepository.save(sample);
+        return new Claim(sample.getManuscriptId(), sample.getSceneId(), sample.getAuthor().getId());
+    }
+
+    private void markReady(UUID sampleId, SceneGenerationService.EvaluationPair pair) {
+        G2EvaluationSample sample = sampleRepository.findById(sampleId).orElseThrow();
+        sample.setFastText(pair.fastText());
+        sample.setCraftedText(pair.craftedText());
+        sample.setStatus(G2EvaluationSampleStatus.READY);
+        sampleRepository.save(sample);
+        log.info("G2 evaluation sample generated sampleId={} experimentId={}", sample.getId(), sample.getExperiment().getId());
+    }
+
+    private void markFailed(UUID sampleId, RuntimeException ex) {
+        G2EvaluationSample sample = sampleRepository.findById(sampleId).orElseThrow();
+        sample.setStatus(G2EvaluationSampleStatus.FAILED);
+        sample.setFailureMessage(truncate(ex.getMessage(), 500));
+        long refunded = economyService.refundFailedEvaluation(sample.getAuthor(), sample.getId());
+        if (refunded > 0) {
+            sample.setRefundedAt(Instant.now());
         }
+        sampleRepository.save(sample);
+        log.warn("G2 evaluation sample failed sampleId={} refunded={} reason={}",
+                sample.getId(), refunded, ex.getMessage());
+    }
+
+    private record Claim(UUID manuscriptId, UUID sceneId, UUID authorId) {
     }
 
     private String truncate(String message, int maxLength) {
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 public class G2EvaluationService {
@@ -209,17 +210,25 @@ public class G2EvaluationService {
 
     private void scheduleGenerationAfterCommit(UUID sampleId) {
         if (!TransactionSynchronizationManager.isSynchronizationActive()) {
-            executor.execute(() -> generationWorker.generate(sampleId));
+            scheduleGeneration(sampleId);
             return;
         }
         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
             @Override
             public void afterCommit() {
-                executor.execute(() -> generationWorker.generate(sampleId));
+                scheduleGeneration(sampleId);
             }
         });
     }
 
+    private void scheduleGeneration(UUID sampleId) {
+        try {
+            executor.execute(() -> generationWorker.generate(sampleId));
+        } catch (RejectedExecutionException ex) {
+            generationWorker.reject(sampleId, "盲测生成队列已满，请稍后重新提交");
+        }
+    }
+
     private void acceptInvite(G2EvaluationExperiment experiment, User reviewer) {
         G2EvaluationInvite invite = inviteRepository.findByExperimentAndReviewer(experiment, reviewer)
                 .orElseThrow(() -> new BusinessException("你未被邀请参与本次盲测评审"));
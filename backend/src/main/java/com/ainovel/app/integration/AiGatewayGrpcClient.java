@@ -17,6 +17,7 @@ import io.grpc.CallOptions;
 import io.grpc.Channel;
 import io.grpc.ClientCall;
 import io.grpc.ClientInterceptor;
+import io.grpc.Context;
 import io.grpc.ForwardingClientCall;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
@@ -36,14 +37,24 @@ import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 import java.util.Iterator;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+/**
+ * ai-service gateway client. Model calls are bounded by {@code app.external.ai-max-in-flight} rather than by the
+ * size of whichever thread pool issues them. Callers that fan out run the blocking calls on virtual threads, so
+ * waiting on a slow model or on a free slot does not hold a platform thread.
+ */
 @Component
 public class AiGatewayGrpcClient {
 
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
     private final ExternalServiceProperties properties;
     private final ClientInterceptor authInterceptor;
     private final GrpcEndpointManager<EndpointClient> endpointManager;
+    private final Semaphore inFlight;
 
     public AiGatewayGrpcClient(
             ExternalServiceProperties properties,
@@ -54,8 +65,10 @@ public class AiGatewayGrpcClient {
         this.endpointManager = new GrpcEndpointManager<>(
                 properties.getAiserviceGrpc(),
                 "aiservice-grpc",
-                channelFactory
+                channelFactory,
+                properties.getGrpc()
         );
+        this.inFlight = new Semaphore(Math.max(1, properties.getAiMaxInFlight()), true);
     }
 
     public List<AiModelDto> listModels(long remoteUserId) {
@@ -81,6 +94,21 @@ public class AiGatewayGrpcClient {
     }
 
     public ChatResult chatCompletions(long remoteUserId, String model, List<AiChatRequest.Message> messages) {
+        return limited(() -> doChatCompletions(remoteUserId, model, messages));
+    }
+
+    public ChatResult chatCompletionsStream(long remoteUserId,
+                                            String model,
+                                            List<AiChatRequest.Message> messages,
+                                            StreamProgressListener listener) {
+        return limited(() -> doChatCompletionsStream(remoteUserId, model, messages, listener));
+    }
+
+    public EmbeddingResult embeddings(long remoteUserId, String model, List<String> input, boolean normalize) {
+        return limited(() -> doEmbeddings(remoteUserId, model, input, normalize));
+    }
+
+    private ChatResult doChatCompletions(long remoteUserId, String model, List<AiChatRequest.Message> messages) {
         AiGatewayServiceGrpc.AiGatewayServiceBlockingStub stub = stub();
         ChatCompletionsRequest request = buildChatRequest(UUID.randomUUID().toString(), remoteUserId, model, messages);
         ChatCompletionsResponse response = stub.withDeadlineAfter(timeoutMs(), TimeUnit.MILLISECONDS)
@@ -94,55 +122,75 @@ public class AiGatewayGrpcClient {
         );
     }
 
-    public ChatResult chatCompletionsStream(long remoteUserId,
-                                            String model,
-                                            List<AiChatRequest.Message> messages,
-                                            StreamProgressListener listener) {
+    private ChatResult doChatCompletionsStream(long remoteUserId,
+                                               String model,
+                                               List<AiChatRequest.Message> messages,
+                                               StreamProgressListener listener) {
         String requestId = UUID.randomUUID().toString();
         ChatCompletionsRequest request = buildChatRequest(requestId, remoteUserId, model, messages);
-        Iterator<ChatCompletionsStreamEvent> events = stub()
-                .withDeadlineAfter(timeoutMs(), TimeUnit.MILLISECONDS)
-                .chatCompletionsStream(request);
-        StringBuilder content = new StringBuilder();
-        long expectedSequence = 1;
-        long previousOutputTokens = 0;
-        boolean started = false;
-        boolean receivedDelta = false;
-        ChatCompletionsStreamEvent completed = null;
-        while (events.hasNext()) {
-            ChatCompletionsStreamEvent event = events.next();
-            if (completed != null) {
-                throw new IllegalStateException("ai-service returned an event after COMPLETED");
-            }
-            if (!requestId.equals(event.getRequestId()) || event.getSequence() != expectedSequence++) {
-                throw new IllegalStateException("ai-service returned an invalid stream sequence");
-            }
-            if (event.getEventType() == ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_STARTED) {
-                if (started) throw new IllegalStateException("ai-service returned duplicate STARTED event");
-                started = true;
-                listener.onStarted(requestId, event.getModelKey());
-            } else if (event.getEventType() == ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_CONTENT_DELTA) {
-                if (!started || event.getContentDelta().isEmpty()) {
-                    throw new IllegalStateException("ai-service returned invalid CONTENT_DELTA event");
+        // Cancelling this context cancels the RPC: used when the listener asks to stop and on any failure.
+        Context.CancellableContext call = Context.current().withCancellation();
+        Context previous = call.attach();
+        try {
+            Iterator<ChatCompletionsStreamEvent> events = stub()
+                    .withDeadlineAfter(timeoutMs(), TimeUnit.MILLISECONDS)
+                    .chatCompletionsStream(request);
+            StringBuilder content = new StringBuilder();
+            long expectedSequence = 1;
+            long previousOutputTokens = 0;
+            boolean started = false;
+            boolean receivedDelta = false;
+            ChatCompletionsStreamEvent startedEvent = null;
+            ChatCompletionsStreamEvent completed = null;
+            while (events.hasNext()) {
+                ChatCompletionsStreamEvent event = events.next();
+                if (completed != null) {
+                    throw new IllegalStateException("ai-service returned an event after COMPLETED");
                 }
-                if (event.getOutputTokensSoFar() < previousOutputTokens) {
-                    throw new IllegalStateException("ai-service returned decreasing output token progress");
+                if (!requestId.equals(event.getRequestId()) || event.getSequence() != expectedSequence++) {
+                    throw new IllegalStateException("ai-service returned an invalid stream sequence");
+                }
+                if (event.getEventType() == ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_STARTED) {
+                    if (started) throw new IllegalStateException("ai-service returned duplicate STARTED event");
+                    started = true;
+                    startedEvent = event;
+                    listener.onStarted(requestId, event.getModelKey());
+                } else if (event.getEventType() == ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_CONTENT_DELTA) {
+                    if (!started || event.getContentDelta().isEmpty()) {
+                        throw new IllegalStateException("ai-service returned invalid CONTENT_DELTA event");
+                    }
+                    if (event.getOutputTokensSoFar() < previousOutputTokens) {
+                        throw new IllegalStateException("ai-service returned decreasing output token progress");
+                    }
+                    previousOutputTokens = event.getOutputTokensSoFar();
+                    receivedDelta = true;
+                    content.append(event.getContentDelta());
+                    listener.onContent(event.getContentDelta());
+                    listener.onDelta(event.getOutputTokensSoFar(), event.getOutputTokensEstimated());
+                    if (listener.stopRequested()) {
+                        // Usage so far: no COMPLETED event will arrive for a cancelled call, and STARTED usually
+                        // carries no prompt usage, so the prompt is billed from the pre-call estimate.
+                        long promptTokens = startedEvent.getPromptTokens() > 0
+                                ? startedEvent.getPromptTokens() : estimatePromptTokens(request);
+                        listener.onCompleted(previousOutputTokens, promptTokens, startedEvent.getCacheTokens());
+                        return new ChatResult(content.toString(), startedEvent.getModelKey(), promptTokens,
+                                previousOutputTokens, startedEvent.getCacheTokens());
+                    }
+                } else if (event.getEventType() == ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_COMPLETED) {
+                    if (!started || !receivedDelta) throw new IllegalStateException("ai-service returned invalid COMPLETED event");
+                    completed = event;
+                } else {
+                    throw new IllegalStateException("ai-service returned an unknown stream event");
                 }
-                previousOutputTokens = event.getOutputTokensSoFar();
-                receivedDelta = true;
-                content.append(event.getContentDelta());
-                listener.onDelta(event.getOutputTokensSoFar(), event.getOutputTokensEstimated());
-            } else if (event.getEventType() == ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_COMPLETED) {
-                if (!started || !receivedDelta) throw new IllegalStateException("ai-service returned invalid COMPLETED event");
-                completed = event;
-            } else {
-                throw new IllegalStateException("ai-service returned an unknown stream event");
             }
+            if (completed == null) throw new IllegalStateException("ai-service stream ended without COMPLETED event");
+            listener.onCompleted(completed.getCompletionTokens(), completed.getPromptTokens(), completed.getCacheTokens());
+            return new ChatResult(content.toString(), completed.getModelKey(), completed.getPromptTokens(),
+                    completed.getCompletionTokens(), completed.getCacheTokens());
+        } finally {
+            call.detach(previous);
+            call.cancel(null);
         }
-        if (completed == null) throw new IllegalStateException("ai-service stream ended without COMPLETED event");
-        listener.onCompleted(completed.getCompletionTokens(), completed.getPromptTokens(), completed.getCacheTokens());
-        return new ChatResult(content.toString(), completed.getModelKey(), completed.getPromptTokens(),
-                completed.getCompletionTokens(), completed.getCacheTokens());
     }
 
     private ChatCompletionsRequest buildChatRequest(String requestId,
@@ -172,7 +220,32 @@ public class AiGatewayGrpcClient {
         return builder.build();
     }
 
-    public EmbeddingResult embeddings(long remoteUserId, String model, List<String> input, boolean normalize) {
+    /**
+     * Rough prompt size for billing a call cancelled before its usage is reported: one token per Han
+     * character, one per four other non-space characters, and a few per message for the chat framing.
+     * Cache hits are unknown at that point, so the whole prompt counts as uncached.
+     */
+    static long estimatePromptTokens(ChatCompletionsRequest request) {
+        long tokens = 0;
+        for (ChatMessage message : request.getMessagesList()) {
+            long han = 0;
+            long other = 0;
+            String text = message.getContent();
+            for (int i = 0; i < text.length(); ) {
+                int codePoint = text.codePointAt(i);
+                i += Character.charCount(codePoint);
+                if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+                    han++;
+                } else if (!Character.isWhitespace(codePoint)) {
+                    other++;
+                }
+            }
+            tokens += MESSAGE_OVERHEAD_TOKENS + han + (other + 3) / 4;
+        }
+        return tokens;
+    }
+
+    private EmbeddingResult doEmbeddings(long remoteUserId, String model, List<String> input, boolean normalize) {
         AiGatewayServiceGrpc.AiGatewayServiceBlockingStub stub = stub();
         EmbeddingsRequest.Builder builder = EmbeddingsRequest.newBuilder()
                 .setRequestId(UUID.randomUUID().toString())
@@ -201,11 +274,28 @@ public class AiGatewayGrpcClient {
         return new EmbeddingResult(response.getModelKey(), response.getDimensions(), vectors, response.getPromptTokens());
     }
 
+    /** Waits up to the call timeout for an in-flight slot, then runs {@code call} holding it. */
+    private <T> T limited(Supplier<T> call) {
+        try {
+            if (!inFlight.tryAcquire(timeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("ai-service in-flight limit reached");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an ai-service slot", ex);
+        }
+        try {
+            return call.get();
+        } finally {
+            inFlight.release();
+        }
+    }
+
     private AiGatewayServiceGrpc.AiGatewayServiceBlockingStub stub() {
         return getOrCreateClient().stub();
     }
 
-    private synchronized EndpointClient getOrCreateClient() {
+    private EndpointClient getOrCreateClient() {
         return endpointManager.getOrCreate((endpoint, channel) -> new EndpointClient(
                 endpoint.host(),
                 endpoint.port(),
@@ -219,7 +309,7 @@ public class AiGatewayGrpcClient {
     }
 
     @PreDestroy
-    public synchronized void shutdown() {
+    public void shutdown() {
         endpointManager.shutdown();
     }
 
@@ -228,7 +318,15 @@ public class AiGatewayGrpcClient {
 
     public interface StreamProgressListener {
         default void onStarted(String requestId, String modelKey) {}
+        /** Text of one CONTENT_DELTA, delivered just before {@link #onDelta} for the same event. */
+        default void onContent(String delta) {}
         void onDelta(long outputTokens, boolean estimated);
+        /**
+         * Checked after each content delta; returning true cancels the call and returns the content received
+         * so far, billed by the output tokens reported up to that point plus the prompt, estimated before the
+         * call when the gateway has not reported it.
+         */
+        default boolean stopRequested() { return false; }
         default void onCompleted(long completionTokens, long promptTokens, long cacheTokens) {}
     }
 
@@ -52,7 +52,8 @@ public class BillingGrpcClient {
         this.endpointManager = new GrpcEndpointManager<>(
                 properties.getPayserviceGrpc(),
                 "payservice-grpc",
-                channelFactory
+                channelFactory,
+                properties.getGrpc()
         );
     }
 
@@ -294,7 +295,7 @@ public class BillingGrpcClient {
         return getOrCreateClient();
     }
 
-    private synchronized EndpointClient getOrCreateClient() {
+    private EndpointClient getOrCreateClient() {
         Metadata metadata = new Metadata();
         metadata.put(Metadata.Key.of("authorization", Metadata.ASCII_STRING_MARSHALLER), bearerToken());
         return endpointManager.getOrCreate((endpoint, channel) -> new EndpointClient(
@@ -332,7 +333,7 @@ public class BillingGrpcClient {
     }
 
     @PreDestroy
-    public synchronized void shutdown() {
+    public void shutdown() {
         endpointManager.shutdown();
     }
 
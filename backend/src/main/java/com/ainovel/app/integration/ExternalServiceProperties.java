@@ -9,6 +9,7 @@ public class ExternalServiceProperties {
 
     private String projectKey = "ainovel";
     private long timeoutMs = 2500;
+    private int aiMaxInFlight = 64;
     private final Grpc grpc = new Grpc();
     private final Security security = new Security();
     private final ServiceTarget userserviceHttp = new ServiceTarget();
@@ -37,6 +38,14 @@ public class ExternalServiceProperties {
         this.timeoutMs = timeoutMs;
     }
 
+    public int getAiMaxInFlight() {
+        return aiMaxInFlight;
+    }
+
+    public void setAiMaxInFlight(int aiMaxInFlight) {
+        this.aiMaxInFlight = aiMaxInFlight;
+    }
+
     public Grpc getGrpc() {
         return grpc;
     }
@@ -72,6 +81,8 @@ public class ExternalServiceProperties {
     public static class Grpc {
         private boolean tlsEnabled = true;
         private boolean plaintextEnabled = false;
+        private int channelsPerEndpoint = 2;
+        private long endpointRefreshMs = 5000;
 
         public boolean isTlsEnabled() {
             return tlsEnabled;
@@ -88,6 +99,22 @@ public class ExternalServiceProperties {
         public void setPlaintextEnabled(boolean plaintextEnabled) {
             this.plaintextEnabled = plaintextEnabled;
         }
+
+        public int getChannelsPerEndpoint() {
+            return channelsPerEndpoint;
+        }
+
+        public void setChannelsPerEndpoint(int channelsPerEndpoint) {
+            this.channelsPerEndpoint = channelsPerEndpoint;
+        }
+
+        public long getEndpointRefreshMs() {
+            return endpointRefreshMs;
+        }
+
+        public void setEndpointRefreshMs(long endpointRefreshMs) {
+            this.endpointRefreshMs = endpointRefreshMs;
+        }
     }
 
     public static class Security {
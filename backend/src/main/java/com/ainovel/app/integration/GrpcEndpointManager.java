@@ -1,65 +1,205 @@
 package com.ainovel.app.integration;
 
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free holder of the clients for one remote gRPC service. The endpoint is resolved once up front and
+ * then re-resolved in the background every {@code app.external.grpc.endpoint-refresh-ms}; each endpoint gets
+ * a pool of {@code app.external.grpc.channels-per-endpoint} channels, handed out round-robin while skipping
+ * channels whose connectivity state is {@code TRANSIENT_FAILURE} or {@code SHUTDOWN}.
+ *
+ * <p>When the endpoint changes, racing callers may each build a pool; one wins the swap and the others close
+ * theirs. Channels connect lazily, so a discarded pool costs no connections.
+ */
+public final class GrpcEndpointManager<T extends GrpcEndpointManager.ManagedClient> {
+    private static final Logger log = LoggerFactory.getLogger(GrpcEndpointManager.class);
 
-final class GrpcEndpointManager<T extends GrpcEndpointManager.ManagedClient> {
-    private final ExternalServiceProperties.ServiceTarget target;
     private final String targetName;
+    private final Supplier<Optional<ConsulServiceResolver.Endpoint>> resolver;
     private final GrpcChannelFactory channelFactory;
+    private final int channelsPerEndpoint;
+    private final long refreshNanos;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
 
-    private volatile T client;
+    private final AtomicReference<Resolution> resolution = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicReference<Pool<T>> pool = new AtomicReference<>();
+    private final AtomicInteger cursor = new AtomicInteger();
 
     GrpcEndpointManager(ExternalServiceProperties.ServiceTarget target,
                         String targetName,
-                        GrpcChannelFactory channelFactory) {
-        this.target = target;
+                        GrpcChannelFactory channelFactory,
+                        ExternalServiceProperties.Grpc settings) {
+        this(targetName, () -> ConsulServiceResolver.parseAddress(target.getAddress()), channelFactory, settings);
+    }
+
+    public GrpcEndpointManager(String targetName,
+                               Supplier<Optional<ConsulServiceResolver.Endpoint>> resolver,
+                               GrpcChannelFactory channelFactory,
+                               ExternalServiceProperties.Grpc settings) {
+        this(targetName, resolver, channelFactory, settings.getChannelsPerEndpoint(), settings.getEndpointRefreshMs(),
+                command -> Thread.ofVirtual().name(targetName + "-resolve").start(command), System::nanoTime);
+    }
+
+    GrpcEndpointManager(String targetName,
+                        Supplier<Optional<ConsulServiceResolver.Endpoint>> resolver,
+                        GrpcChannelFactory channelFactory,
+                        int channelsPerEndpoint,
+                        long refreshIntervalMs,
+                        Executor refreshExecutor,
+                        LongSupplier nanoClock) {
         this.targetName = targetName;
+        this.resolver = resolver;
         this.channelFactory = channelFactory;
+        this.channelsPerEndpoint = Math.max(1, channelsPerEndpoint);
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, refreshIntervalMs));
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
     }
 
-    synchronized T getOrCreate(ClientFactory<T> clientFactory) {
-        ConsulServiceResolver.Endpoint endpoint = ConsulServiceResolver.parseAddress(target.getAddress())
-                .orElseThrow(() -> new IllegalStateException("No endpoint for " + targetName));
-        T existing = client;
-        if (existing != null && existing.sameEndpoint(endpoint.host(), endpoint.port())) {
-            return existing;
+    /** A client on the current endpoint, building the channel pool with {@code clientFactory} when needed. */
+    public T getOrCreate(ClientFactory<T> clientFactory) {
+        while (true) {
+            ConsulServiceResolver.Endpoint endpoint = currentEndpoint();
+            Pool<T> current = pool.get();
+            if (current != null && current.endpoint().equals(endpoint)) {
+                return current.pick(cursor.getAndIncrement());
+            }
+            Pool<T> next = createPool(endpoint, clientFactory);
+            if (pool.compareAndSet(current, next)) {
+                if (current != null) {
+                    current.close();
+                }
+                return next.pick(cursor.getAndIncrement());
+            }
+            next.close();
+        }
+    }
+
+    public void shutdown() {
+        Pool<T> current = pool.getAndSet(null);
+        if (current != null) {
+            current.close();
         }
+    }
 
-        ManagedChannel channel = channelFactory.create(endpoint.host(), endpoint.port());
-        try {
-            T next = clientFactory.create(endpoint, channel);
-            if (existing != null) {
-                existing.close();
+    private ConsulServiceResolver.Endpoint currentEndpoint() {
+        Resolution current = resolution.get();
+        if (current == null) {
+            return resolve().endpoint();
+        }
+        if (nanoClock.getAsLong() - current.resolvedAtNanos() >= refreshNanos && refreshing.compareAndSet(false, true)) {
+            try {
+                refreshExecutor.execute(this::refresh);
+            } catch (RejectedExecutionException ex) {
+                refreshing.set(false);
             }
-            client = next;
-            return next;
-        } catch (RuntimeException | Error ex) {
-            channel.shutdownNow();
-            throw ex;
+            // Picks up the new endpoint right away when the executor ran the refresh inline.
+            current = resolution.get();
         }
+        return current.endpoint();
     }
 
-    synchronized void shutdown() {
-        if (client != null) {
-            client.close();
-            client = null;
+    private void refresh() {
+        try {
+            resolve();
+        } catch (RuntimeException ex) {
+            Resolution previous = resolution.get();
+            log.warn("Re-resolve {} failed, keeping {}:{} -> {}", targetName,
+                    previous.endpoint().host(), previous.endpoint().port(), ex.getMessage());
+            resolution.set(new Resolution(previous.endpoint(), nanoClock.getAsLong()));
+        } finally {
+            refreshing.set(false);
         }
     }
 
-    interface ManagedClient {
+    private Resolution resolve() {
+        ConsulServiceResolver.Endpoint endpoint = resolver.get()
+                .orElseThrow(() -> new IllegalStateException("No endpoint for " + targetName));
+        Resolution next = new Resolution(endpoint, nanoClock.getAsLong());
+        resolution.set(next);
+        return next;
+    }
+
+    private Pool<T> createPool(ConsulServiceResolver.Endpoint endpoint, ClientFactory<T> clientFactory) {
+        List<T> clients = new ArrayList<>(channelsPerEndpoint);
+        try {
+            for (int i = 0; i < channelsPerEndpoint; i++) {
+                ManagedChannel channel = channelFactory.create(endpoint.host(), endpoint.port());
+                try {
+                    clients.add(clientFactory.create(endpoint, channel));
+                } catch (RuntimeException | Error ex) {
+                    channel.shutdownNow();
+                    throw ex;
+                }
+            }
+        } catch (RuntimeException | Error ex) {
+            clients.forEach(ManagedClient::close);
+            throw ex;
+        }
+        return new Pool<>(endpoint, List.copyOf(clients));
+    }
+
+    public interface ManagedClient {
         String host();
 
         int port();
 
+        ManagedChannel channel();
+
         void close();
 
         default boolean sameEndpoint(String targetHost, int targetPort) {
             return host().equals(targetHost) && port() == targetPort;
         }
+
+        /** False while the channel is known to be failing; a channel that has not connected yet counts as healthy. */
+        default boolean isHealthy() {
+            ConnectivityState state = channel().getState(false);
+            return state != ConnectivityState.TRANSIENT_FAILURE && state != ConnectivityState.SHUTDOWN;
+        }
     }
 
     @FunctionalInterface
-    interface ClientFactory<T extends ManagedClient> {
+    public interface ClientFactory<T extends ManagedClient> {
         T create(ConsulServiceResolver.Endpoint endpoint, ManagedChannel channel);
     }
+
+    private record Resolution(ConsulServiceResolver.Endpoint endpoint, long resolvedAtNanos) {
+    }
+
+    private record Pool<T extends ManagedClient>(ConsulServiceResolver.Endpoint endpoint, List<T> clients) {
+        T pick(int ticket) {
+            int size = clients.size();
+            int start = Math.floorMod(ticket, size);
+            for (int i = 0; i < size; i++) {
+                T client = clients.get((start + i) % size);
+                if (client.isHealthy()) {
+                    return client;
+                }
+            }
+            // Nothing healthy: let the call fail (or wait for reconnect) on the channel whose turn it is.
+            return clients.get(start);
+        }
+
+        void close() {
+            clients.forEach(ManagedClient::close);
+        }
+    }
 }
@@ -48,7 +48,7 @@ public class ManuscriptController {
     }
 
     @PutMapping("/manuscripts/{id}/sections/{sceneId}")
-    @Operation(summary = "保存场景正文（指定稿件）", description = "更新指定稿件中场景对应的正文内容。")
+    @Operation(summary = "保存场景正文（指定稿件）", description = "更新指定稿件中场景对应的正文内容。响应的 sections 仅包含本次保存的场景。")
     public ManuscriptDto saveSectionForManuscript(@PathVariable UUID id, @PathVariable UUID sceneId, @RequestBody SectionUpdateRequest request) {
         return manuscriptService.updateSection(id, sceneId, request);
     }
@@ -58,7 +58,7 @@ public class ManuscriptController {
     public ManuscriptDto generateScene(@PathVariable UUID sceneId) { return manuscriptService.generateForScene(sceneId); }
 
     @PutMapping("/manuscript/sections/{sectionId}")
-    @Operation(summary = "保存场景正文（兼容路径）", description = "兼容旧路径，自动选择当前稿件更新正文。")
+    @Operation(summary = "保存场景正文（兼容路径）", description = "兼容旧路径，自动选择当前稿件更新正文。响应的 sections 仅包含本次保存的场景。")
     public ManuscriptDto saveSection(@PathVariable UUID sectionId, @RequestBody SectionUpdateRequest request) { return manuscriptService.updateSection(sectionId, request); }
 
     @PostMapping("/manuscripts/{id}/sections/analyze-character-changes")
@@ -0,0 +1,194 @@
+package com.ainovel.app.manuscript;
+
+import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.model.ManuscriptSection;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+/**
+ * Per-scene manuscript body storage. Each scene lives in its own {@code manuscript_sections}
+ * row, so saving one scene writes only that scene. {@link Manuscript#getSectionsJson()} is
+ * read as a legacy fallback for manuscripts that have not been backfilled yet; rows always
+ * win over the legacy blob.
+ */
+@Component
+public class ManuscriptSectionStore {
+    private static final int ORDERED_READ_BATCH = 32;
+
+    private final ManuscriptSectionRepository sectionRepository;
+    private final JsonColumnCodec jsonColumnCodec;
+
+    public ManuscriptSectionStore(ManuscriptSectionRepository sectionRepository, JsonColumnCodec jsonColumnCodec) {
+        this.sectionRepository = sectionRepository;
+        this.jsonColumnCodec = jsonColumnCodec;
+    }
+
+    public String read(Manuscript manuscript, String sceneId) {
+        if (sceneId == null) {
+            return null;
+        }
+        return sectionRepository.findByManuscriptIdAndSceneId(manuscript.getId(), sceneId)
+                .map(ManuscriptSection::getContent)
+                .orElseGet(() -> legacySections(manuscript).get(sceneId));
+    }
+
+    /**
+     * Returns every scene body keyed by scene id, sorted by key so serialized snapshots are
+     * stable across calls.
+     */
+    public Map<String, String> readAll(Manuscript manuscript) {
+        Map<String, String> sections = new TreeMap<>(legacySections(manuscript));
+        for (ManuscriptSection section : sectionRepository.findByManuscriptId(manuscript.getId())) {
+            sections.put(section.getSceneId(), section.getContent());
+        }
+        return sections;
+    }
+
+    /** Ids of every stored scene, sorted like {@link #readAll}, without loading any body. */
+    public List<String> sceneIds(Manuscript manuscript) {
+        TreeSet<String> ids = new TreeSet<>(legacySections(manuscript).keySet());
+        ids.addAll(sectionRepository.findSceneIdsByManuscriptId(manuscript.getId()));
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Visits scene bodies in the given outline order, loading rows in small batches so the
+     * whole book is never held at once. Scenes without a body are skipped.
+     */
+    public void forEachInOrder(Manuscript manuscript, List<String> orderedSceneIds, BiConsumer<String, String> consumer) {
+        if (orderedSceneIds == null || orderedSceneIds.isEmpty()) {
+            return;
+        }
+        Map<String, String> legacy = legacySections(manuscript);
+        for (int start = 0; start < orderedSceneIds.size(); start += ORDERED_READ_BATCH) {
+            List<String> batch = orderedSceneIds.subList(start, Math.min(orderedSceneIds.size(), start + ORDERED_READ_BATCH));
+            Map<String, String> loaded = new HashMap<>();
+            for (ManuscriptSection section : sectionRepository.findByManuscriptIdAndSceneIdIn(manuscript.getId(), batch)) {
+                loaded.put(section.getSceneId(), section.getContent());
+            }
+            for (String sceneId : batch) {
+                String content = loaded.containsKey(sceneId) ? loaded.get(sceneId) : legacy.get(sceneId);
+                if (content != null) {
+                    consumer.accept(sceneId, content);
+                }
+            }
+        }
+    }
+
+    /**
+     * A revision per stored scene that changes whenever its body does, read without loading any body
+     * row: the row's lock version and update time, or for a scene only in the legacy blob its text,
+     * which is already in memory.
+     */
+    public Map<String, String> sceneRevisions(Manuscript manuscript) {
+        Map<String, String> revisions = new HashMap<>();
+        legacySections(manuscript).forEach((sceneId, body) -> revisions.put(sceneId, "legacy:" + body));
+        for (ManuscriptSectionRepository.SceneRevision row : sectionRepository.findRevisionsByManuscriptId(manuscript.getId())) {
+            revisions.put(row.getSceneId(), row.getLockVersion() + "@" + row.getUpdatedAt());
+        }
+        return revisions;
+    }
+
+    /** The lock version of a stored scene, or {@code null} when the scene has no row yet. */
+    public Long lockVersion(Manuscript manuscript, String sceneId) {
+        return sectionRepository.findByManuscriptIdAndSceneId(manuscript.getId(), sceneId)
+                .map(ManuscriptSection::getLockVersion)
+                .orElse(null);
+    }
+
+    /**
+     * Writes a scene body that was computed from an earlier read, provided the scene is still at
+     * {@code expectedLockVersion} ({@code null}: still has no row). A scene saved in between fails
+     * with {@link OptimisticLockingFailureException} instead of being overwritten; a save racing this
+     * write is caught by the version check on update.
+     */
+    public ManuscriptSection writeIfUnchanged(Manuscript manuscript, String sceneId, String content, Long expectedLockVersion) {
+        Optional<ManuscriptSection> existing = sectionRepository.findByManuscriptIdAndSceneId(manuscript.getId(), sceneId);
+        Long current = existing.map(ManuscriptSection::getLockVersion).orElse(null);
+        if (!Objects.equals(current, expectedLockVersion)) {
+            throw new OptimisticLockingFailureException("Scene " + sceneId + " of manuscript " + manuscript.getId()
+                    + " changed from version " + expectedLockVersion + " to " + current);
+        }
+        return save(existing.orElseGet(() -> newSection(manuscript, sceneId)), content);
+    }
+
+    public ManuscriptSection write(Manuscript manuscript, String sceneId, String content) {
+        ManuscriptSection section = sectionRepository.findByManuscriptIdAndSceneId(manuscript.getId(), sceneId)
+                .orElseGet(() -> newSection(manuscript, sceneId));
+        return save(section, content);
+    }
+
+    private ManuscriptSection newSection(Manuscript manuscript, String sceneId) {
+        ManuscriptSection created = new ManuscriptSection();
+        created.setManuscriptId(manuscript.getId());
+        created.setSceneId(sceneId);
+        return created;
+    }
+
+    private ManuscriptSection save(ManuscriptSection section, String content) {
+        section.setContent(content);
+        return sectionRepository.save(section);
+    }
+
+    /**
+     * Makes the stored scenes exactly match {@code sections}: changed scenes are rewritten,
+     * missing scenes are deleted and the legacy blob is cleared. Used by whole-book operations
+     * such as version rollback, branch checkout and merge. The caller persists the manuscript.
+     */
+    public void replaceAll(Manuscript manuscript, Map<String, String> sections) {
+        Map<String, String> target = sections == null ? Map.of() : sections;
+        Map<String, String> legacy = legacySections(manuscript);
+        Map<String, ManuscriptSection> existing = new HashMap<>();
+        List<ManuscriptSection> removed = new ArrayList<>();
+        for (ManuscriptSection section : sectionRepository.findByManuscriptId(manuscript.getId())) {
+            if (target.containsKey(section.getSceneId())) {
+                existing.put(section.getSceneId(), section);
+            } else {
+                removed.add(section);
+            }
+        }
+        if (!removed.isEmpty()) {
+            sectionRepository.deleteAll(removed);
+        }
+        List<ManuscriptSection> changed = new ArrayList<>();
+        for (Map.Entry<String, String> entry : target.entrySet()) {
+            ManuscriptSection section = existing.get(entry.getKey());
+            if (section == null) {
+                section = new ManuscriptSection();
+                section.setManuscriptId(manuscript.getId());
+                section.setSceneId(entry.getKey());
+            } else if (Objects.equals(section.getContent(), entry.getValue())) {
+                continue;
+            }
+            section.setContent(entry.getValue());
+            changed.add(section);
+        }
+        if (!changed.isEmpty()) {
+            sectionRepository.saveAll(changed);
+        }
+        if (!legacy.isEmpty()) {
+            manuscript.setSectionsJson(null);
+        }
+    }
+
+    private Map<String, String> legacySections(Manuscript manuscript) {
+        String json = manuscript.getSectionsJson();
+        if (json == null || json.isBlank() || "{}".equals(json.trim())) {
+            return Map.of();
+        }
+        return jsonColumnCodec.read(json, new TypeReference<Map<String, String>>() {}, Map.of());
+    }
+}
@@ -5,15 +5,20 @@ import com.ainovel.app.common.JsonColumnCodec;
 import com.ainovel.app.common.RefineRequest;
 import com.ainovel.app.manuscript.dto.*;
 import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.model.ManuscriptSection;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
+import com.ainovel.app.metrics.StageLatencyMetrics;
 import com.ainovel.app.security.ResourceAccessGuard;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.repo.OutlineRepository;
 import com.ainovel.app.user.User;
 import com.fasterxml.jackson.core.type.TypeReference;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -34,6 +39,14 @@ public class ManuscriptService {
     private JsonColumnCodec jsonColumnCodec;
     @Autowired
     private SceneGenerationService sceneGenerationService;
+    @Autowired
+    private ManuscriptSectionStore sectionStore;
+    @Autowired
+    private ScenePlotQualitySupport scenePlotQualitySupport;
+    @Autowired
+    private StageLatencyMetrics stageLatencyMetrics;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
     public List<ManuscriptDto> listByOutline(UUID outlineId) {
         Outline outline = outlineRepository.findByIdWithStoryUser(outlineId).orElseThrow(() -> new BusinessException("大纲不存在"));
@@ -49,7 +62,6 @@ public class ManuscriptService {
         manuscript.setOutline(outline);
         manuscript.setTitle(request.title());
         manuscript.setWorldId(request.worldId());
-        manuscript.setSectionsJson(writeJson(new HashMap<String, String>()));
         manuscript.setCharacterLogsJson(writeJson(new ArrayList<>()));
         manuscriptRepository.save(manuscript);
         return toDto(manuscript);
@@ -68,42 +80,69 @@ public class ManuscriptService {
         manuscriptRepository.delete(manuscript);
     }
 
-    @Transactional
     public ManuscriptDto generateForScene(UUID manuscriptId, UUID sceneId) {
         return generateForScene(manuscriptId, sceneId, GenerationMode.FAST);
     }
 
-    @Transactional
+    /**
+     * Not transactional: the manuscript and the previous scenes the prompt uses are read in one short
+     * transaction, the model calls run without one, and the scene is written in another short transaction
+     * that refuses to overwrite a scene saved in the meantime. No pooled connection is held, and no other
+     * scene body is kept in memory, while the model is generating.
+     */
     public ManuscriptDto generateForScene(UUID manuscriptId, UUID sceneId, GenerationMode mode) {
-        Manuscript manuscript = manuscriptRepository.findWithStoryById(manuscriptId).orElseThrow(() -> new BusinessException("稿件不存在"));
-        accessGuard.assertOwner(ownerOf(manuscript));
-        Map<String, String> sections = readSectionMap(manuscript.getSectionsJson());
-        String generatedHtml = sceneGenerationService.generateSceneSectionHtml(manuscript, sceneId, sections, mode);
-        sections.put(sceneId.toString(), generatedHtml);
-        manuscript.setSectionsJson(writeJson(sections));
-        manuscriptRepository.save(manuscript);
-        return toDto(manuscript);
+        return stageLatencyMetrics.time(StageLatencyMetrics.SCENE_GENERATION, () -> {
+            String sceneKey = sceneId.toString();
+            SceneGenerationInput input = transaction(true).execute(status -> {
+                Manuscript manuscript = manuscriptRepository.findWithStoryById(manuscriptId)
+                        .orElseThrow(() -> new BusinessException("稿件不存在"));
+                accessGuard.assertOwner(ownerOf(manuscript));
+                return new SceneGenerationInput(manuscript,
+                        sceneGenerationService.previousSections(manuscript, sceneId),
+                        sectionStore.lockVersion(manuscript, sceneKey));
+            });
+            Manuscript manuscript = input.manuscript();
+            String generatedHtml = sceneGenerationService.generateSceneSectionHtml(manuscript, sceneId, input.previousSections(), mode);
+            try {
+                return transaction(false).execute(status -> {
+                    sectionStore.writeIfUnchanged(manuscript, sceneKey, generatedHtml, input.sceneLockVersion());
+                    scenePlotQualitySupport.queuePlotQuality(ownerOf(manuscript), manuscript, sceneId);
+                    return toDto(manuscript);
+                });
+            } catch (OptimisticLockingFailureException ex) {
+                throw new BusinessException("场景正文在生成期间已被修改，本次生成结果未保存，请重新生成", ex);
+            }
+        });
     }
 
+    private record SceneGenerationInput(Manuscript manuscript, Map<String, String> previousSections,
+                                        Long sceneLockVersion) {
+    }
+
+    /**
+     * Saves one scene. The returned DTO carries only the saved scene in {@code sections}, so an
+     * autosave never reads the other scene bodies of the book. The section row lives in its own
+     * table, so the manuscript's {@code updatedAt} is bumped explicitly.
+     */
     @Transactional
     public ManuscriptDto updateSection(UUID manuscriptId, UUID sceneId, SectionUpdateRequest request) {
         Manuscript manuscript = manuscriptRepository.findWithStoryById(manuscriptId).orElseThrow(() -> new BusinessException("稿件不存在"));
         accessGuard.assertOwner(ownerOf(manuscript));
-        Map<String, String> sections = readSectionMap(manuscript.getSectionsJson());
-        sections.put(sceneId.toString(), request.content());
-        manuscript.setSectionsJson(writeJson(sections));
-        manuscriptRepository.saveAndFlush(manuscript);
-        Manuscript persisted = manuscriptRepository.findWithStoryById(manuscript.getId()).orElse(manuscript);
-        return toDto(persisted);
+        ManuscriptSection saved = sectionStore.write(manuscript, sceneId.toString(), request.content());
+        manuscript.setUpdatedAt(Instant.now());
+        manuscriptRepository.save(manuscript);
+        Map<String, String> sections = new HashMap<>();
+        sections.put(saved.getSceneId(), saved.getContent());
+        return toDto(manuscript, sections);
     }
 
-    @Transactional
     public ManuscriptDto generateForScene(UUID sceneId) {
-        Manuscript manuscript = manuscriptRepository.findAll().stream()
+        UUID manuscriptId = transaction(true).execute(status -> manuscriptRepository.findAll().stream()
                 .filter(m -> isCurrentUserOwner(ownerOf(m)))
                 .findFirst()
-                .orElseThrow(() -> new BusinessException("请先创建稿件"));
-        return generateForScene(manuscript.getId(), sceneId, GenerationMode.FAST);
+                .map(Manuscript::getId)
+                .orElseThrow(() -> new BusinessException("请先创建稿件")));
+        return generateForScene(manuscriptId, sceneId, GenerationMode.FAST);
     }
 
     @Transactional
@@ -154,20 +193,20 @@ public class ManuscriptService {
     }
 
     private ManuscriptDto toDto(Manuscript manuscript) {
+        return toDto(manuscript, sectionStore.readAll(manuscript));
+    }
+
+    private ManuscriptDto toDto(Manuscript manuscript, Map<String, String> sections) {
         return new ManuscriptDto(
                 manuscript.getId(),
                 manuscript.getOutline().getId(),
                 manuscript.getTitle(),
                 manuscript.getWorldId(),
-                readSectionMap(manuscript.getSectionsJson()),
+                sections,
                 manuscript.getUpdatedAt()
         );
     }
 
-    private Map<String, String> readSectionMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, new HashMap<>());
-    }
-
     private List<Map<String, Object>> readLogs(String json) {
         return jsonColumnCodec.read(json, new TypeReference<>() {}, new ArrayList<>());
     }
@@ -192,6 +231,12 @@ public class ManuscriptService {
         return jsonColumnCodec.write(obj, "{}");
     }
 
+    private TransactionTemplate transaction(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        return template;
+    }
+
     private User ownerOf(Manuscript manuscript) {
         return manuscript.getOutline().getStory().getUser();
     }
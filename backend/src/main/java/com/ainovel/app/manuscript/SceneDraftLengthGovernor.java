@@ -0,0 +1,115 @@
+package com.ainovel.app.manuscript;
+
+import com.ainovel.app.ai.AiProgressContext;
+
+import java.util.List;
+
+/**
+ * Counts Han characters of a streamed scene draft as it arrives and stops the call as soon as the length
+ * outcome is settled: past {@code maxHan + toleranceHan} everything further would be trimmed anyway, and a
+ * draft that writes an end marker below {@code minHan} is going to be retried. Drafts wrapped in JSON or a code
+ * fence are left alone, since cutting them would break the unwrapping in normalization.
+ *
+ * <p>"Too short" is only decided early on an explicit end marker such as "（完）" or "本章完" at the end of
+ * the text so far. A short draft that simply stops streaming is not cut; it runs to COMPLETED and is
+ * caught by the caller's length check, at the cost of that one finished call.
+ */
+final class SceneDraftLengthGovernor implements AiProgressContext.ContentObserver {
+    private static final List<String> END_MARKERS = List.of("（完）", "(完)", "【完】", "全文完", "本章完", "本节完");
+
+    enum Outcome { RUNNING, TOO_LONG, TOO_SHORT }
+
+    private final int minHan;
+    private final int maxHan;
+    private final int stopAtHan;
+    private final StringBuilder text = new StringBuilder();
+    private int hanCount;
+    private int boundaryIndex = -1;
+    private int boundaryHan;
+    private char pendingHighSurrogate;
+    private boolean openingSeen;
+    private boolean wrapped;
+    private Outcome outcome = Outcome.RUNNING;
+
+    SceneDraftLengthGovernor(int minHan, int maxHan, int toleranceHan) {
+        this.minHan = minHan;
+        this.maxHan = maxHan;
+        this.stopAtHan = maxHan + Math.max(0, toleranceHan);
+    }
+
+    @Override
+    public void onContent(String delta) {
+        if (outcome != Outcome.RUNNING || wrapped || delta == null) {
+            return;
+        }
+        for (int i = 0; i < delta.length(); i++) {
+            char c = delta.charAt(i);
+            text.append(c);
+            if (!openingSeen && !Character.isWhitespace(c)) {
+                openingSeen = true;
+                wrapped = c == '{' || c == '`';
+            }
+            if (Character.isHighSurrogate(c)) {
+                pendingHighSurrogate = c;
+                continue;
+            }
+            int codePoint = Character.isLowSurrogate(c) && pendingHighSurrogate != 0
+                    ? Character.toCodePoint(pendingHighSurrogate, c) : c;
+            pendingHighSurrogate = 0;
+            if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+                hanCount++;
+            } else if (c == '\n' && hanCount <= maxHan) {
+                boundaryIndex = text.length() - 1;
+                boundaryHan = hanCount;
+            }
+        }
+        if (wrapped) {
+            return;
+        }
+        if (hanCount >= stopAtHan) {
+            outcome = Outcome.TOO_LONG;
+        } else if (hanCount < minHan && endsWithMarker()) {
+            outcome = Outcome.TOO_SHORT;
+        }
+    }
+
+    @Override
+    public boolean stopRequested() {
+        return outcome != Outcome.RUNNING;
+    }
+
+    Outcome outcome() {
+        return outcome;
+    }
+
+    int hanCount() {
+        return hanCount;
+    }
+
+    /**
+     * The draft to keep from {@code content}: for a draft stopped as too long, everything up to the last
+     * paragraph break within {@code maxHan}, provided that still reaches {@code minHan}. Otherwise the
+     * content unchanged, for the caller's character-level trim.
+     */
+    String cut(String content) {
+        if (outcome != Outcome.TOO_LONG || boundaryIndex < 0 || boundaryHan < minHan
+                || content == null || !content.startsWith(text.substring(0, boundaryIndex))) {
+            return content;
+        }
+        return content.substring(0, boundaryIndex);
+    }
+
+    private boolean endsWithMarker() {
+        int end = text.length();
+        while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        for (String marker : END_MARKERS) {
+            int start = end - marker.length();
+            if (start >= 0 && text.indexOf(marker, start) == start) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
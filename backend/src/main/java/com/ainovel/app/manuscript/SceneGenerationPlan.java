@@ -0,0 +1,81 @@
+package com.ainovel.app.manuscript;
+
+import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.prompt.PromptReference;
+import com.ainovel.app.story.model.Story;
+import com.ainovel.app.user.User;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Inputs of one scene generation that stay the same across its attempts: the outline scene, character,
+ * previous-scene and style context, and the material retrieval result. Built once per generation (once per
+ * evaluation pair) and shared read-only by every prompt and quality request built from it.
+ */
+final class SceneGenerationPlan {
+    private final Manuscript manuscript;
+    private final Story story;
+    private final User owner;
+    private final SceneGenerationContext scene;
+    private final String characterContext;
+    private final String previousContext;
+    private final String styleContext;
+    private final List<PromptReference> materialReferences;
+    private final AtomicInteger promptsBuilt = new AtomicInteger();
+
+    SceneGenerationPlan(Manuscript manuscript,
+                        Story story,
+                        User owner,
+                        SceneGenerationContext scene,
+                        String characterContext,
+                        String previousContext,
+                        String styleContext,
+                        List<PromptReference> materialReferences) {
+        this.manuscript = manuscript;
+        this.story = story;
+        this.owner = owner;
+        this.scene = scene;
+        this.characterContext = characterContext;
+        this.previousContext = previousContext;
+        this.styleContext = styleContext;
+        this.materialReferences = List.copyOf(materialReferences);
+    }
+
+    Manuscript manuscript() {
+        return manuscript;
+    }
+
+    Story story() {
+        return story;
+    }
+
+    User owner() {
+        return owner;
+    }
+
+    SceneGenerationContext scene() {
+        return scene;
+    }
+
+    String characterContext() {
+        return characterContext;
+    }
+
+    String previousContext() {
+        return previousContext;
+    }
+
+    String styleContext() {
+        return styleContext;
+    }
+
+    List<PromptReference> materialReferences() {
+        return materialReferences;
+    }
+
+    /** Counts a prompt built from this plan; true for every prompt after the first, which reuses the retrieval. */
+    boolean reusedForPrompt() {
+        return promptsBuilt.getAndIncrement() > 0;
+    }
+}
@@ -26,32 +26,13 @@ public class SceneGenerationPromptBuilder {
     @Autowired
     private SlopPatternSamplingService slopPatternSamplingService;
 
-    public AssembledPrompt build(User owner,
-                                 Story story,
-                                 SceneGenerationContext scene,
-                                 String characterContext,
-                                 String previousContext,
-                                 String previousDraft,
-                                 int previousCount,
-                                 int attempt,
-                                 int minSectionHan,
-                                 int maxSectionHan) {
-        return build(owner, story, scene, characterContext, previousContext,
-                previousDraft, previousCount, attempt, minSectionHan, maxSectionHan,
-                GenerationMode.FAST);
-    }
-
-    public AssembledPrompt build(User owner,
-                                 Story story,
-                                 SceneGenerationContext scene,
-                                 String characterContext,
-                                 String previousContext,
-                                 String previousDraft,
-                                 int previousCount,
-                                 int attempt,
-                                 int minSectionHan,
-                                 int maxSectionHan,
-                                 GenerationMode mode) {
+    AssembledPrompt build(SceneGenerationPlan plan,
+                          String previousDraft,
+                          int previousCount,
+                          int attempt,
+                          int minSectionHan,
+                          int maxSectionHan,
+                          GenerationMode mode) {
         String retryInstruction = "";
         if (attempt > 1) {
             String direction = previousCount < minSectionHan ? "扩写" : "压缩";
@@ -62,6 +43,8 @@ public class SceneGenerationPromptBuilder {
                     %s
                     """.formatted(attempt, previousCount, direction, minSectionHan, maxSectionHan, truncate(previousDraft, 1200));
         }
+        Story story = plan.story();
+        SceneGenerationContext scene = plan.scene();
         SceneGenerationPromptInput input = new SceneGenerationPromptInput(
                 safeText(story == null ? null : story.getTitle(), "未命名故事"),
                 safeText(story == null ? null : story.getGenre(), "未指定"),
@@ -73,10 +56,10 @@ public class SceneGenerationPromptBuilder {
                 scene.sceneTitle(),
                 scene.sceneSummary(),
                 scene.sceneOrder(),
-                characterContext,
-                previousContext,
-                materialReferences(owner, story, scene),
-                recentAvoidExpressions(previousContext),
+                plan.characterContext(),
+                plan.previousContext(),
+                plan.materialReferences(),
+                recentAvoidExpressions(plan.previousContext()),
                 minSectionHan,
                 maxSectionHan,
                 retryInstruction,
@@ -91,7 +74,8 @@ public class SceneGenerationPromptBuilder {
         return promptAssemblyService.assembleSceneDraft(input);
     }
 
-    private List<PromptReference> materialReferences(User owner, Story story, SceneGenerationContext scene) {
+    /** Searches the owner's materials for the scene; the result is kept on the generation's plan. */
+    List<PromptReference> materialReferences(User owner, Story story, SceneGenerationContext scene) {
         String query = String.join(" ",
                 safeText(story == null ? null : story.getTitle(), ""),
                 safeText(story == null ? null : story.getGenre(), ""),
@@ -1,14 +1,20 @@
 package com.ainovel.app.manuscript;
 
+import com.ainovel.app.ai.AiProgressContext;
 import com.ainovel.app.ai.AiService;
 import com.ainovel.app.ai.AiUsageContext;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.metrics.GenerationContextMetrics;
+import com.ainovel.app.metrics.StageLatencyMetrics;
+import com.ainovel.app.prompt.AssembledPrompt;
+import com.ainovel.app.prompt.PromptReference;
 import com.ainovel.app.quality.SlopQualityGate;
 import com.ainovel.app.quality.SlopQualityRequest;
 import com.ainovel.app.quality.SlopQualityResult;
-import com.ainovel.app.story.dto.OutlineSaveRequest;
+import com.ainovel.app.story.ParsedOutline;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.CharacterCard;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
@@ -20,17 +26,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 @Service
 public class SceneGenerationService {
     private static final int MIN_SECTION_HAN = 2800;
     private static final int MAX_SECTION_HAN = 3200;
+    private static final int LENGTH_TOLERANCE_HAN = 60;
     private static final int MAX_GENERATION_ATTEMPTS = 3;
+    private static final int PREVIOUS_CONTEXT_SCENES = 2;
     private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]+>");
 
     @Autowired
@@ -45,6 +59,17 @@ public class SceneGenerationService {
     private SceneGenerationPromptBuilder sceneGenerationPromptBuilder;
     @Autowired
     private ObjectMapper objectMapper;
+    @Autowired
+    private ManuscriptSectionStore sectionStore;
+    @Autowired
+    private ParsedOutlineCache parsedOutlineCache;
+    @Autowired
+    private StageLatencyMetrics stageLatencyMetrics;
+    @Autowired
+    private GenerationContextMetrics generationContextMetrics;
+
+    /** Model calls one evaluation pair keeps in flight at once: a FAST and a CRAFTED candidate. */
+    public static final int EVALUATION_CANDIDATES = 2;
 
     public record EvaluationPair(String fastText, String craftedText) {
     }
@@ -55,64 +80,35 @@ public class SceneGenerationService {
 
     public String generateSceneSectionHtml(Manuscript manuscript, UUID sceneId, Map<String, String> existingSections,
                                             GenerationMode mode) {
-        SceneGenerationContext sceneContext = resolveSceneContext(manuscript.getOutline(), sceneId);
-        Story story = manuscript.getOutline().getStory();
-        User owner = ownerOf(manuscript);
-        List<CharacterCard> characters = characterCardRepository.findByStory(story);
-        String characterContext = buildCharacterContext(characters);
-        String previousContext = buildPreviousContext(sceneContext, existingSections);
-        String outlinePlanning = outlinePlanning(manuscript.getOutline());
+        SceneGenerationPlan plan = plan(manuscript, sceneId, existingSections);
+        User owner = plan.owner();
 
         String previousDraft = null;
         int previousCount = 0;
 
         for (int attempt = 1; attempt <= MAX_GENERATION_ATTEMPTS; attempt++) {
-            var prompt = sceneGenerationPromptBuilder.build(
-                    owner,
-                    story,
-                    sceneContext,
-                    characterContext,
-                    previousContext,
-                    previousDraft,
-                    previousCount,
-                    attempt,
-                    MIN_SECTION_HAN,
-                    MAX_SECTION_HAN,
-                    mode
-            );
-            String raw = aiService.chat(owner, new AiChatRequest(
-                    prompt.messages(),
-                    null,
-                    null
-            )).content();
-            String normalized = normalizeGeneratedText(raw);
+            var prompt = prompt(plan, previousDraft, previousCount, attempt, mode);
+            int draftAttempt = attempt;
+            SceneDraftLengthGovernor governor = new SceneDraftLengthGovernor(
+                    MIN_SECTION_HAN, MAX_SECTION_HAN, LENGTH_TOLERANCE_HAN);
+            String raw = stageLatencyMetrics.time(StageLatencyMetrics.SCENE_DRAFT,
+                    () -> AiProgressContext.streamDraft(draftAttempt, () -> AiProgressContext.observeContent(governor,
+                            () -> aiService.chat(owner, new AiChatRequest(
+                                    prompt.messages(),
+                                    null,
+                                    null
+                            ))))).content();
+            String normalized = normalizeGeneratedText(governor.cut(raw));
             int hanCount = countHanCharacters(normalized);
             if (hanCount > MAX_SECTION_HAN) {
                 normalized = trimToHanLimit(normalized, MAX_SECTION_HAN);
                 hanCount = countHanCharacters(normalized);
             }
             if (hanCount >= MIN_SECTION_HAN && hanCount <= MAX_SECTION_HAN) {
-                SlopQualityResult qualityResult = slopQualityGate.evaluateAndRepair(
-                        owner,
-                        scenePlotQualitySupport.buildQualityRequest(
-                                manuscript,
-                                story,
-                                sceneContext,
-                                previousContext,
-                                characterContext,
-                                normalized
-                        )
-                );
-                scenePlotQualitySupport.recordPlotQuality(
-                        owner,
-                        manuscript,
-                        story,
-                        sceneContext,
-                        outlinePlanning,
-                        previousContext,
-                        characterContext,
-                        qualityResult.acceptedText()
-                );
+                SlopQualityRequest qualityRequest = scenePlotQualitySupport.buildQualityRequest(plan, normalized);
+                SlopQualityResult qualityResult = stageLatencyMetrics.time(StageLatencyMetrics.SCENE_SLOP_GATE,
+                        () -> slopQualityGate.evaluateAndRepair(owner, qualityRequest));
+                AiProgressContext.acceptDraft(qualityResult.acceptedText());
                 return toEditorHtml(qualityResult.acceptedText());
             }
             previousDraft = normalized;
@@ -127,36 +123,44 @@ public class SceneGenerationService {
     /**
      * Produces a fast/crafted pair for blind evaluation without changing manuscript sections,
      * versions, or plot-quality records. All billable calls share the sample reference.
+     *
+     * <p>One generation plan is built for the pair and shared read-only by both candidates, which are then
+     * generated concurrently; the pair fails with the first candidate that fails, and the other one is cancelled.
      */
     public EvaluationPair generateEvaluationPair(Manuscript manuscript, UUID sceneId, UUID evaluationSampleId) {
-        Map<String, String> sections = existingSections(manuscript);
+        SceneGenerationPlan plan = plan(manuscript, sceneId, previousSections(manuscript, sceneId));
         AiUsageContext baseContext = new AiUsageContext("G2_EVALUATION", String.valueOf(evaluationSampleId), "pair");
-        String fastText = generateEvaluationCandidate(manuscript, sceneId, sections, GenerationMode.FAST,
-                baseContext.forOperation("fast"));
-        String craftedText = generateEvaluationCandidate(manuscript, sceneId, sections, GenerationMode.CRAFTED,
-                baseContext.forOperation("crafted"));
-        return new EvaluationPair(fastText, craftedText);
+        try (ExecutorService candidates = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<String> finished = new ExecutorCompletionService<>(candidates);
+            Future<String> fast = finished.submit(() -> generateEvaluationCandidate(plan, GenerationMode.FAST,
+                    baseContext.forOperation("fast")));
+            Future<String> crafted = finished.submit(() -> generateEvaluationCandidate(plan, GenerationMode.CRAFTED,
+                    baseContext.forOperation("crafted")));
+            try {
+                for (int i = 0; i < EVALUATION_CANDIDATES; i++) {
+                    finished.take().get();
+                }
+            } catch (ExecutionException ex) {
+                fast.cancel(true);
+                crafted.cancel(true);
+                throw ex.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(ex.getCause());
+            } catch (InterruptedException ex) {
+                fast.cancel(true);
+                crafted.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("盲测候选生成已取消", ex);
+            }
+            return new EvaluationPair(fast.resultNow(), crafted.resultNow());
+        }
     }
 
-    private String generateEvaluationCandidate(Manuscript manuscript,
-                                               UUID sceneId,
-                                               Map<String, String> existingSections,
-                                               GenerationMode mode,
-                                               AiUsageContext usageContext) {
-        SceneGenerationContext sceneContext = resolveSceneContext(manuscript.getOutline(), sceneId);
-        Story story = manuscript.getOutline().getStory();
-        User owner = ownerOf(manuscript);
-        String characterContext = buildCharacterContext(characterCardRepository.findByStory(story));
-        String previousContext = buildPreviousContext(sceneContext, existingSections);
+    private String generateEvaluationCandidate(SceneGenerationPlan plan, GenerationMode mode, AiUsageContext usageContext) {
         String previousDraft = null;
         int previousCount = 0;
 
         for (int attempt = 1; attempt <= MAX_GENERATION_ATTEMPTS; attempt++) {
-            var prompt = sceneGenerationPromptBuilder.build(
-                    owner, story, sceneContext, characterContext, previousContext,
-                    previousDraft, previousCount, attempt, MIN_SECTION_HAN, MAX_SECTION_HAN, mode
-            );
-            String raw = aiService.chat(owner, new AiChatRequest(prompt.messages(), null, null),
+            var prompt = prompt(plan, previousDraft, previousCount, attempt, mode);
+            String raw = aiService.chat(plan.owner(), new AiChatRequest(prompt.messages(), null, null),
                     usageContext.forOperation("draft-" + attempt)).content();
             String normalized = normalizeGeneratedText(raw);
             int hanCount = countHanCharacters(normalized);
@@ -166,11 +170,8 @@ public class SceneGenerationService {
             }
             if (hanCount >= MIN_SECTION_HAN && hanCount <= MAX_SECTION_HAN) {
                 SlopQualityResult qualityResult = slopQualityGate.evaluateAndRepair(
-                        owner,
-                        scenePlotQualitySupport.buildQualityRequest(
-                                manuscript, story, sceneContext, previousContext, characterContext, normalized,
-                                "g2_evaluation"
-                        ),
+                        plan.owner(),
+                        scenePlotQualitySupport.buildQualityRequest(plan, normalized, "g2_evaluation"),
                         usageContext.forOperation("quality")
                 );
                 return qualityResult.acceptedText();
@@ -182,77 +183,84 @@ public class SceneGenerationService {
                 + " 次后仍未达到 " + MIN_SECTION_HAN + "-" + MAX_SECTION_HAN + " 汉字");
     }
 
-    private Map<String, String> existingSections(Manuscript manuscript) {
-        if (manuscript == null || manuscript.getSectionsJson() == null || manuscript.getSectionsJson().isBlank()) {
-            return Map.of();
-        }
-        try {
-            return objectMapper.readValue(manuscript.getSectionsJson(), new TypeReference<Map<String, String>>() {});
-        } catch (Exception ex) {
-            throw new BusinessException("稿件正文数据异常，无法创建盲测样本");
+    /**
+     * Resolves the outline scene and reads characters, previous scenes, style context and materials once;
+     * every attempt of the generation builds its prompt and quality request from the result.
+     */
+    private SceneGenerationPlan plan(Manuscript manuscript, UUID sceneId, Map<String, String> existingSections) {
+        SceneGenerationContext sceneContext = resolveSceneContext(manuscript.getOutline(), sceneId);
+        Story story = manuscript.getOutline().getStory();
+        User owner = ownerOf(manuscript);
+        List<PromptReference> materialReferences =
+                sceneGenerationPromptBuilder.materialReferences(owner, story, sceneContext);
+        generationContextMetrics.recordRetrieval();
+        return new SceneGenerationPlan(
+                manuscript,
+                story,
+                owner,
+                sceneContext,
+                buildCharacterContext(characterCardRepository.findByStory(story)),
+                buildPreviousContext(sceneContext, existingSections),
+                scenePlotQualitySupport.styleContext(story),
+                materialReferences
+        );
+    }
+
+    private AssembledPrompt prompt(SceneGenerationPlan plan, String previousDraft, int previousCount, int attempt,
+                                   GenerationMode mode) {
+        if (plan.reusedForPrompt()) {
+            generationContextMetrics.recordRetrievalReuse();
         }
+        return sceneGenerationPromptBuilder.build(plan, previousDraft, previousCount, attempt,
+                MIN_SECTION_HAN, MAX_SECTION_HAN, mode);
     }
 
-    private String outlinePlanning(Outline outline) {
-        if (outline == null || outline.getContentJson() == null || outline.getContentJson().isBlank()) {
-            return "暂无结构规划。";
+    /**
+     * Reads only the previous scenes the prompt can use: walking back from the scene, one row at a time,
+     * until {@value #PREVIOUS_CONTEXT_SCENES} of them have text. The rest of the book is never loaded.
+     */
+    public Map<String, String> previousSections(Manuscript manuscript, UUID sceneId) {
+        if (manuscript == null) {
+            return Map.of();
         }
-        try {
-            Map<String, Object> root = objectMapper.readValue(outline.getContentJson(), new TypeReference<>() {});
-            Object planning = root.get("planning");
-            return planning == null ? "暂无结构规划。" : objectMapper.writeValueAsString(planning);
-        } catch (Exception ex) {
-            return "暂无结构规划。";
+        List<UUID> previousSceneIds = resolveSceneContext(manuscript.getOutline(), sceneId).previousSceneIds();
+        if (previousSceneIds == null) {
+            return Map.of();
         }
+        Map<String, String> sections = new HashMap<>();
+        for (int i = previousSceneIds.size() - 1; i >= 0 && sections.size() < PREVIOUS_CONTEXT_SCENES; i--) {
+            String previousId = previousSceneIds.get(i).toString();
+            String content = sectionStore.read(manuscript, previousId);
+            if (!previousText(content).isBlank()) {
+                sections.put(previousId, content);
+            }
+        }
+        return sections;
     }
 
     private SceneGenerationContext resolveSceneContext(Outline outline, UUID sceneId) {
         if (outline == null) {
             throw new BusinessException("大纲不存在，无法生成正文");
         }
-        List<OutlineSaveRequest.ChapterPayload> chapters;
-        try {
-            Map<String, Object> root = objectMapper.readValue(
-                    Optional.ofNullable(outline.getContentJson()).filter(v -> !v.isBlank()).orElse("{\"chapters\":[]}"),
-                    new TypeReference<>() {}
-            );
-            chapters = objectMapper.convertValue(
-                    root.getOrDefault("chapters", List.of()),
-                    new TypeReference<List<OutlineSaveRequest.ChapterPayload>>() {}
-            );
-        } catch (Exception ex) {
-            throw new RuntimeException("大纲内容异常，无法生成正文", ex);
-        }
-
-        for (OutlineSaveRequest.ChapterPayload chapter : chapters) {
-            List<OutlineSaveRequest.ScenePayload> scenes = chapter.scenes() == null ? List.of() : chapter.scenes();
-            for (int i = 0; i < scenes.size(); i++) {
-                OutlineSaveRequest.ScenePayload scene = scenes.get(i);
-                if (scene.id() != null && scene.id().equals(sceneId)) {
-                    List<UUID> previousSceneIds = new ArrayList<>();
-                    List<String> siblingTitles = new ArrayList<>();
-                    for (int j = 0; j < scenes.size(); j++) {
-                        OutlineSaveRequest.ScenePayload sibling = scenes.get(j);
-                        siblingTitles.add(safeText(sibling.title(), "第" + (j + 1) + "节"));
-                        if (j < i && sibling.id() != null) {
-                            previousSceneIds.add(sibling.id());
-                        }
-                    }
-                    return new SceneGenerationContext(
-                            scene.id(),
-                            safeText(chapter.title(), "未命名章节"),
-                            safeText(chapter.summary(), ""),
-                            chapter.order() == null ? 0 : chapter.order(),
-                            safeText(scene.title(), "未命名场景"),
-                            safeText(scene.summary(), ""),
-                            scene.order() == null ? i + 1 : scene.order(),
-                            previousSceneIds,
-                            siblingTitles
-                    );
-                }
-            }
+        ParsedOutline parsed = parsedOutlineCache.get(outline);
+        ParsedOutline.Scene scene = parsed.scene(sceneId)
+                .orElseThrow(() -> new BusinessException("场景不存在，无法生成正文"));
+        ParsedOutline.Chapter chapter = parsed.chapterOf(scene);
+        List<String> siblingTitles = new ArrayList<>();
+        for (ParsedOutline.Scene sibling : chapter.scenes()) {
+            siblingTitles.add(safeText(sibling.title(), "第" + (sibling.index() + 1) + "节"));
         }
-        throw new BusinessException("场景不存在，无法生成正文");
+        return new SceneGenerationContext(
+                scene.id(),
+                safeText(chapter.title(), "未命名章节"),
+                safeText(chapter.summary(), ""),
+                chapter.order() == null ? 0 : chapter.order(),
+                safeText(scene.title(), "未命名场景"),
+                safeText(scene.summary(), ""),
+                scene.order() == null ? scene.index() + 1 : scene.order(),
+                scene.previousSceneIds(),
+                siblingTitles
+        );
     }
 
     private String buildCharacterContext(List<CharacterCard> characters) {
@@ -279,13 +287,9 @@ public class SceneGenerationService {
         }
         StringBuilder continuity = new StringBuilder();
         int kept = 0;
-        for (int i = scene.previousSceneIds().size() - 1; i >= 0 && kept < 2; i--) {
+        for (int i = scene.previousSceneIds().size() - 1; i >= 0 && kept < PREVIOUS_CONTEXT_SCENES; i--) {
             UUID previousId = scene.previousSceneIds().get(i);
-            String content = existingSections.get(previousId.toString());
-            if (content == null || content.isBlank()) {
-                continue;
-            }
-            String plain = truncate(stripHtml(content), 500);
+            String plain = previousText(existingSections.get(previousId.toString()));
             if (plain.isBlank()) {
                 continue;
             }
@@ -295,6 +299,13 @@ public class SceneGenerationService {
         return continuity.length() == 0 ? "暂无可用前文。" : continuity.toString();
     }
 
+    private String previousText(String content) {
+        if (content == null || content.isBlank()) {
+            return "";
+        }
+        return truncate(stripHtml(content), 500);
+    }
+
     private String normalizeGeneratedText(String raw) {
         if (raw == null) return "";
         String text = raw.trim();
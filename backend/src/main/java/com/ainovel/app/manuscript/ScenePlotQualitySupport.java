@@ -1,42 +1,43 @@
 package com.ainovel.app.manuscript;
 
+import com.ainovel.app.aioperation.AiOperationService;
+import com.ainovel.app.aioperation.CoreAiOperationHandler;
 import com.ainovel.app.manuscript.model.Manuscript;
-import com.ainovel.app.quality.PlotQualityRequest;
-import com.ainovel.app.quality.PlotQualityService;
 import com.ainovel.app.quality.SlopQualityRequest;
 import com.ainovel.app.story.model.Story;
 import com.ainovel.app.style.StyleContextProvider;
 import com.ainovel.app.user.User;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+
 @Service
 public class ScenePlotQualitySupport {
+    public static final String PLOT_QUALITY_SCOPE = "SCENE_PLOT_QUALITY";
+
     @Autowired
-    private PlotQualityService plotQualityService;
+    private ObjectProvider<AiOperationService> aiOperations;
     @Autowired
     private StyleContextProvider styleContextProvider;
 
-    public SlopQualityRequest buildQualityRequest(Manuscript manuscript,
-                                                  Story story,
-                                                  SceneGenerationContext scene,
-                                                  String previousContext,
-                                                  String characterContext,
-                                                  String candidateText) {
-        return buildQualityRequest(manuscript, story, scene, previousContext, characterContext, candidateText,
-                "generation_gate");
+    /** Style profile and character voices of the story, computed once per generation plan. */
+    String styleContext(Story story) {
+        return styleContextProvider.buildSlopContext(story);
+    }
+
+    SlopQualityRequest buildQualityRequest(SceneGenerationPlan plan, String candidateText) {
+        return buildQualityRequest(plan, candidateText, "generation_gate");
     }
 
-    public SlopQualityRequest buildQualityRequest(Manuscript manuscript,
-                                                  Story story,
-                                                  SceneGenerationContext scene,
-                                                  String previousContext,
-                                                  String characterContext,
-                                                  String candidateText,
-                                                  String analysisMode) {
+    SlopQualityRequest buildQualityRequest(SceneGenerationPlan plan, String candidateText, String analysisMode) {
+        Story story = plan.story();
+        SceneGenerationContext scene = plan.scene();
         return new SlopQualityRequest(
                 story.getId(),
-                manuscript.getId(),
+                plan.manuscript().getId(),
                 scene.sceneId(),
                 safeText(story.getTitle(), "未命名故事"),
                 safeText(story.getGenre(), "未指定"),
@@ -44,42 +45,25 @@ public class ScenePlotQualitySupport {
                 scene.chapterTitle(),
                 scene.sceneTitle(),
                 scene.sceneSummary(),
-                previousContext,
-                characterContext,
-                styleContextProvider.buildSlopContext(story),
+                plan.previousContext(),
+                plan.characterContext(),
+                plan.styleContext(),
                 candidateText,
                 analysisMode
         );
     }
 
-    public void recordPlotQuality(User owner,
-                                  Manuscript manuscript,
-                                  Story story,
-                                  SceneGenerationContext scene,
-                                  String outlinePlanning,
-                                  String previousContext,
-                                  String characterContext,
-                                  String acceptedText) {
-        try {
-            plotQualityService.analyze(owner, new PlotQualityRequest(
-                    story.getId(),
-                    manuscript.getId(),
-                    scene.sceneId(),
-                    safeText(story.getTitle(), "未命名故事"),
-                    safeText(story.getGenre(), "未指定"),
-                    safeText(story.getTone(), "沉浸、连贯"),
-                    scene.chapterTitle(),
-                    scene.chapterOrder(),
-                    scene.sceneTitle(),
-                    scene.sceneOrder(),
-                    scene.sceneSummary(),
-                    outlinePlanning,
-                    previousContext,
-                    characterContext,
-                    acceptedText
-            ));
-        } catch (RuntimeException ignored) {
-        }
+    /**
+     * Queues plot-quality analysis of a freshly written scene as a background operation that starts once the
+     * caller's transaction commits, so generation latency does not include the analysis call. The operation
+     * analyzes the committed section, and the resulting run carries that text's hash as its version link.
+     */
+    public void queuePlotQuality(User owner, Manuscript manuscript, UUID sceneId) {
+        var payload = new CoreAiOperationHandler.CorePayload(CoreAiOperationHandler.SCENE_PLOT_QUALITY,
+                manuscript.getId(), sceneId, null,
+                JsonNodeFactory.instance.objectNode().put("queuedAt", System.currentTimeMillis()));
+        aiOperations.getObject().submitAfterCommit(owner, CoreAiOperationHandler.TYPE,
+                PLOT_QUALITY_SCOPE, sceneId, payload, 2, "等待剧情质量诊断");
     }
 
     private String safeText(String text, String fallback) {
@@ -0,0 +1,51 @@
+package com.ainovel.app.manuscript.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "manuscript_sections", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_manuscript_section_scene", columnNames = {"manuscript_id", "scene_id"})
+})
+public class ManuscriptSection {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "manuscript_id", nullable = false)
+    private UUID manuscriptId;
+
+    @Column(name = "scene_id", nullable = false, length = 191)
+    private String sceneId;
+
+    @Column(name = "content", columnDefinition = "longtext")
+    private String content;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @Version
+    @Column(name = "lock_version", nullable = false)
+    private long lockVersion;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public UUID getManuscriptId() { return manuscriptId; }
+    public void setManuscriptId(UUID manuscriptId) { this.manuscriptId = manuscriptId; }
+    public String getSceneId() { return sceneId; }
+    public void setSceneId(String sceneId) { this.sceneId = sceneId; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public long getLockVersion() { return lockVersion; }
+}
@@ -0,0 +1,37 @@
+package com.ainovel.app.manuscript.repo;
+
+import com.ainovel.app.manuscript.model.ManuscriptSection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ManuscriptSectionRepository extends JpaRepository<ManuscriptSection, UUID> {
+    Optional<ManuscriptSection> findByManuscriptIdAndSceneId(UUID manuscriptId, String sceneId);
+
+    List<ManuscriptSection> findByManuscriptId(UUID manuscriptId);
+
+    List<ManuscriptSection> findByManuscriptIdAndSceneIdIn(UUID manuscriptId, Collection<String> sceneIds);
+
+    @Query("select s.sceneId from ManuscriptSection s where s.manuscriptId = :manuscriptId")
+    List<String> findSceneIdsByManuscriptId(@Param("manuscriptId") UUID manuscriptId);
+
+    @Query("""
+            select s.sceneId as sceneId, s.lockVersion as lockVersion, s.updatedAt as updatedAt
+            from ManuscriptSection s where s.manuscriptId = :manuscriptId
+            """)
+    List<SceneRevision> findRevisionsByManuscriptId(@Param("manuscriptId") UUID manuscriptId);
+
+    interface SceneRevision {
+        String getSceneId();
+
+        long getLockVersion();
+
+        Instant getUpdatedAt();
+    }
+}
@@ -2,21 +2,26 @@ package com.ainovel.app.material;
 
 import com.ainovel.app.integration.AiGatewayGrpcClient;
 import com.ainovel.app.user.User;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
 public class AiServiceTextEmbeddingClient implements TextEmbeddingClient {
     private final AiGatewayGrpcClient aiGatewayGrpcClient;
+    private final int batchSize;
 
-    public AiServiceTextEmbeddingClient(AiGatewayGrpcClient aiGatewayGrpcClient) {
+    public AiServiceTextEmbeddingClient(AiGatewayGrpcClient aiGatewayGrpcClient,
+                                        @Value("${app.material.embedding-batch-size:32}") int batchSize) {
         this.aiGatewayGrpcClient = aiGatewayGrpcClient;
+        this.batchSize = Math.max(1, batchSize);
     }
 
     @Override
     public float[] embed(User user, String text) {
-        if (user == null || user.getRemoteUid() == null || user.getRemoteUid() <= 0 || text == null || text.isBlank()) {
+        if (!canEmbed(user) || text == null || text.isBlank()) {
             return new float[0];
         }
         AiGatewayGrpcClient.EmbeddingResult result = aiGatewayGrpcClient.embeddings(
@@ -30,4 +35,52 @@ public class AiServiceTextEmbeddingClient implements TextEmbeddingClient {
         }
         return result.vectors().get(0);
     }
+
+    @Override
+    public List<float[]> embedAll(User user, List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            vectors.add(new float[0]);
+        }
+        if (!canEmbed(user)) {
+            return vectors;
+        }
+        // The gateway drops blank inputs, so only non-blank texts are sent and results are mapped back by position.
+        List<Integer> positions = new ArrayList<>(batchSize);
+        List<String> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text == null || text.isBlank()) {
+                continue;
+            }
+            positions.add(i);
+            batch.add(text);
+            if (batch.size() == batchSize) {
+                embedBatch(user, positions, batch, vectors);
+            }
+        }
+        if (!batch.isEmpty()) {
+            embedBatch(user, positions, batch, vectors);
+        }
+        return vectors;
+    }
+
+    private void embedBatch(User user, List<Integer> positions, List<String> batch, List<float[]> vectors) {
+        AiGatewayGrpcClient.EmbeddingResult result = aiGatewayGrpcClient.embeddings(
+                user.getRemoteUid(),
+                "",
+                List.copyOf(batch),
+                true
+        );
+        int count = Math.min(positions.size(), result.vectors().size());
+        for (int i = 0; i < count; i++) {
+            vectors.set(positions.get(i), result.vectors().get(i));
+        }
+        positions.clear();
+        batch.clear();
+    }
+
+    private boolean canEmbed(User user) {
+        return user != null && user.getRemoteUid() != null && user.getRemoteUid() > 0;
+    }
 }
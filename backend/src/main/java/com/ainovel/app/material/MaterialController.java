@@ -63,6 +63,10 @@ public class MaterialController {
     @Operation(summary = "查询导入任务状态", description = "按任务 ID 查询文件导入进度。")
     public FileImportJobDto uploadStatus(@PathVariable UUID jobId) { return materialService.getUploadStatus(jobId); }
 
+    @GetMapping("/{id}/index-status")
+    @Operation(summary = "查询素材索引进度", description = "返回素材最近一次向量索引任务的状态与进度。")
+    public FileImportJobDto indexStatus(@PathVariable UUID id) { return materialService.getIndexStatus(id); }
+
     @PostMapping("/search")
     @Operation(summary = "搜索素材", description = "按关键词和规则进行素材检索。")
     public List<MaterialSearchResultDto> search(@AuthenticationPrincipal UserDetails principal, @RequestBody MaterialSearchRequest request) {
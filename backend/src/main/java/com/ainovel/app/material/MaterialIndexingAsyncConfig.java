@@ -0,0 +1,21 @@
+package com.ainovel.app.material;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class MaterialIndexingAsyncConfig {
+    @Bean("materialIndexingExecutor")
+    public Executor materialIndexingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(64);
+        executor.setThreadNamePrefix("material-indexing-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,121 @@
+package com.ainovel.app.material;
+
+import com.ainovel.app.material.model.Material;
+import com.ainovel.app.material.model.MaterialUploadJob;
+import com.ainovel.app.material.repo.MaterialRepository;
+import com.ainovel.app.material.repo.MaterialUploadJobRepository;
+import com.ainovel.app.user.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs material vector indexing off the request thread. Each run is tracked as a
+ * {@link MaterialUploadJob} pointing at the material, so clients poll it like an upload.
+ */
+@Service
+public class MaterialIndexingService {
+    private static final Logger log = LoggerFactory.getLogger(MaterialIndexingService.class);
+
+    private final MaterialRepository materialRepository;
+    private final MaterialUploadJobRepository uploadJobRepository;
+    private final MaterialRetrievalService retrievalService;
+    private final TransactionTemplate transactions;
+    private final Executor executor;
+
+    public MaterialIndexingService(MaterialRepository materialRepository,
+                                   MaterialUploadJobRepository uploadJobRepository,
+                                   MaterialRetrievalService retrievalService,
+                                   TransactionTemplate transactions,
+                                   @Qualifier("materialIndexingExecutor") Executor executor) {
+        this.materialRepository = materialRepository;
+        this.uploadJobRepository = uploadJobRepository;
+        this.retrievalService = retrievalService;
+        this.transactions = transactions;
+        this.executor = executor;
+    }
+
+    /** Queues indexing of an approved material; the run starts after the surrounding transaction commits. */
+    public void schedule(Material material) {
+        if (material == null || material.getId() == null || !"approved".equalsIgnoreCase(material.getStatus())) {
+            return;
+        }
+        MaterialUploadJob job = new MaterialUploadJob();
+        job.setFileName(material.getTitle());
+        job.setStatus("processing");
+        job.setProgress(0);
+        job.setMessage("等待索引");
+        job.setResultMaterialId(material.getId());
+        UUID jobId = uploadJobRepository.save(job).getId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(jobId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(jobId);
+            }
+        });
+    }
+
+    private void submit(UUID jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Indexing queue is full, failing job {}", jobId);
+            // afterCommit still sees the finished transaction as active, so the write needs one of its own.
+            TransactionTemplate ownTransaction = new TransactionTemplate(transactions.getTransactionManager());
+            ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            ownTransaction.executeWithoutResult(status -> uploadJobRepository.findById(jobId)
+                    .ifPresent(job -> finish(job, "failed", 0, "索引队列已满，请稍后重试")));
+        }
+    }
+
+    void run(UUID jobId) {
+        MaterialUploadJob job = uploadJobRepository.findById(jobId).orElse(null);
+        if (job == null) {
+            return;
+        }
+        Material material = transactions.execute(status -> {
+            Material loaded = materialRepository.findById(job.getResultMaterialId()).orElse(null);
+            if (loaded != null && loaded.getUser() != null) {
+                // Initialize the lazy owner while the session is open; the embedding call needs its remote uid.
+                loaded.getUser().getRemoteUid();
+            }
+            return loaded;
+        });
+        if (material == null) {
+            finish(job, "failed", job.getProgress(), "素材不存在");
+            return;
+        }
+        User owner = material.getUser();
+        try {
+            retrievalService.indexMaterial(owner, material, (indexed, total) -> {
+                job.setProgress(Math.min(99, indexed * 100 / Math.max(1, total)));
+                job.setMessage("已索引 " + indexed + "/" + total + " 段");
+                uploadJobRepository.save(job);
+            });
+            finish(job, "completed", 100, "索引完成");
+        } catch (RuntimeException ex) {
+            log.warn("Indexing material {} failed", material.getId(), ex);
+            finish(job, "failed", job.getProgress(), "素材索引失败");
+        }
+    }
+
+    private void finish(MaterialUploadJob job, String status, int progress, String message) {
+        job.setStatus(status);
+        job.setProgress(progress);
+        job.setMessage(message);
+        uploadJobRepository.save(job);
+    }
+}
@@ -3,50 +3,62 @@ package com.ainovel.app.material;
 import com.ainovel.app.material.dto.MaterialSearchRequest;
 import com.ainovel.app.material.dto.MaterialSearchResultDto;
 import com.ainovel.app.material.model.Material;
-import com.ainovel.app.material.repo.MaterialRepository;
 import com.ainovel.app.user.User;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 
 @Service
 public class MaterialRetrievalService {
-    private final MaterialRepository materialRepository;
+    private final MaterialTermIndex termIndex;
     private final MaterialChunker chunker;
     private final TextEmbeddingClient embeddingClient;
     private final MaterialVectorIndex vectorIndex;
+    private final int indexBatchSize;
 
-    public MaterialRetrievalService(MaterialRepository materialRepository,
+    public MaterialRetrievalService(MaterialTermIndex termIndex,
                                     MaterialChunker chunker,
                                     TextEmbeddingClient embeddingClient,
-                                    MaterialVectorIndex vectorIndex) {
-        this.materialRepository = materialRepository;
+                                    MaterialVectorIndex vectorIndex,
+                                    @Value("${app.material.embedding-batch-size:32}") int indexBatchSize) {
+        this.termIndex = termIndex;
         this.chunker = chunker;
         this.embeddingClient = embeddingClient;
         this.vectorIndex = vectorIndex;
+        this.indexBatchSize = Math.max(1, indexBatchSize);
     }
 
-    public void indexMaterial(User user, Material material) {
+    /**
+     * Embeds and upserts the material's chunks one embedding request ({@code app.material.embedding-batch-size})
+     * at a time, reporting after each batch. Failures propagate so the indexing job can record them.
+     */
+    public void indexMaterial(User user, Material material, IndexingProgress progress) {
         if (!isApproved(material)) {
             return;
         }
-        for (MaterialChunk chunk : chunker.chunks(material)) {
-            try {
-                float[] vector = embeddingClient.embed(user, chunk.text());
+        List<MaterialChunk> chunks = chunker.chunks(material);
+        for (int from = 0; from < chunks.size(); from += indexBatchSize) {
+            List<MaterialChunk> batch = chunks.subList(from, Math.min(chunks.size(), from + indexBatchSize));
+            List<float[]> vectors = embeddingClient.embedAll(user, batch.stream().map(MaterialChunk::text).toList());
+            List<MaterialChunk> embedded = new ArrayList<>(batch.size());
+            List<float[]> embeddedVectors = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                float[] vector = i < vectors.size() ? vectors.get(i) : null;
                 if (vector != null && vector.length > 0) {
-                    vectorIndex.upsert(chunk, vector);
+                    embedded.add(batch.get(i));
+                    embeddedVectors.add(vector);
                 }
-            } catch (RuntimeException ignored) {
-                return;
             }
+            if (!embedded.isEmpty()) {
+                vectorIndex.upsertAll(embedded, embeddedVectors);
+            }
+            progress.onBatchIndexed(from + batch.size(), chunks.size());
         }
     }
 
@@ -54,18 +66,19 @@ public class MaterialRetrievalService {
     public List<MaterialSearchResultDto> search(User user, MaterialSearchRequest request) {
         String query = request == null || request.query() == null ? "" : request.query().trim();
         int limit = Math.max(1, Math.min(request != null && request.limit() != null ? request.limit() : 10, 30));
-        List<Material> visible = visibleMaterials(user);
 
         Map<String, MaterialSearchResultDto> merged = new LinkedHashMap<>();
-        for (MaterialSearchResultDto result : keywordSearch(visible, query, limit * 2)) {
+        for (MaterialTermIndex.Hit hit : termIndex.search(user, query, limit * 2)) {
+            MaterialSearchResultDto result = toResult(hit.chunk(), hit.score(), "keyword", hit.reasons());
             merged.put(result.chunkId(), result);
         }
 
         try {
             float[] queryVector = embeddingClient.embed(user, query);
             if (queryVector != null && queryVector.length > 0) {
-                Map<String, MaterialChunk> chunkById = chunksById(visible);
-                for (VectorMatch match : vectorIndex.search(queryVector, limit * 2)) {
+                List<VectorMatch> matches = vectorIndex.search(queryVector, limit * 2);
+                Map<String, MaterialChunk> chunkById = termIndex.chunks(user, matches.stream().map(VectorMatch::chunkId).toList());
+                for (VectorMatch match : matches) {
                     MaterialChunk chunk = chunkById.get(match.chunkId());
                     if (chunk == null) {
                         continue;
@@ -84,55 +97,6 @@ public class MaterialRetrievalService {
                 .toList();
     }
 
-    private List<MaterialSearchResultDto> keywordSearch(List<Material> materials, String query, int limit) {
-        List<String> terms = terms(query);
-        List<MaterialSearchResultDto> results = new ArrayList<>();
-        for (Material material : materials) {
-            for (MaterialChunk chunk : chunker.chunks(material)) {
-                Score score = keywordScore(material, chunk, terms);
-                if (score.value() <= 0) {
-                    continue;
-                }
-                results.add(toResult(chunk, score.value(), "keyword", score.reasons()));
-            }
-        }
-        return results.stream()
-                .sorted(Comparator.comparingDouble(MaterialSearchResultDto::score).reversed())
-                .limit(limit)
-                .toList();
-    }
-
-    private Score keywordScore(Material material, MaterialChunk chunk, List<String> terms) {
-        if (terms.isEmpty()) {
-            return new Score(0, List.of());
-        }
-        String title = lower(material.getTitle());
-        String tags = lower(material.getTagsJson());
-        String summary = lower(material.getSummary());
-        String content = lower(chunk.text());
-        double score = 0;
-        Set<String> reasons = new LinkedHashSet<>();
-        for (String term : terms) {
-            if (title.contains(term)) {
-                score += 3;
-                reasons.add("title");
-            }
-            if (tags.contains(term)) {
-                score += 2.2;
-                reasons.add("tags");
-            }
-            if (summary.contains(term)) {
-                score += 1.6;
-                reasons.add("summary");
-            }
-            if (content.contains(term)) {
-                score += 1.2;
-                reasons.add("content");
-            }
-        }
-        return new Score(score, List.copyOf(reasons));
-    }
-
     private MaterialSearchResultDto toResult(MaterialChunk chunk, double score, String source, List<String> reasons) {
         return new MaterialSearchResultDto(
                 chunk.materialId(),
@@ -150,51 +114,10 @@ public class MaterialRetrievalService {
         return left.score() >= right.score() ? left : right;
     }
 
-    private List<Material> visibleMaterials(User user) {
-        return materialRepository.findAll().stream()
-                .filter(this::isApproved)
-                .filter(material -> user == null
-                        || material.getUser() == null
-                        || user.getUsername().equals(material.getUser().getUsername()))
-                .toList();
-    }
-
     private boolean isApproved(Material material) {
         return material != null && "approved".equalsIgnoreCase(material.getStatus());
     }
 
-    private Map<String, MaterialChunk> chunksById(List<Material> materials) {
-        Map<String, MaterialChunk> chunks = new LinkedHashMap<>();
-        for (Material material : materials) {
-            for (MaterialChunk chunk : chunker.chunks(material)) {
-                chunks.put(chunk.chunkId(), chunk);
-            }
-        }
-        return chunks;
-    }
-
-    private List<String> terms(String query) {
-        if (query == null || query.isBlank()) {
-            return List.of();
-        }
-        String normalized = lower(query).replaceAll("[^\\p{IsHan}a-z0-9]+", " ").trim();
-        if (normalized.isBlank()) {
-            return List.of();
-        }
-        String[] raw = normalized.split("\\s+");
-        List<String> terms = new ArrayList<>();
-        for (String term : raw) {
-            if (!term.isBlank()) {
-                terms.add(term);
-            }
-        }
-        return terms;
-    }
-
-    private String lower(String value) {
-        return value == null ? "" : value.toLowerCase(Locale.ROOT);
-    }
-
     private String snippet(String text) {
         if (text == null) {
             return "";
@@ -202,6 +125,8 @@ public class MaterialRetrievalService {
         return text.length() <= 180 ? text : text.substring(0, 180) + "...";
     }
 
-    private record Score(double value, List<String> reasons) {
+    @FunctionalInterface
+    public interface IndexingProgress {
+        void onBatchIndexed(int indexedChunks, int totalChunks);
     }
 }
@@ -1,6 +1,7 @@
 package com.ainovel.app.material;
 
 import com.ainovel.app.common.BusinessException;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
 import com.ainovel.app.material.dto.*;
@@ -29,9 +30,12 @@ public class MaterialService {
     private final MaterialUploadJobRepository uploadJobRepository;
     private final ResourceAccessGuard accessGuard;
     private final MaterialRetrievalService materialRetrievalService;
+    private final MaterialIndexingService materialIndexingService;
+    private final MaterialTermIndex materialTermIndex;
     private final ManuscriptRepository manuscriptRepository;
     private final ObjectMapper objectMapper;
     private final JsonColumnCodec jsonColumnCodec;
+    private final ManuscriptSectionStore sectionStore;
 
     @Autowired
     public MaterialService(
@@ -39,17 +43,23 @@ public class MaterialService {
             MaterialUploadJobRepository uploadJobRepository,
             ResourceAccessGuard accessGuard,
             MaterialRetrievalService materialRetrievalService,
+            MaterialIndexingService materialIndexingService,
+            MaterialTermIndex materialTermIndex,
             ManuscriptRepository manuscriptRepository,
             ObjectMapper objectMapper,
-            JsonColumnCodec jsonColumnCodec
+            JsonColumnCodec jsonColumnCodec,
+            ManuscriptSectionStore sectionStore
     ) {
         this.materialRepository = materialRepository;
         this.uploadJobRepository = uploadJobRepository;
         this.accessGuard = accessGuard;
         this.materialRetrievalService = materialRetrievalService;
+        this.materialIndexingService = materialIndexingService;
+        this.materialTermIndex = materialTermIndex;
         this.manuscriptRepository = manuscriptRepository;
         this.objectMapper = objectMapper;
         this.jsonColumnCodec = jsonColumnCodec;
+        this.sectionStore = sectionStore;
     }
 
     public MaterialDto create(User user, MaterialCreateRequest request) {
@@ -62,7 +72,8 @@ public class MaterialService {
         material.setTagsJson(writeJson(request.tags()));
         material.setStatus("approved");
         materialRepository.save(material);
-        materialRetrievalService.indexMaterial(user, material);
+        materialTermIndex.reindex(material);
+        materialIndexingService.schedule(material);
         return toDto(material);
     }
 
@@ -89,7 +100,8 @@ public class MaterialService {
         if (request.status() != null) material.setStatus(request.status());
         if (request.entitiesJson() != null) material.setEntitiesJson(request.entitiesJson());
         materialRepository.save(material);
-        materialRetrievalService.indexMaterial(material.getUser(), material);
+        materialTermIndex.reindex(material);
+        materialIndexingService.schedule(material);
         return toDto(material);
     }
 
@@ -97,6 +109,7 @@ public class MaterialService {
     public void delete(UUID id) {
         Material material = materialRepository.findById(id).orElseThrow(() -> new BusinessException("素材不存在"));
         accessGuard.assertOwner(material.getUser());
+        materialTermIndex.remove(material.getId());
         materialRepository.delete(material);
     }
 
@@ -116,12 +129,15 @@ public class MaterialService {
         material.setTagsJson(writeJson(List.of("上传")));
         material.setStatus("pending");
         materialRepository.save(material);
+        // 解析在请求内同步完成；审核通过后的向量索引另起任务
         job.setResultMaterialId(material.getId());
+        job.setStatus("completed");
+        job.setProgress(100);
         uploadJobRepository.save(job);
-        return new FileImportJobDto(job.getId(), job.getFileName(), job.getStatus(), job.getProgress(), job.getMessage());
+        return toJobDto(job);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public FileImportJobDto getUploadStatus(UUID jobId) {
         MaterialUploadJob job = uploadJobRepository.findById(jobId).orElseThrow(() -> new BusinessException("上传任务不存在"));
         if (job.getResultMaterialId() != null) {
@@ -130,11 +146,19 @@ public class MaterialService {
                 accessGuard.assertOwner(material.getUser());
             }
         }
-        if (job.getProgress() < 100) {
-            job.setProgress(100);
-            job.setStatus("completed");
-            uploadJobRepository.save(job);
-        }
+        return toJobDto(job);
+    }
+
+    @Transactional(readOnly = true)
+    public FileImportJobDto getIndexStatus(UUID id) {
+        Material material = materialRepository.findById(id).orElseThrow(() -> new BusinessException("素材不存在"));
+        accessGuard.assertOwner(material.getUser());
+        MaterialUploadJob job = uploadJobRepository.findFirstByResultMaterialIdOrderByCreatedAtDesc(id)
+                .orElseThrow(() -> new BusinessException("素材暂无索引任务"));
+        return toJobDto(job);
+    }
+
+    private FileImportJobDto toJobDto(MaterialUploadJob job) {
         return new FileImportJobDto(job.getId(), job.getFileName(), job.getStatus(), job.getProgress(), job.getMessage());
     }
 
@@ -160,7 +184,8 @@ public class MaterialService {
         if (request.type() != null) material.setType(request.type());
         material.setStatus("approve".equalsIgnoreCase(action) ? "approved" : "rejected");
         materialRepository.save(material);
-        materialRetrievalService.indexMaterial(material.getUser(), material);
+        materialTermIndex.reindex(material);
+        materialIndexingService.schedule(material);
         return toDto(material);
     }
 
@@ -226,6 +251,8 @@ public class MaterialService {
         }
         target.setContent(target.getContent() + "\n\n" + source.getContent());
         materialRepository.save(target);
+        materialTermIndex.reindex(target);
+        materialIndexingService.schedule(target);
         return toDto(target);
     }
 
@@ -240,7 +267,7 @@ public class MaterialService {
         }
         List<Map<String, Object>> citations = new ArrayList<>();
         for (Manuscript manuscript : manuscriptRepository.findByStoryUser(material.getUser())) {
-            Map<String, String> sections = readStringMap(manuscript.getSectionsJson());
+            Map<String, String> sections = sectionStore.readAll(manuscript);
             Map<String, SceneInfo> scenes = sceneInfoById(manuscript);
             for (Map.Entry<String, String> entry : sections.entrySet()) {
                 String plain = stripHtml(entry.getValue());
@@ -411,10 +438,6 @@ public class MaterialService {
         }
     }
 
-    private Map<String, String> readStringMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, new HashMap<>());
-    }
-
     private Map<String, Object> readObjectMap(String json) {
         return jsonColumnCodec.read(json, new TypeReference<>() {}, new HashMap<>());
     }
@@ -0,0 +1,290 @@
+package com.ainovel.app.material;
+
+import com.ainovel.app.material.model.Material;
+import com.ainovel.app.material.model.MaterialIndexedChunk;
+import com.ainovel.app.material.model.MaterialTermPosting;
+import com.ainovel.app.material.repo.MaterialIndexedChunkRepository;
+import com.ainovel.app.material.repo.MaterialTermPostingRepository;
+import com.ainovel.app.user.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Persisted chunks of approved materials plus a keyword inverted index over them. Writers call
+ * {@link #reindex(Material)} whenever a material's text, metadata or status changes and
+ * {@link #remove(UUID)} before deleting it; search then reads only the postings of the query terms.
+ *
+ * <p>Scoring is BM25 over chunk content with idf-weighted boosts when the term also appears in the
+ * material title, tags or summary. The corpus size and mean chunk length it needs are cached per
+ * searching user for {@code app.material.corpus-stats-ttl-ms} and dropped whenever an index write commits.
+ */
+@Component
+public class MaterialTermIndex {
+    static final int FIELD_TITLE = 1;
+    static final int FIELD_TAGS = 2;
+    static final int FIELD_SUMMARY = 4;
+    static final int FIELD_CONTENT = 8;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double CONTENT_WEIGHT = 1.2;
+    private static final double TITLE_WEIGHT = 3;
+    private static final double TAGS_WEIGHT = 2.2;
+    private static final double SUMMARY_WEIGHT = 1.6;
+    private static final int MAX_QUERY_TERMS = 64;
+    private static final int MAX_CACHED_STATS = 1024;
+    /** Cache key of the stats over every chunk, used for searches without a user. */
+    private static final UUID ALL_USERS = new UUID(0L, 0L);
+
+    private final MaterialChunker chunker;
+    private final MaterialIndexedChunkRepository chunkRepository;
+    private final MaterialTermPostingRepository postingRepository;
+    private final long statsTtlNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<UUID, CachedStats> corpusStats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MaterialTermIndex(MaterialChunker chunker,
+                             MaterialIndexedChunkRepository chunkRepository,
+                             MaterialTermPostingRepository postingRepository,
+                             @Value("${app.material.corpus-stats-ttl-ms:60000}") long statsTtlMs) {
+        this(chunker, chunkRepository, postingRepository, statsTtlMs, System::nanoTime);
+    }
+
+    MaterialTermIndex(MaterialChunker chunker,
+                      MaterialIndexedChunkRepository chunkRepository,
+                      MaterialTermPostingRepository postingRepository,
+                      long statsTtlMs,
+                      LongSupplier nanoClock) {
+        this.chunker = chunker;
+        this.chunkRepository = chunkRepository;
+        this.postingRepository = postingRepository;
+        this.statsTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, statsTtlMs));
+        this.nanoClock = nanoClock;
+    }
+
+    @Transactional
+    public void reindex(Material material) {
+        if (material == null || material.getId() == null) {
+            return;
+        }
+        remove(material.getId());
+        if (!"approved".equalsIgnoreCase(material.getStatus())) {
+            return;
+        }
+        UUID userId = material.getUser() == null ? null : material.getUser().getId();
+        Set<String> titleTerms = new HashSet<>(MaterialTermTokenizer.indexTerms(material.getTitle()));
+        Set<String> tagTerms = new HashSet<>(MaterialTermTokenizer.indexTerms(material.getTagsJson()));
+        Set<String> summaryTerms = new HashSet<>(MaterialTermTokenizer.indexTerms(material.getSummary()));
+        List<MaterialIndexedChunk> rows = new ArrayList<>();
+        List<MaterialTermPosting> postings = new ArrayList<>();
+        for (MaterialChunk chunk : chunker.chunks(material)) {
+            Map<String, Integer> frequencies = new LinkedHashMap<>();
+            for (String term : MaterialTermTokenizer.indexTerms(chunk.text())) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            MaterialIndexedChunk row = new MaterialIndexedChunk();
+            row.setChunkId(UUID.fromString(chunk.chunkId()));
+            row.setMaterialId(material.getId());
+            row.setUserId(userId);
+            row.setChunkSeq(chunk.chunkSeq());
+            row.setTitle(chunk.title());
+            row.setContent(chunk.text());
+            row.setTagsJson(chunk.tags());
+            row.setTermCount(MaterialTermTokenizer.terms(chunk.text()).size());
+            rows.add(row);
+
+            Set<String> terms = new LinkedHashSet<>(frequencies.keySet());
+            terms.addAll(titleTerms);
+            terms.addAll(tagTerms);
+            terms.addAll(summaryTerms);
+            for (String term : terms) {
+                int frequency = frequencies.getOrDefault(term, 0);
+                int mask = (frequency > 0 ? FIELD_CONTENT : 0)
+                        | (titleTerms.contains(term) ? FIELD_TITLE : 0)
+                        | (tagTerms.contains(term) ? FIELD_TAGS : 0)
+                        | (summaryTerms.contains(term) ? FIELD_SUMMARY : 0);
+                MaterialTermPosting posting = new MaterialTermPosting();
+                posting.setTerm(term);
+                posting.setChunkId(row.getChunkId());
+                posting.setMaterialId(material.getId());
+                posting.setUserId(userId);
+                posting.setTermFrequency(frequency);
+                posting.setFieldMask(mask);
+                posting.setChunkTermCount(row.getTermCount());
+                postings.add(posting);
+            }
+        }
+        if (!rows.isEmpty()) {
+            chunkRepository.saveAll(rows);
+            postingRepository.saveAll(postings);
+        }
+    }
+
+    @Transactional
+    public void remove(UUID materialId) {
+        postingRepository.deleteByMaterialId(materialId);
+        chunkRepository.deleteByMaterialId(materialId);
+        invalidateStatsAfterCommit();
+    }
+
+    /** Best chunks for {@code query} among those visible to {@code user}; a null user searches every material. */
+    @Transactional(readOnly = true)
+    public List<Hit> search(User user, String query, int limit) {
+        List<String> terms = MaterialTermTokenizer.terms(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        UUID userId = user == null ? null : user.getId();
+        List<MaterialTermPosting> postings = userId == null
+                ? postingRepository.findByTermIn(terms)
+                : postingRepository.findVisible(userId, terms);
+        if (postings.isEmpty()) {
+            return List.of();
+        }
+        CachedStats stats = corpusStats(userId);
+        double chunkCount = Math.max(1, stats.chunks());
+        double averageLength = Math.max(1, stats.averageTermCount());
+        Map<String, Integer> documentFrequency = new HashMap<>();
+        for (MaterialTermPosting posting : postings) {
+            documentFrequency.merge(posting.getTerm(), 1, Integer::sum);
+        }
+
+        Map<UUID, Candidate> candidates = new HashMap<>();
+        for (MaterialTermPosting posting : postings) {
+            int df = documentFrequency.get(posting.getTerm());
+            double idf = Math.log(1 + (chunkCount - df + 0.5) / (df + 0.5));
+            double tf = posting.getTermFrequency();
+            double content = tf <= 0 ? 0 : tf * (K1 + 1)
+                    / (tf + K1 * (1 - B + B * posting.getChunkTermCount() / averageLength));
+            int mask = posting.getFieldMask();
+            double fields = ((mask & FIELD_TITLE) != 0 ? TITLE_WEIGHT : 0)
+                    + ((mask & FIELD_TAGS) != 0 ? TAGS_WEIGHT : 0)
+                    + ((mask & FIELD_SUMMARY) != 0 ? SUMMARY_WEIGHT : 0);
+            Candidate candidate = candidates.computeIfAbsent(posting.getChunkId(), id -> new Candidate());
+            candidate.score += idf * (CONTENT_WEIGHT * content + fields);
+            candidate.mask |= mask;
+        }
+
+        List<Map.Entry<UUID, Candidate>> top = candidates.entrySet().stream()
+                .filter(entry -> entry.getValue().score > 0)
+                .sorted((left, right) -> Double.compare(right.getValue().score, left.getValue().score))
+                .limit(limit)
+                .toList();
+        Map<UUID, MaterialIndexedChunk> rows = new HashMap<>();
+        for (MaterialIndexedChunk row : chunkRepository.findByChunkIdIn(top.stream().map(Map.Entry::getKey).toList())) {
+            rows.put(row.getChunkId(), row);
+        }
+        List<Hit> hits = new ArrayList<>(top.size());
+        for (Map.Entry<UUID, Candidate> entry : top) {
+            MaterialIndexedChunk row = rows.get(entry.getKey());
+            if (row != null) {
+                hits.add(new Hit(toChunk(row), entry.getValue().score, reasons(entry.getValue().mask)));
+            }
+        }
+        return hits;
+    }
+
+    /** Persisted chunks by id, restricted to those visible to {@code user}. */
+    @Transactional(readOnly = true)
+    public Map<String, MaterialChunk> chunks(User user, Collection<String> chunkIds) {
+        List<UUID> ids = new ArrayList<>(chunkIds.size());
+        for (String chunkId : chunkIds) {
+            try {
+                ids.add(UUID.fromString(chunkId));
+            } catch (IllegalArgumentException ignored) {
+                // Not one of ours.
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        UUID userId = user == null ? null : user.getId();
+        Map<String, MaterialChunk> chunks = new LinkedHashMap<>();
+        for (MaterialIndexedChunk row : chunkRepository.findByChunkIdIn(ids)) {
+            if (userId == null || row.getUserId() == null || userId.equals(row.getUserId())) {
+                MaterialChunk chunk = toChunk(row);
+                chunks.put(chunk.chunkId(), chunk);
+            }
+        }
+        return chunks;
+    }
+
+    private CachedStats corpusStats(UUID userId) {
+        UUID key = userId == null ? ALL_USERS : userId;
+        long now = nanoClock.getAsLong();
+        CachedStats cached = corpusStats.get(key);
+        if (cached != null && now - cached.expiresAtNanos() < 0) {
+            return cached;
+        }
+        MaterialIndexedChunkRepository.CorpusStats loaded = userId == null
+                ? chunkRepository.corpusStats()
+                : chunkRepository.corpusStatsVisibleTo(userId);
+        CachedStats stats = new CachedStats(loaded.getChunks(), loaded.getAverageTermCount(), now + statsTtlNanos);
+        if (corpusStats.size() >= MAX_CACHED_STATS) {
+            corpusStats.values().removeIf(entry -> now - entry.expiresAtNanos() >= 0);
+            if (corpusStats.size() >= MAX_CACHED_STATS) {
+                corpusStats.clear();
+            }
+        }
+        corpusStats.put(key, stats);
+        return stats;
+    }
+
+    /** Any write can change the stats of every user that sees the material, so all entries go. */
+    private void invalidateStatsAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            corpusStats.clear();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                corpusStats.clear();
+            }
+        });
+    }
+
+    private MaterialChunk toChunk(MaterialIndexedChunk row) {
+        return new MaterialChunk(row.getChunkId().toString(), row.getMaterialId(), row.getTitle(), row.getContent(),
+                row.getChunkSeq(), row.getTagsJson());
+    }
+
+    private List<String> reasons(int mask) {
+        List<String> reasons = new ArrayList<>(4);
+        if ((mask & FIELD_TITLE) != 0) reasons.add("title");
+        if ((mask & FIELD_TAGS) != 0) reasons.add("tags");
+        if ((mask & FIELD_SUMMARY) != 0) reasons.add("summary");
+        if ((mask & FIELD_CONTENT) != 0) reasons.add("content");
+        return List.copyOf(reasons);
+    }
+
+    public record Hit(MaterialChunk chunk, double score, List<String> reasons) {
+    }
+
+    private record CachedStats(long chunks, double averageTermCount, long expiresAtNanos) {
+    }
+
+    private static final class Candidate {
+        private double score;
+        private int mask;
+    }
+}
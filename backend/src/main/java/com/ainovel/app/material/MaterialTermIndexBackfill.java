@@ -0,0 +1,81 @@
+package com.ainovel.app.material;
+
+import com.ainovel.app.material.repo.MaterialRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Indexes approved materials that predate the keyword index (or whose indexing was interrupted).
+ * Runs on the material indexing executor one page of ids at a time, so startup does not wait for it
+ * and queued indexing jobs interleave with the pages.
+ */
+@Component
+public class MaterialTermIndexBackfill implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(MaterialTermIndexBackfill.class);
+    private static final UUID FIRST = new UUID(0L, 0L);
+
+    private final MaterialRepository materialRepository;
+    private final MaterialTermIndex termIndex;
+    private final Executor executor;
+    private final int batchSize;
+
+    public MaterialTermIndexBackfill(MaterialRepository materialRepository,
+                                     MaterialTermIndex termIndex,
+                                     @Qualifier("materialIndexingExecutor") Executor executor,
+                                     @Value("${app.material.term-index-backfill-batch-size:100}") int batchSize) {
+        this.materialRepository = materialRepository;
+        this.termIndex = termIndex;
+        this.executor = executor;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        submit(FIRST, 0);
+    }
+
+    void runBatch(UUID after, int indexed) {
+        List<UUID> materialIds;
+        try {
+            materialIds = materialRepository.findApprovedIdsWithoutIndexedChunks(after, PageRequest.of(0, batchSize));
+        } catch (RuntimeException ex) {
+            log.warn("Keyword index backfill stopped after {} materials", indexed, ex);
+            return;
+        }
+        for (UUID materialId : materialIds) {
+            try {
+                materialRepository.findById(materialId).ifPresent(termIndex::reindex);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to index material {} for keyword search", materialId, ex);
+            }
+        }
+        int total = indexed + materialIds.size();
+        if (materialIds.size() < batchSize) {
+            if (total > 0) {
+                log.info("Indexed {} approved materials for keyword search", total);
+            }
+            return;
+        }
+        // Keyset on the id so failed materials are not picked up again by the next page.
+        submit(materialIds.getLast(), total);
+    }
+
+    private void submit(UUID after, int indexed) {
+        try {
+            executor.execute(() -> runBatch(after, indexed));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Keyword index backfill stopped after {} materials: indexing queue is full", indexed);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.ainovel.app.material;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyword terms of the material inverted index: lower-cased ASCII letter/digit words and
+ * overlapping bigrams of Han runs (a lone Han char is its own term). Everything else separates terms.
+ *
+ * <p>Queries are matched with {@link #terms}; chunks are indexed under {@link #indexTerms}, which
+ * also holds every single Han char and the prefixes of each ASCII word, so a one-char query
+ * ("剑") or a word prefix ("drag" for "dragon") finds the chunk as the old substring scan did.
+ */
+final class MaterialTermTokenizer {
+    static final int MAX_TERM_LENGTH = 64;
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int MAX_PREFIX_LENGTH = 16;
+
+    private MaterialTermTokenizer() {
+    }
+
+    /** Query terms, also the unit chunk length is counted in. */
+    static List<String> terms(String text) {
+        return tokenize(text, false);
+    }
+
+    /** {@link #terms} plus Han unigrams and ASCII word prefixes; a term may repeat once per occurrence. */
+    static List<String> indexTerms(String text) {
+        return tokenize(text, true);
+    }
+
+    private static List<String> tokenize(String text, boolean expand) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        StringBuilder word = new StringBuilder();
+        int previousHan = -1;
+        boolean hanEmitted = false;
+        for (int index = 0; index < text.length(); ) {
+            int codePoint = text.codePointAt(index);
+            index += Character.charCount(codePoint);
+            if (codePoint < 128 && Character.isLetterOrDigit(codePoint)) {
+                flushLoneHan(terms, previousHan, hanEmitted || expand);
+                previousHan = -1;
+                hanEmitted = false;
+                if (word.length() < MAX_TERM_LENGTH) {
+                    word.append((char) Character.toLowerCase(codePoint));
+                }
+                continue;
+            }
+            flushWord(terms, word, expand);
+            if (Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN) {
+                if (expand) {
+                    terms.add(Character.toString(codePoint));
+                }
+                if (previousHan >= 0) {
+                    terms.add(new StringBuilder(4).appendCodePoint(previousHan).appendCodePoint(codePoint).toString());
+                    hanEmitted = true;
+                }
+                previousHan = codePoint;
+            } else {
+                flushLoneHan(terms, previousHan, hanEmitted || expand);
+                previousHan = -1;
+                hanEmitted = false;
+            }
+        }
+        flushWord(terms, word, expand);
+        flushLoneHan(terms, previousHan, hanEmitted || expand);
+        return terms;
+    }
+
+    private static void flushWord(List<String> terms, StringBuilder word, boolean withPrefixes) {
+        if (word.isEmpty()) {
+            return;
+        }
+        if (withPrefixes) {
+            for (int length = MIN_PREFIX_LENGTH; length < word.length() && length <= MAX_PREFIX_LENGTH; length++) {
+                terms.add(word.substring(0, length));
+            }
+        }
+        terms.add(word.toString());
+        word.setLength(0);
+    }
+
+    private static void flushLoneHan(List<String> terms, int previousHan, boolean hanEmitted) {
+        if (previousHan >= 0 && !hanEmitted) {
+            terms.add(Character.toString(previousHan));
+        }
+    }
+}
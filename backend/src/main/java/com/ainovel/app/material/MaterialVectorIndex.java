@@ -5,5 +5,12 @@ import java.util.List;
 public interface MaterialVectorIndex {
     void upsert(MaterialChunk chunk, float[] vector);
 
+    /** Upserts {@code chunks[i]} with {@code vectors[i]}; both lists have the same size. */
+    default void upsertAll(List<MaterialChunk> chunks, List<float[]> vectors) {
+        for (int i = 0; i < chunks.size(); i++) {
+            upsert(chunks.get(i), vectors.get(i));
+        }
+    }
+
     List<VectorMatch> search(float[] vector, int limit);
 }
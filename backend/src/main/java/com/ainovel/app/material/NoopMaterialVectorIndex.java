@@ -12,6 +12,10 @@ public class NoopMaterialVectorIndex implements MaterialVectorIndex {
     public void upsert(MaterialChunk chunk, float[] vector) {
     }
 
+    @Override
+    public void upsertAll(List<MaterialChunk> chunks, List<float[]> vectors) {
+    }
+
     @Override
     public List<VectorMatch> search(float[] vector, int limit) {
         return List.of();
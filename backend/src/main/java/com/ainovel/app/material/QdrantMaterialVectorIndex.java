@@ -1,11 +1,17 @@
 package com.ainovel.app.material;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -18,19 +24,24 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Component
 @ConditionalOnProperty(prefix = "qdrant", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class QdrantMaterialVectorIndex implements MaterialVectorIndex {
+    private static final Logger log = LoggerFactory.getLogger(QdrantMaterialVectorIndex.class);
+
     private final ObjectMapper objectMapper;
     private final HttpClient httpClient = HttpClient.newBuilder().build();
     private final String baseUrl;
     private final String collection;
     private final AtomicInteger ensuredDimensions = new AtomicInteger(0);
+    private final int pointsPerRequest;
 
     public QdrantMaterialVectorIndex(
             ObjectMapper objectMapper,
             @Value("${qdrant.host:http://base.seekerhut.com}") String host,
             @Value("${qdrant.http-port:26333}") int port,
-            @Value("${qdrant.material-collection:ainovel_material_chunks}") String collection
+            @Value("${qdrant.material-collection:ainovel_material_chunks}") String collection,
+            @Value("${qdrant.upsert-batch-size:128}") int pointsPerRequest
     ) {
         this.objectMapper = objectMapper;
+        this.pointsPerRequest = Math.max(1, pointsPerRequest);
         String normalized = host == null || host.isBlank() ? "http://base.seekerhut.com" : host.trim();
         while (normalized.endsWith("/")) {
             normalized = normalized.substring(0, normalized.length() - 1);
@@ -44,26 +55,28 @@ public class QdrantMaterialVectorIndex implements MaterialVectorIndex {
 
     @Override
     public void upsert(MaterialChunk chunk, float[] vector) {
-        if (chunk == null || vector == null || vector.length == 0) {
+        upsertAll(List.of(chunk), List.of(vector));
+    }
+
+    @Override
+    public void upsertAll(List<MaterialChunk> chunks, List<float[]> vectors) {
+        List<MaterialChunk> points = new ArrayList<>(chunks.size());
+        List<float[]> pointVectors = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            float[] vector = vectors.get(i);
+            if (chunks.get(i) != null && vector != null && vector.length > 0) {
+                points.add(chunks.get(i));
+                pointVectors.add(vector);
+            }
+        }
+        if (points.isEmpty()) {
             return;
         }
-        ensureCollection(vector.length);
-        try {
-            Map<String, Object> body = Map.of(
-                    "points", List.of(Map.of(
-                            "id", chunk.chunkId(),
-                            "vector", floats(vector),
-                            "payload", Map.of(
-                                    "chunkId", chunk.chunkId(),
-                                    "materialId", chunk.materialId().toString(),
-                                    "title", chunk.title() == null ? "" : chunk.title(),
-                                    "chunkSeq", chunk.chunkSeq()
-                            )
-                    ))
-            );
-            send("PUT", "/collections/" + collection + "/points?wait=true", body);
-        } catch (RuntimeException ignored) {
-            // Indexing is best effort; keyword retrieval remains available.
+        ensureCollection(pointVectors.get(0).length);
+        for (int from = 0; from < points.size(); from += pointsPerRequest) {
+            int to = Math.min(points.size(), from + pointsPerRequest);
+            send("PUT", "/collections/" + collection + "/points?wait=true",
+                    pointsBody(points.subList(from, to), pointVectors.subList(from, to)));
         }
     }
 
@@ -72,10 +85,10 @@ public class QdrantMaterialVectorIndex implements MaterialVectorIndex {
         if (vector == null || vector.length == 0) {
             return List.of();
         }
-        ensureCollection(vector.length);
         try {
+            ensureCollection(vector.length);
             Map<String, Object> body = Map.of(
-                    "vector", floats(vector),
+                    "vector", vector,
                     "limit", Math.max(1, Math.min(limit, 50)),
                     "with_payload", true
             );
@@ -89,7 +102,9 @@ public class QdrantMaterialVectorIndex implements MaterialVectorIndex {
                 }
             }
             return matches;
-        } catch (RuntimeException ignored) {
+        } catch (RuntimeException ex) {
+            // Keyword retrieval remains available without the vector index.
+            log.warn("Qdrant search in collection {} failed: {}", collection, ex.getMessage());
             return List.of();
         }
     }
@@ -98,25 +113,64 @@ public class QdrantMaterialVectorIndex implements MaterialVectorIndex {
         if (dimensions <= 0 || ensuredDimensions.get() == dimensions) {
             return;
         }
-        try {
-            Map<String, Object> body = Map.of(
-                    "vectors", Map.of(
-                            "size", dimensions,
-                            "distance", "Cosine"
-                    )
-            );
-            send("PUT", "/collections/" + collection, body);
-            ensuredDimensions.set(dimensions);
-        } catch (RuntimeException ignored) {
+        Map<String, Object> body = Map.of(
+                "vectors", Map.of(
+                        "size", dimensions,
+                        "distance", "Cosine"
+                )
+        );
+        send("PUT", "/collections/" + collection, body);
+        ensuredDimensions.set(dimensions);
+    }
+
+    /**
+     * Writes the points straight through a generator, vectors as primitive number arrays,
+     * instead of building a {@code Map} tree with boxed {@code List<Float>} vectors.
+     */
+    private byte[] pointsBody(List<MaterialChunk> chunks, List<float[]> vectors) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(chunks.size() * (vectors.get(0).length * 12 + 256));
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(buffer)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("points");
+            for (int i = 0; i < chunks.size(); i++) {
+                MaterialChunk chunk = chunks.get(i);
+                json.writeStartObject();
+                json.writeStringField("id", chunk.chunkId());
+                json.writeArrayFieldStart("vector");
+                for (float value : vectors.get(i)) {
+                    json.writeNumber(value);
+                }
+                json.writeEndArray();
+                json.writeObjectFieldStart("payload");
+                json.writeStringField("chunkId", chunk.chunkId());
+                json.writeStringField("materialId", chunk.materialId().toString());
+                json.writeStringField("title", chunk.title() == null ? "" : chunk.title());
+                json.writeNumberField("chunkSeq", chunk.chunkSeq());
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
         }
+        return buffer.toByteArray();
     }
 
     private JsonNode send(String method, String path, Object body) {
+        try {
+            return send(method, path, objectMapper.writeValueAsBytes(body));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Qdrant request failed", ex);
+        }
+    }
+
+    private JsonNode send(String method, String path, byte[] body) {
         try {
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(baseUrl + path))
                     .header("Content-Type", "application/json")
-                    .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
                     .build();
             HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
             if (response.statusCode() < 200 || response.statusCode() >= 300) {
@@ -127,12 +181,4 @@ public class QdrantMaterialVectorIndex implements MaterialVectorIndex {
             throw new IllegalStateException("Qdrant request failed", ex);
         }
     }
-
-    private List<Float> floats(float[] vector) {
-        List<Float> values = new ArrayList<>(vector.length);
-        for (float value : vector) {
-            values.add(value);
-        }
-        return values;
-    }
 }
@@ -2,7 +2,22 @@ package com.ainovel.app.material;
 
 import com.ainovel.app.user.User;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @FunctionalInterface
 public interface TextEmbeddingClient {
     float[] embed(User user, String text);
+
+    /**
+     * Embeds {@code texts} in order; the result has one vector per input, empty where a text
+     * could not be embedded. Implementations backed by a remote model should batch the calls.
+     */
+    default List<float[]> embedAll(User user, List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            vectors.add(embed(user, text));
+        }
+        return vectors;
+    }
 }
@@ -0,0 +1,72 @@
+package com.ainovel.app.material.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "material_chunks",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_material_chunk", columnNames = {"chunk_id"})
+        },
+        indexes = {
+                @Index(name = "idx_material_chunk_material", columnList = "material_id"),
+                @Index(name = "idx_material_chunk_user", columnList = "user_id")
+        })
+public class MaterialIndexedChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "chunk_id", nullable = false)
+    private UUID chunkId;
+
+    @Column(name = "material_id", nullable = false)
+    private UUID materialId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "chunk_seq", nullable = false)
+    private int chunkSeq;
+
+    private String title;
+
+    @Column(name = "content", columnDefinition = "longtext")
+    private String content;
+
+    @Column(name = "tags_json", columnDefinition = "longtext")
+    private String tagsJson;
+
+    /** Number of content terms, the document length of BM25. */
+    @Column(name = "term_count", nullable = false)
+    private int termCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    public MaterialIndexedChunk() {}
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public UUID getChunkId() { return chunkId; }
+    public void setChunkId(UUID chunkId) { this.chunkId = chunkId; }
+    public UUID getMaterialId() { return materialId; }
+    public void setMaterialId(UUID materialId) { this.materialId = materialId; }
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public int getChunkSeq() { return chunkSeq; }
+    public void setChunkSeq(int chunkSeq) { this.chunkSeq = chunkSeq; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public String getTagsJson() { return tagsJson; }
+    public void setTagsJson(String tagsJson) { this.tagsJson = tagsJson; }
+    public int getTermCount() { return termCount; }
+    public void setTermCount(int termCount) { this.termCount = termCount; }
+    public Instant getCreatedAt() { return createdAt; }
+}
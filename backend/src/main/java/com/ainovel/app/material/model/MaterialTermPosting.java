@@ -0,0 +1,63 @@
+package com.ainovel.app.material.model;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * One term of one indexed chunk. {@code fieldMask} records which fields contain the term
+ * (see {@code MaterialTermIndex}); {@code chunkTermCount} is copied from the chunk so scoring
+ * never has to load chunk rows.
+ */
+@Entity
+@Table(name = "material_term_postings",
+        indexes = {
+                @Index(name = "idx_material_posting_user_term", columnList = "user_id,term"),
+                @Index(name = "idx_material_posting_term", columnList = "term"),
+                @Index(name = "idx_material_posting_material", columnList = "material_id")
+        })
+public class MaterialTermPosting {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "term", nullable = false, length = 64)
+    private String term;
+
+    @Column(name = "chunk_id", nullable = false)
+    private UUID chunkId;
+
+    @Column(name = "material_id", nullable = false)
+    private UUID materialId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "term_frequency", nullable = false)
+    private int termFrequency;
+
+    @Column(name = "field_mask", nullable = false)
+    private int fieldMask;
+
+    @Column(name = "chunk_term_count", nullable = false)
+    private int chunkTermCount;
+
+    public MaterialTermPosting() {}
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public String getTerm() { return term; }
+    public void setTerm(String term) { this.term = term; }
+    public UUID getChunkId() { return chunkId; }
+    public void setChunkId(UUID chunkId) { this.chunkId = chunkId; }
+    public UUID getMaterialId() { return materialId; }
+    public void setMaterialId(UUID materialId) { this.materialId = materialId; }
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public int getTermFrequency() { return termFrequency; }
+    public void setTermFrequency(int termFrequency) { this.termFrequency = termFrequency; }
+    public int getFieldMask() { return fieldMask; }
+    public void setFieldMask(int fieldMask) { this.fieldMask = fieldMask; }
+    public int getChunkTermCount() { return chunkTermCount; }
+    public void setChunkTermCount(int chunkTermCount) { this.chunkTermCount = chunkTermCount; }
+}
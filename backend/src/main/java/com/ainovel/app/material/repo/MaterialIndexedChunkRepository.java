@@ -0,0 +1,40 @@
+package com.ainovel.app.material.repo;
+
+import com.ainovel.app.material.model.MaterialIndexedChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface MaterialIndexedChunkRepository extends JpaRepository<MaterialIndexedChunk, UUID> {
+    List<MaterialIndexedChunk> findByChunkIdIn(Collection<UUID> chunkIds);
+
+    @Modifying
+    @Query("delete from MaterialIndexedChunk c where c.materialId = :materialId")
+    int deleteByMaterialId(@Param("materialId") UUID materialId);
+
+    /** Chunk count and mean term count over every chunk. */
+    @Query("""
+            select count(c) as chunks, coalesce(avg(c.termCount), 0) as averageTermCount
+            from MaterialIndexedChunk c
+            """)
+    CorpusStats corpusStats();
+
+    /** Chunk count and mean term count over the chunks visible to {@code userId}: their own plus shared ones. */
+    @Query("""
+            select count(c) as chunks, coalesce(avg(c.termCount), 0) as averageTermCount
+            from MaterialIndexedChunk c
+            where c.userId = :userId or c.userId is null
+            """)
+    CorpusStats corpusStatsVisibleTo(@Param("userId") UUID userId);
+
+    interface CorpusStats {
+        long getChunks();
+
+        double getAverageTermCount();
+    }
+}
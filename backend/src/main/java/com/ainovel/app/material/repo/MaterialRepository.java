@@ -2,7 +2,10 @@ package com.ainovel.app.material.repo;
 
 import com.ainovel.app.material.model.Material;
 import com.ainovel.app.user.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
@@ -10,4 +13,12 @@ import java.util.UUID;
 public interface MaterialRepository extends JpaRepository<Material, UUID> {
     List<Material> findByUser(User user);
     long countByStatusIgnoreCase(String status);
+
+    @Query("""
+            select m.id from Material m
+            where lower(m.status) = 'approved' and m.id > :after
+              and not exists (select 1 from MaterialIndexedChunk c where c.materialId = m.id)
+            order by m.id
+            """)
+    List<UUID> findApprovedIdsWithoutIndexedChunks(@Param("after") UUID after, Pageable page);
 }
@@ -0,0 +1,26 @@
+package com.ainovel.app.material.repo;
+
+import com.ainovel.app.material.model.MaterialTermPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface MaterialTermPostingRepository extends JpaRepository<MaterialTermPosting, UUID> {
+    List<MaterialTermPosting> findByTermIn(Collection<String> terms);
+
+    /** Postings of {@code terms} on the chunks visible to {@code userId}: their own plus shared ones. */
+    @Query("""
+            select p from MaterialTermPosting p
+            where p.term in :terms and (p.userId = :userId or p.userId is null)
+            """)
+    List<MaterialTermPosting> findVisible(@Param("userId") UUID userId, @Param("terms") Collection<String> terms);
+
+    @Modifying
+    @Query("delete from MaterialTermPosting p where p.materialId = :materialId")
+    int deleteByMaterialId(@Param("materialId") UUID materialId);
+}
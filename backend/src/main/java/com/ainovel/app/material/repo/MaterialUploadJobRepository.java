@@ -3,6 +3,9 @@ package com.ainovel.app.material.repo;
 import com.ainovel.app.material.model.MaterialUploadJob;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Optional;
 import java.util.UUID;
 
-public interface MaterialUploadJobRepository extends JpaRepository<MaterialUploadJob, UUID> {}
+public interface MaterialUploadJobRepository extends JpaRepository<MaterialUploadJob, UUID> {
+    Optional<MaterialUploadJob> findFirstByResultMaterialIdOrderByCreatedAtDesc(UUID resultMaterialId);
+}
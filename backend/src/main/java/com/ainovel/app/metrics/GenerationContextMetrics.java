@@ -0,0 +1,30 @@
+package com.ainovel.app.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts material retrievals made for scene generation and the prompts that reused one instead of searching
+ * again (retries and the second candidate of an evaluation pair). Shown next to stage latency in admin ops.
+ */
+@Component
+public class GenerationContextMetrics {
+    private final AtomicLong retrievalCalls = new AtomicLong();
+    private final AtomicLong retrievalCallsSaved = new AtomicLong();
+
+    public void recordRetrieval() {
+        retrievalCalls.incrementAndGet();
+    }
+
+    public void recordRetrievalReuse() {
+        retrievalCallsSaved.incrementAndGet();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(retrievalCalls.get(), retrievalCallsSaved.get());
+    }
+
+    public record Snapshot(long retrievalCalls, long retrievalCallsSaved) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.ainovel.app.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-process latency of named pipeline stages (scene draft, quality gate, background analysis and so on),
+ * keeping the most recent samples of each stage for percentiles. Shown next to request metrics in admin ops.
+ */
+@Component
+public class StageLatencyMetrics {
+    public static final String SCENE_GENERATION = "scene.generation";
+    public static final String SCENE_DRAFT = "scene.draft";
+    public static final String SCENE_SLOP_GATE = "scene.slop_gate";
+    public static final String SCENE_PLOT_QUALITY_WAIT = "scene.plot_quality.wait";
+    public static final String SCENE_PLOT_QUALITY = "scene.plot_quality";
+
+    private static final int MAX_SAMPLES = 500;
+
+    private final Map<String, Stage> stages = new ConcurrentHashMap<>();
+
+    public void record(String stage, long latencyMs) {
+        stages.computeIfAbsent(stage, ignored -> new Stage()).add(Math.max(0L, latencyMs));
+    }
+
+    /** Runs {@code call} and records its wall time under {@code stage}, whether it returns or throws. */
+    public <T> T time(String stage, Supplier<T> call) {
+        long started = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            record(stage, (System.nanoTime() - started) / 1_000_000L);
+        }
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        stages.forEach((name, stage) -> result.put(name, stage.snapshot()));
+        return result;
+    }
+
+    private static final class Stage {
+        private final long[] samples = new long[MAX_SAMPLES];
+        private long count;
+
+        synchronized void add(long latencyMs) {
+            samples[(int) (count % MAX_SAMPLES)] = latencyMs;
+            count++;
+        }
+
+        synchronized Snapshot snapshot() {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, MAX_SAMPLES));
+            Arrays.sort(sorted);
+            return new Snapshot(count, percentile(sorted, 0.50), percentile(sorted, 0.95),
+                    sorted.length == 0 ? 0L : sorted[sorted.length - 1]);
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0L;
+            }
+            int index = (int) Math.ceil(sorted.length * percentile) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+    }
+
+    public record Snapshot(long count, long p50LatencyMs, long p95LatencyMs, long maxLatencyMs) {
+    }
+}
@@ -44,9 +44,10 @@ public class LocalSlopHeuristics {
 
     public SlopHeuristicResult evaluate(SlopHeuristicInput input) {
         SlopHeuristicInput safeInput = input == null ? SlopHeuristicInput.textOnly("") : input;
+        SlopTextProfile profile = SlopTextProfile.of(safeInput.text());
         List<SlopPatternHit> activeHits = matcher.match(safeInput.text(), registry.activeRules());
         List<SlopIssueDraft> issues = new ArrayList<>(aggregator.aggregate(safeInput, activeHits));
-        SlopIssueDraft repetition = repetitionDetector.detect(safeInput.text());
+        SlopIssueDraft repetition = repetitionDetector.detect(profile);
         if (repetition != null) issues.add(repetition);
         issues = issues.stream()
                 .sorted(Comparator.comparingInt(SlopIssueDraft::riskScore).reversed()
@@ -62,7 +63,7 @@ public class LocalSlopHeuristics {
         boolean requiresAiReview = risk >= policy.aiReviewRiskThreshold()
                 || severity == SlopSeverity.HIGH
                 || severity == SlopSeverity.BLOCKING;
-        List<SlopShadowHit> shadowHits = shadowAnalyzer.analyze(safeInput.text(), registry.shadowRules());
+        List<SlopShadowHit> shadowHits = shadowAnalyzer.analyze(profile, registry.shadowRules());
         return new SlopHeuristicResult(risk, severity, requiresAiReview, issues, shadowHits);
     }
 
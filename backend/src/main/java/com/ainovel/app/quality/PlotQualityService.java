@@ -4,11 +4,13 @@ import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.ai.AiService;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
-import com.ainovel.app.manuscript.repo.ManuscriptRepository;
 import com.ainovel.app.quality.model.PlotQualityIssue;
 import com.ainovel.app.quality.model.PlotQualityRun;
 import com.ainovel.app.quality.repo.PlotQualityRunRepository;
+import com.ainovel.app.story.ParsedOutline;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.CharacterCard;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
@@ -33,26 +35,29 @@ public class PlotQualityService {
     private static final Pattern HTML_TAG_PATTERN = Pattern.compile("<[^>]+>");
     private final AiService aiService;
     private final ObjectMapper objectMapper;
-    private final ManuscriptRepository manuscriptRepository;
     private final CharacterCardRepository characterCardRepository;
     private final PlotQualityRunRepository runRepository;
     private final SlopQualityGate slopQualityGate;
     private final JsonColumnCodec jsonColumnCodec;
+    private final ManuscriptSectionStore sectionStore;
+    private final ParsedOutlineCache parsedOutlineCache;
 
     public PlotQualityService(AiService aiService,
                               ObjectMapper objectMapper,
-                              ManuscriptRepository manuscriptRepository,
                               CharacterCardRepository characterCardRepository,
                               PlotQualityRunRepository runRepository,
                               SlopQualityGate slopQualityGate,
-                              JsonColumnCodec jsonColumnCodec) {
+                              JsonColumnCodec jsonColumnCodec,
+                              ManuscriptSectionStore sectionStore,
+                              ParsedOutlineCache parsedOutlineCache) {
         this.aiService = aiService;
         this.objectMapper = objectMapper;
-        this.manuscriptRepository = manuscriptRepository;
         this.characterCardRepository = characterCardRepository;
         this.runRepository = runRepository;
         this.slopQualityGate = slopQualityGate;
         this.jsonColumnCodec = jsonColumnCodec;
+        this.sectionStore = sectionStore;
+        this.parsedOutlineCache = parsedOutlineCache;
     }
 
     public List<PlotQualityRun> listRuns(UUID manuscriptId, UUID sceneId) {
@@ -61,12 +66,14 @@ public class PlotQualityService {
                 : runRepository.findTop20ByManuscriptIdAndSceneIdOrderByCreatedAtDesc(manuscriptId, sceneId);
     }
 
-    @Transactional
     public PlotQualityRun analyzeScene(User user, Manuscript manuscript, UUID sceneId) {
         return analyze(user, buildRequest(manuscript, sceneId));
     }
 
-    @Transactional
+    /**
+     * Not transactional, so the model call holds no connection. Runs are append-only and carry the hash of
+     * the text they analyzed, so a run over text that changed meanwhile is detected where it is used.
+     */
     public PlotQualityRun analyze(User user, PlotQualityRequest request) {
         try {
             String content = aiService.chat(user, new AiChatRequest(
@@ -90,7 +97,7 @@ public class PlotQualityService {
     private PlotQualityRequest buildRequest(Manuscript manuscript, UUID sceneId) {
         Outline outline = manuscript.getOutline();
         Story story = outline.getStory();
-        Map<String, String> sections = readSectionMap(manuscript.getSectionsJson());
+        Map<String, String> sections = sectionStore.readAll(manuscript);
         SceneContext scene = resolveScene(outline, sceneId);
         return new PlotQualityRequest(
                 story.getId(),
@@ -189,13 +196,10 @@ public class PlotQualityService {
                 "剧情修订候选采纳前未加载风格画像；仅按候选文本执行保守门禁。",
                 run.getRevisionCandidateText()
         ));
-        Map<String, String> sections = readSectionMap(manuscript.getSectionsJson());
-        sections.put(run.getSceneId().toString(), toEditorHtml(textGate.acceptedText()));
-        manuscript.setSectionsJson(writeJson(sections));
+        sectionStore.write(manuscript, run.getSceneId().toString(), toEditorHtml(textGate.acceptedText()));
         run.setRevisionApplied(true);
         run.setRevisionAppliedAt(Instant.now());
         run.setSourceTextHash(hashText(textGate.acceptedText()));
-        manuscriptRepository.save(manuscript);
         return runRepository.save(run);
     }
 
@@ -368,44 +372,23 @@ public class PlotQualityService {
     }
 
     private SceneContext resolveScene(Outline outline, UUID sceneId) {
-        Map<String, Object> root = readObjectMap(outline.getContentJson());
-        List<Map<String, Object>> chapters = listOfMap(root.get("chapters"));
-        for (int chapterIndex = 0; chapterIndex < chapters.size(); chapterIndex++) {
-            Map<String, Object> chapter = chapters.get(chapterIndex);
-            List<Map<String, Object>> scenes = listOfMap(chapter.get("scenes"));
-            List<UUID> previousSceneIds = new ArrayList<>();
-            for (int sceneIndex = 0; sceneIndex < scenes.size(); sceneIndex++) {
-                Map<String, Object> scene = scenes.get(sceneIndex);
-                UUID id = uuid(scene.get("id"));
-                if (id != null && id.equals(sceneId)) {
-                    return new SceneContext(
-                            safe(str(chapter.get("title"), ""), "未命名章节"),
-                            intVal(chapter.get("order"), chapterIndex + 1),
-                            safe(str(scene.get("title"), ""), "未命名场景"),
-                            intVal(scene.get("order"), sceneIndex + 1),
-                            safe(str(scene.get("summary"), ""), ""),
-                            previousSceneIds
-                    );
-                }
-                if (id != null) {
-                    previousSceneIds.add(id);
-                }
-            }
-        }
-        throw new BusinessException("场景不存在，无法进行剧情诊断");
+        ParsedOutline parsed = parsedOutlineCache.get(outline);
+        ParsedOutline.Scene scene = parsed.scene(sceneId)
+                .orElseThrow(() -> new BusinessException("场景不存在，无法进行剧情诊断"));
+        ParsedOutline.Chapter chapter = parsed.chapterOf(scene);
+        return new SceneContext(
+                safe(chapter.title(), "未命名章节"),
+                chapter.order() == null ? chapter.index() + 1 : chapter.order(),
+                safe(scene.title(), "未命名场景"),
+                scene.order() == null ? scene.index() + 1 : scene.order(),
+                safe(scene.summary(), ""),
+                scene.previousSceneIds()
+        );
     }
 
     private String outlinePlanning(Outline outline) {
-        Map<String, Object> root = readObjectMap(outline.getContentJson());
-        Object planning = root.get("planning");
-        if (planning == null) {
-            return "暂无结构规划。";
-        }
-        try {
-            return objectMapper.writeValueAsString(planning);
-        } catch (Exception ex) {
-            return String.valueOf(planning);
-        }
+        String planning = parsedOutlineCache.get(outline).planningJson();
+        return planning == null ? "暂无结构规划。" : planning;
     }
 
     private String previousContext(SceneContext scene, Map<String, String> sections) {
@@ -441,7 +424,7 @@ public class PlotQualityService {
     }
 
     private String currentPlainText(Manuscript manuscript, UUID sceneId) {
-        return stripHtml(readSectionMap(manuscript.getSectionsJson()).get(sceneId.toString()));
+        return stripHtml(sectionStore.read(manuscript, sceneId.toString()));
     }
 
     private Map<String, Object> parseJson(String raw) {
@@ -470,28 +453,6 @@ public class PlotQualityService {
         return text;
     }
 
-    private Map<String, String> readSectionMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, new HashMap<>());
-    }
-
-    private Map<String, Object> readObjectMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, new HashMap<>());
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> listOfMap(Object value) {
-        if (!(value instanceof List<?> list)) {
-            return List.of();
-        }
-        List<Map<String, Object>> out = new ArrayList<>();
-        for (Object item : list) {
-            if (item instanceof Map<?, ?> map) {
-                out.add(new HashMap<>((Map<String, Object>) map));
-            }
-        }
-        return out;
-    }
-
     private String writeJson(Object value) {
         return jsonColumnCodec.write(value, "[]");
     }
@@ -537,17 +498,6 @@ public class PlotQualityService {
         }
     }
 
-    private UUID uuid(Object value) {
-        if (value == null) {
-            return null;
-        }
-        try {
-            return UUID.fromString(value.toString());
-        } catch (Exception ex) {
-            return null;
-        }
-    }
-
     private PlotQualityDimension dimension(Object value) {
         try {
             return PlotQualityDimension.valueOf(str(value, "CAUSALITY"));
@@ -4,10 +4,13 @@ import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.ai.AiService;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.quality.model.SlopQualityIssue;
 import com.ainovel.app.quality.model.SlopQualityRun;
 import com.ainovel.app.quality.repo.SlopQualityRunRepository;
+import com.ainovel.app.story.ParsedOutline;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.CharacterCard;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
@@ -17,7 +20,6 @@ import com.ainovel.app.user.User;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -41,6 +43,8 @@ public class SlopDiagnosticService {
     private final StyleContextProvider styleContextProvider;
     private final SlopQualityRunRepository runRepository;
     private final JsonColumnCodec jsonColumnCodec;
+    private final ManuscriptSectionStore sectionStore;
+    private final ParsedOutlineCache parsedOutlineCache;
 
     public SlopDiagnosticService(AiService aiService,
                                  ObjectMapper objectMapper,
@@ -48,7 +52,9 @@ public class SlopDiagnosticService {
                                  CharacterCardRepository characterCardRepository,
                                  StyleContextProvider styleContextProvider,
                                  SlopQualityRunRepository runRepository,
-                                 JsonColumnCodec jsonColumnCodec) {
+                                 JsonColumnCodec jsonColumnCodec,
+                                 ManuscriptSectionStore sectionStore,
+                                 ParsedOutlineCache parsedOutlineCache) {
         this.aiService = aiService;
         this.objectMapper = objectMapper;
         this.heuristics = heuristics;
@@ -56,6 +62,8 @@ public class SlopDiagnosticService {
         this.styleContextProvider = styleContextProvider;
         this.runRepository = runRepository;
         this.jsonColumnCodec = jsonColumnCodec;
+        this.sectionStore = sectionStore;
+        this.parsedOutlineCache = parsedOutlineCache;
     }
 
     public List<SlopQualityRun> listRuns(UUID manuscriptId, UUID sceneId) {
@@ -65,12 +73,11 @@ public class SlopDiagnosticService {
         return runRepository.findTop20ByManuscriptIdOrderByCreatedAtDesc(manuscriptId);
     }
 
-    @Transactional
     public SlopQualityRun analyzeScene(User user, Manuscript manuscript, UUID sceneId) {
         return analyze(user, buildRequest(manuscript, sceneId));
     }
 
-    @Transactional
+    /** Not transactional, so the judge call holds no connection; the run is inserted by the repository's own transaction. */
     public SlopQualityRun analyze(User user, SlopQualityRequest request) {
         SlopHeuristicResult heuristicResult = heuristics.evaluate(SlopHeuristicInput.from(request, request.candidateText()));
         try {
@@ -88,7 +95,7 @@ public class SlopDiagnosticService {
     private SlopQualityRequest buildRequest(Manuscript manuscript, UUID sceneId) {
         Outline outline = manuscript.getOutline();
         Story story = outline.getStory();
-        Map<String, String> sections = readSectionMap(manuscript.getSectionsJson());
+        Map<String, String> sections = sectionStore.readAll(manuscript);
         SceneContext scene = resolveScene(outline, sceneId);
         return new SlopQualityRequest(
                 story.getId(),
@@ -108,29 +115,15 @@ public class SlopDiagnosticService {
     }
 
     private SceneContext resolveScene(Outline outline, UUID sceneId) {
-        Map<String, Object> root = readObjectMap(outline.getContentJson());
-        List<Map<String, Object>> chapters = listOfMap(root.get("chapters"));
-        for (int chapterIndex = 0; chapterIndex < chapters.size(); chapterIndex++) {
-            Map<String, Object> chapter = chapters.get(chapterIndex);
-            List<Map<String, Object>> scenes = listOfMap(chapter.get("scenes"));
-            List<UUID> previousSceneIds = new ArrayList<>();
-            for (int sceneIndex = 0; sceneIndex < scenes.size(); sceneIndex++) {
-                Map<String, Object> scene = scenes.get(sceneIndex);
-                UUID id = uuid(scene.get("id"));
-                if (id != null && id.equals(sceneId)) {
-                    return new SceneContext(
-                            safe(str(chapter.get("title"), ""), "未命名章节"),
-                            safe(str(scene.get("title"), ""), "未命名场景"),
-                            safe(str(scene.get("summary"), ""), ""),
-                            previousSceneIds
-                    );
-                }
-                if (id != null) {
-                    previousSceneIds.add(id);
-                }
-            }
-        }
-        throw new BusinessException("场景不存在，无法进行文本 slop 诊断");
+        ParsedOutline parsed = parsedOutlineCache.get(outline);
+        ParsedOutline.Scene scene = parsed.scene(sceneId)
+                .orElseThrow(() -> new BusinessException("场景不存在，无法进行文本 slop 诊断"));
+        return new SceneContext(
+                safe(parsed.chapterOf(scene).title(), "未命名章节"),
+                safe(scene.title(), "未命名场景"),
+                safe(scene.summary(), ""),
+                scene.previousSceneIds()
+        );
     }
 
     private String previousContext(SceneContext scene, Map<String, String> sections) {
@@ -419,28 +412,6 @@ public class SlopDiagnosticService {
         return value instanceof Map<?, ?> raw ? (Map<String, Object>) raw : Map.of();
     }
 
-    private Map<String, String> readSectionMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, Map.of());
-    }
-
-    private Map<String, Object> readObjectMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, Map.of());
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> listOfMap(Object value) {
-        if (!(value instanceof List<?> list)) {
-            return List.of();
-        }
-        List<Map<String, Object>> out = new ArrayList<>();
-        for (Object item : list) {
-            if (item instanceof Map<?, ?> map) {
-                out.add(new LinkedHashMap<>((Map<String, Object>) map));
-            }
-        }
-        return out;
-    }
-
     private String writeJson(Object value) {
         return jsonColumnCodec.write(value, "[]");
     }
@@ -614,17 +585,6 @@ public class SlopDiagnosticService {
         return text;
     }
 
-    private UUID uuid(Object value) {
-        if (value == null) {
-            return null;
-        }
-        try {
-            return UUID.fromString(value.toString());
-        } catch (Exception ignored) {
-            return null;
-        }
-    }
-
     private String safe(String value) {
         return safe(value, "未指定");
     }
@@ -4,16 +4,18 @@ import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.ai.AiService;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.quality.model.SlopDriftRun;
 import com.ainovel.app.quality.repo.SlopDriftRunRepository;
+import com.ainovel.app.story.ParsedOutline;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
 import com.ainovel.app.user.User;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -37,22 +39,31 @@ public class SlopDriftService {
     private final ObjectMapper objectMapper;
     private final SlopDriftRunRepository runRepository;
     private final JsonColumnCodec jsonColumnCodec;
+    private final ManuscriptSectionStore sectionStore;
+    private final ParsedOutlineCache parsedOutlineCache;
 
     public SlopDriftService(AiService aiService,
                             ObjectMapper objectMapper,
                             SlopDriftRunRepository runRepository,
-                            JsonColumnCodec jsonColumnCodec) {
+                            JsonColumnCodec jsonColumnCodec,
+                            ManuscriptSectionStore sectionStore,
+                            ParsedOutlineCache parsedOutlineCache) {
         this.aiService = aiService;
         this.objectMapper = objectMapper;
         this.runRepository = runRepository;
         this.jsonColumnCodec = jsonColumnCodec;
+        this.sectionStore = sectionStore;
+        this.parsedOutlineCache = parsedOutlineCache;
     }
 
     public List<SlopDriftRun> listRuns(UUID manuscriptId) {
         return runRepository.findTop20ByManuscriptIdOrderByCreatedAtDesc(manuscriptId);
     }
 
-    @Transactional
+    /**
+     * Not transactional: sections are streamed in by their own short reads, the drift call holds no
+     * connection and the run is inserted by the repository's own transaction.
+     */
     public SlopDriftRun analyze(User user, Manuscript manuscript) {
         DriftInput input = buildInput(manuscript);
         List<WindowSample> windows = buildWindows(input.fullText());
@@ -74,56 +85,54 @@ public class SlopDriftService {
     private DriftInput buildInput(Manuscript manuscript) {
         Outline outline = manuscript.getOutline();
         Story story = outline.getStory();
-        Map<String, String> sections = readSectionMap(manuscript.getSectionsJson());
-        List<OrderedScene> scenes = orderedScenes(outline);
+        Map<String, OrderedScene> scenes = new LinkedHashMap<>();
+        for (OrderedScene scene : orderedScenes(outline)) {
+            scenes.putIfAbsent(scene.sceneId().toString(), scene);
+        }
         StringBuilder fullText = new StringBuilder();
-        int totalCharacters = 0;
-        for (OrderedScene scene : scenes) {
-            String text = stripHtml(sections.get(scene.sceneId().toString()));
+        int[] totalCharacters = {0};
+        sectionStore.forEachInOrder(manuscript, new ArrayList<>(scenes.keySet()), (sceneId, content) -> {
+            String text = stripHtml(content);
             if (text.isBlank()) {
-                continue;
+                return;
             }
+            OrderedScene scene = scenes.get(sceneId);
             if (!fullText.isEmpty()) {
                 fullText.append("\n\n");
             }
             fullText.append("第").append(scene.chapterOrder()).append("章《").append(scene.chapterTitle()).append("》 ")
                     .append("第").append(scene.sceneOrder()).append("节《").append(scene.sceneTitle()).append("》\n")
                     .append(text);
-            totalCharacters += text.length();
-        }
+            totalCharacters[0] += text.length();
+        });
         return new DriftInput(
                 story.getId(),
                 manuscript.getId(),
                 safe(story.getTitle(), "未命名故事"),
                 safe(story.getGenre(), "未指定"),
                 safe(story.getTone(), "沉浸、连贯"),
-                totalCharacters,
+                totalCharacters[0],
                 fullText.toString(),
                 hash(fullText.toString())
         );
     }
 
     private List<OrderedScene> orderedScenes(Outline outline) {
-        Map<String, Object> root = readObjectMap(outline.getContentJson());
-        List<Map<String, Object>> chapters = listOfMap(root.get("chapters"));
+        ParsedOutline parsed = parsedOutlineCache.get(outline);
         List<OrderedScene> scenes = new ArrayList<>();
-        for (int chapterIndex = 0; chapterIndex < chapters.size(); chapterIndex++) {
-            Map<String, Object> chapter = chapters.get(chapterIndex);
-            int chapterOrder = intVal(chapter.get("order"), chapterIndex + 1);
-            String chapterTitle = safe(str(chapter.get("title"), ""), "未命名章节");
-            List<Map<String, Object>> sceneList = listOfMap(chapter.get("scenes"));
-            for (int sceneIndex = 0; sceneIndex < sceneList.size(); sceneIndex++) {
-                Map<String, Object> scene = sceneList.get(sceneIndex);
-                UUID sceneId = uuid(scene.get("id"));
-                if (sceneId == null) {
+        for (ParsedOutline.Chapter chapter : parsed.chapters()) {
+            int chapterOrder = chapter.order() == null ? chapter.index() + 1 : chapter.order();
+            String chapterTitle = safe(chapter.title(), "未命名章节");
+            for (ParsedOutline.Scene scene : chapter.scenes()) {
+                if (scene.id() == null) {
                     continue;
                 }
                 scenes.add(new OrderedScene(
-                        sceneId,
+                        scene.id(),
                         chapterTitle,
                         chapterOrder,
-                        safe(str(scene.get("title"), ""), "未命名场景"),
-                        intVal(scene.get("order"), sceneIndex + 1)
+                        safe(scene.title(), "未命名场景"),
+                        scene.order() == null ? scene.index() + 1 : scene.order()
                 ));
             }
         }
@@ -327,28 +336,6 @@ public class SlopDriftService {
         }
     }
 
-    private Map<String, String> readSectionMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, Map.of());
-    }
-
-    private Map<String, Object> readObjectMap(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, Map.of());
-    }
-
-    @SuppressWarnings("unchecked")
-    private List<Map<String, Object>> listOfMap(Object value) {
-        if (!(value instanceof List<?> list)) {
-            return List.of();
-        }
-        List<Map<String, Object>> out = new ArrayList<>();
-        for (Object item : list) {
-            if (item instanceof Map<?, ?> map) {
-                out.add(new LinkedHashMap<>((Map<String, Object>) map));
-            }
-        }
-        return out;
-    }
-
     @SuppressWarnings("unchecked")
     private Map<String, Object> map(Object value) {
         return value instanceof Map<?, ?> raw ? (Map<String, Object>) raw : Map.of();
@@ -375,17 +362,6 @@ public class SlopDriftService {
                 .trim();
     }
 
-    private UUID uuid(Object value) {
-        if (value == null) {
-            return null;
-        }
-        try {
-            return UUID.fromString(value.toString());
-        } catch (Exception ex) {
-            return null;
-        }
-    }
-
     private int intVal(Object value, int fallback) {
         if (value instanceof Number number) {
             return number.intValue();
@@ -0,0 +1,188 @@
+package com.ainovel.app.quality;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aho–Corasick automaton over the literal matchers of a set of rules. One left-to-right pass
+ * reports every occurrence of every literal, including overlapping ones; callers decide which to keep.
+ *
+ * <p>Ignore-case automata fold both literals and text per {@code char} with
+ * {@link Character#toLowerCase(char)}, so hit offsets always index the original text.
+ */
+final class SlopLiteralAutomaton {
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final boolean ignoreCase;
+    private final SlopPatternRule[] patternRules;
+    private final int[] patternLengths;
+    private final int[] fail;
+    private final int[][] outputs;
+    private final long[] edgeKeys;
+    private final int[] edgeTargets;
+    private final int edgeMask;
+
+    interface HitSink {
+        void hit(int pattern, int start, int end);
+    }
+
+    private SlopLiteralAutomaton(boolean ignoreCase,
+                                 SlopPatternRule[] patternRules,
+                                 int[] patternLengths,
+                                 int[] fail,
+                                 int[][] outputs,
+                                 long[] edgeKeys,
+                                 int[] edgeTargets) {
+        this.ignoreCase = ignoreCase;
+        this.patternRules = patternRules;
+        this.patternLengths = patternLengths;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.edgeKeys = edgeKeys;
+        this.edgeTargets = edgeTargets;
+        this.edgeMask = edgeKeys.length - 1;
+    }
+
+    static SlopLiteralAutomaton build(List<SlopPatternRule> rules, boolean ignoreCase) {
+        List<SlopPatternRule> owners = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> own = new ArrayList<>();
+        children.add(new HashMap<>());
+        own.add(new ArrayList<>());
+        int edgeCount = 0;
+        for (SlopPatternRule rule : rules) {
+            for (String literal : rule.literals()) {
+                if (literal == null || literal.isEmpty()) continue;
+                int state = 0;
+                for (int i = 0; i < literal.length(); i++) {
+                    char c = fold(literal.charAt(i), ignoreCase);
+                    Integer next = children.get(state).get(c);
+                    if (next == null) {
+                        next = children.size();
+                        children.get(state).put(c, next);
+                        children.add(new HashMap<>());
+                        own.add(new ArrayList<>());
+                        edgeCount++;
+                    }
+                    state = next;
+                }
+                own.get(state).add(owners.size());
+                owners.add(rule);
+                lengths.add(literal.length());
+            }
+        }
+
+        int states = children.size();
+        int[] fail = new int[states];
+        int[][] outputs = new int[states][];
+        outputs[0] = toArray(own.get(0));
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            outputs[state] = merge(toArray(own.get(state)), outputs[fail[state]]);
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                int child = edge.getValue();
+                int f = fail[state];
+                while (f != 0 && !children.get(f).containsKey(edge.getKey())) {
+                    f = fail[f];
+                }
+                Integer target = children.get(f).get(edge.getKey());
+                fail[child] = target == null || target == child ? 0 : target;
+                queue.add(child);
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(4, edgeCount * 2) - 1) << 1;
+        long[] edgeKeys = new long[capacity];
+        int[] edgeTargets = new int[capacity];
+        Arrays.fill(edgeKeys, -1L);
+        for (int state = 0; state < states; state++) {
+            for (Map.Entry<Character, Integer> edge : children.get(state).entrySet()) {
+                long key = key(state, edge.getKey());
+                int slot = slot(key, capacity - 1);
+                while (edgeKeys[slot] != -1L) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                edgeKeys[slot] = key;
+                edgeTargets[slot] = edge.getValue();
+            }
+        }
+        return new SlopLiteralAutomaton(ignoreCase,
+                owners.toArray(SlopPatternRule[]::new),
+                lengths.stream().mapToInt(Integer::intValue).toArray(),
+                fail, outputs, edgeKeys, edgeTargets);
+    }
+
+    int patternCount() {
+        return patternRules.length;
+    }
+
+    SlopPatternRule rule(int pattern) {
+        return patternRules[pattern];
+    }
+
+    /** Reports hits in order of their end offset. */
+    void scan(String text, HitSink sink) {
+        if (patternRules.length == 0 || text == null || text.isEmpty()) {
+            return;
+        }
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i), ignoreCase);
+            int next = next(state, c);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = next(state, c);
+            }
+            state = next < 0 ? 0 : next;
+            for (int pattern : outputs[state]) {
+                sink.hit(pattern, i + 1 - patternLengths[pattern], i + 1);
+            }
+        }
+    }
+
+    private int next(int state, char c) {
+        long key = key(state, c);
+        int slot = slot(key, edgeMask);
+        while (true) {
+            long stored = edgeKeys[slot];
+            if (stored == key) return edgeTargets[slot];
+            if (stored == -1L) return -1;
+            slot = (slot + 1) & edgeMask;
+        }
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static char fold(char c, boolean ignoreCase) {
+        return ignoreCase ? Character.toLowerCase(c) : c;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.isEmpty() ? NO_OUTPUT : values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] merge(int[] left, int[] right) {
+        if (right.length == 0) return left;
+        if (left.length == 0) return right;
+        int[] merged = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, merged, left.length, right.length);
+        return merged;
+    }
+}
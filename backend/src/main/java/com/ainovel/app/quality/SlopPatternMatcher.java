@@ -17,20 +17,16 @@ final class SlopPatternMatcher {
 
     List<SlopPatternHit> match(String text, List<SlopPatternRule> rules) {
         String safeText = text == null ? "" : text;
-        String lower = safeText.toLowerCase(Locale.ROOT);
         List<SlopPatternHit> hits = new ArrayList<>();
         Set<String> seen = new HashSet<>();
+        Set<String> compiledRuleIds = new HashSet<>();
+        String lower = null;
         for (SlopPatternRule rule : rules) {
-            String haystack = rule.ignoreCase() ? lower : safeText;
-            for (String literal : rule.literals()) {
-                String needle = rule.ignoreCase() ? literal.toLowerCase(Locale.ROOT) : literal;
-                int from = 0;
-                while (from <= haystack.length() - needle.length()) {
-                    int start = haystack.indexOf(needle, from);
-                    if (start < 0) break;
-                    add(hits, seen, safeText, rule, start, start + needle.length());
-                    from = start + Math.max(1, needle.length());
-                }
+            if (registry.hasCompiledLiterals(rule)) {
+                compiledRuleIds.add(rule.id());
+            } else if (!rule.literals().isEmpty()) {
+                if (lower == null) lower = safeText.toLowerCase(Locale.ROOT);
+                matchLiterals(hits, seen, safeText, lower, rule);
             }
             for (Pattern pattern : registry.compiledRegexes(rule)) {
                 Matcher matcher = pattern.matcher(safeText);
@@ -39,6 +35,11 @@ final class SlopPatternMatcher {
                 }
             }
         }
+        if (!compiledRuleIds.isEmpty()) {
+            for (SlopLiteralAutomaton automaton : registry.literalAutomata()) {
+                matchAutomaton(hits, seen, safeText, automaton, compiledRuleIds);
+            }
+        }
         return hits.stream()
                 .sorted((left, right) -> {
                     int start = Integer.compare(left.start(), right.start());
@@ -47,6 +48,47 @@ final class SlopPatternMatcher {
                 .toList();
     }
 
+    private void matchAutomaton(List<SlopPatternHit> hits,
+                                Set<String> seen,
+                                String text,
+                                SlopLiteralAutomaton automaton,
+                                Set<String> ruleIds) {
+        int patterns = automaton.patternCount();
+        if (patterns == 0) return;
+        boolean[] wanted = new boolean[patterns];
+        boolean any = false;
+        for (int pattern = 0; pattern < patterns; pattern++) {
+            wanted[pattern] = ruleIds.contains(automaton.rule(pattern).id());
+            any |= wanted[pattern];
+        }
+        if (!any) return;
+        // Same non-overlapping scan per literal as indexOf: the next occurrence must start after the last one ends.
+        int[] nextStart = new int[patterns];
+        automaton.scan(text, (pattern, start, end) -> {
+            if (!wanted[pattern] || start < nextStart[pattern]) return;
+            nextStart[pattern] = end;
+            add(hits, seen, text, automaton.rule(pattern), start, end);
+        });
+    }
+
+    private void matchLiterals(List<SlopPatternHit> hits,
+                               Set<String> seen,
+                               String text,
+                               String lower,
+                               SlopPatternRule rule) {
+        String haystack = rule.ignoreCase() ? lower : text;
+        for (String literal : rule.literals()) {
+            String needle = rule.ignoreCase() ? literal.toLowerCase(Locale.ROOT) : literal;
+            int from = 0;
+            while (from <= haystack.length() - needle.length()) {
+                int start = haystack.indexOf(needle, from);
+                if (start < 0) break;
+                add(hits, seen, text, rule, start, start + needle.length());
+                from = start + Math.max(1, needle.length());
+            }
+        }
+    }
+
     private void add(List<SlopPatternHit> hits,
                      Set<String> seen,
                      String text,
@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 @Component
 public class SlopPatternRegistry {
@@ -35,6 +36,9 @@ public class SlopPatternRegistry {
     private final SlopPatternCatalog catalog;
     private final List<SlopPatternRule> rules;
     private final Map<String, List<Pattern>> compiledRegexes;
+    private final Set<String> automatonRuleIds;
+    private final SlopLiteralAutomaton caseSensitiveLiterals;
+    private final SlopLiteralAutomaton ignoreCaseLiterals;
 
     public SlopPatternRegistry() {
         this(Thread.currentThread().getContextClassLoader(), new ObjectMapper());
@@ -54,6 +58,14 @@ public class SlopPatternRegistry {
             }
             compiledRegexes = validateRules(loaded);
             rules = List.copyOf(loaded);
+            List<SlopPatternRule> matchable = rules.stream()
+                    .filter(rule -> rule.status() == SlopPatternStatus.ACTIVE || rule.status() == SlopPatternStatus.SHADOW)
+                    .toList();
+            automatonRuleIds = matchable.stream().map(SlopPatternRule::id).collect(Collectors.toUnmodifiableSet());
+            caseSensitiveLiterals = SlopLiteralAutomaton.build(
+                    matchable.stream().filter(rule -> !rule.ignoreCase()).toList(), false);
+            ignoreCaseLiterals = SlopLiteralAutomaton.build(
+                    matchable.stream().filter(SlopPatternRule::ignoreCase).toList(), true);
         } catch (IOException ex) {
             throw new IllegalStateException("Cannot load slop pattern registry", ex);
         }
@@ -79,6 +91,15 @@ public class SlopPatternRegistry {
         return compiledRegexes.getOrDefault(rule.id(), List.of());
     }
 
+    /** Whether the rule's literals are compiled into {@link #literalAutomata()}. */
+    boolean hasCompiledLiterals(SlopPatternRule rule) {
+        return automatonRuleIds.contains(rule.id());
+    }
+
+    List<SlopLiteralAutomaton> literalAutomata() {
+        return List.of(caseSensitiveLiterals, ignoreCaseLiterals);
+    }
+
     int windowChars() { return catalog.windowChars(); }
     int sameFamilyMediumCount() { return catalog.sameFamilyMediumCount(); }
     int sameFamilyHighCount() { return catalog.sameFamilyHighCount(); }
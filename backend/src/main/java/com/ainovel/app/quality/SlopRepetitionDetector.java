@@ -1,37 +1,47 @@
 package com.ainovel.app.quality;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
-
 final class SlopRepetitionDetector {
+    private static final int GRAM_STEP = SlopTextProfile.REPETITION_GRAM / 2;
+
     SlopIssueDraft detect(String text) {
-        if (text == null || text.isBlank()) return null;
-        StringBuilder compact = new StringBuilder();
-        int[] originalOffsets = new int[text.length()];
-        int compactIndex = 0;
-        for (int index = 0; index < text.length(); index++) {
-            char value = text.charAt(index);
-            if (!Character.isWhitespace(value)) {
-                compact.append(value);
-                originalOffsets[compactIndex++] = index;
+        return detect(SlopTextProfile.of(text));
+    }
+
+    SlopIssueDraft detect(SlopTextProfile profile) {
+        String text = profile.text();
+        int gramLength = SlopTextProfile.REPETITION_GRAM;
+        if (profile.compactLength() <= 30) return null;
+        int grams = (profile.compactLength() - gramLength) / GRAM_STEP + 1;
+        // Open-addressed table of sampled grams: slot -> first sampled position (+1) and count.
+        int capacity = Integer.highestOneBit(Math.max(2, grams * 4 / 3)) << 1;
+        int mask = capacity - 1;
+        long[] hashes = new long[capacity];
+        int[] firstPositions = new int[capacity];
+        int[] counts = new int[capacity];
+        int bestSlot = -1;
+        for (int position = 0; position + gramLength <= profile.compactLength(); position += GRAM_STEP) {
+            long hash = profile.gramHash(position);
+            int slot = (int) (hash ^ (hash >>> 29)) & mask;
+            while (firstPositions[slot] != 0
+                    && (hashes[slot] != hash || !profile.sameCompactRun(firstPositions[slot] - 1, position, gramLength))) {
+                slot = (slot + 1) & mask;
+            }
+            if (firstPositions[slot] == 0) {
+                hashes[slot] = hash;
+                firstPositions[slot] = position + 1;
+            }
+            counts[slot]++;
+            // Ties go to the gram sampled first, matching the insertion-ordered map this replaced.
+            if (counts[slot] >= 2 && (bestSlot < 0 || counts[slot] > counts[bestSlot]
+                    || (counts[slot] == counts[bestSlot] && firstPositions[slot] < firstPositions[bestSlot]))) {
+                bestSlot = slot;
             }
         }
-        if (compact.length() <= 30) return null;
-        int gramLength = 10;
-        Map<String, Integer> counts = new LinkedHashMap<>();
-        for (int index = 0; index + gramLength <= compact.length(); index += gramLength / 2) {
-            counts.merge(compact.substring(index, index + gramLength), 1, Integer::sum);
-        }
-        String repeated = counts.entrySet().stream()
-                .filter(entry -> entry.getValue() >= 2)
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
-                .orElse(null);
-        if (repeated == null) return null;
-        int count = counts.get(repeated);
-        int compactStart = compact.indexOf(repeated);
-        int start = originalOffsets[compactStart];
-        int end = originalOffsets[compactStart + repeated.length() - 1] + 1;
+        if (bestSlot < 0) return null;
+        int count = counts[bestSlot];
+        int compactStart = firstOccurrence(profile, firstPositions[bestSlot] - 1, hashes[bestSlot]);
+        int start = profile.originalOffset(compactStart);
+        int end = profile.originalOffset(compactStart + gramLength - 1) + 1;
         return new SlopIssueDraft(
                 SlopDimension.REPETITION,
                 count >= 3 ? SlopSeverity.HIGH : SlopSeverity.MEDIUM,
@@ -45,4 +55,16 @@ final class SlopRepetitionDetector {
                 "保留一次核心信息，其余改为动作、结果或删减。"
         );
     }
+
+    /** The gram may also occur at an unsampled offset before its first sampled position. */
+    private int firstOccurrence(SlopTextProfile profile, int sampled, long hash) {
+        long rolling = profile.gramHash(0);
+        for (int position = 0; position < sampled; position++) {
+            if (rolling == hash && profile.sameCompactRun(position, sampled, SlopTextProfile.REPETITION_GRAM)) {
+                return position;
+            }
+            rolling = profile.nextGramHash(rolling, position);
+        }
+        return sampled;
+    }
 }
@@ -1,9 +1,10 @@
 package com.ainovel.app.quality;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 final class SlopShadowAnalyzer {
     private static final List<String> CONNECTORS = List.of(
@@ -16,28 +17,42 @@ final class SlopShadowAnalyzer {
     }
 
     List<SlopShadowHit> analyze(String text, List<SlopPatternRule> rules) {
+        return analyze(SlopTextProfile.of(text), rules);
+    }
+
+    List<SlopShadowHit> analyze(SlopTextProfile profile, List<SlopPatternRule> rules) {
+        String text = profile.text();
+        List<SlopPatternRule> matcherRules = rules.stream().filter(rule -> !hasDetector(rule)).toList();
+        Map<String, List<SlopPatternHit>> hitsByRule = matcherRules.isEmpty()
+                ? Map.of()
+                : matcher.match(text, matcherRules).stream()
+                        .collect(Collectors.groupingBy(hit -> hit.rule().id()));
         List<SlopShadowHit> result = new ArrayList<>();
         for (SlopPatternRule rule : rules) {
-            SlopShadowHit hit = rule.detector() == null || rule.detector().isBlank()
-                    ? matched(text, rule)
-                    : detected(text, rule);
+            SlopShadowHit hit = hasDetector(rule)
+                    ? detected(profile, rule)
+                    : matched(rule, hitsByRule.getOrDefault(rule.id(), List.of()));
             if (hit != null) result.add(hit);
         }
         return List.copyOf(result);
     }
 
-    private SlopShadowHit matched(String text, SlopPatternRule rule) {
-        List<SlopPatternHit> hits = matcher.match(text, List.of(rule));
+    private boolean hasDetector(SlopPatternRule rule) {
+        return rule.detector() != null && !rule.detector().isBlank();
+    }
+
+    private SlopShadowHit matched(SlopPatternRule rule, List<SlopPatternHit> hits) {
         if (hits.isEmpty()) return null;
         SlopPatternHit first = hits.getFirst();
         return shadow(rule, hits.size(), first.start(), first.end(), first.evidence());
     }
 
-    private SlopShadowHit detected(String text, SlopPatternRule rule) {
+    private SlopShadowHit detected(SlopTextProfile profile, SlopPatternRule rule) {
+        String text = profile.text();
         return switch (rule.detector()) {
             case "RULE_OF_THREE" -> ruleOfThree(text, rule);
-            case "UNIFORM_SENTENCE_LENGTH" -> uniformSentenceLength(text, rule);
-            case "LOW_LEXICAL_VARIATION" -> lowLexicalVariation(text, rule);
+            case "UNIFORM_SENTENCE_LENGTH" -> uniformSentenceLength(profile, rule);
+            case "LOW_LEXICAL_VARIATION" -> lowLexicalVariation(profile, rule);
             case "CONNECTOR_DENSITY" -> connectorDensity(text, rule);
             default -> null;
         };
@@ -56,51 +71,55 @@ final class SlopShadowAnalyzer {
         return null;
     }
 
-    private SlopShadowHit uniformSentenceLength(String text, SlopPatternRule rule) {
-        String[] raw = text.split("[。！？!?]+");
-        List<String> sentences = new ArrayList<>();
-        for (String sentence : raw) if (!sentence.isBlank()) sentences.add(sentence.strip());
-        if (sentences.size() < 5) return null;
-        double average = sentences.stream().mapToInt(String::length).average().orElse(0);
+    private SlopShadowHit uniformSentenceLength(SlopTextProfile profile, SlopPatternRule rule) {
+        int sentences = profile.sentenceCount();
+        if (sentences < 5) return null;
+        long total = 0;
+        for (int i = 0; i < sentences; i++) total += profile.sentenceLength(i);
+        double average = total / (double) sentences;
         if (average < 8) return null;
-        double variance = sentences.stream().mapToDouble(value -> Math.pow(value.length() - average, 2)).average().orElse(0);
-        if (Math.sqrt(variance) / average > 0.12) return null;
-        String evidence = sentences.getFirst();
-        int start = text.indexOf(evidence);
-        return shadow(rule, sentences.size(), start, start + evidence.length(), evidence);
+        double squares = 0;
+        for (int i = 0; i < sentences; i++) {
+            double delta = profile.sentenceLength(i) - average;
+            squares += delta * delta;
+        }
+        if (Math.sqrt(squares / sentences) / average > 0.12) return null;
+        int start = profile.sentenceStart(0);
+        int end = start + profile.sentenceLength(0);
+        return shadow(rule, sentences, start, end, profile.text().substring(start, end));
     }
 
-    private SlopShadowHit lowLexicalVariation(String text, SlopPatternRule rule) {
-        String compact = text.replaceAll("[^\\p{IsHan}A-Za-z0-9]", "");
-        if (compact.length() < 120) return null;
-        Set<String> bigrams = new HashSet<>();
-        for (int index = 0; index + 2 <= compact.length(); index++) {
-            bigrams.add(compact.substring(index, index + 2));
-        }
-        double ratio = bigrams.size() / (double) (compact.length() - 1);
+    private SlopShadowHit lowLexicalVariation(SlopTextProfile profile, SlopPatternRule rule) {
+        int length = profile.lexicalLength();
+        if (length < 120) return null;
+        int bigrams = profile.distinctLexicalBigrams();
+        double ratio = bigrams / (double) (length - 1);
         if (ratio >= 0.45) return null;
+        String text = profile.text();
         String evidence = text.substring(0, Math.min(24, text.length()));
-        return shadow(rule, compact.length() - 1 - bigrams.size(), 0, evidence.length(), evidence);
+        return shadow(rule, length - 1 - bigrams, 0, evidence.length(), evidence);
     }
 
     private SlopShadowHit connectorDensity(String text, SlopPatternRule rule) {
-        List<Integer> offsets = new ArrayList<>();
+        int[] offsets = new int[16];
+        int count = 0;
         for (String connector : CONNECTORS) {
             int from = 0;
             while (from < text.length()) {
                 int at = text.indexOf(connector, from);
                 if (at < 0) break;
-                offsets.add(at);
+                if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+                offsets[count++] = at;
                 from = at + connector.length();
             }
         }
-        offsets.sort(Integer::compareTo);
+        Arrays.sort(offsets, 0, count);
         int right = 0;
-        for (int left = 0; left < offsets.size(); left++) {
-            while (right < offsets.size() && offsets.get(right) < offsets.get(left) + 500) right++;
+        for (int left = 0; left < count; left++) {
+            while (right < count && offsets[right] < offsets[left] + 500) right++;
             if (right - left >= 6) {
-                int start = offsets.get(left);
-                int end = Math.min(text.length(), offsets.get(right - 1) + 6);
+                int start = offsets[left];
+                int end = Math.min(text.length(), offsets[right - 1] + 6);
                 return shadow(rule, right - left, start, end, text.substring(start, end));
             }
         }
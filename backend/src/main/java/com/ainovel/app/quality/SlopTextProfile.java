@@ -0,0 +1,178 @@
+package com.ainovel.app.quality;
+
+import java.util.Arrays;
+
+/**
+ * One tokenizing pass over a scene shared by the repetition detector and the shadow detectors.
+ * Everything is kept in primitive arrays indexed back into the original text, so detectors
+ * never need their own copies, regexes or per-gram strings.
+ */
+final class SlopTextProfile {
+    static final int REPETITION_GRAM = 10;
+    private static final long HASH_BASE = 0x100000001B3L;
+    private static final long LEADING_WEIGHT = leadingWeight();
+
+    private final String text;
+    /** Non-whitespace chars of {@link #text}. */
+    private final char[] compact;
+    private final int compactLength;
+    /** Han and ASCII letter/digit chars only, the alphabet of the lexical-variation check. */
+    private final char[] lexical;
+    private final int lexicalLength;
+    /** Stripped, non-blank sentence spans split on 。！？!?. */
+    private final int[] sentenceStarts;
+    private final int[] sentenceEnds;
+    private final int sentenceCount;
+
+    private SlopTextProfile(String text) {
+        this.text = text;
+        int length = text.length();
+        char[] compactChars = new char[length];
+        char[] lexicalChars = new char[length];
+        int[] starts = new int[8];
+        int[] ends = new int[8];
+        int compactCount = 0;
+        int lexicalCount = 0;
+        int sentences = 0;
+        int sentenceStart = -1;
+        int sentenceEnd = -1;
+        for (int index = 0; index < length; ) {
+            int codePoint = text.codePointAt(index);
+            int width = Character.charCount(codePoint);
+            if (isSentenceDelimiter(codePoint)) {
+                if (sentenceStart >= 0) {
+                    if (sentences == starts.length) {
+                        starts = Arrays.copyOf(starts, sentences * 2);
+                        ends = Arrays.copyOf(ends, sentences * 2);
+                    }
+                    starts[sentences] = sentenceStart;
+                    ends[sentences] = sentenceEnd;
+                    sentences++;
+                    sentenceStart = -1;
+                }
+            } else if (!Character.isWhitespace(codePoint)) {
+                if (sentenceStart < 0) sentenceStart = index;
+                sentenceEnd = index + width;
+            }
+            if (isLexical(codePoint)) {
+                for (int i = 0; i < width; i++) lexicalChars[lexicalCount++] = text.charAt(index + i);
+            }
+            for (int i = 0; i < width; i++) {
+                char value = text.charAt(index + i);
+                if (!Character.isWhitespace(value)) {
+                    compactChars[compactCount++] = value;
+                }
+            }
+            index += width;
+        }
+        if (sentenceStart >= 0) {
+            if (sentences == starts.length) {
+                starts = Arrays.copyOf(starts, sentences + 1);
+                ends = Arrays.copyOf(ends, sentences + 1);
+            }
+            starts[sentences] = sentenceStart;
+            ends[sentences] = sentenceEnd;
+            sentences++;
+        }
+        this.compact = compactChars;
+        this.compactLength = compactCount;
+        this.lexical = lexicalChars;
+        this.lexicalLength = lexicalCount;
+        this.sentenceStarts = starts;
+        this.sentenceEnds = ends;
+        this.sentenceCount = sentences;
+    }
+
+    static SlopTextProfile of(String text) {
+        return new SlopTextProfile(text == null ? "" : text);
+    }
+
+    String text() {
+        return text;
+    }
+
+    int compactLength() {
+        return compactLength;
+    }
+
+    /** Offset in the original text of the compact char at {@code index}; only needed for evidence spans. */
+    int originalOffset(int index) {
+        int seen = -1;
+        for (int offset = 0; offset < text.length(); offset++) {
+            if (!Character.isWhitespace(text.charAt(offset)) && ++seen == index) {
+                return offset;
+            }
+        }
+        throw new IndexOutOfBoundsException(index);
+    }
+
+    /** Hash of the {@link #REPETITION_GRAM}-char window of the compact buffer starting at {@code start}. */
+    long gramHash(int start) {
+        long hash = 0;
+        for (int i = start; i < start + REPETITION_GRAM; i++) {
+            hash = hash * HASH_BASE + compact[i];
+        }
+        return hash;
+    }
+
+    /** Rolls the hash of the window at {@code start} forward to the window at {@code start + 1}. */
+    long nextGramHash(long hash, int start) {
+        return (hash - compact[start] * LEADING_WEIGHT) * HASH_BASE + compact[start + REPETITION_GRAM];
+    }
+
+    boolean sameCompactRun(int left, int right, int length) {
+        for (int i = 0; i < length; i++) {
+            if (compact[left + i] != compact[right + i]) return false;
+        }
+        return true;
+    }
+
+    int lexicalLength() {
+        return lexicalLength;
+    }
+
+    /** Number of distinct adjacent char pairs in the lexical buffer. */
+    int distinctLexicalBigrams() {
+        int pairs = lexicalLength - 1;
+        if (pairs <= 0) return 0;
+        int[] keys = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            keys[i] = (lexical[i] << 16) | lexical[i + 1];
+        }
+        Arrays.sort(keys);
+        int distinct = 1;
+        for (int i = 1; i < pairs; i++) {
+            if (keys[i] != keys[i - 1]) distinct++;
+        }
+        return distinct;
+    }
+
+    int sentenceCount() {
+        return sentenceCount;
+    }
+
+    int sentenceStart(int sentence) {
+        return sentenceStarts[sentence];
+    }
+
+    int sentenceLength(int sentence) {
+        return sentenceEnds[sentence] - sentenceStarts[sentence];
+    }
+
+    private static long leadingWeight() {
+        long weight = 1;
+        for (int i = 1; i < REPETITION_GRAM; i++) weight *= HASH_BASE;
+        return weight;
+    }
+
+    private static boolean isSentenceDelimiter(int codePoint) {
+        return codePoint == '。' || codePoint == '！' || codePoint == '？' || codePoint == '!' || codePoint == '?';
+    }
+
+    private static boolean isLexical(int codePoint) {
+        return (codePoint >= 'A' && codePoint <= 'Z')
+                || (codePoint >= 'a' && codePoint <= 'z')
+                || (codePoint >= '0' && codePoint <= '9')
+                || Character.UnicodeScript.of(codePoint) == Character.UnicodeScript.HAN;
+    }
+}
@@ -42,6 +42,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     private ObjectMapper objectMapper;
     @Autowired
     private ObjectProvider<UserSessionValidator> userSessionValidatorProvider;
+    @Autowired
+    private SessionAuthenticationCache sessionCache;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -85,14 +87,16 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 }
             }
 
-            try {
-                provisioningService.ensureExistsBestEffort(parsed.username(), parsed.role(), parsed.uid());
-            } catch (Exception ignored) {
-            }
-
+            ParsedTokenClaims claims = parsed;
             UserDetails userDetails;
             try {
-                userDetails = userDetailsService.loadUserByUsername(parsed.username());
+                userDetails = sessionCache.principal(claims.username(), claims.role(), claims.uid(), () -> {
+                    try {
+                        provisioningService.ensureExistsBestEffort(claims.username(), claims.role(), claims.uid());
+                    } catch (Exception ignored) {
+                    }
+                    return userDetailsService.loadUserByUsername(claims.username());
+                });
             } catch (Exception e) {
                 filterChain.doFilter(request, response);
                 return;
@@ -101,6 +105,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                     userDetails, null, userDetails.getAuthorities());
             authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(authToken);
+            if (parsed.uid() != null && parsed.sid() != null) {
+                request.setAttribute(SessionAuthenticationCache.SESSION_ATTRIBUTE,
+                        new SessionAuthenticationCache.Session(parsed.uid(), parsed.sid(), parsed.username()));
+            }
         } catch (Exception e) {
             log.warn("JWT validation failed: {}", e.getMessage());
         }
@@ -183,7 +191,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     }
 
     private boolean isSessionValid(UserSessionValidator validator, Long uid, String sid) {
-        return uid != null && uid > 0 && sid != null && !sid.isBlank() && validator.validate(uid, sid);
+        return uid != null && uid > 0 && sid != null && !sid.isBlank()
+                && sessionCache.isSessionValid(uid, sid, () -> validator.check(uid, sid));
     }
 
     private boolean isTokenNotExpired(Long expEpochSeconds) {
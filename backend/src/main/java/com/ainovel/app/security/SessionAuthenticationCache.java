@@ -0,0 +1,135 @@
+package com.ainovel.app.security;
+
+import com.ainovel.app.security.remote.UserSessionValidationProperties;
+import com.ainovel.app.security.remote.UserSessionValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived results of the per-request authentication work in {@link JwtAuthFilter}: userservice
+ * session checks keyed by (uid, sid), and the provisioned {@link UserDetails} keyed by username.
+ * userservice does not notify this service of revocations or password changes, so a session revoked
+ * there is honoured at most {@code sso.session-validation.cache-ttl-ms} late; only a logout through
+ * this service drops it at once. Bans are read per request by {@link SystemGuardFilter} and are not cached.
+ */
+@Component
+public class SessionAuthenticationCache {
+    /** Request attribute holding the {@link Session} the request was authenticated with. */
+    public static final String SESSION_ATTRIBUTE = SessionAuthenticationCache.class.getName() + ".session";
+
+    private final UserSessionValidationProperties properties;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<SessionKey, Expiring<Boolean>> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Expiring<CachedPrincipal>> principals = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SessionAuthenticationCache(UserSessionValidationProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    SessionAuthenticationCache(UserSessionValidationProperties properties, LongSupplier nanoClock) {
+        this.properties = properties;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Cached validity of the session, asking {@code validator} when absent or expired. Only verdicts are
+     * cached; an unreachable userservice rejects this request and the next one asks again.
+     */
+    public boolean isSessionValid(long uid, String sid, Supplier<UserSessionValidator.Verdict> validator) {
+        SessionKey key = new SessionKey(uid, sid);
+        long now = nanoClock.getAsLong();
+        Expiring<Boolean> cached = sessions.get(key);
+        if (cached != null && cached.isFresh(now)) {
+            return cached.value();
+        }
+        UserSessionValidator.Verdict verdict = validator.get();
+        if (verdict == UserSessionValidator.Verdict.UNAVAILABLE) {
+            return false;
+        }
+        boolean valid = verdict == UserSessionValidator.Verdict.VALID;
+        long ttlMs = valid ? properties.getCacheTtlMs() : properties.getNegativeCacheTtlMs();
+        put(sessions, key, new Expiring<>(valid, expiry(now, ttlMs)));
+        return valid;
+    }
+
+    /**
+     * Cached principal for {@code username}. {@code loader} provisions and loads the user; it is
+     * re-run when the entry expires or the token carries a different role or uid than last time.
+     */
+    public UserDetails principal(String username, String role, Long uid, Supplier<UserDetails> loader) {
+        long now = nanoClock.getAsLong();
+        Expiring<CachedPrincipal> cached = principals.get(username);
+        if (cached != null && cached.isFresh(now) && cached.value().matches(role, uid)) {
+            return cached.value().userDetails();
+        }
+        UserDetails userDetails = loader.get();
+        put(principals, username, new Expiring<>(new CachedPrincipal(userDetails, role, uid), expiry(now, properties.getCacheTtlMs())));
+        return userDetails;
+    }
+
+    /** Logout hook: the next request with this session is checked against userservice again. */
+    public void invalidateSession(long uid, String sid) {
+        sessions.remove(new SessionKey(uid, sid));
+    }
+
+    /** Logout hook: the next request of {@code username} loads the user again. */
+    public void invalidateUser(String username) {
+        if (username != null) {
+            principals.remove(username);
+        }
+    }
+
+    int size() {
+        return sessions.size() + principals.size();
+    }
+
+    private long expiry(long now, long ttlMs) {
+        return now + TimeUnit.MILLISECONDS.toNanos(Math.max(0L, ttlMs));
+    }
+
+    private <K, V> void put(ConcurrentMap<K, Expiring<V>> map, K key, Expiring<V> value) {
+        map.put(key, value);
+        int max = Math.max(1, properties.getCacheMaxEntries());
+        if (map.size() <= max) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        map.values().removeIf(entry -> !entry.isFresh(now));
+        // Still full of live entries: drop arbitrary ones rather than grow without bound.
+        Iterator<Map.Entry<K, Expiring<V>>> iterator = map.entrySet().iterator();
+        while (map.size() > max && iterator.hasNext()) {
+            if (!iterator.next().getKey().equals(key)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public record Session(long uid, String sid, String username) {
+    }
+
+    private record SessionKey(long uid, String sid) {
+    }
+
+    private record Expiring<V>(V value, long expiresAtNanos) {
+        boolean isFresh(long now) {
+            return now - expiresAtNanos < 0;
+        }
+    }
+
+    private record CachedPrincipal(UserDetails userDetails, String role, Long uid) {
+        boolean matches(String otherRole, Long otherUid) {
+            return Objects.equals(role, otherRole) && Objects.equals(uid, otherUid);
+        }
+    }
+}
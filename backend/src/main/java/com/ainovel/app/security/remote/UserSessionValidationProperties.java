@@ -10,6 +10,11 @@ public class UserSessionValidationProperties {
     private boolean enabled = true;
     private long timeoutMs = 2000;
     private String grpcAddress = "static://userservice.seekerhut.com:443";
+    /** How long a successful (uid, sid) validation is trusted before userservice is asked again. */
+    private long cacheTtlMs = 30000;
+    /** How long a rejected or unverifiable session stays rejected without another RPC. */
+    private long negativeCacheTtlMs = 5000;
+    private int cacheMaxEntries = 10000;
 
     public boolean isEnabled() {
         return enabled;
@@ -34,4 +39,28 @@ public class UserSessionValidationProperties {
     public void setGrpcAddress(String grpcAddress) {
         this.grpcAddress = grpcAddress;
     }
+
+    public long getCacheTtlMs() {
+        return cacheTtlMs;
+    }
+
+    public void setCacheTtlMs(long cacheTtlMs) {
+        this.cacheTtlMs = cacheTtlMs;
+    }
+
+    public long getNegativeCacheTtlMs() {
+        return negativeCacheTtlMs;
+    }
+
+    public void setNegativeCacheTtlMs(long negativeCacheTtlMs) {
+        this.negativeCacheTtlMs = negativeCacheTtlMs;
+    }
+
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    public void setCacheMaxEntries(int cacheMaxEntries) {
+        this.cacheMaxEntries = cacheMaxEntries;
+    }
 }
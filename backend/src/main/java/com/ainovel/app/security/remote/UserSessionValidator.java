@@ -2,8 +2,11 @@ package com.ainovel.app.security.remote;
 
 import fireflychat.user.v1.UserAuthServiceGrpc;
 import fireflychat.user.v1.ValidateSessionRequest;
+import com.ainovel.app.integration.ConsulServiceResolver;
 import com.ainovel.app.integration.ExternalServiceProperties;
 import com.ainovel.app.integration.GrpcChannelFactory;
+import com.ainovel.app.integration.GrpcEndpointManager;
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
 import io.grpc.stub.MetadataUtils;
@@ -15,13 +18,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.net.URI;
-import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -30,12 +27,9 @@ import java.util.concurrent.TimeUnit;
 public class UserSessionValidator {
     private static final Logger log = LoggerFactory.getLogger(UserSessionValidator.class);
 
-    private final ConsulUserGrpcEndpointResolver consulResolver;
     private final UserSessionValidationProperties properties;
     private final ExternalServiceProperties externalServiceProperties;
-    private final GrpcChannelFactory channelFactory;
-
-    private final ConcurrentMap<String, EndpointClient> endpointClients = new ConcurrentHashMap<>();
+    private final GrpcEndpointManager<EndpointClient> endpointManager;
 
     public UserSessionValidator(
             ConsulUserGrpcEndpointResolver consulResolver,
@@ -43,84 +37,79 @@ public class UserSessionValidator {
             ExternalServiceProperties externalServiceProperties,
             GrpcChannelFactory channelFactory
     ) {
-        this.consulResolver = consulResolver;
         this.properties = properties;
         this.externalServiceProperties = externalServiceProperties;
-        this.channelFactory = channelFactory;
+        this.endpointManager = new GrpcEndpointManager<>(
+                "userservice-grpc",
+                () -> consulResolver.resolve()
+                        .map(endpoint -> new ConsulServiceResolver.Endpoint(endpoint.host(), endpoint.port())),
+                channelFactory,
+                externalServiceProperties.getGrpc()
+        );
+    }
+
+    /**
+     * Outcome of one session check. Only {@link #VALID} and {@link #INVALID} are userservice's verdict on the
+     * session; {@link #UNAVAILABLE} means no verdict could be obtained and says nothing about the session.
+     */
+    public enum Verdict {
+        VALID,
+        INVALID,
+        UNAVAILABLE
     }
 
-    public boolean validate(long userId, String sessionId) {
+    public Verdict check(long userId, String sessionId) {
         if (userId <= 0 || sessionId == null || sessionId.isBlank()) {
-            return false;
+            return Verdict.INVALID;
         }
         String internalToken = externalServiceProperties.getSecurity().getUser().getInternalGrpcToken();
         if (internalToken == null || internalToken.isBlank()) {
             log.warn("Userservice session validation token is empty");
-            return false;
+            return Verdict.UNAVAILABLE;
         }
 
-        int connectTimeout = (int) Math.max(300L, properties.getTimeoutMs());
-        for (ConsulUserGrpcEndpointResolver.Endpoint endpoint : resolveCandidates()) {
-            if (!isTcpReachable(endpoint.host(), endpoint.port(), connectTimeout)) {
-                log.warn("Userservice session validation endpoint unreachable: {}:{}", endpoint.host(), endpoint.port());
-                continue;
-            }
-
-            EndpointClient client;
-            try {
-                client = getOrCreateClient(endpoint);
-            } catch (Exception e) {
-                log.warn("Create userservice session validation client failed: {}:{} -> {}", endpoint.host(), endpoint.port(), e.getMessage());
-                continue;
-            }
-
-            try {
-                boolean valid = client.stub()
-                        .withDeadlineAfter(Math.max(500L, properties.getTimeoutMs()), TimeUnit.MILLISECONDS)
-                        .validateSession(ValidateSessionRequest.newBuilder()
-                                .setUserId(userId)
-                                .setSessionId(sessionId)
-                                .build())
-                        .getValid();
-                if (valid) {
-                    return true;
-                }
-            } catch (Exception e) {
-                log.warn("Userservice session validation RPC failed at {}:{} -> {}", endpoint.host(), endpoint.port(), e.getMessage());
-            }
+        EndpointClient client;
+        try {
+            client = endpointManager.getOrCreate(this::createClient);
+        } catch (Exception e) {
+            log.warn("Create userservice session validation client failed: {}", e.getMessage());
+            return Verdict.UNAVAILABLE;
+        }
+        // The pool already prefers healthy channels; this one failing means none of them is reachable. Skip the
+        // reconnect backoff so the call below finds userservice as soon as it is back, not after the next retry.
+        if (client.channel().getState(true) == ConnectivityState.TRANSIENT_FAILURE) {
+            log.warn("Userservice session validation endpoint unreachable, reconnecting: {}:{}", client.host(), client.port());
+            client.channel().resetConnectBackoff();
         }
-        return false;
-    }
 
-    private EndpointClient getOrCreateClient(ConsulUserGrpcEndpointResolver.Endpoint endpoint) {
-        String key = endpoint.host() + ":" + endpoint.port();
-        return endpointClients.computeIfAbsent(key, ignored -> {
-            ManagedChannel channel = channelFactory.create(endpoint.host(), endpoint.port());
-            Metadata metadata = new Metadata();
-            metadata.put(
-                    Metadata.Key.of("x-internal-token", Metadata.ASCII_STRING_MARSHALLER),
-                    externalServiceProperties.getSecurity().getUser().getInternalGrpcToken().trim()
-            );
-            return new EndpointClient(
-                    endpoint.host(),
-                    endpoint.port(),
-                    channel,
-                    UserAuthServiceGrpc.newBlockingStub(channel)
-                            .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(metadata))
-            );
-        });
+        try {
+            boolean valid = client.stub()
+                    .withDeadlineAfter(Math.max(500L, properties.getTimeoutMs()), TimeUnit.MILLISECONDS)
+                    .validateSession(ValidateSessionRequest.newBuilder()
+                            .setUserId(userId)
+                            .setSessionId(sessionId)
+                            .build())
+                    .getValid();
+            return valid ? Verdict.VALID : Verdict.INVALID;
+        } catch (Exception e) {
+            log.warn("Userservice session validation RPC failed at {}:{} -> {}", client.host(), client.port(), e.getMessage());
+            return Verdict.UNAVAILABLE;
+        }
     }
 
-    private List<ConsulUserGrpcEndpointResolver.Endpoint> resolveCandidates() {
-        LinkedHashMap<String, ConsulUserGrpcEndpointResolver.Endpoint> ordered = new LinkedHashMap<>();
-
-        consulResolver.resolve().ifPresent(endpoint -> {
-            String key = endpoint.host() + ":" + endpoint.port();
-            log.info("Using configured userservice grpc endpoint candidate: {}:{}", endpoint.host(), endpoint.port());
-            ordered.put(key, endpoint);
-        });
-
-        return List.copyOf(ordered.values());
+    private EndpointClient createClient(ConsulServiceResolver.Endpoint endpoint, ManagedChannel channel) {
+        Metadata metadata = new Metadata();
+        metadata.put(
+                Metadata.Key.of("x-internal-token", Metadata.ASCII_STRING_MARSHALLER),
+                externalServiceProperties.getSecurity().getUser().getInternalGrpcToken().trim()
+        );
+        return new EndpointClient(
+                endpoint.host(),
+                endpoint.port(),
+                channel,
+                UserAuthServiceGrpc.newBlockingStub(channel)
+                        .withInterceptors(MetadataUtils.newAttachHeadersInterceptor(metadata))
+        );
     }
 
     static Optional<ConsulUserGrpcEndpointResolver.Endpoint> parseGrpcAddress(String rawAddress) {
@@ -165,8 +154,7 @@ public class UserSessionValidator {
 
     @PreDestroy
     public void shutdown() {
-        endpointClients.values().forEach(EndpointClient::close);
-        endpointClients.clear();
+        endpointManager.shutdown();
     }
 
     private record EndpointClient(
@@ -174,22 +162,9 @@ public class UserSessionValidator {
             int port,
             ManagedChannel channel,
             UserAuthServiceGrpc.UserAuthServiceBlockingStub stub
-    ) {
-        boolean sameEndpoint(String targetHost, int targetPort) {
-            return host.equals(targetHost) && port == targetPort;
-        }
-
-        void close() {
+    ) implements GrpcEndpointManager.ManagedClient {
+        public void close() {
             channel.shutdownNow();
         }
     }
-
-    private boolean isTcpReachable(String host, int port, int timeoutMs) {
-        try (Socket socket = new Socket()) {
-            socket.connect(new InetSocketAddress(host, port), timeoutMs);
-            return true;
-        } catch (Exception ignored) {
-            return false;
-        }
-    }
 }
@@ -0,0 +1,86 @@
+package com.ainovel.app.story;
+
+import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.OutlineNode;
+import com.ainovel.app.story.model.OutlineNodeType;
+import com.ainovel.app.story.repo.OutlineNodeRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the chapter/scene id → outline lookup table in sync with {@link Outline#getContentJson()}.
+ * Every code path that rewrites an outline's chapter tree must call {@link #reindex(Outline)}.
+ */
+@Component
+public class OutlineNodeIndex {
+    private final OutlineNodeRepository nodeRepository;
+    private final JsonColumnCodec jsonColumnCodec;
+
+    public OutlineNodeIndex(OutlineNodeRepository nodeRepository, JsonColumnCodec jsonColumnCodec) {
+        this.nodeRepository = nodeRepository;
+        this.jsonColumnCodec = jsonColumnCodec;
+    }
+
+    public void reindex(Outline outline) {
+        Set<NodeKey> desired = nodeKeys(outline.getContentJson());
+        List<OutlineNode> stale = new ArrayList<>();
+        for (OutlineNode node : nodeRepository.findByOutlineId(outline.getId())) {
+            if (!desired.remove(new NodeKey(node.getNodeType(), node.getNodeId()))) {
+                stale.add(node);
+            }
+        }
+        if (!stale.isEmpty()) {
+            nodeRepository.deleteAll(stale);
+        }
+        if (!desired.isEmpty()) {
+            nodeRepository.saveAll(desired.stream()
+                    .map(key -> new OutlineNode(outline.getId(), key.type(), key.nodeId()))
+                    .toList());
+        }
+    }
+
+    private Set<NodeKey> nodeKeys(String contentJson) {
+        Map<String, Object> content = jsonColumnCodec.read(contentJson, new TypeReference<>() {}, new HashMap<>());
+        Set<NodeKey> keys = new LinkedHashSet<>();
+        if (!(content.get("chapters") instanceof List<?> chapters)) {
+            return keys;
+        }
+        for (Object chapterObj : chapters) {
+            if (!(chapterObj instanceof Map<?, ?> chapter)) continue;
+            UUID chapterId = uuid(chapter.get("id"));
+            if (chapterId != null) {
+                keys.add(new NodeKey(OutlineNodeType.CHAPTER, chapterId));
+            }
+            if (!(chapter.get("scenes") instanceof List<?> scenes)) continue;
+            for (Object sceneObj : scenes) {
+                if (!(sceneObj instanceof Map<?, ?> scene)) continue;
+                UUID sceneId = uuid(scene.get("id"));
+                if (sceneId != null) {
+                    keys.add(new NodeKey(OutlineNodeType.SCENE, sceneId));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private UUID uuid(Object value) {
+        if (value == null) return null;
+        try {
+            return UUID.fromString(value.toString());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private record NodeKey(OutlineNodeType type, UUID nodeId) {
+    }
+}
@@ -6,6 +6,7 @@ import com.ainovel.app.common.JsonColumnCodec;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.story.dto.*;
 import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.OutlineNodeType;
 import com.ainovel.app.story.model.Story;
 import com.ainovel.app.story.repo.OutlineRepository;
 import com.ainovel.app.story.repo.StoryRepository;
@@ -36,6 +37,8 @@ public class OutlineService {
     private ObjectMapper objectMapper;
     @Autowired
     private JsonColumnCodec jsonColumnCodec;
+    @Autowired
+    private OutlineNodeIndex outlineNodeIndex;
 
     public List<OutlineDto> listByStory(Story story) {
         accessGuard.assertOwner(story.getUser());
@@ -86,6 +89,7 @@ public class OutlineService {
         content.put("chapters", normalized);
         outline.setContentJson(writeJson(content));
         outlineRepository.save(outline);
+        outlineNodeIndex.reindex(outline);
         return toDto(outline);
     }
 
@@ -411,32 +415,15 @@ public class OutlineService {
     }
 
     private Outline findOutlineContainingChapter(UUID chapterId) {
-        for (Outline outline : outlineRepository.findAllWithStoryUser()) {
-            Map<String, Object> content = readJson(outline.getContentJson());
-            List<Map<String, Object>> chapters = objectMapper.convertValue(content.getOrDefault("chapters", new ArrayList<>()), List.class);
-            for (Map<String, Object> c : chapters) {
-                Object id = c.get("id");
-                if (id != null && chapterId.toString().equals(id.toString())) return outline;
-            }
-        }
-        throw new BusinessException("章节不存在");
+        return outlineRepository.findByNodeWithStoryUser(OutlineNodeType.CHAPTER, chapterId).stream()
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("章节不存在"));
     }
 
     private Outline findOutlineContainingScene(UUID sceneId) {
-        for (Outline outline : outlineRepository.findAllWithStoryUser()) {
-            Map<String, Object> content = readJson(outline.getContentJson());
-            List<Map<String, Object>> chapters = objectMapper.convertValue(content.getOrDefault("chapters", new ArrayList<>()), List.class);
-            for (Map<String, Object> c : chapters) {
-                Object scenesObj = c.get("scenes");
-                if (!(scenesObj instanceof List<?> scenes)) continue;
-                for (Object sObj : scenes) {
-                    if (!(sObj instanceof Map<?, ?> s)) continue;
-                    Object id = s.get("id");
-                    if (id != null && sceneId.toString().equals(id.toString())) return outline;
-                }
-            }
-        }
-        throw new BusinessException("场景不存在");
+        return outlineRepository.findByNodeWithStoryUser(OutlineNodeType.SCENE, sceneId).stream()
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("场景不存在"));
     }
 
     private Map<String, Object> readJson(String json) {
@@ -0,0 +1,156 @@
+package com.ainovel.app.story;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Immutable, indexed view of an outline's {@code content_json}. Titles, summaries and orders are
+ * kept as stored (possibly null) so each caller can apply its own display defaults.
+ */
+public final class ParsedOutline {
+    public static final ParsedOutline EMPTY = new ParsedOutline(null, List.of());
+
+    private final String planningJson;
+    private final List<Chapter> chapters;
+    private final List<Scene> orderedScenes;
+    private final Map<UUID, Scene> scenesById;
+
+    private ParsedOutline(String planningJson, List<Chapter> chapters) {
+        this.planningJson = planningJson;
+        this.chapters = chapters;
+        List<Scene> ordered = new ArrayList<>();
+        Map<UUID, Scene> byId = new HashMap<>();
+        for (Chapter chapter : chapters) {
+            for (Scene scene : chapter.scenes()) {
+                ordered.add(scene);
+                if (scene.id() != null) {
+                    byId.putIfAbsent(scene.id(), scene);
+                }
+            }
+        }
+        this.orderedScenes = Collections.unmodifiableList(ordered);
+        this.scenesById = Collections.unmodifiableMap(byId);
+    }
+
+    public static ParsedOutline parse(String contentJson, ObjectMapper objectMapper) {
+        if (contentJson == null || contentJson.isBlank()) {
+            return EMPTY;
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(contentJson);
+        } catch (Exception ex) {
+            return EMPTY;
+        }
+        if (root == null || !root.isObject()) {
+            return EMPTY;
+        }
+        JsonNode planning = root.get("planning");
+        String planningJson = planning == null || planning.isNull() ? null : planning.toString();
+        List<Chapter> chapters = new ArrayList<>();
+        JsonNode chapterNodes = root.get("chapters");
+        if (chapterNodes != null && chapterNodes.isArray()) {
+            for (JsonNode chapterNode : chapterNodes) {
+                if (chapterNode.isObject()) {
+                    chapters.add(chapter(chapters.size(), chapterNode));
+                }
+            }
+        }
+        return new ParsedOutline(planningJson, Collections.unmodifiableList(chapters));
+    }
+
+    private static Chapter chapter(int chapterIndex, JsonNode node) {
+        List<Scene> scenes = new ArrayList<>();
+        List<UUID> previousIds = new ArrayList<>();
+        JsonNode sceneNodes = node.get("scenes");
+        if (sceneNodes != null && sceneNodes.isArray()) {
+            for (JsonNode sceneNode : sceneNodes) {
+                if (!sceneNode.isObject()) continue;
+                UUID id = uuid(sceneNode.get("id"));
+                scenes.add(new Scene(
+                        chapterIndex,
+                        scenes.size(),
+                        id,
+                        text(sceneNode.get("title")),
+                        text(sceneNode.get("summary")),
+                        integer(sceneNode.get("order")),
+                        List.copyOf(previousIds)
+                ));
+                if (id != null) {
+                    previousIds.add(id);
+                }
+            }
+        }
+        return new Chapter(
+                chapterIndex,
+                uuid(node.get("id")),
+                text(node.get("title")),
+                text(node.get("summary")),
+                integer(node.get("order")),
+                Collections.unmodifiableList(scenes)
+        );
+    }
+
+    /** Serialized {@code planning} object, or null when the outline has none. */
+    public String planningJson() {
+        return planningJson;
+    }
+
+    public List<Chapter> chapters() {
+        return chapters;
+    }
+
+    /** Every scene in reading order, chapter by chapter. */
+    public List<Scene> orderedScenes() {
+        return orderedScenes;
+    }
+
+    public Optional<Scene> scene(UUID sceneId) {
+        return sceneId == null ? Optional.empty() : Optional.ofNullable(scenesById.get(sceneId));
+    }
+
+    public Chapter chapterOf(Scene scene) {
+        return chapters.get(scene.chapterIndex());
+    }
+
+    public record Chapter(int index, UUID id, String title, String summary, Integer order, List<Scene> scenes) {
+    }
+
+    /**
+     * @param previousSceneIds ids of the earlier scenes in the same chapter, in order
+     */
+    public record Scene(int chapterIndex, int index, UUID id, String title, String summary, Integer order,
+                        List<UUID> previousSceneIds) {
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static Integer integer(JsonNode node) {
+        if (node == null || node.isNull()) return null;
+        if (node.canConvertToInt()) return node.asInt();
+        try {
+            return Integer.parseInt(node.asText().trim());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static UUID uuid(JsonNode node) {
+        if (node == null || node.isNull()) return null;
+        try {
+            return UUID.fromString(node.asText());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
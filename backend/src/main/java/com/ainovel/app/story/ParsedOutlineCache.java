@@ -0,0 +1,64 @@
+package com.ainovel.app.story;
+
+import com.ainovel.app.story.model.Outline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded LRU of {@link ParsedOutline}s keyed by outline id + {@code updatedAt}. Every outline save
+ * bumps {@code updatedAt}, so a new version gets a new key and stale entries simply age out.
+ */
+@Component
+public class ParsedOutlineCache {
+    private final ObjectMapper objectMapper;
+    private final Map<Key, ParsedOutline> entries;
+
+    public ParsedOutlineCache(ObjectMapper objectMapper,
+                              @Value("${app.outline.parsed-cache-size:512}") int maxEntries) {
+        this.objectMapper = objectMapper;
+        int capacity = Math.max(1, maxEntries);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ParsedOutline> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public ParsedOutline get(Outline outline) {
+        if (outline == null) {
+            return ParsedOutline.EMPTY;
+        }
+        if (outline.getId() == null || outline.getUpdatedAt() == null) {
+            return ParsedOutline.parse(outline.getContentJson(), objectMapper);
+        }
+        Key key = new Key(outline.getId(), outline.getUpdatedAt());
+        synchronized (entries) {
+            ParsedOutline cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Parse outside the lock; a concurrent miss on the same key only costs a duplicate parse.
+        ParsedOutline parsed = ParsedOutline.parse(outline.getContentJson(), objectMapper);
+        synchronized (entries) {
+            entries.put(key, parsed);
+        }
+        return parsed;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Key(UUID outlineId, Instant updatedAt) {
+    }
+}
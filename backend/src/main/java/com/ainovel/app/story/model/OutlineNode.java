@@ -0,0 +1,53 @@
+package com.ainovel.app.story.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "outline_nodes",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_outline_node", columnNames = {"outline_id", "node_type", "node_id"})
+        },
+        indexes = {
+                @Index(name = "idx_outline_node_lookup", columnList = "node_type,node_id")
+        })
+public class OutlineNode {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "outline_id", nullable = false)
+    private UUID outlineId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "node_type", nullable = false, length = 16)
+    private OutlineNodeType nodeType;
+
+    @Column(name = "node_id", nullable = false)
+    private UUID nodeId;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    public OutlineNode() {}
+
+    public OutlineNode(UUID outlineId, OutlineNodeType nodeType, UUID nodeId) {
+        this.outlineId = outlineId;
+        this.nodeType = nodeType;
+        this.nodeId = nodeId;
+    }
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public UUID getOutlineId() { return outlineId; }
+    public void setOutlineId(UUID outlineId) { this.outlineId = outlineId; }
+    public OutlineNodeType getNodeType() { return nodeType; }
+    public void setNodeType(OutlineNodeType nodeType) { this.nodeType = nodeType; }
+    public UUID getNodeId() { return nodeId; }
+    public void setNodeId(UUID nodeId) { this.nodeId = nodeId; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,6 @@
+package com.ainovel.app.story.model;
+
+public enum OutlineNodeType {
+    CHAPTER,
+    SCENE
+}
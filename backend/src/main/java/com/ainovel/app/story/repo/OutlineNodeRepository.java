@@ -0,0 +1,11 @@
+package com.ainovel.app.story.repo;
+
+import com.ainovel.app.story.model.OutlineNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface OutlineNodeRepository extends JpaRepository<OutlineNode, UUID> {
+    List<OutlineNode> findByOutlineId(UUID outlineId);
+}
@@ -1,6 +1,7 @@
 package com.ainovel.app.story.repo;
 
 import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.OutlineNodeType;
 import com.ainovel.app.story.model.Story;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -19,6 +20,7 @@ public interface OutlineRepository extends JpaRepository<Outline, UUID> {
     @Query("select o from Outline o join fetch o.story s join fetch s.user where o.story = :story")
     List<Outline> findByStoryWithStoryUser(@Param("story") Story story);
 
-    @Query("select o from Outline o join fetch o.story s join fetch s.user")
-    List<Outline> findAllWithStoryUser();
+    @Query("select o from Outline o join fetch o.story s join fetch s.user where o.id in "
+            + "(select n.outlineId from OutlineNode n where n.nodeType = :nodeType and n.nodeId = :nodeId)")
+    List<Outline> findByNodeWithStoryUser(@Param("nodeType") OutlineNodeType nodeType, @Param("nodeId") UUID nodeId);
 }
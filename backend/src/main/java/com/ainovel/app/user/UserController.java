@@ -206,6 +206,7 @@ public class UserController {
                 balance.projectCredits(),
                 balance.publicCredits(),
                 balance.totalCredits(),
+                balance.publicCreditsAgeMs(),
                 user.isBanned()
         );
     }
@@ -1,6 +1,7 @@
 package com.ainovel.app.user;
 
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
 import com.ainovel.app.story.repo.StoryRepository;
@@ -19,15 +20,18 @@ public class UserSummaryQueryService {
     private final WorldRepository worldRepository;
     private final ManuscriptRepository manuscriptRepository;
     private final JsonColumnCodec jsonColumnCodec;
+    private final ManuscriptSectionStore sectionStore;
 
     public UserSummaryQueryService(StoryRepository storyRepository,
                                    WorldRepository worldRepository,
                                    ManuscriptRepository manuscriptRepository,
-                                   JsonColumnCodec jsonColumnCodec) {
+                                   JsonColumnCodec jsonColumnCodec,
+                                   ManuscriptSectionStore sectionStore) {
         this.storyRepository = storyRepository;
         this.worldRepository = worldRepository;
         this.manuscriptRepository = manuscriptRepository;
         this.jsonColumnCodec = jsonColumnCodec;
+        this.sectionStore = sectionStore;
     }
 
     @Transactional(readOnly = true)
@@ -42,13 +46,12 @@ public class UserSummaryQueryService {
     private long estimateTotalWords(User user) {
         long total = 0;
         for (Manuscript manuscript : manuscriptRepository.findByStoryUser(user)) {
-            total += estimateWordsFromSections(manuscript.getSectionsJson());
+            total += estimateWordsFromSections(sectionStore.readAll(manuscript));
         }
         return total;
     }
 
-    private long estimateWordsFromSections(String sectionsJson) {
-        Map<String, String> sections = jsonColumnCodec.read(sectionsJson, new TypeReference<>() {}, Map.of());
+    private long estimateWordsFromSections(Map<String, String> sections) {
         long total = 0;
         for (String html : sections.values()) {
             if (html == null) {
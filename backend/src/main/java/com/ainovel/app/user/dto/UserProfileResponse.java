@@ -24,6 +24,8 @@ public record UserProfileResponse(
         double publicCredits,
         @Schema(description = "总余额（项目 + 通用）", example = "1500.0")
         double totalCredits,
+        @Schema(description = "通用积分余额距上次向计费服务确认的毫秒数", example = "0")
+        long publicCreditsAgeMs,
         @Schema(description = "是否封禁", example = "false")
         boolean isBanned
 ) {}
@@ -0,0 +1,369 @@
+package com.ainovel.app.v2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.Deflater;
+
+/**
+ * Lays text out on A4 pages and streams the PDF as it goes: each page's content stream is compressed and written
+ * to the output as soon as the page is full, so only the current page is buffered. Fonts, the page tree and the
+ * cross-reference table are written by {@link #finish()}; until then the writer keeps only object offsets and page
+ * object numbers. Lines break by glyph width with kinsoku rules (see {@link #breakLines}).
+ */
+final class CjkPdfWriter {
+    static final float PAGE_WIDTH = 595.28f;
+    static final float PAGE_HEIGHT = 841.89f;
+    private static final float MARGIN_X = 56.69f;
+    private static final float MARGIN_Y = 64f;
+    private static final float TEXT_WIDTH = PAGE_WIDTH - 2 * MARGIN_X;
+    private static final float BODY_SIZE = 12f;
+    private static final float BODY_LEADING = 20f;
+    private static final float HEADING_SIZE = 18f;
+    private static final float HEADING_LEADING = 30f;
+
+    /** May not start a line: closing brackets and quotes, clause and sentence marks, small kana, iteration marks. */
+    private static final String NO_LINE_START = "，。、；：？！）］｝〕〉》」』】〗〙〛”’…‥—～·・ー々〻ゝゞヽヾ"
+            + "ぁぃぅぇぉっゃゅょゎァィゥェォッャュョヮヵヶ,.;:?!)]}%";
+    /** May not end a line: opening brackets and quotes. */
+    private static final String NO_LINE_END = "（［｛〔〈《「『【〖〘〚“‘([{";
+    /** Marks allowed to hang past the right margin instead of pulling a character down to the next line. */
+    private static final int MAX_HANGING = 2;
+
+    /** A font as the writer needs it: glyph advances for layout, and glyph codes for content streams. */
+    interface PdfFont {
+        /** Advance width of {@code codePoint} in thousandths of the font size. */
+        int advance(int codePoint);
+
+        /** The hex string operand that shows {@code text}; records the glyphs used so they can be embedded. */
+        String encode(String text);
+
+        /** Writes the font dictionary as object {@code fontObject}, with any objects it refers to. Called once, after the last page. */
+        void write(ObjectWriter objects, int fontObject) throws IOException;
+
+        /** Identifies the font in export cache keys. */
+        String fingerprint();
+    }
+
+    private final ObjectWriter objects;
+    private final PdfFont font;
+    private final String title;
+    private final int pagesObject;
+    private final int fontObject;
+    private int[] pageObjects = new int[16];
+    private int pageCount;
+    private StringBuilder page;
+    private float y;
+
+    CjkPdfWriter(OutputStream out, PdfFont font, String title) throws IOException {
+        this.objects = new ObjectWriter(out);
+        this.font = font;
+        this.title = title == null ? "" : title;
+        objects.raw("%PDF-1.7\n%âãÏÓ\n");
+        this.pagesObject = objects.reserve();
+        this.fontObject = objects.reserve();
+    }
+
+    void heading(String text) throws IOException {
+        if (page != null && y < PAGE_HEIGHT - MARGIN_Y) y -= BODY_LEADING / 2;
+        lines(text, HEADING_SIZE, HEADING_LEADING);
+    }
+
+    /** Lays out one paragraph; a blank paragraph leaves half a line of space. */
+    void paragraph(String text) throws IOException {
+        if (text == null || text.isBlank()) {
+            if (page != null) y -= BODY_LEADING / 2;
+            return;
+        }
+        lines(text, BODY_SIZE, BODY_LEADING);
+    }
+
+    int pages() {
+        return pageCount + (page == null ? 0 : 1);
+    }
+
+    /** Writes the last page, the font, the page tree and the trailer. Leaves the underlying stream open. */
+    void finish() throws IOException {
+        if (page == null && pageCount == 0) newPage();
+        endPage();
+        font.write(objects, fontObject);
+
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            if (i > 0) kids.append(' ');
+            kids.append(pageObjects[i]).append(" 0 R");
+        }
+        objects.object(pagesObject, "<< /Type /Pages /Kids [" + kids + "] /Count " + pageCount + " >>");
+        int info = objects.reserve();
+        objects.object(info, "<< /Title " + utf16Hex(title) + " /Producer (AINovel) >>");
+        int catalog = objects.reserve();
+        objects.object(catalog, "<< /Type /Catalog /Pages " + pagesObject + " 0 R >>");
+        objects.finish(catalog, info);
+    }
+
+    private void lines(String text, float size, float leading) throws IOException {
+        int maxWidth = (int) (TEXT_WIDTH * 1000 / size);
+        for (String line : breakLines(text, font::advance, maxWidth)) {
+            if (page == null || y - leading < MARGIN_Y) newPage();
+            y -= leading;
+            page.append("BT /F1 ").append(number(size)).append(" Tf 1 0 0 1 ").append(number(MARGIN_X)).append(' ')
+                    .append(number(y)).append(" Tm <").append(font.encode(line)).append("> Tj ET\n");
+        }
+    }
+
+    private void newPage() throws IOException {
+        endPage();
+        page = new StringBuilder(4096);
+        y = PAGE_HEIGHT - MARGIN_Y;
+    }
+
+    private void endPage() throws IOException {
+        if (page == null) return;
+        int contents = objects.reserve();
+        objects.stream(contents, "", page.toString().getBytes(StandardCharsets.ISO_8859_1));
+        int pageObject = objects.reserve();
+        objects.object(pageObject, "<< /Type /Page /Parent " + pagesObject + " 0 R /MediaBox [0 0 " + number(PAGE_WIDTH) + " "
+                + number(PAGE_HEIGHT) + "] /Resources << /Font << /F1 " + fontObject + " 0 R >> >> /Contents " + contents + " 0 R >>");
+        if (pageCount == pageObjects.length) pageObjects = Arrays.copyOf(pageObjects, pageCount * 2);
+        pageObjects[pageCount++] = pageObject;
+        page = null;
+    }
+
+    /**
+     * Breaks {@code text} into lines at most {@code maxWidth} wide, measuring each code point with {@code advance}.
+     * Han characters break anywhere; runs of Latin letters and digits stay together unless wider than a line.
+     * Kinsoku: up to {@value #MAX_HANGING} marks that may not start a line hang past the margin, and if more follow
+     * (or the line would end with an opening mark) characters are pushed down to the next line instead. Spaces at a
+     * break are dropped.
+     */
+    static List<String> breakLines(String text, IntUnaryOperator advance, int maxWidth) {
+        List<int[]> units = units(text, advance, maxWidth);
+        List<String> lines = new ArrayList<>();
+        int lineStart = 0;
+        int width = 0;
+        int i = 0;
+        while (i < units.size()) {
+            int unitWidth = units.get(i)[2];
+            if (i > lineStart && width + unitWidth > maxWidth) {
+                int end = i;
+                int hung = 0;
+                while (end < units.size() && hung < MAX_HANGING && startsProhibited(text, units.get(end))) {
+                    end++;
+                    hung++;
+                }
+                while (end - lineStart > 1 && ((end < units.size() && startsProhibited(text, units.get(end)))
+                        || endsProhibited(text, units.get(end - 1)))) {
+                    end--;
+                }
+                lines.add(line(text, units, lineStart, end));
+                i = end;
+                while (i < units.size() && text.charAt(units.get(i)[0]) == ' ') i++;
+                lineStart = i;
+                width = 0;
+                continue;
+            }
+            width += unitWidth;
+            i++;
+        }
+        if (lineStart < units.size()) lines.add(line(text, units, lineStart, units.size()));
+        return lines;
+    }
+
+    /** Unbreakable pieces of {@code text} as {start, end, width}: one code point, or a run of Latin letters and digits. */
+    private static List<int[]> units(String text, IntUnaryOperator advance, int maxWidth) {
+        List<int[]> units = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            int cp = text.codePointAt(i);
+            int end = i + Character.charCount(cp);
+            int width = advance.applyAsInt(cp);
+            if (isWordChar(cp)) {
+                while (end < text.length()) {
+                    int next = text.codePointAt(end);
+                    int nextWidth = advance.applyAsInt(next);
+                    if (!isWordChar(next) || width + nextWidth > maxWidth) break;
+                    width += nextWidth;
+                    end += Character.charCount(next);
+                }
+            }
+            units.add(new int[] {i, end, width});
+            i = end;
+        }
+        return units;
+    }
+
+    private static boolean isWordChar(int cp) {
+        return cp < 0x2E80 && Character.isLetterOrDigit(cp);
+    }
+
+    private static boolean startsProhibited(String text, int[] unit) {
+        return NO_LINE_START.indexOf(text.codePointAt(unit[0])) >= 0;
+    }
+
+    private static boolean endsProhibited(String text, int[] unit) {
+        return NO_LINE_END.indexOf(text.codePointBefore(unit[1])) >= 0;
+    }
+
+    private static String line(String text, List<int[]> units, int from, int to) {
+        String line = text.substring(units.get(from)[0], units.get(to - 1)[1]);
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ') end--;
+        return line.substring(0, end);
+    }
+
+    /** A PDF number with at most two decimals, without going through {@code String.format}. */
+    static String number(float value) {
+        long hundredths = Math.round(value * 100.0);
+        StringBuilder out = new StringBuilder();
+        if (hundredths < 0) {
+            out.append('-');
+            hundredths = -hundredths;
+        }
+        out.append(hundredths / 100);
+        long fraction = hundredths % 100;
+        if (fraction != 0) {
+            out.append('.').append(fraction / 10);
+            if (fraction % 10 != 0) out.append(fraction % 10);
+        }
+        return out.toString();
+    }
+
+    /** {@code text} as a PDF text string in UTF-16BE with a byte order mark. */
+    static String utf16Hex(String text) {
+        StringBuilder hex = new StringBuilder("<FEFF");
+        for (int i = 0; i < text.length(); i++) hex4(hex, text.charAt(i));
+        return hex.append('>').toString();
+    }
+
+    static void hex4(StringBuilder out, int value) {
+        for (int shift = 12; shift >= 0; shift -= 4) out.append(Character.toUpperCase(Character.forDigit((value >> shift) & 0xF, 16)));
+    }
+
+    /** A ToUnicode CMap for two-byte glyph codes. */
+    static byte[] toUnicodeCMap(Map<Integer, Integer> codePointByGlyph) {
+        StringBuilder cmap = new StringBuilder("/CIDInit /ProcSet findresource begin\n12 dict begin\nbegincmap\n"
+                + "/CIDSystemInfo << /Registry (Adobe) /Ordering (UCS) /Supplement 0 >> def\n"
+                + "/CMapName /Adobe-Identity-UCS def\n/CMapType 2 def\n"
+                + "1 begincodespacerange\n<0000> <FFFF>\nendcodespacerange\n");
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(codePointByGlyph.entrySet());
+        for (int start = 0; start < entries.size(); start += 100) {
+            List<Map.Entry<Integer, Integer>> block = entries.subList(start, Math.min(entries.size(), start + 100));
+            cmap.append(block.size()).append(" beginbfchar\n");
+            for (Map.Entry<Integer, Integer> entry : block) {
+                cmap.append('<');
+                hex4(cmap, entry.getKey());
+                cmap.append("> <");
+                for (char c : Character.toChars(entry.getValue())) hex4(cmap, c);
+                cmap.append(">\n");
+            }
+            cmap.append("endbfchar\n");
+        }
+        cmap.append("endcmap\nCMapName currentdict /CMap defineresource pop\nend\nend\n");
+        return cmap.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Writes numbered objects to the output and remembers where each starts for the cross-reference table. */
+    static final class ObjectWriter {
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater();
+        private final byte[] buffer = new byte[8192];
+        private long position;
+        private long[] offsets = new long[64];
+        private int size = 1;
+
+        ObjectWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        int reserve() {
+            if (size == offsets.length) offsets = Arrays.copyOf(offsets, size * 2);
+            return size++;
+        }
+
+        void object(int number, String body) throws IOException {
+            offsets[number] = position;
+            raw(number + " 0 obj\n" + body + "\nendobj\n");
+        }
+
+        /** Writes {@code data} Flate-compressed; {@code dictionary} holds any entries besides the filter and length. */
+        void stream(int number, String dictionary, byte[] data) throws IOException {
+            deflater.reset();
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream packed = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            while (!deflater.finished()) {
+                packed.write(buffer, 0, deflater.deflate(buffer));
+            }
+            offsets[number] = position;
+            raw(number + " 0 obj\n<< " + (dictionary.isEmpty() ? "" : dictionary + " ") + "/Filter /FlateDecode /Length "
+                    + packed.size() + " >>\nstream\n");
+            write(packed.toByteArray());
+            raw("\nendstream\nendobj\n");
+        }
+
+        void raw(String text) throws IOException {
+            write(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        void finish(int root, int info) throws IOException {
+            deflater.end();
+            long xref = position;
+            StringBuilder table = new StringBuilder(20 * (size + 1));
+            table.append("xref\n0 ").append(size).append("\n0000000000 65535 f \n");
+            for (int i = 1; i < size; i++) {
+                String offset = Long.toString(offsets[i]);
+                table.append("0".repeat(10 - offset.length())).append(offset).append(" 00000 n \n");
+            }
+            table.append("trailer\n<< /Size ").append(size).append(" /Root ").append(root).append(" 0 R /Info ").append(info)
+                    .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+            raw(table.toString());
+        }
+    }
+
+    /**
+     * Adobe's predefined Chinese font STSong-Light, addressed by UTF-16 code units through the UniGB-UTF16-H CMap.
+     * Nothing is embedded: viewers substitute their own Song/Ming face. Used when no TrueType font is configured.
+     */
+    static final class StandardCjkFont implements PdfFont {
+        @Override
+        public int advance(int codePoint) {
+            return codePoint >= 0x20 && codePoint < 0x7F ? 500 : 1000;
+        }
+
+        @Override
+        public String encode(String text) {
+            StringBuilder hex = new StringBuilder(text.length() * 4);
+            for (int i = 0; i < text.length(); i++) hex4(hex, text.charAt(i));
+            return hex.toString();
+        }
+
+        @Override
+        public void write(ObjectWriter objects, int fontObject) throws IOException {
+            int descendant = objects.reserve();
+            int descriptor = objects.reserve();
+            objects.object(descriptor, "<< /Type /FontDescriptor /FontName /STSong-Light /Flags 6 /FontBBox [-25 -254 1000 880]"
+                    + " /ItalicAngle 0 /Ascent 880 /Descent -120 /CapHeight 880 /StemV 93 >>");
+            objects.object(descendant, "<< /Type /Font /Subtype /CIDFontType0 /BaseFont /STSong-Light"
+                    + " /CIDSystemInfo << /Registry (Adobe) /Ordering (GB1) /Supplement 5 >> /FontDescriptor " + descriptor
+                    + " 0 R /DW 1000 /W [1 95 500] >>");
+            objects.object(fontObject, "<< /Type /Font /Subtype /Type0 /BaseFont /STSong-Light-UniGB-UTF16-H"
+                    + " /Encoding /UniGB-UTF16-H /DescendantFonts [" + descendant + " 0 R] >>");
+        }
+
+        @Override
+        public String fingerprint() {
+            return "STSong-Light";
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.ainovel.app.v2;
+
+import com.ainovel.app.common.BusinessException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes export documents scene by scene. Scene bodies are loaded in small batches while the document is
+ * written, so only the current batch is held in memory; docx and epub go straight through a
+ * {@link ZipOutputStream} into the caller's stream, and pdf pages are written as each one fills.
+ */
+final class ExportDocumentWriter {
+    private static final int SCENE_BATCH = 32;
+
+    private ExportDocumentWriter() {
+    }
+
+    /** Loads the bodies of the given scenes; scenes without a body may be missing from the result. */
+    interface SceneBodies {
+        Map<String, String> load(List<String> sceneIds);
+    }
+
+    interface BlockVisitor {
+        void visit(int index, String text, boolean sceneBody) throws IOException;
+    }
+
+    /** A heading or other fixed text when {@code sceneId} is null, otherwise the body of that scene. */
+    record Block(String text, String sceneId) {
+        static Block text(String text) {
+            return new Block(text, null);
+        }
+
+        static Block scene(String sceneId) {
+            return new Block(null, sceneId);
+        }
+    }
+
+    /** {@code sceneRevisions} changes with each scene body; the export cache is keyed on it instead of the bodies. */
+    record Book(String title, String author, List<Block> blocks, SceneBodies bodies, Map<String, String> sceneRevisions) {
+        int sceneCount() {
+            int count = 0;
+            for (Block block : blocks) {
+                if (block.sceneId() != null) count++;
+            }
+            return count;
+        }
+
+        /** Visits every block in order, loading scene bodies a batch at a time and reducing them to plain text. */
+        void forEach(BlockVisitor visitor) throws IOException {
+            int start = 0;
+            while (start < blocks.size()) {
+                int end = start;
+                List<String> sceneIds = new ArrayList<>();
+                while (end < blocks.size() && sceneIds.size() < SCENE_BATCH) {
+                    if (blocks.get(end).sceneId() != null) sceneIds.add(blocks.get(end).sceneId());
+                    end++;
+                }
+                Map<String, String> loaded = sceneIds.isEmpty() ? Map.of() : bodies.load(sceneIds);
+                for (int i = start; i < end; i++) {
+                    Block block = blocks.get(i);
+                    if (block.sceneId() == null) {
+                        visitor.visit(i, block.text(), false);
+                    } else {
+                        visitor.visit(i, normalizeText(loaded.get(block.sceneId())), true);
+                    }
+                }
+                start = end;
+            }
+        }
+    }
+
+    /**
+     * Writes {@code book} as {@code format} to {@code out}, calling {@code onScene} after each scene body. Leaves
+     * {@code out} open. {@code pdfFont} supplies a fresh font for a pdf; it is not called for other formats.
+     */
+    static void write(String format, Book book, Map<String, Object> cfg, Supplier<CjkPdfWriter.PdfFont> pdfFont,
+                      OutputStream out, Runnable onScene) throws IOException {
+        switch (format) {
+            case "txt" -> {
+                Writer text = new BufferedWriter(new OutputStreamWriter(out, resolveCharset(cfg)));
+                writePlainText(book, cfg, text, onScene);
+                text.flush();
+            }
+            case "docx" -> writeDocx(book, cfg, out, onScene);
+            case "epub" -> writeEpub(book, cfg, out, onScene);
+            case "pdf" -> writePdf(book, cfg, pdfFont.get(), out, onScene);
+            default -> throw new BusinessException("不支持的导出格式: " + format);
+        }
+    }
+
+    private static void writePlainText(Book book, Map<String, Object> cfg, Writer out, Runnable onScene) throws IOException {
+        String lineEnding = "CRLF".equalsIgnoreCase(str(cfg.get("lineEnding"), "LF")) ? "\r\n" : "\n";
+        String chapterSep = str(cfg.get("chapterSeparator"), "\n\n========\n\n").replace("\n", lineEnding);
+        if (bool(cfg.get("includeMetadata"), true)) {
+            out.write(book.title() + lineEnding
+                    + "作者: " + book.author() + lineEnding
+                    + "导出时间: " + Instant.now() + lineEnding + lineEnding);
+        }
+        int last = book.blocks().size() - 1;
+        book.forEach((index, text, sceneBody) -> {
+            out.write(text);
+            if (index < last) {
+                out.write(lineEnding);
+                out.write(lineEnding);
+                if ((index % 2) == 1) out.write(chapterSep);
+            }
+            if (sceneBody) onScene.run();
+        });
+    }
+
+    private static void writeDocx(Book book, Map<String, Object> cfg, OutputStream out, Runnable onScene) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        zipText(zip, "[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\"><Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/><Default Extension=\"xml\" ContentType=\"application/xml\"/><Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/></Types>");
+        zipText(zip, "_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\"><Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"word/document.xml\"/></Relationships>");
+        zip.putNextEntry(new ZipEntry("word/document.xml"));
+        Writer xml = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                + "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>"
+                + toWordP(book.title()) + toWordP("作者: " + book.author()));
+        try (LineWriter lines = new LineWriter(line -> xml.write(toWordP(line)))) {
+            writePlainText(book, cfg, lines, onScene);
+        }
+        xml.write("<w:sectPr/></w:body></w:document>");
+        xml.flush();
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    private static String toWordP(String line) {
+        return "<w:p><w:r><w:t xml:space=\"preserve\">" + escapeXml(line) + "</w:t></w:r></w:p>";
+    }
+
+    private static void writeEpub(Book book, Map<String, Object> cfg, OutputStream out, Runnable onScene) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        byte[] mime = "application/epub+zip".getBytes(StandardCharsets.US_ASCII);
+        ZipEntry mimeEntry = new ZipEntry("mimetype");
+        mimeEntry.setMethod(ZipEntry.STORED);
+        mimeEntry.setSize(mime.length);
+        CRC32 crc = new CRC32();
+        crc.update(mime);
+        mimeEntry.setCrc(crc.getValue());
+        zip.putNextEntry(mimeEntry);
+        zip.write(mime);
+        zip.closeEntry();
+
+        String title = escapeXml(book.title());
+        zipText(zip, "META-INF/container.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><container version=\"1.0\" xmlns=\"urn:oasis:names:tc:opendocument:xmlns:container\"><rootfiles><rootfile full-path=\"OEBPS/content.opf\" media-type=\"application/oebps-package+xml\"/></rootfiles></container>");
+        zip.putNextEntry(new ZipEntry("OEBPS/chapter.xhtml"));
+        Writer html = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+        html.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?><html xmlns=\"http://www.w3.org/1999/xhtml\"><head><title>" + title
+                + "</title></head><body><h1>" + title + "</h1><p>作者：" + escapeXml(book.author()) + "</p>");
+        try (LineWriter lines = new LineWriter(line -> {
+            if (!line.isBlank()) html.write("<p>" + escapeXml(line) + "</p>");
+        })) {
+            writePlainText(book, cfg, lines, onScene);
+        }
+        html.write("</body></html>");
+        html.flush();
+        zip.closeEntry();
+        zipText(zip, "OEBPS/nav.xhtml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><html xmlns=\"http://www.w3.org/1999/xhtml\"><body><nav><ol><li><a href=\"chapter.xhtml\">正文</a></li></ol></nav></body></html>");
+        zipText(zip, "OEBPS/content.opf", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><package xmlns=\"http://www.idpf.org/2007/opf\" version=\"3.0\" unique-identifier=\"bookid\"><metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\"><dc:identifier id=\"bookid\">" + UUID.randomUUID() + "</dc:identifier><dc:title>" + title + "</dc:title><dc:language>zh-CN</dc:language></metadata><manifest><item id=\"chap\" href=\"chapter.xhtml\" media-type=\"application/xhtml+xml\"/><item id=\"nav\" href=\"nav.xhtml\" media-type=\"application/xhtml+xml\" properties=\"nav\"/></manifest><spine><itemref idref=\"chap\"/></spine></package>");
+        zip.finish();
+    }
+
+    /**
+     * Lays the text out with {@link CjkPdfWriter}, one paragraph per line, so pages reach {@code out} as the scenes
+     * are written.
+     */
+    private static void writePdf(Book book, Map<String, Object> cfg, CjkPdfWriter.PdfFont font, OutputStream out, Runnable onScene) throws IOException {
+        CjkPdfWriter pdf = new CjkPdfWriter(out, font, book.title());
+        pdf.heading(book.title());
+        try (LineWriter lines = new LineWriter(pdf::paragraph)) {
+            writePlainText(book, cfg, lines, onScene);
+        }
+        pdf.finish();
+    }
+
+    private static void zipText(ZipOutputStream zip, String path, String text) throws IOException {
+        zip.putNextEntry(new ZipEntry(path));
+        zip.write(text.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static Charset resolveCharset(Map<String, Object> cfg) {
+        String encoding = str(cfg.get("txtEncoding"), str(cfg.get("encoding"), "UTF-8"));
+        try {
+            return Charset.forName(encoding);
+        } catch (Exception ex) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    static String normalizeText(String raw) {
+        if (raw == null || raw.isBlank()) return "";
+        return raw.replaceAll("(?i)<br\\s*/?>", "\n")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&amp;", "&")
+                .replaceAll("<[^>]+>", "")
+                .replace("\r\n", "\n")
+                .trim();
+    }
+
+    private static String escapeXml(String text) {
+        if (text == null) return "";
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;").replace("'", "&apos;");
+    }
+
+    private static String str(Object value, String fallback) {
+        if (value == null) return fallback;
+        String s = value.toString().trim();
+        return s.isEmpty() ? fallback : s;
+    }
+
+    private static boolean bool(Object value, boolean fallback) {
+        if (value == null) return fallback;
+        if (value instanceof Boolean b) return b;
+        return Boolean.parseBoolean(value.toString());
+    }
+
+    private interface LineSink {
+        void line(String line) throws IOException;
+    }
+
+    /** Hands each line written through it to a sink, breaking lines where {@code \R} would. */
+    private static final class LineWriter extends Writer {
+        private final LineSink sink;
+        private final StringBuilder line = new StringBuilder();
+        private boolean afterCr;
+
+        LineWriter(LineSink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                char c = buf[i];
+                if (c == '\n' && afterCr) {
+                    afterCr = false;
+                    continue;
+                }
+                afterCr = c == '\r';
+                if (c == '\n' || c == '\r' || c == '\u000B' || c == '\f' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                    sink.line(line.toString());
+                    line.setLength(0);
+                } else {
+                    line.append(c);
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!line.isEmpty()) {
+                sink.line(line.toString());
+                line.setLength(0);
+            }
+        }
+    }
+}
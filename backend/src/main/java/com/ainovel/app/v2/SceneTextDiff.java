@@ -0,0 +1,346 @@
+package com.ainovel.app.v2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sentence-level Myers diff of scene HTML. Text is cut into paragraphs (closing block tags, {@code <br>},
+ * newlines) and, inside them, sentences ending in Han or ASCII terminal punctuation together with any closing
+ * quotes that follow, so Chinese prose without spaces still splits into comparable units. Changed runs are then
+ * narrowed to the characters that differ.
+ *
+ * <p>A patch is the list of {@link Edit}s against the earlier text: where it starts, what it removes and what it
+ * puts in. It carries everything needed to go either way, so it replaces both full copies of a changed scene.
+ */
+final class SceneTextDiff {
+    /** Beyond this many token edits the changed middle is kept as a single replacement. */
+    static final int MAX_EDIT_DISTANCE = 2_000;
+
+    private SceneTextDiff() {
+    }
+
+    /** Replaces {@code deleted} at {@code beforeOffset} of the earlier text with {@code inserted}. */
+    record Edit(int beforeOffset, String deleted, String inserted) {
+    }
+
+    /** One edit located in both texts, with up to {@code context} unchanged chars of the earlier text around it. */
+    record Hunk(int beforeOffset, int afterOffset, String deleted, String inserted, String contextBefore, String contextAfter) {
+    }
+
+    static List<Edit> diff(String before, String after) {
+        String a = before == null ? "" : before;
+        String b = after == null ? "" : after;
+        if (a.equals(b)) {
+            return List.of();
+        }
+        int[] aBounds = tokenBounds(a);
+        int[] bBounds = tokenBounds(b);
+        Map<String, Integer> ids = new HashMap<>();
+        int[] aTokens = tokenIds(a, aBounds, ids);
+        int[] bTokens = tokenIds(b, bBounds, ids);
+
+        int prefix = 0;
+        while (prefix < aTokens.length && prefix < bTokens.length && aTokens[prefix] == bTokens[prefix]) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < aTokens.length - prefix && suffix < bTokens.length - prefix
+                && aTokens[aTokens.length - 1 - suffix] == bTokens[bTokens.length - 1 - suffix]) {
+            suffix++;
+        }
+        int[] aMiddle = Arrays.copyOfRange(aTokens, prefix, aTokens.length - suffix);
+        int[] bMiddle = Arrays.copyOfRange(bTokens, prefix, bTokens.length - suffix);
+
+        List<int[]> runs = changedRuns(aMiddle, bMiddle);
+        List<Edit> edits = new ArrayList<>();
+        for (int[] run : runs) {
+            int aStart = start(aBounds, prefix + run[0]);
+            int aEnd = start(aBounds, prefix + run[1]);
+            int bStart = start(bBounds, prefix + run[2]);
+            int bEnd = start(bBounds, prefix + run[3]);
+            addNarrowed(edits, a, aStart, aEnd, b, bStart, bEnd);
+        }
+        return edits;
+    }
+
+    /** Rebuilds the later text from the earlier one. */
+    static String apply(String before, List<Edit> patch) {
+        String text = before == null ? "" : before;
+        StringBuilder out = new StringBuilder(text.length());
+        int cursor = 0;
+        for (Edit edit : patch) {
+            int offset = edit.beforeOffset();
+            if (offset < cursor || !text.startsWith(edit.deleted(), offset)) {
+                throw new IllegalArgumentException("补丁与原文不匹配：" + offset);
+            }
+            out.append(text, cursor, offset).append(edit.inserted());
+            cursor = offset + edit.deleted().length();
+        }
+        return out.append(text, cursor, text.length()).toString();
+    }
+
+    /** Rebuilds the earlier text from the later one. */
+    static String revert(String after, List<Edit> patch) {
+        String text = after == null ? "" : after;
+        StringBuilder out = new StringBuilder(text.length());
+        int cursor = 0;
+        int shift = 0;
+        for (Edit edit : patch) {
+            int offset = edit.beforeOffset() + shift;
+            if (offset < cursor || !text.startsWith(edit.inserted(), offset)) {
+                throw new IllegalArgumentException("补丁与当前文本不匹配：" + offset);
+            }
+            out.append(text, cursor, offset).append(edit.deleted());
+            cursor = offset + edit.inserted().length();
+            shift += edit.inserted().length() - edit.deleted().length();
+        }
+        return out.append(text, cursor, text.length()).toString();
+    }
+
+    static List<Hunk> hunks(String before, List<Edit> patch, int context) {
+        String text = before == null ? "" : before;
+        List<Hunk> hunks = new ArrayList<>(patch.size());
+        int shift = 0;
+        for (Edit edit : patch) {
+            int start = edit.beforeOffset();
+            int end = start + edit.deleted().length();
+            hunks.add(new Hunk(start, start + shift, edit.deleted(), edit.inserted(),
+                    text.substring(safeIndex(text, Math.max(0, start - context)), start),
+                    text.substring(end, safeIndex(text, Math.min(text.length(), end + context)))));
+            shift += edit.inserted().length() - edit.deleted().length();
+        }
+        return hunks;
+    }
+
+    /** Storage form of a patch: one {@code [beforeOffset, deleted, inserted]} triple per edit. */
+    static List<List<Object>> encode(List<Edit> patch) {
+        List<List<Object>> out = new ArrayList<>(patch.size());
+        for (Edit edit : patch) {
+            out.add(List.of(edit.beforeOffset(), edit.deleted(), edit.inserted()));
+        }
+        return out;
+    }
+
+    static List<Edit> decode(Object encoded) {
+        List<Edit> patch = new ArrayList<>();
+        if (!(encoded instanceof List<?> rows)) {
+            return patch;
+        }
+        for (Object row : rows) {
+            if (row instanceof List<?> triple && triple.size() == 3 && triple.get(0) instanceof Number offset) {
+                patch.add(new Edit(offset.intValue(), String.valueOf(triple.get(1)), String.valueOf(triple.get(2))));
+            }
+        }
+        return patch;
+    }
+
+    /** End offsets of the paragraph and sentence tokens of {@code text}; the last one is its length. */
+    static int[] tokenBounds(String text) {
+        int[] bounds = new int[16];
+        int count = 0;
+        int length = text.length();
+        int index = 0;
+        while (index < length) {
+            int end = -1;
+            char c = text.charAt(index);
+            if (c == '<') {
+                int close = text.indexOf('>', index);
+                if (close < 0) {
+                    index = length;
+                    break;
+                }
+                index = close + 1;
+                if (isParagraphTag(text, close)) {
+                    end = index;
+                }
+            } else if (c == '\n') {
+                end = ++index;
+            } else {
+                int codePoint = text.codePointAt(index);
+                index += Character.charCount(codePoint);
+                if (isSentenceEnd(text, index, codePoint)) {
+                    while (index < length && isSentenceTail(text.charAt(index))) {
+                        index++;
+                    }
+                    end = index;
+                }
+            }
+            if (end > 0) {
+                if (count == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, count * 2);
+                }
+                bounds[count++] = end;
+            }
+        }
+        if (count == 0 || bounds[count - 1] != length) {
+            if (count == bounds.length) {
+                bounds = Arrays.copyOf(bounds, count + 1);
+            }
+            bounds[count++] = length;
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Myers' greedy O(ND) shortest edit script over token ids, returned as changed runs
+     * {@code [aStart, aEnd, bStart, bEnd]} in order.
+     */
+    private static List<int[]> changedRuns(int[] a, int[] b) {
+        int n = a.length;
+        int m = b.length;
+        List<int[]> runs = new ArrayList<>();
+        if (n == 0 && m == 0) {
+            return runs;
+        }
+        if (n == 0 || m == 0) {
+            runs.add(new int[]{0, n, 0, m});
+            return runs;
+        }
+        int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        int found = -1;
+        for (int d = 0; d <= max && found < 0; d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    found = d;
+                    break;
+                }
+            }
+        }
+        if (found < 0) {
+            runs.add(new int[]{0, n, 0, m});
+            return runs;
+        }
+
+        // Walk back from (n, m), marking the single delete or insert of each step.
+        boolean[] deleted = new boolean[n];
+        boolean[] inserted = new boolean[m];
+        int x = n;
+        int y = m;
+        for (int d = found; d > 0; d--) {
+            int[] previous = trace.get(d);
+            int k = x - y;
+            boolean down = k == -d || (k != d && previous[k - 1 + d] < previous[k + 1 + d]);
+            int previousK = down ? k + 1 : k - 1;
+            int previousX = previous[previousK + d];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                x--;
+                y--;
+            }
+            if (down) {
+                inserted[previousY] = true;
+            } else {
+                deleted[previousX] = true;
+            }
+            x = previousX;
+            y = previousY;
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if (i < n && j < m && !deleted[i] && !inserted[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            int aStart = i;
+            int bStart = j;
+            while (i < n && deleted[i]) {
+                i++;
+            }
+            while (j < m && inserted[j]) {
+                j++;
+            }
+            runs.add(new int[]{aStart, i, bStart, j});
+        }
+        return runs;
+    }
+
+    private static void addNarrowed(List<Edit> edits, String a, int aStart, int aEnd, String b, int bStart, int bEnd) {
+        int prefix = 0;
+        int limit = Math.min(aEnd - aStart, bEnd - bStart);
+        while (prefix < limit && a.charAt(aStart + prefix) == b.charAt(bStart + prefix)) {
+            prefix++;
+        }
+        if (prefix > 0 && Character.isHighSurrogate(a.charAt(aStart + prefix - 1))) {
+            prefix--;
+        }
+        int suffix = 0;
+        limit -= prefix;
+        while (suffix < limit && a.charAt(aEnd - 1 - suffix) == b.charAt(bEnd - 1 - suffix)) {
+            suffix++;
+        }
+        if (suffix > 0 && Character.isLowSurrogate(a.charAt(aEnd - suffix))) {
+            suffix--;
+        }
+        String deleted = a.substring(aStart + prefix, aEnd - suffix);
+        String inserted = b.substring(bStart + prefix, bEnd - suffix);
+        if (!deleted.isEmpty() || !inserted.isEmpty()) {
+            edits.add(new Edit(aStart + prefix, deleted, inserted));
+        }
+    }
+
+    private static int[] tokenIds(String text, int[] bounds, Map<String, Integer> ids) {
+        int[] tokens = new int[bounds.length];
+        int start = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            tokens[i] = ids.computeIfAbsent(text.substring(start, bounds[i]), key -> ids.size());
+            start = bounds[i];
+        }
+        return tokens;
+    }
+
+    private static int start(int[] bounds, int token) {
+        return token == 0 ? 0 : bounds[token - 1];
+    }
+
+    private static boolean isParagraphTag(String text, int close) {
+        int open = text.lastIndexOf('<', close);
+        String tag = text.substring(open + 1, close).trim().toLowerCase();
+        if (tag.startsWith("br")) {
+            return true;
+        }
+        return tag.equals("/p") || tag.equals("/div") || tag.equals("/li") || tag.equals("/blockquote")
+                || (tag.length() == 3 && tag.startsWith("/h") && Character.isDigit(tag.charAt(2)));
+    }
+
+    private static boolean isSentenceEnd(String text, int next, int codePoint) {
+        return switch (codePoint) {
+            case '。', '！', '？', '；', '…', '!', '?', ';' -> true;
+            // Only a period followed by a space or the end, so decimals and abbreviations stay whole.
+            case '.' -> next >= text.length() || Character.isWhitespace(text.charAt(next)) || text.charAt(next) == '<';
+            default -> false;
+        };
+    }
+
+    private static boolean isSentenceTail(char c) {
+        return switch (c) {
+            case '。', '！', '？', '…', '!', '?', '”', '’', '」', '』', '）', '》', '"', '\'', ')' -> true;
+            default -> false;
+        };
+    }
+
+    private static int safeIndex(String text, int index) {
+        if (index > 0 && index < text.length() && Character.isLowSurrogate(text.charAt(index))) {
+            return index - 1;
+        }
+        return index;
+    }
+}
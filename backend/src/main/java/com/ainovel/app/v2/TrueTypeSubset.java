@@ -0,0 +1,400 @@
+package com.ainovel.app.v2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Embeds the glyphs a document uses from a TrueType font as a CIDFontType2 with Identity-H encoding. Glyph ids are
+ * kept as they are, so the subset needs no cmap: unused glyphs are emptied, composite glyphs keep their components,
+ * and a ToUnicode map keeps the text extractable. One instance per document; the parsed {@link Font} is shared.
+ */
+final class TrueTypeSubset implements CjkPdfWriter.PdfFont {
+    /** The tables a PDF viewer needs to render an embedded TrueType font by glyph id. */
+    private static final Set<String> EMBEDDED_TABLES = Set.of("head", "hhea", "maxp", "hmtx", "loca", "glyf", "cvt ", "fpgm", "prep");
+
+    private final Font font;
+    private final BitSet used = new BitSet();
+    private final Map<Integer, Integer> codePointByGlyph = new TreeMap<>();
+
+    TrueTypeSubset(Font font) {
+        this.font = font;
+    }
+
+    @Override
+    public int advance(int codePoint) {
+        return font.advance(font.glyph(codePoint));
+    }
+
+    @Override
+    public String encode(String text) {
+        StringBuilder hex = new StringBuilder(text.length() * 4);
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int glyph = font.glyph(codePoint);
+            used.set(glyph);
+            if (glyph != 0) codePointByGlyph.putIfAbsent(glyph, codePoint);
+            CjkPdfWriter.hex4(hex, glyph);
+            i += Character.charCount(codePoint);
+        }
+        return hex.toString();
+    }
+
+    @Override
+    public void write(CjkPdfWriter.ObjectWriter objects, int fontObject) throws IOException {
+        int descendant = objects.reserve();
+        int descriptor = objects.reserve();
+        int fontFile = objects.reserve();
+        int toUnicode = objects.reserve();
+        String name = subsetTag() + "+" + font.postScriptName;
+        byte[] subset = font.subset(used);
+        objects.stream(fontFile, "/Length1 " + subset.length, subset);
+        objects.object(descriptor, "<< /Type /FontDescriptor /FontName /" + name + " /Flags 4 /FontBBox [" + font.scaled(font.xMin) + " "
+                + font.scaled(font.yMin) + " " + font.scaled(font.xMax) + " " + font.scaled(font.yMax) + "] /ItalicAngle 0 /Ascent "
+                + font.scaled(font.ascent) + " /Descent " + font.scaled(font.descent) + " /CapHeight " + font.scaled(font.capHeight)
+                + " /StemV 80 /FontFile2 " + fontFile + " 0 R >>");
+        objects.object(descendant, "<< /Type /Font /Subtype /CIDFontType2 /BaseFont /" + name
+                + " /CIDSystemInfo << /Registry (Adobe) /Ordering (Identity) /Supplement 0 >> /FontDescriptor " + descriptor
+                + " 0 R /CIDToGIDMap /Identity /DW 1000 /W " + widths() + " >>");
+        objects.stream(toUnicode, "", CjkPdfWriter.toUnicodeCMap(codePointByGlyph));
+        objects.object(fontObject, "<< /Type /Font /Subtype /Type0 /BaseFont /" + name + " /Encoding /Identity-H /DescendantFonts ["
+                + descendant + " 0 R] /ToUnicode " + toUnicode + " 0 R >>");
+    }
+
+    @Override
+    public String fingerprint() {
+        return font.fingerprint;
+    }
+
+    /** Widths of the used glyphs, consecutive ids grouped as {@code first [w1 w2 ...]}. */
+    private String widths() {
+        StringBuilder widths = new StringBuilder("[");
+        int glyph = used.nextSetBit(0);
+        while (glyph >= 0) {
+            widths.append(glyph).append(" [");
+            int next = glyph;
+            do {
+                if (next > glyph) widths.append(' ');
+                widths.append(font.advance(next));
+                next++;
+            } while (used.get(next));
+            widths.append("] ");
+            glyph = used.nextSetBit(next);
+        }
+        return widths.append(']').toString();
+    }
+
+    /** Six capital letters derived from the glyph set, as PDF requires for subset font names. */
+    private String subsetTag() {
+        long hash = Arrays.hashCode(used.toLongArray()) & 0xFFFFFFFFL;
+        StringBuilder tag = new StringBuilder(6);
+        for (int i = 0; i < 6; i++) {
+            tag.append((char) ('A' + hash % 26));
+            hash /= 26;
+        }
+        return tag.toString();
+    }
+
+    /** A parsed TrueType font (glyf outlines). Lookups read the original bytes; nothing per glyph is expanded. */
+    static final class Font {
+        private final byte[] data;
+        private final ByteBuffer bytes;
+        private final Map<String, int[]> tables = new TreeMap<>();
+        final String postScriptName;
+        final String fingerprint;
+        final int unitsPerEm;
+        final int numGlyphs;
+        final int xMin;
+        final int yMin;
+        final int xMax;
+        final int yMax;
+        final int ascent;
+        final int descent;
+        final int capHeight;
+        private final int numberOfHMetrics;
+        private final boolean longLoca;
+        private final int cmap;
+        private final int cmapFormat;
+
+        private Font(byte[] data) {
+            this.data = data;
+            this.bytes = ByteBuffer.wrap(data);
+            int version = readInt(0);
+            if (version == 0x4F54544F) throw new IllegalArgumentException("字体为 CFF 轮廓（OTF），请使用 TrueType 轮廓的 TTF 字体");
+            if (version != 0x00010000 && version != 0x74727565) throw new IllegalArgumentException("不支持的字体文件");
+            int count = u16(4);
+            for (int i = 0; i < count; i++) {
+                int record = 12 + i * 16;
+                String tag = new String(data, record, 4, StandardCharsets.US_ASCII);
+                int offset = readInt(record + 8);
+                int length = readInt(record + 12);
+                if (offset < 0 || length < 0 || (long) offset + length > data.length) throw new IllegalArgumentException("字体表越界: " + tag);
+                tables.put(tag, new int[] {offset, length});
+            }
+            for (String required : new String[] {"head", "hhea", "maxp", "hmtx", "loca", "glyf", "cmap"}) {
+                if (!tables.containsKey(required)) throw new IllegalArgumentException("字体缺少 " + required + " 表");
+            }
+            int head = table("head");
+            unitsPerEm = Math.max(16, u16(head + 18));
+            xMin = s16(head + 36);
+            yMin = s16(head + 38);
+            xMax = s16(head + 40);
+            yMax = s16(head + 42);
+            longLoca = s16(head + 50) == 1;
+            int hhea = table("hhea");
+            ascent = s16(hhea + 4);
+            descent = s16(hhea + 6);
+            numberOfHMetrics = Math.max(1, u16(hhea + 34));
+            numGlyphs = u16(table("maxp") + 4);
+            int os2 = tables.containsKey("OS/2") ? table("OS/2") : -1;
+            capHeight = os2 >= 0 && u16(os2) >= 2 && tables.get("OS/2")[1] >= 90 ? s16(os2 + 88) : ascent;
+            int[] unicode = unicodeCmap();
+            cmap = unicode[0];
+            cmapFormat = unicode[1];
+            postScriptName = postScriptName();
+            fingerprint = sha256(data);
+        }
+
+        static Font parse(byte[] data) {
+            if (data == null || data.length < 12) throw new IllegalArgumentException("不支持的字体文件");
+            try {
+                return new Font(data);
+            } catch (IndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException("字体文件已损坏", ex);
+            }
+        }
+
+        /** The glyph for {@code codePoint}, or 0 ({@code .notdef}) when the font has none. */
+        int glyph(int codePoint) {
+            return cmapFormat == 12 ? glyphFormat12(codePoint) : glyphFormat4(codePoint);
+        }
+
+        /** Advance width of {@code glyph} in thousandths of an em. */
+        int advance(int glyph) {
+            int metric = Math.min(glyph, numberOfHMetrics - 1);
+            return scaled(u16(table("hmtx") + metric * 4));
+        }
+
+        int scaled(int fontUnits) {
+            return Math.round(fontUnits * 1000f / unitsPerEm);
+        }
+
+        /** The embeddable font with every glyph outside {@code used} (and their components) emptied. */
+        byte[] subset(BitSet used) {
+            BitSet keep = (BitSet) used.clone();
+            keep.set(0);
+            Deque<Integer> pending = new ArrayDeque<>();
+            keep.stream().forEach(pending::add);
+            while (!pending.isEmpty()) {
+                for (int component : components(pending.pop())) {
+                    if (!keep.get(component)) {
+                        keep.set(component);
+                        pending.add(component);
+                    }
+                }
+            }
+
+            int glyf = table("glyf");
+            ByteArrayOutputStream glyphs = new ByteArrayOutputStream();
+            ByteBuffer loca = ByteBuffer.allocate((numGlyphs + 1) * 4);
+            for (int glyph = 0; glyph < numGlyphs; glyph++) {
+                loca.putInt(glyphs.size());
+                if (!keep.get(glyph)) continue;
+                int[] range = glyphRange(glyph);
+                glyphs.write(data, glyf + range[0], range[1] - range[0]);
+                while (glyphs.size() % 4 != 0) glyphs.write(0);
+            }
+            loca.putInt(glyphs.size());
+
+            Map<String, byte[]> out = new TreeMap<>();
+            for (Map.Entry<String, int[]> entry : tables.entrySet()) {
+                if (EMBEDDED_TABLES.contains(entry.getKey())) {
+                    out.put(entry.getKey(), Arrays.copyOfRange(data, entry.getValue()[0], entry.getValue()[0] + entry.getValue()[1]));
+                }
+            }
+            ByteBuffer head = ByteBuffer.wrap(out.get("head"));
+            head.putInt(8, 0);
+            head.putShort(50, (short) 1);
+            out.put("loca", loca.array());
+            out.put("glyf", glyphs.toByteArray());
+            return assemble(out);
+        }
+
+        private static byte[] assemble(Map<String, byte[]> tables) {
+            int count = tables.size();
+            int power = Integer.highestOneBit(count);
+            int length = 12 + 16 * count;
+            for (byte[] table : tables.values()) length += (table.length + 3) & ~3;
+            ByteBuffer font = ByteBuffer.allocate(length);
+            font.putInt(0x00010000).putShort((short) count).putShort((short) (power * 16))
+                    .putShort((short) Integer.numberOfTrailingZeros(power)).putShort((short) (count * 16 - power * 16));
+            int offset = 12 + 16 * count;
+            int headOffset = 0;
+            for (Map.Entry<String, byte[]> entry : tables.entrySet()) {
+                byte[] table = entry.getValue();
+                font.put(entry.getKey().getBytes(StandardCharsets.US_ASCII)).putInt(checksum(table)).putInt(offset).putInt(table.length);
+                if ("head".equals(entry.getKey())) headOffset = offset;
+                font.put(offset, table);
+                offset += (table.length + 3) & ~3;
+            }
+            font.putInt(headOffset + 8, (int) (0xB1B0AFBAL - (checksum(font.array()) & 0xFFFFFFFFL)));
+            return font.array();
+        }
+
+        private static int checksum(byte[] table) {
+            int sum = 0;
+            for (int i = 0; i < table.length; i += 4) {
+                int word = 0;
+                for (int j = 0; j < 4; j++) word = (word << 8) | (i + j < table.length ? table[i + j] & 0xFF : 0);
+                sum += word;
+            }
+            return sum;
+        }
+
+        /** Start and end of {@code glyph}'s outline, relative to the glyf table. */
+        private int[] glyphRange(int glyph) {
+            int loca = table("loca");
+            int start = longLoca ? readInt(loca + glyph * 4) : u16(loca + glyph * 2) * 2;
+            int end = longLoca ? readInt(loca + glyph * 4 + 4) : u16(loca + glyph * 2 + 2) * 2;
+            int length = tables.get("glyf")[1];
+            if (start < 0 || end < start || end > length) throw new IllegalArgumentException("字体 loca 表越界");
+            return new int[] {start, end};
+        }
+
+        /** The glyphs a composite glyph is built from; empty for simple glyphs. */
+        private int[] components(int glyph) {
+            if (glyph >= numGlyphs) return new int[0];
+            int[] range = glyphRange(glyph);
+            int at = table("glyf") + range[0];
+            if (range[1] - range[0] < 10 || s16(at) >= 0) return new int[0];
+            int[] components = new int[4];
+            int count = 0;
+            at += 10;
+            int flags;
+            do {
+                flags = u16(at);
+                if (count == components.length) components = Arrays.copyOf(components, count * 2);
+                components[count++] = u16(at + 2);
+                at += 4 + ((flags & 0x0001) != 0 ? 4 : 2);
+                if ((flags & 0x0008) != 0) at += 2;
+                else if ((flags & 0x0040) != 0) at += 4;
+                else if ((flags & 0x0080) != 0) at += 8;
+            } while ((flags & 0x0020) != 0);
+            return Arrays.copyOf(components, count);
+        }
+
+        /** Offset and format of the best Unicode subtable: full-repertoire format 12, else BMP format 4. */
+        private int[] unicodeCmap() {
+            int cmap = table("cmap");
+            int best = -1;
+            int bestFormat = 0;
+            for (int i = 0; i < u16(cmap + 2); i++) {
+                int record = cmap + 4 + i * 8;
+                int platform = u16(record);
+                int encoding = u16(record + 2);
+                int subtable = cmap + readInt(record + 4);
+                int format = u16(subtable);
+                boolean unicode = platform == 0 || (platform == 3 && (encoding == 1 || encoding == 10));
+                if (unicode && format == 12) return new int[] {subtable, 12};
+                if (unicode && format == 4 && best < 0) {
+                    best = subtable;
+                    bestFormat = 4;
+                }
+            }
+            if (best < 0) throw new IllegalArgumentException("字体缺少 Unicode cmap");
+            return new int[] {best, bestFormat};
+        }
+
+        private int glyphFormat12(int codePoint) {
+            int low = 0;
+            int high = readInt(cmap + 12) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int group = cmap + 16 + mid * 12;
+                if (codePoint < readInt(group)) high = mid - 1;
+                else if (codePoint > readInt(group + 4)) low = mid + 1;
+                else return checked(readInt(group + 8) + codePoint - readInt(group));
+            }
+            return 0;
+        }
+
+        private int glyphFormat4(int codePoint) {
+            if (codePoint > 0xFFFF) return 0;
+            int segments = u16(cmap + 6) / 2;
+            int ends = cmap + 14;
+            int starts = ends + segments * 2 + 2;
+            int deltas = starts + segments * 2;
+            int rangeOffsets = deltas + segments * 2;
+            int low = 0;
+            int high = segments - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (u16(ends + mid * 2) < codePoint) low = mid + 1;
+                else high = mid;
+            }
+            if (u16(starts + low * 2) > codePoint || u16(ends + low * 2) < codePoint) return 0;
+            int delta = u16(deltas + low * 2);
+            int rangeOffset = u16(rangeOffsets + low * 2);
+            if (rangeOffset == 0) return checked((codePoint + delta) & 0xFFFF);
+            int glyph = u16(rangeOffsets + low * 2 + rangeOffset + (codePoint - u16(starts + low * 2)) * 2);
+            return glyph == 0 ? 0 : checked((glyph + delta) & 0xFFFF);
+        }
+
+        private int checked(int glyph) {
+            return glyph > 0 && glyph < numGlyphs ? glyph : 0;
+        }
+
+        /** Name id 6 from the name table, reduced to characters allowed in a PDF name; a fixed name when absent. */
+        private String postScriptName() {
+            if (tables.containsKey("name")) {
+                int name = table("name");
+                int strings = name + u16(name + 4);
+                for (int i = 0; i < u16(name + 2); i++) {
+                    int record = name + 6 + i * 12;
+                    int platform = u16(record);
+                    if (u16(record + 6) != 6 || (platform != 1 && platform != 3)) continue;
+                    String raw = new String(data, strings + u16(record + 10), u16(record + 8),
+                            platform == 3 ? StandardCharsets.UTF_16BE : StandardCharsets.ISO_8859_1);
+                    String clean = raw.replaceAll("[^A-Za-z0-9_-]", "");
+                    if (!clean.isEmpty()) return clean;
+                }
+            }
+            return "EmbeddedCJK";
+        }
+
+        private int table(String tag) {
+            return tables.get(tag)[0];
+        }
+
+        private int u16(int at) {
+            return bytes.getShort(at) & 0xFFFF;
+        }
+
+        private int s16(int at) {
+            return bytes.getShort(at);
+        }
+
+        private int readInt(int at) {
+            return bytes.getInt(at);
+        }
+
+        private static String sha256(byte[] data) {
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.ainovel.app.v2;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+@Configuration
+public class V2ExportAsyncConfig {
+    @Bean("v2ExportExecutor")
+    public Executor v2ExportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("v2-export-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,384 @@
+package com.ainovel.app.v2;
+
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
+import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.story.ParsedOutline;
+import com.ainovel.app.story.ParsedOutlineCache;
+import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.v2.ExportDocumentWriter.Block;
+import com.ainovel.app.v2.ExportDocumentWriter.Book;
+import com.ainovel.app.v2.model.V2ExportJob;
+import com.ainovel.app.v2.repo.V2ExportJobRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Runs export jobs off the request thread. A job streams its document into a file under {@code app.exports.dir}
+ * named by a hash of the headings, each scene's stored revision, format and options, so exporting an unchanged
+ * book again reuses the earlier file without reading any scene body. Progress counts the scenes written.
+ */
+@Service
+public class V2ExportJobService {
+    /** Part of every cache key; bump it when a writer's output changes so files from the old writer are not reused. */
+    static final int RENDER_VERSION = 2;
+
+    private static final Logger log = LoggerFactory.getLogger(V2ExportJobService.class);
+
+    private final V2ExportJobRepository jobRepository;
+    private final V2ExportPersistenceService exportService;
+    private final ManuscriptSectionStore sectionStore;
+    private final ParsedOutlineCache parsedOutlineCache;
+    private final V2Json v2Json;
+    private final TransactionTemplate transactions;
+    private final Executor executor;
+    private final Path exportDir;
+    private final Duration cacheTtl;
+    private final String pdfFontLocation;
+    private final boolean pdfFontRequired;
+    private TrueTypeSubset.Font pdfFont;
+    private boolean pdfFontLoaded;
+
+    public V2ExportJobService(V2ExportJobRepository jobRepository,
+                              V2ExportPersistenceService exportService,
+                              ManuscriptSectionStore sectionStore,
+                              ParsedOutlineCache parsedOutlineCache,
+                              V2Json v2Json,
+                              TransactionTemplate transactions,
+                              @Qualifier("v2ExportExecutor") Executor executor,
+                              @Value("${app.exports.dir:${java.io.tmpdir}/ainovel-exports}") String exportDir,
+                              @Value("${app.exports.cache-ttl-hours:48}") long cacheTtlHours,
+                              @Value("${app.exports.pdf-font:}") String pdfFontLocation,
+                              @Value("${app.exports.pdf-font-required:false}") boolean pdfFontRequired) {
+        this.jobRepository = jobRepository;
+        this.exportService = exportService;
+        this.sectionStore = sectionStore;
+        this.parsedOutlineCache = parsedOutlineCache;
+        this.v2Json = v2Json;
+        this.transactions = transactions;
+        this.executor = executor;
+        this.exportDir = Path.of(exportDir).toAbsolutePath().normalize();
+        this.cacheTtl = Duration.ofHours(Math.max(1, cacheTtlHours));
+        this.pdfFontLocation = pdfFontLocation == null ? "" : pdfFontLocation.trim();
+        this.pdfFontRequired = pdfFontRequired;
+    }
+
+    /**
+     * Loads the font at startup so a missing one is reported then, not on the first pdf. Without a usable font pdfs
+     * use the non-embedded STSong-Light, unless {@code app.exports.pdf-font-required} asks to refuse to start instead.
+     */
+    @PostConstruct
+    void requirePdfFont() {
+        if (pdfFontRequired && loadPdfFont() == null) {
+            throw new IllegalStateException("PDF export font '" + pdfFontLocation
+                    + "' is missing or unusable but app.exports.pdf-font-required is set");
+        }
+    }
+
+    /** Queues a created job; the run starts after the surrounding transaction commits. */
+    public void schedule(UUID manuscriptId, UUID jobId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            submit(manuscriptId, jobId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(manuscriptId, jobId);
+            }
+        });
+    }
+
+    /** The finished file a job's {@code filePath} names, or {@code null} once it has been pruned. */
+    public Path file(String filePath) {
+        if (filePath == null || filePath.isBlank()) {
+            return null;
+        }
+        Path file = exportDir.resolve(filePath).normalize();
+        return file.startsWith(exportDir) && Files.isRegularFile(file) ? file : null;
+    }
+
+    private void submit(UUID manuscriptId, UUID jobId) {
+        try {
+            executor.execute(() -> run(manuscriptId, jobId));
+        } catch (RejectedExecutionException ex) {
+            finish(manuscriptId, jobId, "failed", null, 0L, "导出队列已满，请稍后重试");
+        }
+    }
+
+    void run(UUID manuscriptId, UUID jobId) {
+        try {
+            PendingExport pending = transactions.execute(status -> jobRepository.findByManuscriptIdAndId(manuscriptId, jobId)
+                    .map(this::prepare)
+                    .orElse(null));
+            if (pending == null) {
+                return;
+            }
+            progress(manuscriptId, jobId, 1);
+            SceneProgress sceneProgress = new SceneProgress(manuscriptId, jobId, pending.book().sceneCount());
+            ExportFile file = export(pending.book(), pending.format(), pending.config(), sceneProgress::sceneWritten);
+            finish(manuscriptId, jobId, "completed", file.fileName(), file.sizeBytes(), null);
+        } catch (Exception ex) {
+            finish(manuscriptId, jobId, "failed", null, 0L, ex.getMessage() == null ? "导出失败" : ex.getMessage());
+        }
+    }
+
+    private PendingExport prepare(V2ExportJob job) {
+        Map<String, Object> cfg = v2Json.map(job.getConfigJson());
+        return new PendingExport(book(job.getManuscript(), cfg, job.getChapterRange()),
+                str(job.getFormat(), "txt").toLowerCase(Locale.ROOT), cfg);
+    }
+
+    /**
+     * The export's headings and scene references in reading order. Scene bodies are not read here; the returned
+     * book loads them in batches while it is written.
+     */
+    Book book(Manuscript manuscript, Map<String, Object> cfg, String range) {
+        Set<String> selectedSceneIds = parseSelectedSceneIds(cfg);
+        List<Block> blocks = new ArrayList<>();
+        Outline outline = manuscript.getOutline();
+        if (outline != null) {
+            List<ParsedOutline.Chapter> chapters = parsedOutlineCache.get(outline).chapters();
+            int[] boundaries = parseChapterRange(range, chapters.size());
+            for (ParsedOutline.Chapter chapter : chapters) {
+                int order = chapter.index() + 1;
+                if (order < boundaries[0] || order > boundaries[1]) continue;
+                blocks.add(Block.text(str(chapter.title(), "第" + order + "章")));
+                for (ParsedOutline.Scene scene : chapter.scenes()) {
+                    String sceneId = scene.id() == null ? "" : scene.id().toString();
+                    if (!selectedSceneIds.isEmpty() && !selectedSceneIds.contains(sceneId)) continue;
+                    blocks.add(Block.text(str(scene.title(), "场景 " + (scene.index() + 1))));
+                    blocks.add(Block.scene(sceneId));
+                }
+            }
+        }
+
+        if (blocks.isEmpty()) {
+            for (String sceneId : sectionStore.sceneIds(manuscript)) {
+                if (!selectedSceneIds.isEmpty() && !selectedSceneIds.contains(sceneId)) continue;
+                blocks.add(Block.text(sceneId));
+                blocks.add(Block.scene(sceneId));
+            }
+        }
+
+        return new Book(str(manuscript.getTitle(), "AINovel 导出"), str(cfg.get("authorName"), "AINovel"), blocks, sceneIds -> {
+            Map<String, String> bodies = new HashMap<>();
+            sectionStore.forEachInOrder(manuscript, sceneIds, bodies::put);
+            return bodies;
+        }, sectionStore.sceneRevisions(manuscript));
+    }
+
+    /**
+     * Writes the book unless a file for the same scene revisions, format and options already exists. The document goes to a
+     * temporary file first and is moved into place when complete, so a cached file is never partial.
+     */
+    ExportFile export(Book book, String format, Map<String, Object> cfg, Runnable onScene) throws IOException {
+        String fileName = cacheKey(book, format, cfg) + "." + format;
+        Path target = exportDir.resolve(fileName);
+        if (Files.isRegularFile(target)) {
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            return new ExportFile(fileName, Files.size(target), true);
+        }
+        Files.createDirectories(exportDir);
+        Path partial = Files.createTempFile(exportDir, fileName + ".", ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+                ExportDocumentWriter.write(format, book, cfg, this::pdfFont, out, onScene);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        pruneExpired();
+        return new ExportFile(fileName, Files.size(target), false);
+    }
+
+    private String cacheKey(Book book, String format, Map<String, Object> cfg) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        update(digest, "v" + RENDER_VERSION);
+        update(digest, format);
+        update(digest, "pdf".equals(format) ? pdfFont().fingerprint() : "");
+        update(digest, v2Json.write(new TreeMap<>(cfg)));
+        update(digest, book.title());
+        update(digest, book.author());
+        for (Block block : book.blocks()) {
+            if (block.sceneId() == null) {
+                update(digest, block.text());
+            } else {
+                update(digest, block.sceneId());
+                update(digest, book.sceneRevisions().getOrDefault(block.sceneId(), ""));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** A font for one pdf: a subset of the configured TrueType font, or the predefined STSong-Light without one. */
+    private CjkPdfWriter.PdfFont pdfFont() {
+        TrueTypeSubset.Font font = loadPdfFont();
+        return font == null ? new CjkPdfWriter.StandardCjkFont() : new TrueTypeSubset(font);
+    }
+
+    private synchronized TrueTypeSubset.Font loadPdfFont() {
+        if (!pdfFontLoaded) {
+            pdfFontLoaded = true;
+            Resource resource = pdfFontLocation.isEmpty() ? null : new DefaultResourceLoader().getResource(pdfFontLocation);
+            if (resource != null && resource.exists()) {
+                try (InputStream in = resource.getInputStream()) {
+                    pdfFont = TrueTypeSubset.Font.parse(in.readAllBytes());
+                } catch (IOException | IllegalArgumentException ex) {
+                    log.warn("PDF export font {} is unusable, falling back to STSong-Light: {}", pdfFontLocation, ex.getMessage());
+                }
+            } else if (pdfFontLocation.isEmpty()) {
+                log.warn("No PDF export font configured (app.exports.pdf-font), using the non-embedded STSong-Light");
+            } else {
+                log.warn("No PDF export font at '{}', falling back to STSong-Light", pdfFontLocation);
+            }
+        }
+        return pdfFont;
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /** Deletes cached exports and stale partial files not used within the cache TTL. */
+    private void pruneExpired() {
+        Instant cutoff = Instant.now().minus(cacheTtl);
+        try (Stream<Path> files = Files.list(exportDir)) {
+            files.forEach(file -> {
+                try {
+                    if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                        Files.deleteIfExists(file);
+                    }
+                } catch (IOException ex) {
+                    log.warn("Failed to prune expired export {}: {}", file, ex.getMessage());
+                }
+            });
+        } catch (IOException ex) {
+            log.warn("Failed to list export directory {} for pruning: {}", exportDir, ex.getMessage());
+        }
+    }
+
+    private void progress(UUID manuscriptId, UUID jobId, int progress) {
+        exportService.updateJob(manuscriptId, jobId, Map.of("status", "processing", "progress", progress));
+    }
+
+    private void finish(UUID manuscriptId, UUID jobId, String status, String filePath, long fileSizeBytes, String errorMessage) {
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("status", status);
+        patch.put("progress", 100);
+        patch.put("filePath", filePath);
+        patch.put("fileSizeBytes", fileSizeBytes);
+        patch.put("errorMessage", errorMessage);
+        exportService.updateJob(manuscriptId, jobId, patch);
+    }
+
+    private Set<String> parseSelectedSceneIds(Map<String, Object> cfg) {
+        Object raw = cfg.get("selectedSceneIds");
+        if (!(raw instanceof List<?> list)) return Set.of();
+        Set<String> ids = new LinkedHashSet<>();
+        for (Object item : list) {
+            String value = str(item, "");
+            if (!value.isBlank()) ids.add(value);
+        }
+        return ids;
+    }
+
+    private int[] parseChapterRange(String range, int total) {
+        if (total <= 0 || range == null || range.isBlank() || "all".equalsIgnoreCase(range.trim())) return new int[] {1, total};
+        String v = range.trim();
+        if (v.matches("^\\d+$")) {
+            int p = Math.max(1, Math.min(total, Integer.parseInt(v)));
+            return new int[] {p, p};
+        }
+        if (v.matches("^\\d+-\\d+$")) {
+            String[] parts = v.split("-");
+            int a = Integer.parseInt(parts[0]);
+            int b = Integer.parseInt(parts[1]);
+            if (a > b) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+            return new int[] {Math.max(1, Math.min(total, a)), Math.max(1, Math.min(total, b))};
+        }
+        return new int[] {1, total};
+    }
+
+    private String str(Object value, String fallback) {
+        if (value == null) return fallback;
+        String s = value.toString().trim();
+        return s.isEmpty() ? fallback : s;
+    }
+
+    record ExportFile(String fileName, long sizeBytes, boolean cached) {
+    }
+
+    private record PendingExport(Book book, String format, Map<String, Object> config) {
+    }
+
+    /** Persists the job's progress each time the share of written scenes reaches a new percent. */
+    private final class SceneProgress {
+        private final UUID manuscriptId;
+        private final UUID jobId;
+        private final int total;
+        private int written;
+        private int reported = 1;
+
+        SceneProgress(UUID manuscriptId, UUID jobId, int total) {
+            this.manuscriptId = manuscriptId;
+            this.jobId = jobId;
+            this.total = Math.max(1, total);
+        }
+
+        void sceneWritten() {
+            written++;
+            int progress = 1 + written * 98 / total;
+            if (progress > reported) {
+                reported = progress;
+                progress(manuscriptId, jobId, progress);
+            }
+        }
+    }
+}
@@ -123,7 +123,7 @@ public class V2ExportPersistenceService {
         if (patch.containsKey("status")) job.setStatus(str(patch.get("status"), job.getStatus()));
         if (patch.containsKey("progress")) job.setProgress(intVal(patch.get("progress"), job.getProgress()));
         if (patch.containsKey("filePath")) job.setFilePath(str(patch.get("filePath"), null));
-        if (patch.containsKey("fileSizeBytes")) job.setFileSizeBytes((long) intVal(patch.get("fileSizeBytes"), 0));
+        if (patch.containsKey("fileSizeBytes")) job.setFileSizeBytes(patch.get("fileSizeBytes") instanceof Number n ? n.longValue() : 0L);
         if (patch.containsKey("errorMessage")) job.setErrorMessage(patch.get("errorMessage") == null ? null : patch.get("errorMessage").toString());
         if (patch.containsKey("expiresAt") && patch.get("expiresAt") instanceof Instant instant) job.setExpiresAt(instant);
         return jobMap(jobRepository.saveAndFlush(job), null);
@@ -208,7 +208,6 @@ public class V2ExportPersistenceService {
         out.put("fileSizeBytes", job.getFileSizeBytes() == null ? 0L : job.getFileSizeBytes());
         out.put("errorMessage", job.getErrorMessage());
         out.put("contentType", explicitContentType == null ? contentType(job.getFormat()) : explicitContentType);
-        out.put("contentBytes", null);
         out.put("expiresAt", job.getExpiresAt());
         out.put("createdAt", job.getCreatedAt());
         out.put("startedAt", null);
@@ -0,0 +1,281 @@
+package com.ainovel.app.v2;
+
+import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.v2.model.V2ManuscriptVersion;
+import com.ainovel.app.v2.model.V2VersionBlob;
+import com.ainovel.app.v2.model.V2VersionScene;
+import com.ainovel.app.v2.repo.V2ManuscriptVersionRepository;
+import com.ainovel.app.v2.repo.V2VersionBlobRepository;
+import com.ainovel.app.v2.repo.V2VersionSceneRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Stores version snapshots as per-scene blobs addressed by content hash, so a scene that did not change is
+ * kept once per manuscript however many versions include it. With {@code app.versions.scene-deltas} on, a
+ * changed scene is stored as a delta against the same scene of the parent version when that is at most half
+ * the size, up to {@code app.versions.max-delta-depth} links deep. Snapshots are rebuilt on read; versions
+ * written before blobs existed still carry their full {@code sectionsJson} and are read from it.
+ *
+ * <p>Callers hold the manuscript row lock taken by the version service, so two writers never insert the same
+ * hash at once.
+ */
+@Component
+public class V2VersionBlobStore {
+    private final V2VersionBlobRepository blobRepository;
+    private final V2VersionSceneRepository sceneRepository;
+    private final V2ManuscriptVersionRepository versionRepository;
+    private final JsonColumnCodec jsonColumnCodec;
+    private final boolean sceneDeltas;
+    private final int maxDeltaDepth;
+
+    public V2VersionBlobStore(V2VersionBlobRepository blobRepository,
+                              V2VersionSceneRepository sceneRepository,
+                              V2ManuscriptVersionRepository versionRepository,
+                              JsonColumnCodec jsonColumnCodec,
+                              @Value("${app.versions.scene-deltas:true}") boolean sceneDeltas,
+                              @Value("${app.versions.max-delta-depth:8}") int maxDeltaDepth) {
+        this.blobRepository = blobRepository;
+        this.sceneRepository = sceneRepository;
+        this.versionRepository = versionRepository;
+        this.jsonColumnCodec = jsonColumnCodec;
+        this.sceneDeltas = sceneDeltas;
+        this.maxDeltaDepth = Math.max(0, maxDeltaDepth);
+    }
+
+    /** Records {@code sections} as the content of the saved {@code version}, reusing blobs whose hash already exists. */
+    public void write(V2ManuscriptVersion version, Map<String, String> sections) {
+        UUID manuscriptId = version.getManuscript().getId();
+        Map<String, String> hashes = new LinkedHashMap<>();
+        sections.forEach((sceneId, content) -> hashes.put(sceneId, sha256(content == null ? "" : content)));
+
+        Map<String, V2VersionBlob> byHash = new HashMap<>();
+        for (V2VersionBlob blob : blobRepository.findByManuscriptIdAndContentHashIn(manuscriptId, new HashSet<>(hashes.values()))) {
+            byHash.put(blob.getContentHash(), blob);
+        }
+        Map<String, V2VersionBlob> parentBlobs = sceneDeltas ? parentBlobs(version) : Map.of();
+        Map<UUID, String> resolved = new HashMap<>();
+
+        List<V2VersionScene> scenes = new ArrayList<>();
+        for (Map.Entry<String, String> entry : sections.entrySet()) {
+            String content = entry.getValue() == null ? "" : entry.getValue();
+            String hash = hashes.get(entry.getKey());
+            V2VersionBlob blob = byHash.get(hash);
+            if (blob == null) {
+                blob = blobRepository.save(newBlob(manuscriptId, hash, content, parentBlobs.get(entry.getKey()), resolved));
+                byHash.put(hash, blob);
+            }
+            V2VersionScene scene = new V2VersionScene();
+            scene.setVersionId(version.getId());
+            scene.setSceneId(entry.getKey());
+            scene.setBlobId(blob.getId());
+            scenes.add(scene);
+        }
+        sceneRepository.saveAll(scenes);
+    }
+
+    /** Scene bodies of {@code version} keyed by scene id, rebuilt from its blobs. */
+    public Map<String, String> read(V2ManuscriptVersion version) {
+        if (version.getSectionsJson() != null) {
+            return jsonColumnCodec.read(version.getSectionsJson(), new TypeReference<TreeMap<String, String>>() {}, new TreeMap<>());
+        }
+        List<V2VersionScene> scenes = sceneRepository.findByVersionId(version.getId());
+        Map<UUID, String> texts = resolve(scenes.stream().map(V2VersionScene::getBlobId).toList());
+        Map<String, String> sections = new TreeMap<>();
+        for (V2VersionScene scene : scenes) {
+            sections.put(scene.getSceneId(), texts.get(scene.getBlobId()));
+        }
+        return sections;
+    }
+
+    /**
+     * Drops the scene references of versions about to be deleted and returns the blobs they pointed at, which
+     * {@link #deleteUnreferenced} can then collect.
+     */
+    public List<UUID> forgetVersions(Collection<UUID> versionIds) {
+        if (versionIds.isEmpty()) {
+            return List.of();
+        }
+        List<UUID> blobIds = sceneRepository.findBlobIdsByVersionIdIn(versionIds);
+        sceneRepository.deleteByVersionIdIn(versionIds);
+        return blobIds;
+    }
+
+    /**
+     * Deletes those of {@code candidateIds} that no remaining version needs, then follows their delta bases,
+     * which may have lost their last dependant. Only the candidates' chains are checked, never the whole history.
+     */
+    public int deleteUnreferenced(Collection<UUID> candidateIds) {
+        int total = 0;
+        Set<UUID> candidates = new HashSet<>(candidateIds);
+        for (int pass = 0; pass <= maxDeltaDepth && !candidates.isEmpty(); pass++) {
+            List<V2VersionBlob> unreferenced = blobRepository.findUnreferenced(candidates);
+            if (unreferenced.isEmpty()) {
+                break;
+            }
+            candidates = new HashSet<>();
+            List<UUID> ids = new ArrayList<>();
+            for (V2VersionBlob blob : unreferenced) {
+                ids.add(blob.getId());
+                if (blob.getBaseBlobId() != null) {
+                    candidates.add(blob.getBaseBlobId());
+                }
+            }
+            total += blobRepository.deleteByIdIn(ids);
+        }
+        return total;
+    }
+
+    /** What the manuscript's version history occupies, next to what one full copy per version would take. */
+    public Map<String, Object> storageReport(UUID manuscriptId) {
+        V2VersionBlobRepository.BlobStats blobs = blobRepository.blobStats(manuscriptId);
+        V2VersionBlobRepository.ReferenceStats references = blobRepository.referenceStats(manuscriptId);
+        V2ManuscriptVersionRepository.SnapshotStats versions = versionRepository.snapshotStats(manuscriptId);
+        long storedChars = blobs.getStoredChars() + versions.getLegacySnapshotChars();
+        long snapshotChars = references.getSnapshotChars() + versions.getLegacySnapshotChars();
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("manuscriptId", manuscriptId);
+        out.put("versions", versions.getVersions());
+        out.put("legacySnapshots", versions.getLegacySnapshots());
+        out.put("sceneReferences", references.getSceneReferences());
+        out.put("blobs", blobs.getBlobs());
+        out.put("deltaBlobs", blobs.getDeltaBlobs());
+        out.put("storedChars", storedChars);
+        out.put("snapshotChars", snapshotChars);
+        out.put("savedChars", Math.max(0L, snapshotChars - storedChars));
+        out.put("compressionRatio", storedChars == 0 ? 1.0 : (double) snapshotChars / storedChars);
+        return out;
+    }
+
+    private V2VersionBlob newBlob(UUID manuscriptId, String hash, String content, V2VersionBlob base,
+                                  Map<UUID, String> resolved) {
+        V2VersionBlob blob = new V2VersionBlob();
+        blob.setManuscriptId(manuscriptId);
+        blob.setContentHash(hash);
+        blob.setContentChars(content.length());
+        blob.setEncoding(V2VersionBlob.FULL);
+        blob.setContent(content);
+        blob.setStoredChars(content.length());
+        if (base == null || base.getDeltaDepth() >= maxDeltaDepth) {
+            return blob;
+        }
+        String baseText = resolved.computeIfAbsent(base.getId(), id -> resolve(List.of(id)).get(id));
+        int prefix = commonPrefix(baseText, content);
+        int suffix = commonSuffix(baseText, content, prefix);
+        String middle = content.substring(prefix, content.length() - suffix);
+        if (middle.length() * 2 > content.length()) {
+            return blob;
+        }
+        blob.setEncoding(V2VersionBlob.DELTA);
+        blob.setBaseBlobId(base.getId());
+        blob.setDeltaPrefix(prefix);
+        blob.setDeltaSuffix(suffix);
+        blob.setDeltaDepth(base.getDeltaDepth() + 1);
+        blob.setContent(middle);
+        blob.setStoredChars(middle.length());
+        return blob;
+    }
+
+    private Map<String, V2VersionBlob> parentBlobs(V2ManuscriptVersion version) {
+        V2ManuscriptVersion parent = version.getParentVersion();
+        if (parent == null) {
+            return Map.of();
+        }
+        List<V2VersionScene> scenes = sceneRepository.findByVersionId(parent.getId());
+        Map<UUID, V2VersionBlob> blobs = new HashMap<>();
+        blobRepository.findAllById(scenes.stream().map(V2VersionScene::getBlobId).toList())
+                .forEach(blob -> blobs.put(blob.getId(), blob));
+        Map<String, V2VersionBlob> bySceneId = new HashMap<>();
+        for (V2VersionScene scene : scenes) {
+            V2VersionBlob blob = blobs.get(scene.getBlobId());
+            if (blob != null) {
+                bySceneId.put(scene.getSceneId(), blob);
+            }
+        }
+        return bySceneId;
+    }
+
+    /** Texts of {@code blobIds}, loading delta bases one chain level per query. */
+    private Map<UUID, String> resolve(Collection<UUID> blobIds) {
+        Map<UUID, V2VersionBlob> loaded = new HashMap<>();
+        Set<UUID> missing = new HashSet<>(blobIds);
+        while (!missing.isEmpty()) {
+            Set<UUID> bases = new HashSet<>();
+            for (V2VersionBlob blob : blobRepository.findAllById(missing)) {
+                loaded.put(blob.getId(), blob);
+                if (blob.isDelta() && !loaded.containsKey(blob.getBaseBlobId())) {
+                    bases.add(blob.getBaseBlobId());
+                }
+            }
+            bases.removeAll(loaded.keySet());
+            missing = bases;
+        }
+        Map<UUID, String> texts = new HashMap<>();
+        for (UUID id : blobIds) {
+            texts.put(id, text(id, loaded, texts));
+        }
+        return texts;
+    }
+
+    private String text(UUID id, Map<UUID, V2VersionBlob> loaded, Map<UUID, String> texts) {
+        String known = texts.get(id);
+        if (known != null) {
+            return known;
+        }
+        V2VersionBlob blob = loaded.get(id);
+        if (blob == null) {
+            throw new IllegalStateException("版本内容缺失：" + id);
+        }
+        String content = blob.getContent() == null ? "" : blob.getContent();
+        if (!blob.isDelta()) {
+            texts.put(id, content);
+            return content;
+        }
+        String base = text(blob.getBaseBlobId(), loaded, texts);
+        String rebuilt = base.substring(0, blob.getDeltaPrefix()) + content
+                + base.substring(base.length() - blob.getDeltaSuffix());
+        texts.put(id, rebuilt);
+        return rebuilt;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int limit = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < limit && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        // Never split a surrogate pair: the stored middle must be valid text on its own.
+        if (i > 0 && i < b.length() && Character.isHighSurrogate(b.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static int commonSuffix(String a, String b, int prefix) {
+        int limit = Math.min(a.length(), b.length()) - prefix;
+        int i = 0;
+        while (i < limit && a.charAt(a.length() - 1 - i) == b.charAt(b.length() - 1 - i)) {
+            i++;
+        }
+        if (i > 0 && i < b.length() - prefix && Character.isLowSurrogate(b.charAt(b.length() - i))) {
+            i--;
+        }
+        return i;
+    }
+
+    static String sha256(String text) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -32,10 +33,15 @@ public class V2VersionController {
     @Operation(summary = "v2 API endpoint")
     @GetMapping("/manuscripts/{manuscriptId}/versions")
     public List<Map<String, Object>> listVersions(@AuthenticationPrincipal UserDetails principal,
-                                                  @PathVariable UUID manuscriptId) {
+                                                  @PathVariable UUID manuscriptId,
+                                                  @RequestParam(required = false) UUID branchId,
+                                                  @RequestParam(required = false) Integer beforeVersion,
+                                                  @RequestParam(required = false) Instant beforeCreatedAt,
+                                                  @RequestParam(required = false) UUID beforeId,
+                                                  @RequestParam(defaultValue = "50") int limit) {
         User user = accessGuard.currentUser(principal);
         Manuscript manuscript = accessGuard.requireOwnedManuscript(manuscriptId, user);
-        return versionService.listVersions(manuscript, user);
+        return versionService.listVersions(manuscript, user, branchId, beforeVersion, beforeCreatedAt, beforeId, limit);
     }
 
     @Operation(summary = "v2 API endpoint")
@@ -48,6 +54,15 @@ public class V2VersionController {
         return versionService.createVersion(manuscript, user, payload == null ? Map.of() : payload);
     }
 
+    @Operation(summary = "v2 API endpoint")
+    @GetMapping("/manuscripts/{manuscriptId}/versions/storage")
+    public Map<String, Object> storageReport(@AuthenticationPrincipal UserDetails principal,
+                                             @PathVariable UUID manuscriptId) {
+        User user = accessGuard.currentUser(principal);
+        accessGuard.requireOwnedManuscript(manuscriptId, user);
+        return versionService.storageReport(manuscriptId);
+    }
+
     @Operation(summary = "v2 API endpoint")
     @GetMapping("/manuscripts/{manuscriptId}/versions/{versionId}")
     public Map<String, Object> getVersion(@AuthenticationPrincipal UserDetails principal,
@@ -58,6 +73,16 @@ public class V2VersionController {
         return versionService.getVersion(manuscript, user, versionId);
     }
 
+    @Operation(summary = "v2 API endpoint")
+    @GetMapping("/manuscripts/{manuscriptId}/versions/{versionId}/snapshot")
+    public Map<String, Object> getSnapshot(@AuthenticationPrincipal UserDetails principal,
+                                           @PathVariable UUID manuscriptId,
+                                           @PathVariable UUID versionId) {
+        User user = accessGuard.currentUser(principal);
+        Manuscript manuscript = accessGuard.requireOwnedManuscript(manuscriptId, user);
+        return versionService.getSnapshot(manuscript, user, versionId);
+    }
+
     @Operation(summary = "v2 API endpoint")
     @PostMapping("/manuscripts/{manuscriptId}/versions/{versionId}/rollback")
     public Map<String, Object> rollback(@AuthenticationPrincipal UserDetails principal,
@@ -1,6 +1,7 @@
 package com.ainovel.app.v2;
 
 import com.ainovel.app.common.BusinessException;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
 import com.ainovel.app.common.JsonColumnCodec;
@@ -13,8 +14,8 @@ import com.ainovel.app.v2.repo.V2AutoSaveConfigRepository;
 import com.ainovel.app.v2.repo.V2ManuscriptBranchRepository;
 import com.ainovel.app.v2.repo.V2ManuscriptVersionRepository;
 import com.ainovel.app.v2.repo.V2VersionDiffRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +26,14 @@ import java.util.*;
 
 @Service
 public class V2VersionPersistenceService {
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    private static final UUID FIRST_PAGE_KEY = new UUID(0L, 0L);
+    private static final Instant FIRST_PAGE_CREATED_AT = Instant.parse("9999-12-31T23:59:59Z");
+    private static final int CLEANUP_BATCH_SIZE = 500;
+    private static final String PATCH_FORMAT = "patch-v1";
+    private static final int DIFF_CONTEXT_CHARS = 40;
+
     private final V2ManuscriptBranchRepository branchRepository;
     private final V2ManuscriptVersionRepository versionRepository;
     private final V2VersionDiffRepository diffRepository;
@@ -33,6 +42,8 @@ public class V2VersionPersistenceService {
     private final ObjectMapper objectMapper;
     private final V2Json v2Json;
     private final JsonColumnCodec jsonColumnCodec;
+    private final ManuscriptSectionStore sectionStore;
+    private final V2VersionBlobStore blobStore;
 
     public V2VersionPersistenceService(V2ManuscriptBranchRepository branchRepository,
                                        V2ManuscriptVersionRepository versionRepository,
@@ -41,7 +52,9 @@ public class V2VersionPersistenceService {
                                        ManuscriptRepository manuscriptRepository,
                                        ObjectMapper objectMapper,
                                        V2Json v2Json,
-                                       JsonColumnCodec jsonColumnCodec) {
+                                       JsonColumnCodec jsonColumnCodec,
+                                       ManuscriptSectionStore sectionStore,
+                                       V2VersionBlobStore blobStore) {
         this.branchRepository = branchRepository;
         this.versionRepository = versionRepository;
         this.diffRepository = diffRepository;
@@ -50,17 +63,45 @@ public class V2VersionPersistenceService {
         this.objectMapper = objectMapper;
         this.v2Json = v2Json;
         this.jsonColumnCodec = jsonColumnCodec;
+        this.sectionStore = sectionStore;
+        this.blobStore = blobStore;
     }
 
     @Transactional
-    public List<Map<String, Object>> listVersions(Manuscript manuscript, User user) {
+    public List<Map<String, Object>> listVersions(Manuscript manuscript, User user, UUID branchId,
+                                                  Integer beforeVersion, Instant beforeCreatedAt, UUID beforeId,
+                                                  int limit) {
         ensureMainBranchAndInitialVersion(manuscript, user);
-        return listVersions(manuscript.getId());
+        return listVersions(manuscript.getId(), branchId, beforeVersion, beforeCreatedAt, beforeId, limit);
     }
 
     @Transactional(readOnly = true)
     public List<Map<String, Object>> listVersions(UUID manuscriptId) {
-        return versionRepository.findByManuscriptIdOrderByCreatedAtDesc(manuscriptId).stream().map(this::versionMap).toList();
+        return listVersions(manuscriptId, null, null, null, null, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * One page of version summaries without their snapshots. Within a branch the highest version number comes
+     * first and the next page starts after the {@code versionNumber} and {@code id} of the last item. Version
+     * numbers restart on every branch, so without a branch the newest version comes first and the next page
+     * starts after the {@code createdAt} and {@code id} of the last item. Without {@code beforeId} every version
+     * at the cursor's number or time is skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> listVersions(UUID manuscriptId, UUID branchId, Integer beforeVersion,
+                                                  Instant beforeCreatedAt, UUID beforeId, int limit) {
+        PageRequest page = PageRequest.of(0, Math.min(MAX_PAGE_SIZE, Math.max(1, limit)));
+        List<V2ManuscriptVersionRepository.VersionSummary> summaries;
+        if (branchId == null) {
+            Instant keyCreatedAt = beforeCreatedAt == null ? FIRST_PAGE_CREATED_AT : beforeCreatedAt;
+            UUID keyId = beforeCreatedAt == null || beforeId == null ? FIRST_PAGE_KEY : beforeId;
+            summaries = versionRepository.findSummaries(manuscriptId, keyCreatedAt, keyId, page);
+        } else {
+            int keyVersion = beforeVersion == null ? Integer.MAX_VALUE : beforeVersion;
+            UUID keyId = beforeVersion == null || beforeId == null ? FIRST_PAGE_KEY : beforeId;
+            summaries = versionRepository.findBranchSummaries(manuscriptId, branchId, keyVersion, keyId, page);
+        }
+        return summaries.stream().map(summary -> summaryMap(manuscriptId, summary)).toList();
     }
 
     @Transactional
@@ -72,7 +113,8 @@ public class V2VersionPersistenceService {
         }
 
         V2ManuscriptVersion latest = latestVersion(manuscript.getId(), branchId);
-        String currentHash = sha256(str(manuscript.getSectionsJson(), "{}"));
+        Map<String, String> currentSections = sectionStore.readAll(manuscript);
+        String currentHash = sha256(snapshotJson(currentSections));
         if (latest != null && Objects.equals(latest.getContentHash(), currentHash)) {
             Map<String, Object> dedup = versionMap(latest);
             dedup.put("deduplicated", true);
@@ -80,17 +122,19 @@ public class V2VersionPersistenceService {
         }
 
         String snapshotType = str(payload == null ? null : payload.get("snapshotType"), "manual");
-        V2ManuscriptVersion version = buildVersion(
+        if ("auto".equalsIgnoreCase(snapshotType)) {
+            snapshotType = "auto";
+        }
+        V2ManuscriptVersion version = saveVersion(
                 manuscript,
                 user,
                 requireBranch(manuscript.getId(), branchId),
                 payload == null ? null : payload.get("label"),
                 snapshotType,
-                str(manuscript.getSectionsJson(), "{}"),
+                currentSections,
                 payload == null ? null : payload.get("metadata")
         );
-        version = versionRepository.saveAndFlush(version);
-        if ("auto".equalsIgnoreCase(snapshotType)) {
+        if ("auto".equals(snapshotType)) {
             cleanupAutoSnapshots(manuscript.getId(), branchId, intVal(getAutoSave(user).get("maxAutoVersions"), 100));
         }
         return versionMap(version);
@@ -102,6 +146,23 @@ public class V2VersionPersistenceService {
         return versionMap(requireVersion(manuscript.getId(), versionId));
     }
 
+    @Transactional
+    public Map<String, Object> getSnapshot(Manuscript manuscript, User user, UUID versionId) {
+        ensureMainBranchAndInitialVersion(manuscript, user);
+        V2ManuscriptVersion version = requireVersion(manuscript.getId(), versionId);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("versionId", version.getId());
+        out.put("versionNumber", version.getVersionNumber());
+        out.put("contentHash", version.getContentHash());
+        out.put("sections", blobStore.read(version));
+        return out;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> storageReport(UUID manuscriptId) {
+        return blobStore.storageReport(manuscriptId);
+    }
+
     @Transactional
     public Map<String, Object> rollback(Manuscript manuscript, User user, UUID versionId) {
         ensureMainBranchAndInitialVersion(manuscript, user);
@@ -109,28 +170,29 @@ public class V2VersionPersistenceService {
         UUID currentBranchId = manuscript.getCurrentBranchId() == null ? mainBranchId(manuscript.getId()) : manuscript.getCurrentBranchId();
         V2ManuscriptBranch branch = requireBranch(manuscript.getId(), currentBranchId);
 
-        V2ManuscriptVersion backup = versionRepository.saveAndFlush(buildVersion(
+        V2ManuscriptVersion backup = saveVersion(
                 manuscript,
                 user,
                 branch,
                 "回滚前自动备份",
                 "manual",
-                str(manuscript.getSectionsJson(), "{}"),
+                sectionStore.readAll(manuscript),
                 Map.of("rollbackTargetVersionId", versionId)
-        ));
+        );
 
-        manuscript.setSectionsJson(str(target.getSectionsJson(), "{}"));
+        Map<String, String> targetSections = blobStore.read(target);
+        sectionStore.replaceAll(manuscript, targetSections);
         manuscriptRepository.save(manuscript);
 
-        V2ManuscriptVersion rollback = versionRepository.saveAndFlush(buildVersion(
+        V2ManuscriptVersion rollback = saveVersion(
                 manuscript,
                 user,
                 branch,
                 "回滚至 v" + target.getVersionNumber(),
                 "manual",
-                str(manuscript.getSectionsJson(), "{}"),
+                targetSections,
                 Map.of("sourceVersionId", versionId)
-        ));
+        );
 
         Map<String, Object> out = new LinkedHashMap<>();
         out.put("manuscriptId", manuscript.getId());
@@ -146,20 +208,23 @@ public class V2VersionPersistenceService {
     @Transactional
     public Map<String, Object> diff(Manuscript manuscript, User user, UUID fromVersionId, UUID toVersionId) {
         ensureMainBranchAndInitialVersion(manuscript, user);
+        V2ManuscriptVersion from = requireVersion(manuscript.getId(), fromVersionId);
+        V2ManuscriptVersion to = requireVersion(manuscript.getId(), toVersionId);
         Optional<V2VersionDiff> cached = diffRepository.findByFromVersionIdAndToVersionId(fromVersionId, toVersionId);
         if (cached.isPresent()) {
-            return v2Json.map(cached.get().getDiffJson());
+            Map<String, Object> stored = v2Json.map(cached.get().getDiffJson());
+            // Diffs cached before patches existed already hold the full scene texts.
+            return PATCH_FORMAT.equals(stored.get("format")) ? renderDiff(stored, blobStore.read(from)) : stored;
         }
-        V2ManuscriptVersion from = requireVersion(manuscript.getId(), fromVersionId);
-        V2ManuscriptVersion to = requireVersion(manuscript.getId(), toVersionId);
-        Map<String, Object> result = buildDiff(from, to);
+        Map<String, String> fromSections = blobStore.read(from);
+        Map<String, Object> stored = buildDiff(from, to, fromSections);
 
         V2VersionDiff diff = new V2VersionDiff();
         diff.setFromVersion(from);
         diff.setToVersion(to);
-        diff.setDiffJson(v2Json.write(result));
+        diff.setDiffJson(v2Json.write(stored));
         diffRepository.saveAndFlush(diff);
-        return result;
+        return renderDiff(stored, fromSections);
     }
 
     @Transactional
@@ -183,7 +248,7 @@ public class V2VersionPersistenceService {
         manuscript.setCurrentBranchId(branchId);
         V2ManuscriptVersion latest = latestVersion(manuscript.getId(), branchId);
         if (latest != null) {
-            manuscript.setSectionsJson(str(latest.getSectionsJson(), manuscript.getSectionsJson()));
+            sectionStore.replaceAll(manuscript, blobStore.read(latest));
         }
         manuscriptRepository.save(manuscript);
         return Map.of(
@@ -217,16 +282,15 @@ public class V2VersionPersistenceService {
         branch.setMain(false);
         branch = branchRepository.saveAndFlush(branch);
 
-        V2ManuscriptVersion seedVersion = buildVersion(
+        saveVersion(
                 manuscript,
                 user,
                 branch,
                 "从 v" + sourceVersion.getVersionNumber() + " 分支",
                 "branch_point",
-                str(sourceVersion.getSectionsJson(), "{}"),
+                blobStore.read(sourceVersion),
                 Map.of("sourceVersionId", sourceVersionId)
         );
-        versionRepository.saveAndFlush(seedVersion);
         return branchMap(branch);
     }
 
@@ -265,8 +329,8 @@ public class V2VersionPersistenceService {
             throw new BusinessException("分支没有可合并版本");
         }
         String strategy = str(payload == null ? null : payload.get("strategy"), "REPLACE_ALL");
-        Map<String, String> sourceSections = parseSections(str(sourceVersion.getSectionsJson(), "{}"));
-        Map<String, String> targetSections = parseSections(targetVersion == null ? "{}" : str(targetVersion.getSectionsJson(), "{}"));
+        Map<String, String> sourceSections = blobStore.read(sourceVersion);
+        Map<String, String> targetSections = targetVersion == null ? Map.of() : blobStore.read(targetVersion);
         Map<String, String> mergedSections = new LinkedHashMap<>(targetSections);
         List<Map<String, Object>> conflicts = new ArrayList<>();
         if ("SCENE_SELECT".equalsIgnoreCase(strategy)) {
@@ -302,20 +366,20 @@ public class V2VersionPersistenceService {
             return Map.of("manuscriptId", manuscript.getId(), "sourceBranchId", branchId, "targetBranchId", mainBranchId, "status", "conflict", "conflicts", conflicts);
         }
         manuscript.setCurrentBranchId(mainBranchId);
-        manuscript.setSectionsJson(writeSections(mergedSections));
+        sectionStore.replaceAll(manuscript, mergedSections);
         manuscriptRepository.save(manuscript);
         sourceBranch.setStatus("merged");
         branchRepository.save(sourceBranch);
 
-        V2ManuscriptVersion mergeVersion = versionRepository.saveAndFlush(buildVersion(
+        V2ManuscriptVersion mergeVersion = saveVersion(
                 manuscript,
                 user,
                 requireBranch(manuscript.getId(), mainBranchId),
                 payload == null ? "merge:" + sourceBranch.getName() : payload.get("label"),
                 "merge",
-                str(manuscript.getSectionsJson(), "{}"),
+                mergedSections,
                 Map.of("sourceBranchId", branchId, "strategy", strategy)
-        ));
+        );
         return Map.of("manuscriptId", manuscript.getId(), "sourceBranchId", branchId, "targetBranchId", mainBranchId, "mergeVersionId", mergeVersion.getId(), "status", "merged");
     }
 
@@ -377,15 +441,16 @@ public class V2VersionPersistenceService {
             lockedManuscript.setCurrentBranchId(main.getId());
             manuscriptRepository.save(lockedManuscript);
         }
-        if (versionRepository.findByManuscriptIdOrderByCreatedAtDesc(lockedManuscript.getId()).isEmpty()) {
-            versionRepository.saveAndFlush(buildVersion(lockedManuscript, user, main, "initial", "auto", str(lockedManuscript.getSectionsJson(), "{}"), Map.of("bootstrap", true)));
+        if (!versionRepository.existsByManuscriptId(lockedManuscript.getId())) {
+            saveVersion(lockedManuscript, user, main, "initial", "auto", sectionStore.readAll(lockedManuscript), Map.of("bootstrap", true));
         }
         manuscript.setCurrentBranchId(lockedManuscript.getCurrentBranchId());
         manuscript.setSectionsJson(lockedManuscript.getSectionsJson());
     }
 
-    private V2ManuscriptVersion buildVersion(Manuscript manuscript, User user, V2ManuscriptBranch branch, Object label,
-                                             String snapshotType, String sectionsJson, Object metadata) {
+    /** Saves a version of {@code sections}; the scene bodies go to the blob store rather than the version row. */
+    private V2ManuscriptVersion saveVersion(Manuscript manuscript, User user, V2ManuscriptBranch branch, Object label,
+                                            String snapshotType, Map<String, String> sections, Object metadata) {
         int versionNumber = nextVersionNumber(manuscript.getId(), branch.getId());
         V2ManuscriptVersion version = new V2ManuscriptVersion();
         version.setManuscript(manuscript);
@@ -393,33 +458,43 @@ public class V2VersionPersistenceService {
         version.setVersionNumber(versionNumber);
         version.setLabel(label == null ? "v" + versionNumber : label.toString());
         version.setSnapshotType(snapshotType);
-        version.setContentHash(sha256(sectionsJson));
-        version.setSectionsJson(sectionsJson);
-        version.setMetadataJson(v2Json.write(metadata == null ? Map.of() : metadata));
+        version.setContentHash(sha256(snapshotJson(sections)));
+        version.setMetadataJson(v2Json.write(withWordCount(metadata, sections)));
         UUID parentVersionId = latestVersionId(manuscript.getId());
         if (parentVersionId != null) {
             versionRepository.findById(parentVersionId).ifPresent(version::setParentVersion);
         }
         version.setCreatedBy(user);
+        version = versionRepository.saveAndFlush(version);
+        blobStore.write(version, sections);
         return version;
     }
 
-    private void cleanupAutoSnapshots(UUID manuscriptId, UUID branchId, int maxAutoVersions) {
-        List<V2ManuscriptVersion> autos = versionRepository.findByManuscriptIdAndBranchId(manuscriptId, branchId).stream()
-                .filter(version -> "auto".equalsIgnoreCase(str(version.getSnapshotType(), "")))
-                .sorted(Comparator.comparing(version -> safeInstant(version.getCreatedAt())))
-                .toList();
-        int overflow = autos.size() - maxAutoVersions;
-        for (int i = 0; i < overflow; i++) {
-            versionRepository.delete(autos.get(i));
+    /**
+     * Deletes the branch's auto snapshots beyond the newest {@code maxAutoVersions}, with their diffs and scene
+     * references, in id batches. Each call usually finds one expired snapshot, and finding it only walks the kept
+     * ones, so autosave does not slow down as the branch history grows.
+     */
+    void cleanupAutoSnapshots(UUID manuscriptId, UUID branchId, int maxAutoVersions) {
+        List<UUID> orphanCandidates = new ArrayList<>();
+        List<UUID> expired;
+        do {
+            expired = versionRepository.findExpiredAutoSnapshotIds(manuscriptId, branchId, maxAutoVersions, CLEANUP_BATCH_SIZE);
+            if (expired.isEmpty()) {
+                break;
+            }
+            diffRepository.deleteByVersionIdIn(expired);
+            orphanCandidates.addAll(blobStore.forgetVersions(expired));
+            versionRepository.detachChildrenOf(expired);
+            versionRepository.deleteByIdIn(expired);
+        } while (expired.size() == CLEANUP_BATCH_SIZE);
+        if (!orphanCandidates.isEmpty()) {
+            blobStore.deleteUnreferenced(orphanCandidates);
         }
     }
 
     private int nextVersionNumber(UUID manuscriptId, UUID branchId) {
-        return versionRepository.findByManuscriptIdAndBranchId(manuscriptId, branchId).stream()
-                .mapToInt(V2ManuscriptVersion::getVersionNumber)
-                .max()
-                .orElse(0) + 1;
+        return versionRepository.maxVersionNumber(manuscriptId, branchId) + 1;
     }
 
     private UUID latestVersionId(UUID manuscriptId) {
@@ -427,9 +502,9 @@ public class V2VersionPersistenceService {
     }
 
     private V2ManuscriptVersion latestVersion(UUID manuscriptId, UUID branchId) {
-        return versionRepository.findByManuscriptIdOrderByCreatedAtDesc(manuscriptId).stream()
-                .filter(version -> branchId == null || Objects.equals(version.getBranch().getId(), branchId))
-                .findFirst()
+        return (branchId == null
+                ? versionRepository.findTopByManuscriptIdOrderByCreatedAtDesc(manuscriptId)
+                : versionRepository.findTopByManuscriptIdAndBranchIdOrderByCreatedAtDesc(manuscriptId, branchId))
                 .orElse(null);
     }
 
@@ -470,40 +545,85 @@ public class V2VersionPersistenceService {
         });
     }
 
-    private Map<String, Object> buildDiff(V2ManuscriptVersion from, V2ManuscriptVersion to) {
-        Map<String, String> fromSections = parseSections(str(from.getSectionsJson(), "{}"));
-        Map<String, String> toSections = parseSections(str(to.getSectionsJson(), "{}"));
+    /** The stored form of a diff: per changed scene, its lengths and the patch from the earlier text. */
+    private Map<String, Object> buildDiff(V2ManuscriptVersion from, V2ManuscriptVersion to, Map<String, String> fromSections) {
+        Map<String, String> toSections = blobStore.read(to);
         Set<String> allSceneIds = new LinkedHashSet<>();
         allSceneIds.addAll(fromSections.keySet());
         allSceneIds.addAll(toSections.keySet());
-        List<Map<String, Object>> changes = new ArrayList<>();
-        int changed = 0;
+        List<Map<String, Object>> scenes = new ArrayList<>();
         for (String sceneId : allSceneIds) {
             String before = fromSections.getOrDefault(sceneId, "");
             String after = toSections.getOrDefault(sceneId, "");
             if (!Objects.equals(before, after)) {
-                changed++;
-                changes.add(Map.of(
-                        "sceneId", sceneId,
-                        "beforeLength", before.length(),
-                        "afterLength", after.length(),
-                        "beforeWordCount", before.trim().isEmpty() ? 0 : before.trim().split("\\s+").length,
-                        "afterWordCount", after.trim().isEmpty() ? 0 : after.trim().split("\\s+").length,
-                        "delta", after.length() - before.length(),
-                        "beforeContent", before,
-                        "afterContent", after
-                ));
+                Map<String, Object> scene = new LinkedHashMap<>();
+                scene.put("sceneId", sceneId);
+                scene.put("beforeLength", before.length());
+                scene.put("afterLength", after.length());
+                scene.put("beforeWordCount", before.trim().isEmpty() ? 0 : before.trim().split("\\s+").length);
+                scene.put("afterWordCount", after.trim().isEmpty() ? 0 : after.trim().split("\\s+").length);
+                scene.put("patch", SceneTextDiff.encode(SceneTextDiff.diff(before, after)));
+                scenes.add(scene);
             }
         }
         Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", PATCH_FORMAT);
         result.put("fromVersionId", from.getId());
         result.put("toVersionId", to.getId());
-        result.put("changedScenes", changed);
-        result.put("changes", changes);
+        result.put("changedScenes", scenes.size());
+        result.put("scenes", scenes);
         result.put("generatedAt", Instant.now());
         return result;
     }
 
+    /** Expands a stored diff into display hunks with context taken from the earlier version's scenes. */
+    private Map<String, Object> renderDiff(Map<String, Object> stored, Map<String, String> fromSections) {
+        List<Map<String, Object>> changes = new ArrayList<>();
+        Object scenes = stored.get("scenes");
+        if (scenes instanceof List<?> rows) {
+            for (Object row : rows) {
+                Map<String, Object> scene = map(row);
+                String sceneId = str(scene.get("sceneId"), "");
+                List<SceneTextDiff.Edit> patch = SceneTextDiff.decode(scene.get("patch"));
+                int beforeLength = intVal(scene.get("beforeLength"), 0);
+                int afterLength = intVal(scene.get("afterLength"), 0);
+                int insertedChars = 0;
+                int deletedChars = 0;
+                List<Map<String, Object>> hunks = new ArrayList<>();
+                for (SceneTextDiff.Hunk hunk : SceneTextDiff.hunks(fromSections.getOrDefault(sceneId, ""), patch, DIFF_CONTEXT_CHARS)) {
+                    insertedChars += hunk.inserted().length();
+                    deletedChars += hunk.deleted().length();
+                    Map<String, Object> out = new LinkedHashMap<>();
+                    out.put("beforeOffset", hunk.beforeOffset());
+                    out.put("afterOffset", hunk.afterOffset());
+                    out.put("contextBefore", hunk.contextBefore());
+                    out.put("deleted", hunk.deleted());
+                    out.put("inserted", hunk.inserted());
+                    out.put("contextAfter", hunk.contextAfter());
+                    hunks.add(out);
+                }
+                Map<String, Object> change = new LinkedHashMap<>();
+                change.put("sceneId", sceneId);
+                change.put("beforeLength", beforeLength);
+                change.put("afterLength", afterLength);
+                change.put("beforeWordCount", intVal(scene.get("beforeWordCount"), 0));
+                change.put("afterWordCount", intVal(scene.get("afterWordCount"), 0));
+                change.put("delta", afterLength - beforeLength);
+                change.put("insertedChars", insertedChars);
+                change.put("deletedChars", deletedChars);
+                change.put("hunks", hunks);
+                changes.add(change);
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fromVersionId", stored.get("fromVersionId"));
+        result.put("toVersionId", stored.get("toVersionId"));
+        result.put("changedScenes", changes.size());
+        result.put("changes", changes);
+        result.put("generatedAt", stored.get("generatedAt"));
+        return result;
+    }
+
     private Map<String, Object> versionMap(V2ManuscriptVersion version) {
         Map<String, Object> out = new LinkedHashMap<>();
         out.put("id", version.getId());
@@ -513,7 +633,6 @@ public class V2VersionPersistenceService {
         out.put("label", version.getLabel());
         out.put("snapshotType", version.getSnapshotType());
         out.put("contentHash", version.getContentHash());
-        out.put("sectionsJson", version.getSectionsJson());
         out.put("metadata", v2Json.map(version.getMetadataJson()));
         out.put("parentVersionId", version.getParentVersion() == null ? null : version.getParentVersion().getId());
         out.put("createdBy", version.getCreatedBy().getId());
@@ -521,6 +640,22 @@ public class V2VersionPersistenceService {
         return out;
     }
 
+    private Map<String, Object> summaryMap(UUID manuscriptId, V2ManuscriptVersionRepository.VersionSummary summary) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", summary.getId());
+        out.put("manuscriptId", manuscriptId);
+        out.put("branchId", summary.getBranchId());
+        out.put("versionNumber", summary.getVersionNumber());
+        out.put("label", summary.getLabel());
+        out.put("snapshotType", summary.getSnapshotType());
+        out.put("contentHash", summary.getContentHash());
+        out.put("metadata", v2Json.map(summary.getMetadataJson()));
+        out.put("parentVersionId", summary.getParentVersionId());
+        out.put("createdBy", summary.getCreatedById());
+        out.put("createdAt", summary.getCreatedAt());
+        return out;
+    }
+
     private Map<String, Object> branchMap(V2ManuscriptBranch branch) {
         Map<String, Object> out = new LinkedHashMap<>();
         out.put("id", branch.getId());
@@ -546,12 +681,24 @@ public class V2VersionPersistenceService {
         return out;
     }
 
-    private Map<String, String> parseSections(String json) {
-        return jsonColumnCodec.read(json, new TypeReference<>() {}, new LinkedHashMap<>());
+    /** Adds the snapshot's word count to map metadata so the history list can show it without the snapshot. */
+    private Object withWordCount(Object metadata, Map<String, String> sections) {
+        if (metadata != null && !(metadata instanceof Map<?, ?>)) {
+            return metadata;
+        }
+        Map<String, Object> out = map(metadata);
+        int wordCount = 0;
+        for (String content : sections.values()) {
+            if (content != null) {
+                wordCount += content.replaceAll("<[^>]+>", "").replaceAll("\\s+", "").length();
+            }
+        }
+        out.putIfAbsent("wordCount", wordCount);
+        return out;
     }
 
-    private String writeSections(Map<String, String> sections) {
-        return jsonColumnCodec.write(sections, "{}");
+    private String snapshotJson(Map<String, String> sections) {
+        return jsonColumnCodec.write(new TreeMap<>(sections), "{}");
     }
 
     private Map<String, Object> map(Object value) {
@@ -9,7 +9,10 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "manuscript_versions")
+@Table(name = "manuscript_versions", indexes = {
+        @Index(name = "idx_version_branch_number", columnList = "branch_id, version_number"),
+        @Index(name = "idx_version_branch_type_number", columnList = "branch_id, snapshot_type, version_number DESC")
+})
 public class V2ManuscriptVersion {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
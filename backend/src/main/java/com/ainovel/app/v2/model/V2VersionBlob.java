@@ -0,0 +1,83 @@
+package com.ainovel.app.v2.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One scene body kept for version history, shared by every version of the manuscript whose scene has the same
+ * content hash. A {@code delta} blob stores only the text between the {@code deltaPrefix} leading and
+ * {@code deltaSuffix} trailing characters it shares with its base blob.
+ */
+@Entity
+@Table(name = "manuscript_version_blobs", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_version_blob_hash", columnNames = {"manuscript_id", "content_hash"})
+}, indexes = @Index(name = "idx_version_blob_base", columnList = "base_blob_id"))
+public class V2VersionBlob {
+    public static final String FULL = "full";
+    public static final String DELTA = "delta";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "manuscript_id", nullable = false)
+    private UUID manuscriptId;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "encoding", nullable = false, length = 16)
+    private String encoding;
+
+    @Column(name = "base_blob_id")
+    private UUID baseBlobId;
+
+    @Column(name = "delta_prefix", nullable = false)
+    private int deltaPrefix;
+
+    @Column(name = "delta_suffix", nullable = false)
+    private int deltaSuffix;
+
+    @Column(name = "delta_depth", nullable = false)
+    private int deltaDepth;
+
+    @Column(name = "content", columnDefinition = "longtext")
+    private String content;
+
+    @Column(name = "content_chars", nullable = false)
+    private int contentChars;
+
+    @Column(name = "stored_chars", nullable = false)
+    private int storedChars;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    public UUID getId() { return id; }
+    public UUID getManuscriptId() { return manuscriptId; }
+    public void setManuscriptId(UUID manuscriptId) { this.manuscriptId = manuscriptId; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public String getEncoding() { return encoding; }
+    public void setEncoding(String encoding) { this.encoding = encoding; }
+    public UUID getBaseBlobId() { return baseBlobId; }
+    public void setBaseBlobId(UUID baseBlobId) { this.baseBlobId = baseBlobId; }
+    public int getDeltaPrefix() { return deltaPrefix; }
+    public void setDeltaPrefix(int deltaPrefix) { this.deltaPrefix = deltaPrefix; }
+    public int getDeltaSuffix() { return deltaSuffix; }
+    public void setDeltaSuffix(int deltaSuffix) { this.deltaSuffix = deltaSuffix; }
+    public int getDeltaDepth() { return deltaDepth; }
+    public void setDeltaDepth(int deltaDepth) { this.deltaDepth = deltaDepth; }
+    public String getContent() { return content; }
+    public void setContent(String content) { this.content = content; }
+    public int getContentChars() { return contentChars; }
+    public void setContentChars(int contentChars) { this.contentChars = contentChars; }
+    public int getStoredChars() { return storedChars; }
+    public void setStoredChars(int storedChars) { this.storedChars = storedChars; }
+    public Instant getCreatedAt() { return createdAt; }
+    public boolean isDelta() { return DELTA.equals(encoding); }
+}
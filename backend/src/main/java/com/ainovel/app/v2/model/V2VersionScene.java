@@ -0,0 +1,33 @@
+package com.ainovel.app.v2.model;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/** Scene {@code sceneId} of version {@code versionId} has the body stored in blob {@code blobId}. */
+@Entity
+@Table(name = "manuscript_version_scenes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_version_scene", columnNames = {"version_id", "scene_id"})
+}, indexes = @Index(name = "idx_version_scene_blob", columnList = "blob_id"))
+public class V2VersionScene {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "version_id", nullable = false)
+    private UUID versionId;
+
+    @Column(name = "scene_id", nullable = false, length = 191)
+    private String sceneId;
+
+    @Column(name = "blob_id", nullable = false)
+    private UUID blobId;
+
+    public UUID getId() { return id; }
+    public UUID getVersionId() { return versionId; }
+    public void setVersionId(UUID versionId) { this.versionId = versionId; }
+    public String getSceneId() { return sceneId; }
+    public void setSceneId(String sceneId) { this.sceneId = sceneId; }
+    public UUID getBlobId() { return blobId; }
+    public void setBlobId(UUID blobId) { this.blobId = blobId; }
+}
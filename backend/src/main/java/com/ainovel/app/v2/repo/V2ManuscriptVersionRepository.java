@@ -1,15 +1,133 @@
 package com.ainovel.app.v2.repo;
 
 import com.ainovel.app.v2.model.V2ManuscriptVersion;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface V2ManuscriptVersionRepository extends JpaRepository<V2ManuscriptVersion, UUID> {
-    List<V2ManuscriptVersion> findByManuscriptIdOrderByCreatedAtDesc(UUID manuscriptId);
-    List<V2ManuscriptVersion> findByManuscriptIdAndBranchId(UUID manuscriptId, UUID branchId);
     Optional<V2ManuscriptVersion> findByManuscriptIdAndId(UUID manuscriptId, UUID id);
     Optional<V2ManuscriptVersion> findTopByManuscriptIdOrderByCreatedAtDesc(UUID manuscriptId);
+    Optional<V2ManuscriptVersion> findTopByManuscriptIdAndBranchIdOrderByCreatedAtDesc(UUID manuscriptId, UUID branchId);
+    boolean existsByManuscriptId(UUID manuscriptId);
+
+    @Query("""
+            select coalesce(max(v.versionNumber), 0)
+            from V2ManuscriptVersion v
+            where v.manuscript.id = :manuscriptId and v.branch.id = :branchId
+            """)
+    int maxVersionNumber(@Param("manuscriptId") UUID manuscriptId, @Param("branchId") UUID branchId);
+
+    /**
+     * One page of the manuscript's history across all branches, newest first, after the ({@code beforeCreatedAt},
+     * {@code beforeId}) key of the previous page. Version numbers restart on every branch, so only the creation time
+     * orders versions of different branches. Selects no snapshot column; walks
+     * {@code idx_version_manuscript_created_id} (V16).
+     */
+    @Query("""
+            select v.id as id, v.branch.id as branchId, v.versionNumber as versionNumber, v.label as label,
+                   v.snapshotType as snapshotType, v.contentHash as contentHash, v.metadataJson as metadataJson,
+                   v.parentVersion.id as parentVersionId, v.createdBy.id as createdById, v.createdAt as createdAt
+            from V2ManuscriptVersion v
+            where v.manuscript.id = :manuscriptId
+              and (v.createdAt < :beforeCreatedAt or (v.createdAt = :beforeCreatedAt and v.id < :beforeId))
+            order by v.createdAt desc, v.id desc
+            """)
+    List<VersionSummary> findSummaries(@Param("manuscriptId") UUID manuscriptId,
+                                       @Param("beforeCreatedAt") Instant beforeCreatedAt,
+                                       @Param("beforeId") UUID beforeId,
+                                       Pageable pageable);
+
+    /**
+     * One page of a single branch, highest version number first, after the ({@code beforeVersion},
+     * {@code beforeId}) key of the previous page. Walks {@code idx_version_branch_number} (V15).
+     */
+    @Query("""
+            select v.id as id, v.branch.id as branchId, v.versionNumber as versionNumber, v.label as label,
+                   v.snapshotType as snapshotType, v.contentHash as contentHash, v.metadataJson as metadataJson,
+                   v.parentVersion.id as parentVersionId, v.createdBy.id as createdById, v.createdAt as createdAt
+            from V2ManuscriptVersion v
+            where v.manuscript.id = :manuscriptId
+              and v.branch.id = :branchId
+              and (v.versionNumber < :beforeVersion or (v.versionNumber = :beforeVersion and v.id < :beforeId))
+            order by v.versionNumber desc, v.id desc
+            """)
+    List<VersionSummary> findBranchSummaries(@Param("manuscriptId") UUID manuscriptId,
+                                             @Param("branchId") UUID branchId,
+                                             @Param("beforeVersion") int beforeVersion,
+                                             @Param("beforeId") UUID beforeId,
+                                             Pageable pageable);
+
+    /**
+     * Up to {@code batchSize} auto snapshots of the branch beyond the newest {@code keep}. Walks the
+     * (branch, type, version number) index from the top, so the cost follows {@code keep}, not the history length.
+     */
+    @Query("""
+            select v.id from V2ManuscriptVersion v
+            where v.manuscript.id = :manuscriptId
+              and v.branch.id = :branchId
+              and v.snapshotType = 'auto'
+            order by v.versionNumber desc
+            offset :keep rows fetch first :batchSize rows only
+            """)
+    List<UUID> findExpiredAutoSnapshotIds(@Param("manuscriptId") UUID manuscriptId,
+                                          @Param("branchId") UUID branchId,
+                                          @Param("keep") int keep,
+                                          @Param("batchSize") int batchSize);
+
+    @Modifying
+    @Query("update V2ManuscriptVersion v set v.parentVersion = null where v.parentVersion.id in :versionIds")
+    int detachChildrenOf(@Param("versionIds") Collection<UUID> versionIds);
+
+    @Modifying
+    @Query("delete from V2ManuscriptVersion v where v.id in :versionIds")
+    int deleteByIdIn(@Param("versionIds") Collection<UUID> versionIds);
+
+    /** Version count, and the versions still holding a full legacy snapshot instead of scene blobs. */
+    @Query("""
+            select count(v) as versions,
+                   coalesce(sum(case when v.sectionsJson is not null then 1 else 0 end), 0) as legacySnapshots,
+                   coalesce(sum(length(v.sectionsJson)), 0) as legacySnapshotChars
+            from V2ManuscriptVersion v
+            where v.manuscript.id = :manuscriptId
+            """)
+    SnapshotStats snapshotStats(@Param("manuscriptId") UUID manuscriptId);
+
+    interface VersionSummary {
+        UUID getId();
+
+        UUID getBranchId();
+
+        int getVersionNumber();
+
+        String getLabel();
+
+        String getSnapshotType();
+
+        String getContentHash();
+
+        String getMetadataJson();
+
+        UUID getParentVersionId();
+
+        UUID getCreatedById();
+
+        Instant getCreatedAt();
+    }
+
+    interface SnapshotStats {
+        long getVersions();
+
+        long getLegacySnapshots();
+
+        long getLegacySnapshotChars();
+    }
 }
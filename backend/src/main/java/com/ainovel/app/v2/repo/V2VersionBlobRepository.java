@@ -0,0 +1,60 @@
+package com.ainovel.app.v2.repo;
+
+import com.ainovel.app.v2.model.V2VersionBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface V2VersionBlobRepository extends JpaRepository<V2VersionBlob, UUID> {
+    List<V2VersionBlob> findByManuscriptIdAndContentHashIn(UUID manuscriptId, Collection<String> contentHashes);
+
+    /** Those of {@code candidateIds} that no version scene points at and no delta is based on. */
+    @Query("""
+            select b from V2VersionBlob b
+            where b.id in :candidateIds
+              and not exists (select 1 from V2VersionScene s where s.blobId = b.id)
+              and not exists (select 1 from V2VersionBlob d where d.baseBlobId = b.id)
+            """)
+    List<V2VersionBlob> findUnreferenced(@Param("candidateIds") Collection<UUID> candidateIds);
+
+    // MySQL cannot delete from a table its own subquery reads, so the ids are selected first.
+    @Modifying
+    @Query("delete from V2VersionBlob b where b.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
+
+    @Query("""
+            select count(b) as blobs,
+                   coalesce(sum(case when b.encoding = 'delta' then 1 else 0 end), 0) as deltaBlobs,
+                   coalesce(sum(b.storedChars), 0) as storedChars
+            from V2VersionBlob b
+            where b.manuscriptId = :manuscriptId
+            """)
+    BlobStats blobStats(@Param("manuscriptId") UUID manuscriptId);
+
+    /** Scene references of the manuscript's versions and the characters full per-version copies would hold. */
+    @Query("""
+            select count(s) as sceneReferences, coalesce(sum(b.contentChars), 0) as snapshotChars
+            from V2VersionScene s, V2VersionBlob b
+            where s.blobId = b.id and b.manuscriptId = :manuscriptId
+            """)
+    ReferenceStats referenceStats(@Param("manuscriptId") UUID manuscriptId);
+
+    interface BlobStats {
+        long getBlobs();
+
+        long getDeltaBlobs();
+
+        long getStoredChars();
+    }
+
+    interface ReferenceStats {
+        long getSceneReferences();
+
+        long getSnapshotChars();
+    }
+}
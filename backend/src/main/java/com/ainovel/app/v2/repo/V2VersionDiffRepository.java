@@ -2,10 +2,18 @@ package com.ainovel.app.v2.repo;
 
 import com.ainovel.app.v2.model.V2VersionDiff;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface V2VersionDiffRepository extends JpaRepository<V2VersionDiff, UUID> {
     Optional<V2VersionDiff> findByFromVersionIdAndToVersionId(UUID fromVersionId, UUID toVersionId);
+
+    @Modifying
+    @Query("delete from V2VersionDiff d where d.fromVersion.id in :versionIds or d.toVersion.id in :versionIds")
+    int deleteByVersionIdIn(@Param("versionIds") Collection<UUID> versionIds);
 }
@@ -0,0 +1,22 @@
+package com.ainovel.app.v2.repo;
+
+import com.ainovel.app.v2.model.V2VersionScene;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface V2VersionSceneRepository extends JpaRepository<V2VersionScene, UUID> {
+    List<V2VersionScene> findByVersionId(UUID versionId);
+
+    @Query("select distinct s.blobId from V2VersionScene s where s.versionId in :versionIds")
+    List<UUID> findBlobIdsByVersionIdIn(@Param("versionIds") Collection<UUID> versionIds);
+
+    @Modifying
+    @Query("delete from V2VersionScene s where s.versionId in :versionIds")
+    int deleteByVersionIdIn(@Param("versionIds") Collection<UUID> versionIds);
+}
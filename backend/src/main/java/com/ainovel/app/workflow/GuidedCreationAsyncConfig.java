@@ -2,8 +2,8 @@ package com.ainovel.app.workflow;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
@@ -12,12 +12,10 @@ import java.util.concurrent.Executor;
 public class GuidedCreationAsyncConfig {
     @Bean("guidedCreationExecutor")
     public Executor guidedCreationExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(64);
-        executor.setThreadNamePrefix("guided-creation-");
-        executor.initialize();
+        // Workers spend nearly all their time waiting on ai-service; GuidedCreationRuntime bounds the jobs admitted
+        // and AiGatewayGrpcClient bounds the calls in flight.
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("guided-creation-");
+        executor.setVirtualThreads(true);
         return executor;
     }
 }
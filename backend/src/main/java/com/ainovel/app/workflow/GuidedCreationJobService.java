@@ -1,5 +1,6 @@
 package com.ainovel.app.workflow;
 
+import com.ainovel.app.ai.StreamProgressCoalescer;
 import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.common.JsonColumnCodec;
 import com.ainovel.app.workflow.model.AsyncJob;
@@ -23,6 +24,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Service
 public class GuidedCreationJobService {
@@ -36,6 +39,7 @@ public class GuidedCreationJobService {
     private final JsonColumnCodec codec;
     private final ApplicationEventPublisher eventPublisher;
     private final String leaseOwner;
+    private final ConcurrentMap<UUID, StreamProgressCoalescer> liveProgress = new ConcurrentHashMap<>();
 
     public GuidedCreationJobService(AsyncJobRepository jobRepository,
                                     CreationWorkflowRunRepository runRepository,
@@ -209,11 +213,27 @@ public class GuidedCreationJobService {
 
     @Transactional
     public void updateStreamProgress(UUID jobId, long outputTokens, boolean estimated) {
-        AsyncJob job = jobRepository.findByIdForUpdate(jobId).orElse(null);
-        if (job == null || job.getStatus() != AsyncJobStatus.CALLING_AI) return;
-        job.setOutputTokens(Math.max(job.getOutputTokens(), outputTokens));
-        job.setOutputTokensEstimated(estimated);
-        job.setProgress(Math.max(job.getProgress(), 35));
+        jobRepository.updateStreamProgress(jobId, AsyncJobStatus.CALLING_AI, outputTokens, estimated, 35, Instant.now());
+    }
+
+    /**
+     * Starts coalescing stream deltas of a job running on this node: the database sees at most one write per
+     * {@link StreamProgressCoalescer#DEFAULT_INTERVAL_MS}, while {@link #liveStreamProgress} serves the latest count.
+     */
+    public StreamProgressCoalescer openStreamProgress(UUID jobId, StreamProgressCoalescer.Sink sink) {
+        StreamProgressCoalescer progress = new StreamProgressCoalescer(sink);
+        liveProgress.put(jobId, progress);
+        return progress;
+    }
+
+    public void closeStreamProgress(UUID jobId) {
+        liveProgress.remove(jobId);
+    }
+
+    /** Latest in-memory stream progress when the job is streaming on this node, otherwise null. */
+    public StreamProgressCoalescer.Snapshot liveStreamProgress(UUID jobId) {
+        StreamProgressCoalescer progress = jobId == null ? null : liveProgress.get(jobId);
+        return progress == null ? null : progress.current();
     }
 
     @Transactional
@@ -1,6 +1,7 @@
 package com.ainovel.app.workflow;
 
 import com.ainovel.app.ai.AiProgressContext;
+import com.ainovel.app.ai.StreamProgressCoalescer;
 import com.ainovel.app.integration.AiGatewayGrpcClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,17 +36,26 @@ public class GuidedCreationJobWorker {
         try {
             GuidedCreationJobService.GenerationContext context = jobService.markCallingAi(jobId);
             AtomicLong completedTokens = new AtomicLong();
-            GuidedCreationGenerationService.GenerationResult result = AiProgressContext.withListener(
-                    new AiGatewayGrpcClient.StreamProgressListener() {
-                        @Override public void onDelta(long outputTokens, boolean estimated) {
-                            jobService.updateStreamProgress(jobId, completedTokens.get() + outputTokens, estimated);
-                        }
-                        @Override public void onCompleted(long completionTokens, long promptTokens, long cacheTokens) {
-                            long total = completedTokens.addAndGet(completionTokens);
-                            jobService.completeStreamProgress(jobId, total);
-                        }
-                    },
-                    () -> generationService.generate(context.run(), context.job(), context.payload()));
+            StreamProgressCoalescer progress = jobService.openStreamProgress(jobId,
+                    (outputTokens, estimated) -> jobService.updateStreamProgress(jobId, outputTokens, estimated));
+            GuidedCreationGenerationService.GenerationResult result;
+            try {
+                result = AiProgressContext.withListener(
+                        new AiGatewayGrpcClient.StreamProgressListener() {
+                            @Override public void onDelta(long outputTokens, boolean estimated) {
+                                progress.offer(completedTokens.get() + outputTokens, estimated);
+                            }
+                            @Override public void onCompleted(long completionTokens, long promptTokens, long cacheTokens) {
+                                long total = completedTokens.addAndGet(completionTokens);
+                                progress.settle(total, false);
+                                jobService.completeStreamProgress(jobId, total);
+                            }
+                        },
+                        () -> generationService.generate(context.run(), context.job(), context.payload()));
+            } finally {
+                jobService.closeStreamProgress(jobId);
+                flushStreamProgress(jobId, progress);
+            }
             GuidedCreationJobService.Completion completion = jobService.complete(jobId, result);
             generationCompleted = true;
             workflowService.advanceAutomatic(completion);
@@ -63,4 +73,13 @@ public class GuidedCreationJobWorker {
             }
         }
     }
+
+    /** Persists the last coalesced delta, e.g. when the stream failed before it completed. */
+    private void flushStreamProgress(UUID jobId, StreamProgressCoalescer progress) {
+        try {
+            progress.flush();
+        } catch (RuntimeException ex) {
+            log.warn("Guided creation stream progress flush failed jobId={} reason={}", jobId, ex.getMessage());
+        }
+    }
 }
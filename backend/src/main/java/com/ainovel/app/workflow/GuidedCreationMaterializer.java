@@ -2,6 +2,7 @@ package com.ainovel.app.workflow;
 
 import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.story.OutlineNodeIndex;
 import com.ainovel.app.story.model.CharacterCard;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
@@ -33,6 +34,7 @@ public class GuidedCreationMaterializer {
     private final OutlineRepository outlineRepository;
     private final GuidedCreationJsonSupport jsonSupport;
     private final JsonColumnCodec codec;
+    private final OutlineNodeIndex outlineNodeIndex;
 
     public GuidedCreationMaterializer(CreationWorkflowRunRepository runRepository,
                                       StoryRepository storyRepository,
@@ -40,7 +42,8 @@ public class GuidedCreationMaterializer {
                                       CharacterCardRepository characterRepository,
                                       OutlineRepository outlineRepository,
                                       GuidedCreationJsonSupport jsonSupport,
-                                      JsonColumnCodec codec) {
+                                      JsonColumnCodec codec,
+                                      OutlineNodeIndex outlineNodeIndex) {
         this.runRepository = runRepository;
         this.storyRepository = storyRepository;
         this.worldRepository = worldRepository;
@@ -48,6 +51,7 @@ public class GuidedCreationMaterializer {
         this.outlineRepository = outlineRepository;
         this.jsonSupport = jsonSupport;
         this.codec = codec;
+        this.outlineNodeIndex = outlineNodeIndex;
     }
 
     @Transactional
@@ -231,6 +235,7 @@ public class GuidedCreationMaterializer {
         outline.setWorldId(run.getWorld() == null ? null : run.getWorld().getId().toString());
         outline.setContentJson(codec.write(content, "{\"planning\":{},\"chapters\":[]}"));
         run.setOutline(outlineRepository.save(outline));
+        outlineNodeIndex.reindex(run.getOutline());
         return run.getOutline().getId();
     }
 
@@ -3,6 +3,7 @@ package com.ainovel.app.workflow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -13,7 +14,13 @@ import org.springframework.transaction.event.TransactionalEventListener;
 import java.util.UUID;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
+/**
+ * Starts queued guided-creation jobs on {@code guidedCreationExecutor}, at most
+ * {@code app.guided-creation.max-concurrent-jobs} at a time. Jobs over the limit stay QUEUED and are
+ * picked up by {@link #dispatchQueuedJobs} once a running job finishes.
+ */
 @Component
 public class GuidedCreationRuntime implements ApplicationRunner {
     private static final Logger log = LoggerFactory.getLogger(GuidedCreationRuntime.class);
@@ -22,15 +29,18 @@ public class GuidedCreationRuntime implements ApplicationRunner {
     private final GuidedCreationWorkflowService workflowService;
     private final GuidedCreationJobWorker worker;
     private final Executor executor;
+    private final Semaphore running;
 
     public GuidedCreationRuntime(GuidedCreationJobService jobService,
                                  GuidedCreationWorkflowService workflowService,
                                  GuidedCreationJobWorker worker,
-                                 @Qualifier("guidedCreationExecutor") Executor executor) {
+                                 @Qualifier("guidedCreationExecutor") Executor executor,
+                                 @Value("${app.guided-creation.max-concurrent-jobs:32}") int maxConcurrentJobs) {
         this.jobService = jobService;
         this.workflowService = workflowService;
         this.worker = worker;
         this.executor = executor;
+        this.running = new Semaphore(Math.max(1, maxConcurrentJobs));
     }
 
     @Override
@@ -46,7 +56,11 @@ public class GuidedCreationRuntime implements ApplicationRunner {
 
     @Scheduled(fixedDelayString = "${app.guided-creation.dispatch-delay-ms:5000}")
     public void dispatchQueuedJobs() {
-        jobService.queuedJobIds().forEach(this::launch);
+        for (UUID jobId : jobService.queuedJobIds()) {
+            if (!launch(jobId)) {
+                return;
+            }
+        }
     }
 
     @Scheduled(fixedDelayString = "${app.guided-creation.reconcile-delay-ms:10000}")
@@ -61,11 +75,25 @@ public class GuidedCreationRuntime implements ApplicationRunner {
         });
     }
 
-    private void launch(UUID jobId) {
+    /** Starts the job if a slot is free; otherwise it stays queued for the next dispatch. */
+    private boolean launch(UUID jobId) {
+        if (!running.tryAcquire()) {
+            log.debug("Guided creation at capacity; job remains queued jobId={}", jobId);
+            return false;
+        }
         try {
-            executor.execute(() -> worker.process(jobId));
+            executor.execute(() -> {
+                try {
+                    worker.process(jobId);
+                } finally {
+                    running.release();
+                }
+            });
+            return true;
         } catch (RejectedExecutionException ex) {
-            log.warn("Guided creation executor saturated; job remains queued jobId={}", jobId);
+            running.release();
+            log.warn("Guided creation executor rejected job; job remains queued jobId={}", jobId);
+            return false;
         }
     }
 }
@@ -1,9 +1,11 @@
 package com.ainovel.app.workflow;
 
+import com.ainovel.app.ai.StreamProgressCoalescer;
 import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.user.User;
 import com.ainovel.app.workflow.dto.CreationWorkflowDtos;
 import com.ainovel.app.workflow.model.AsyncJob;
+import com.ainovel.app.workflow.model.AsyncJobStatus;
 import com.ainovel.app.workflow.model.CreationWorkflowRun;
 import com.ainovel.app.workflow.model.CreationWorkflowStatus;
 import com.ainovel.app.workflow.model.GuidedCreationStep;
@@ -279,9 +281,17 @@ public class GuidedCreationWorkflowService {
         if (job == null) {
             return null;
         }
+        long outputTokens = job.getOutputTokens();
+        boolean outputTokensEstimated = job.isOutputTokensEstimated();
+        StreamProgressCoalescer.Snapshot live = job.getStatus() == AsyncJobStatus.CALLING_AI
+                ? jobService.liveStreamProgress(job.getId()) : null;
+        if (live != null && live.outputTokens() > outputTokens) {
+            outputTokens = live.outputTokens();
+            outputTokensEstimated = live.estimated();
+        }
         return new CreationWorkflowDtos.JobResponse(
                 job.getId(), job.getStep(), jobService.operation(job), job.getStatus(), job.getProgress(),
-                job.getOutputTokens(), job.isOutputTokensEstimated(), job.getErrorMessage(),
+                outputTokens, outputTokensEstimated, job.getErrorMessage(),
                 job.getChargedCredits(), job.getRemainingCredits(), job.getCreatedAt(), job.getUpdatedAt()
         );
     }
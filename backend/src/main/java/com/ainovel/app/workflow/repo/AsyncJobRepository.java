@@ -5,9 +5,12 @@ import com.ainovel.app.workflow.model.AsyncJobStatus;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -24,4 +27,22 @@ public interface AsyncJobRepository extends JpaRepository<AsyncJob, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select job from AsyncJob job join fetch job.user where job.id = :id")
     Optional<AsyncJob> findByIdForUpdate(@Param("id") UUID id);
+
+    /** Conditional single-row update without a prior locking read; the token count never moves backwards. */
+    @Transactional
+    @Modifying
+    @Query("""
+            update AsyncJob job
+            set job.outputTokens = :outputTokens,
+                job.outputTokensEstimated = :estimated,
+                job.progress = case when job.progress < :progress then :progress else job.progress end,
+                job.updatedAt = :now
+            where job.id = :id and job.status = :status and job.outputTokens <= :outputTokens
+            """)
+    int updateStreamProgress(@Param("id") UUID id,
+                             @Param("status") AsyncJobStatus status,
+                             @Param("outputTokens") long outputTokens,
+                             @Param("estimated") boolean estimated,
+                             @Param("progress") int progress,
+                             @Param("now") Instant now);
 }
@@ -0,0 +1,60 @@
+package com.ainovel.app.world;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many world field generations one user has in flight at a time, across all of their worlds and
+ * modules, at {@code app.world.field-generation-per-user}. Fan-out beyond the cap waits for a slot; the
+ * gateway-wide limit still applies on top. Entries exist only while a user has generations running.
+ */
+@Component
+public class WorldFieldGenerationLimiter {
+    private final int perUser;
+    private final Map<UUID, Slots> byUser = new ConcurrentHashMap<>();
+
+    public WorldFieldGenerationLimiter(@Value("${app.world.field-generation-per-user:3}") int perUser) {
+        this.perUser = Math.max(1, perUser);
+    }
+
+    public int perUser() {
+        return perUser;
+    }
+
+    /** Runs {@code call} once {@code userId} has a free slot; interruption while waiting fails the call. */
+    public <T> T run(UUID userId, Supplier<T> call) {
+        Slots slots = byUser.compute(userId, (key, current) -> {
+            Slots next = current == null ? new Slots(perUser) : current;
+            next.users++;
+            return next;
+        });
+        try {
+            slots.permits.acquire();
+            try {
+                return call.get();
+            } finally {
+                slots.permits.release();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("世界字段生成已取消", ex);
+        } finally {
+            byUser.computeIfPresent(userId, (key, current) -> --current.users == 0 ? null : current);
+        }
+    }
+
+    private static final class Slots {
+        private final Semaphore permits;
+        private int users;
+
+        private Slots(int permits) {
+            this.permits = new Semaphore(permits, true);
+        }
+    }
+}
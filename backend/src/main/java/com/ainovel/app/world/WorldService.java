@@ -6,9 +6,12 @@ import com.ainovel.app.world.dto.*;
 import com.ainovel.app.world.model.World;
 import com.ainovel.app.world.repo.WorldRepository;
 import com.ainovel.app.user.User;
+import com.ainovel.app.ai.AiProgressContext;
 import com.ainovel.app.ai.AiService;
+import com.ainovel.app.ai.ConcurrentStreamProgress;
 import com.ainovel.app.ai.dto.AiRefineRequest;
 import com.ainovel.app.ai.dto.AiRefineResponse;
+import com.ainovel.app.integration.AiGatewayGrpcClient;
 import com.ainovel.app.security.ResourceAccessGuard;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -20,9 +23,17 @@ import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 public class WorldService {
+    private static final String GENERATING = "GENERATING";
+
     @Autowired
     private WorldRepository worldRepository;
     @Autowired
@@ -35,6 +46,8 @@ public class WorldService {
     private ObjectMapper objectMapper;
     @Autowired
     private JsonColumnCodec jsonColumnCodec;
+    @Autowired
+    private WorldFieldGenerationLimiter fieldGenerationLimiter;
 
     public List<WorldDefinitionDto> definitions() {
         return List.of(
@@ -215,36 +228,134 @@ public class WorldService {
         accessGuard.assertOwner(world.getUser());
         Map<String, String> progress = readProgress(world.getModuleProgressJson());
         List<WorldGenerationStatus.ModuleStatus> modules = progress.entrySet().stream()
-                .map(e -> new WorldGenerationStatus.ModuleStatus(e.getKey(), statusOnly(e.getValue()), 1, statusError(e.getValue())))
+                .map(e -> moduleStatus(e.getKey(), e.getValue()))
                 .toList();
         return new WorldGenerationStatus(modules);
     }
 
-    @Transactional
     public WorldDetailDto generateModule(UUID id, String moduleKey) {
-        World world = worldRepository.findById(id).orElseThrow();
+        return generateModules(id, List.of(moduleKey), (completed, total) -> { });
+    }
+
+    /**
+     * Generates the blank fields of {@code moduleKeys} with all field calls fanned out at once, bounded by
+     * the owner's share of {@link WorldFieldGenerationLimiter}. No transaction is held during the model calls:
+     * each finished field moves its module's {@code GENERATING|done/total} entry in {@code moduleProgressJson},
+     * and each module is merged into the world as soon as its last field is in, keeping fields filled in by
+     * someone else meanwhile. A failed module is marked {@code FAILED} without holding back the others; the
+     * first failure is rethrown once every module has settled. The caller's {@link AiProgressContext} listener
+     * sees the field calls as one stream through {@link ConcurrentStreamProgress}: started once, their output
+     * tokens summed, completed once when every module has settled. Interrupting the caller cancels the calls
+     * still running.
+     */
+    public WorldDetailDto generateModules(UUID id, List<String> moduleKeys, FieldProgressListener listener) {
+        World world = worldRepository.findWithUserById(id).orElseThrow();
         accessGuard.assertOwner(world.getUser());
-        Map<String, String> progress = readProgress(world.getModuleProgressJson());
-        Map<String, Map<String, String>> modules = readModules(world.getModulesJson());
-        Optional<WorldDefinitionDto> moduleDef = definitions().stream().filter(d -> d.key().equals(moduleKey)).findFirst();
-        if (moduleDef.isEmpty()) {
-            throw new BusinessException("世界模块不存在：" + moduleKey);
+        List<WorldDefinitionDto> modules = moduleKeys.stream().map(this::requireModule).toList();
+        Map<String, Map<String, String>> existing = readModules(world.getModulesJson());
+        Map<String, List<WorldDefinitionDto.Field>> blankFields = new LinkedHashMap<>();
+        int totalFields = 0;
+        for (WorldDefinitionDto module : modules) {
+            Map<String, String> fields = existing.getOrDefault(module.key(), Map.of());
+            List<WorldDefinitionDto.Field> blank = module.fields().stream()
+                    .filter(field -> isBlank(fields.get(field.key())))
+                    .toList();
+            blankFields.put(module.key(), blank);
+            totalFields += blank.size();
         }
-        try {
-            Map<String, String> fields = new HashMap<>(modules.getOrDefault(moduleKey, new HashMap<>()));
-            for (WorldDefinitionDto.Field field : moduleDef.get().fields()) {
-                String existing = fields.get(field.key());
-                if (existing == null || existing.isBlank()) {
-                    fields.put(field.key(), generateField(world, moduleDef.get(), field));
+        FieldCounter counter = new FieldCounter(totalFields, listener);
+        ConcurrentStreamProgress progress = new ConcurrentStreamProgress(AiProgressContext.current());
+        RuntimeException failure = null;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> runs = new ArrayList<>();
+            for (WorldDefinitionDto module : modules) {
+                AiGatewayGrpcClient.StreamProgressListener moduleListener = progress.child();
+                runs.add(executor.submit(() ->
+                        generateModuleFields(world, module, blankFields.get(module.key()), counter, moduleListener)));
+            }
+            try {
+                for (Future<?> run : runs) {
+                    try {
+                        run.get();
+                    } catch (ExecutionException ex) {
+                        if (failure == null) {
+                            failure = ex.getCause() instanceof RuntimeException runtime ? runtime : new RuntimeException(ex.getCause());
+                        }
+                    }
                 }
+            } catch (InterruptedException ex) {
+                // Stop the model calls before close() waits for them.
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("世界模块生成已取消", ex);
             }
-            modules.put(moduleKey, fields);
-            progress.put(moduleKey, "COMPLETED");
-        } catch (RuntimeException ex) {
-            String error = cleanError(ex.getMessage());
-            recordModuleFailure(id, moduleKey, error);
-            throw new RuntimeException("生成世界模块失败：" + error, ex);
+        } finally {
+            progress.complete();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return toDetail(worldRepository.findById(id).orElseThrow());
+    }
+
+    /**
+     * Runs the field calls of one module on an executor of their own. Stopping the module goes through
+     * {@code shutdownNow()} rather than {@code Future.cancel}: a cancelled future counts as finished at once,
+     * so {@code close()} would stop waiting for a call that is still running. Each field call streams into a
+     * child of the module's {@link ConcurrentStreamProgress}, which reports to {@code progress} once.
+     */
+    private WorldDetailDto generateModuleFields(World world, WorldDefinitionDto module, List<WorldDefinitionDto.Field> fields,
+                                                FieldCounter counter,
+                                                AiGatewayGrpcClient.StreamProgressListener progress) throws InterruptedException {
+        UUID id = world.getId();
+        if (!fields.isEmpty()) {
+            recordModuleProgress(id, module.key(), 0, fields.size());
         }
+        AtomicInteger done = new AtomicInteger();
+        Map<String, String> generated = new LinkedHashMap<>();
+        ConcurrentStreamProgress moduleProgress = new ConcurrentStreamProgress(progress);
+        try (ExecutorService fieldExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, Future<String>> calls = new LinkedHashMap<>();
+            for (WorldDefinitionDto.Field field : fields) {
+                AiGatewayGrpcClient.StreamProgressListener fieldListener = moduleProgress.child();
+                calls.put(field.key(), fieldExecutor.submit(() -> {
+                    String value = AiProgressContext.withListener(fieldListener,
+                            () -> fieldGenerationLimiter.run(world.getUser().getId(), () -> generateField(world, module, field)));
+                    recordModuleProgress(id, module.key(), done.incrementAndGet(), fields.size());
+                    counter.fieldGenerated();
+                    return value;
+                }));
+            }
+            try {
+                for (Map.Entry<String, Future<String>> call : calls.entrySet()) {
+                    generated.put(call.getKey(), call.getValue().get());
+                }
+            } catch (InterruptedException ex) {
+                fieldExecutor.shutdownNow();
+                throw ex;
+            } catch (ExecutionException ex) {
+                fieldExecutor.shutdownNow();
+                String error = cleanError(ex.getCause().getMessage());
+                recordModuleFailure(id, module.key(), error);
+                throw new RuntimeException("生成世界模块失败：" + error, ex.getCause());
+            }
+        } finally {
+            moduleProgress.complete();
+        }
+        return updateWorld(id, locked -> saveGeneratedModule(locked, module.key(), generated));
+    }
+
+    private WorldDetailDto saveGeneratedModule(World world, String moduleKey, Map<String, String> generated) {
+        Map<String, String> progress = readProgress(world.getModuleProgressJson());
+        Map<String, Map<String, String>> modules = readModules(world.getModulesJson());
+        Map<String, String> fields = new HashMap<>(modules.getOrDefault(moduleKey, new HashMap<>()));
+        generated.forEach((key, value) -> {
+            if (isBlank(fields.get(key))) {
+                fields.put(key, value);
+            }
+        });
+        modules.put(moduleKey, fields);
+        progress.put(moduleKey, "COMPLETED");
         world.setModulesJson(writeJson(modules));
         world.setModuleProgressJson(writeJson(progress));
 
@@ -264,7 +375,21 @@ public class WorldService {
         return toDetail(world);
     }
 
-    @Transactional
+    /** Moves a module's field count forward; a late field after the module failed or finished changes nothing. */
+    private void recordModuleProgress(UUID id, String moduleKey, int completed, int total) {
+        updateWorld(id, world -> {
+            Map<String, String> progress = readProgress(world.getModuleProgressJson());
+            String current = progress.get(moduleKey);
+            if (completed > 0 && (!GENERATING.equals(statusOnly(current)) || completedFields(current) >= completed)) {
+                return null;
+            }
+            progress.put(moduleKey, GENERATING + "|" + completed + "/" + total);
+            world.setModuleProgressJson(writeJson(progress));
+            worldRepository.save(world);
+            return null;
+        });
+    }
+
     public WorldDetailDto retryModule(UUID id, String moduleKey) {
         return generateModule(id, moduleKey);
     }
@@ -285,15 +410,47 @@ public class WorldService {
     }
 
     private void recordModuleFailure(UUID id, String moduleKey, String error) {
+        updateWorld(id, world -> {
+            Map<String, String> progress = readProgress(world.getModuleProgressJson());
+            progress.put(moduleKey, "FAILED|" + error);
+            world.setModuleProgressJson(writeJson(progress));
+            worldRepository.save(world);
+            return null;
+        });
+    }
+
+    /**
+     * Applies {@code change} to the row locked for update, in a short transaction of its own, so that the
+     * progress and result writes of concurrently generated fields and modules queue up instead of racing.
+     */
+    private <T> T updateWorld(UUID id, Function<World, T> change) {
         TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
         transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
-        transactionTemplate.executeWithoutResult(status -> {
-            World failedWorld = worldRepository.findById(id).orElseThrow();
-            Map<String, String> failedProgress = readProgress(failedWorld.getModuleProgressJson());
-            failedProgress.put(moduleKey, "FAILED|" + error);
-            failedWorld.setModuleProgressJson(writeJson(failedProgress));
-            worldRepository.save(failedWorld);
-        });
+        return transactionTemplate.execute(status -> change.apply(worldRepository.findByIdForUpdate(id).orElseThrow()));
+    }
+
+    private WorldDefinitionDto requireModule(String moduleKey) {
+        return definitions().stream()
+                .filter(d -> d.key().equals(moduleKey))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException("世界模块不存在：" + moduleKey));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private int completedFields(String raw) {
+        String detail = statusDetail(raw);
+        int slash = detail == null ? -1 : detail.indexOf('/');
+        if (slash < 0) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(detail.substring(0, slash));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
     }
 
     private WorldDetailDto toDetail(World world) {
@@ -320,7 +477,7 @@ public class WorldService {
         return sep < 0 ? raw : raw.substring(0, sep);
     }
 
-    private String statusError(String raw) {
+    private String statusDetail(String raw) {
         if (raw == null) {
             return null;
         }
@@ -328,6 +485,24 @@ public class WorldService {
         return sep < 0 ? null : raw.substring(sep + 1);
     }
 
+    private WorldGenerationStatus.ModuleStatus moduleStatus(String moduleKey, String raw) {
+        String status = statusOnly(raw);
+        if (!GENERATING.equals(status)) {
+            return new WorldGenerationStatus.ModuleStatus(moduleKey, status, 1, statusDetail(raw), null, null);
+        }
+        String detail = statusDetail(raw);
+        int slash = detail == null ? -1 : detail.indexOf('/');
+        Integer total = null;
+        if (slash >= 0) {
+            try {
+                total = Integer.parseInt(detail.substring(slash + 1));
+            } catch (NumberFormatException ignored) {
+                // Leave the total unknown.
+            }
+        }
+        return new WorldGenerationStatus.ModuleStatus(moduleKey, status, 1, null, completedFields(raw), total);
+    }
+
     private String cleanError(String message) {
         if (message == null || message.isBlank()) {
             return "未知错误";
@@ -368,4 +543,25 @@ public class WorldService {
     private String writeJson(Object obj) {
         return jsonColumnCodec.write(obj, "{}");
     }
+
+    /** Hears about every generated field of a {@link #generateModules} call, one call at a time and in order. */
+    @FunctionalInterface
+    public interface FieldProgressListener {
+        void onFieldGenerated(int completedFields, int totalFields);
+    }
+
+    private static final class FieldCounter {
+        private final int total;
+        private final FieldProgressListener listener;
+        private int completed;
+
+        private FieldCounter(int total, FieldProgressListener listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        synchronized void fieldGenerated() {
+            listener.onFieldGenerated(++completed, total);
+        }
+    }
 }
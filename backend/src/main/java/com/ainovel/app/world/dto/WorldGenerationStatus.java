@@ -3,5 +3,7 @@ package com.ainovel.app.world.dto;
 import java.util.List;
 
 public record WorldGenerationStatus(List<ModuleStatus> queue) {
-    public record ModuleStatus(String moduleKey, String status, int attempts, String error) {}
+    /** {@code completedFields}/{@code totalFields} are set while the module is {@code GENERATING}. */
+    public record ModuleStatus(String moduleKey, String status, int attempts, String error,
+                               Integer completedFields, Integer totalFields) {}
 }
@@ -38,6 +38,9 @@ public class World {
     private Instant createdAt;
     @UpdateTimestamp
     private Instant updatedAt;
+    @Version
+    @Column(name = "lock_version", nullable = false)
+    private long lockVersion;
 
     public World() {}
 
@@ -67,4 +70,5 @@ public class World {
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getLockVersion() { return lockVersion; }
 }
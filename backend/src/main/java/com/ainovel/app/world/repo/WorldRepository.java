@@ -3,11 +3,23 @@ package com.ainovel.app.world.repo;
 import com.ainovel.app.world.model.World;
 import com.ainovel.app.user.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import jakarta.persistence.LockModeType;
 
 public interface WorldRepository extends JpaRepository<World, UUID> {
     List<World> findByUser(User user);
     long countByUser(User user);
+
+    @Query("select w from World w join fetch w.user where w.id = :id")
+    Optional<World> findWithUserById(@Param("id") UUID id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select w from World w where w.id = :id")
+    Optional<World> findByIdForUpdate(@Param("id") UUID id);
 }
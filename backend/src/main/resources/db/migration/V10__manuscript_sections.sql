@@ -0,0 +1,51 @@
+-- Scene bodies move out of manuscripts.sections_json into one row per scene so
+-- saving a scene rewrites only that scene instead of the whole book.
+CREATE TABLE `manuscript_sections` (
+  `id` binary(16) NOT NULL,
+  `manuscript_id` binary(16) NOT NULL,
+  `scene_id` varchar(191) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `content` longtext COLLATE utf8mb4_unicode_ci,
+  `created_at` datetime(6) DEFAULT NULL,
+  `updated_at` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_manuscript_section_scene` (`manuscript_id`,`scene_id`),
+  CONSTRAINT `fk_manuscript_section_manuscript` FOREIGN KEY (`manuscript_id`) REFERENCES `manuscripts` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Backfill every key of valid JSON objects. Strings are unquoted; numbers,
+-- booleans and nested values keep their JSON text; JSON null becomes NULL.
+-- Malformed blobs are left in place; the application keeps reading them as a
+-- legacy fallback.
+INSERT INTO `manuscript_sections` (`id`, `manuscript_id`, `scene_id`, `content`, `created_at`, `updated_at`)
+SELECT UNHEX(REPLACE(UUID(), '-', '')),
+       source.id,
+       scene_key.scene_id,
+       CASE JSON_TYPE(JSON_EXTRACT(source.sections, CONCAT('$."', scene_key.scene_id, '"')))
+         WHEN 'STRING' THEN JSON_UNQUOTE(JSON_EXTRACT(source.sections, CONCAT('$."', scene_key.scene_id, '"')))
+         WHEN 'NULL' THEN NULL
+         ELSE CAST(JSON_EXTRACT(source.sections, CONCAT('$."', scene_key.scene_id, '"')) AS CHAR)
+       END,
+       COALESCE(source.updated_at, source.created_at, CURRENT_TIMESTAMP(6)),
+       COALESCE(source.updated_at, source.created_at, CURRENT_TIMESTAMP(6))
+FROM (
+  SELECT id,
+         created_at,
+         updated_at,
+         CAST(IF(JSON_VALID(sections_json), sections_json, '{}') AS JSON) AS sections
+  FROM manuscripts
+  WHERE sections_json IS NOT NULL
+    AND JSON_VALID(sections_json)
+    AND JSON_TYPE(IF(JSON_VALID(sections_json), sections_json, '{}')) = 'OBJECT'
+) source
+JOIN JSON_TABLE(JSON_KEYS(source.sections), '$[*]' COLUMNS (`scene_id` varchar(191) PATH '$')) scene_key;
+
+-- Clear the blob only where every key now has a row, so nothing the backfill
+-- could not copy is lost.
+UPDATE `manuscripts`
+SET `sections_json` = NULL
+WHERE `sections_json` IS NOT NULL
+  AND JSON_VALID(`sections_json`)
+  AND JSON_TYPE(IF(JSON_VALID(`sections_json`), `sections_json`, '{}')) = 'OBJECT'
+  AND JSON_LENGTH(IF(JSON_VALID(`sections_json`), `sections_json`, '{}')) = (
+    SELECT COUNT(*) FROM `manuscript_sections` copied WHERE copied.`manuscript_id` = `manuscripts`.`id`
+  );
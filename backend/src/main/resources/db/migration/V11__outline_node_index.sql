@@ -0,0 +1,38 @@
+-- Chapter and scene ids live inside outlines.content_json. This table lets a
+-- single chapter/scene edit find its outline with one indexed lookup instead
+-- of parsing every outline in the system.
+CREATE TABLE `outline_nodes` (
+  `id` binary(16) NOT NULL,
+  `outline_id` binary(16) NOT NULL,
+  `node_type` varchar(16) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `node_id` binary(16) NOT NULL,
+  `created_at` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_outline_node` (`outline_id`,`node_type`,`node_id`),
+  KEY `idx_outline_node_lookup` (`node_type`,`node_id`),
+  CONSTRAINT `fk_outline_node_outline` FOREIGN KEY (`outline_id`) REFERENCES `outlines` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+INSERT INTO `outline_nodes` (`id`, `outline_id`, `node_type`, `node_id`, `created_at`)
+SELECT UNHEX(REPLACE(UUID(), '-', '')), node.outline_id, 'CHAPTER', UNHEX(REPLACE(node.node_id, '-', '')), CURRENT_TIMESTAMP(6)
+FROM (
+  SELECT DISTINCT o.id AS outline_id, LOWER(chapter.chapter_id) AS node_id
+  FROM outlines o
+  JOIN JSON_TABLE(
+    IF(JSON_VALID(o.content_json), o.content_json, '{}'),
+    '$.chapters[*]' COLUMNS (`chapter_id` varchar(64) PATH '$.id')
+  ) chapter
+  WHERE chapter.chapter_id REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'
+) node;
+
+INSERT INTO `outline_nodes` (`id`, `outline_id`, `node_type`, `node_id`, `created_at`)
+SELECT UNHEX(REPLACE(UUID(), '-', '')), node.outline_id, 'SCENE', UNHEX(REPLACE(node.node_id, '-', '')), CURRENT_TIMESTAMP(6)
+FROM (
+  SELECT DISTINCT o.id AS outline_id, LOWER(scene.scene_id) AS node_id
+  FROM outlines o
+  JOIN JSON_TABLE(
+    IF(JSON_VALID(o.content_json), o.content_json, '{}'),
+    '$.chapters[*].scenes[*]' COLUMNS (`scene_id` varchar(64) PATH '$.id')
+  ) scene
+  WHERE scene.scene_id REGEXP '^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$'
+) node;
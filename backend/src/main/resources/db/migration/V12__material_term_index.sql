@@ -0,0 +1,38 @@
+-- Approved materials are chunked once when they are written instead of on every
+-- search. material_term_postings is the keyword inverted index over those chunks
+-- (Han unigrams and bigrams, ASCII words and their 2-16 char prefixes); search
+-- reads only the postings of the query terms.
+-- Existing approved materials are indexed by the application on startup.
+CREATE TABLE `material_chunks` (
+  `id` binary(16) NOT NULL,
+  `chunk_id` binary(16) NOT NULL,
+  `material_id` binary(16) NOT NULL,
+  `user_id` binary(16) DEFAULT NULL,
+  `chunk_seq` int NOT NULL,
+  `title` varchar(255) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `content` longtext COLLATE utf8mb4_unicode_ci,
+  `tags_json` longtext COLLATE utf8mb4_unicode_ci,
+  `term_count` int NOT NULL,
+  `created_at` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_material_chunk` (`chunk_id`),
+  KEY `idx_material_chunk_material` (`material_id`),
+  KEY `idx_material_chunk_user` (`user_id`),
+  CONSTRAINT `fk_material_chunk_material` FOREIGN KEY (`material_id`) REFERENCES `materials` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE `material_term_postings` (
+  `id` binary(16) NOT NULL,
+  `term` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `chunk_id` binary(16) NOT NULL,
+  `material_id` binary(16) NOT NULL,
+  `user_id` binary(16) DEFAULT NULL,
+  `term_frequency` int NOT NULL,
+  `field_mask` int NOT NULL,
+  `chunk_term_count` int NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_material_posting_user_term` (`user_id`,`term`),
+  KEY `idx_material_posting_term` (`term`),
+  KEY `idx_material_posting_material` (`material_id`),
+  CONSTRAINT `fk_material_posting_material` FOREIGN KEY (`material_id`) REFERENCES `materials` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
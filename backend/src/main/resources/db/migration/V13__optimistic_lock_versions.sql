@@ -0,0 +1,8 @@
+-- AI-driven writes read, call the model outside any transaction, then write in a
+-- short transaction. lock_version lets that write detect a concurrent change to
+-- the same scene body or world instead of silently overwriting it.
+ALTER TABLE `manuscript_sections`
+  ADD COLUMN `lock_version` bigint NOT NULL DEFAULT 0;
+
+ALTER TABLE `worlds`
+  ADD COLUMN `lock_version` bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,96 @@
+-- Version snapshots move out of manuscript_versions.sections_json into per-scene
+-- blobs addressed by content hash, so a scene that did not change between
+-- versions is stored once per manuscript instead of once per version.
+-- A delta blob keeps only the text between the prefix and suffix it shares
+-- with its base blob.
+CREATE TABLE `manuscript_version_blobs` (
+  `id` binary(16) NOT NULL,
+  `manuscript_id` binary(16) NOT NULL,
+  `content_hash` varchar(64) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `encoding` varchar(16) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `base_blob_id` binary(16) DEFAULT NULL,
+  `delta_prefix` int NOT NULL DEFAULT 0,
+  `delta_suffix` int NOT NULL DEFAULT 0,
+  `delta_depth` int NOT NULL DEFAULT 0,
+  `content` longtext COLLATE utf8mb4_unicode_ci,
+  `content_chars` int NOT NULL,
+  `stored_chars` int NOT NULL,
+  `created_at` datetime(6) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_version_blob_hash` (`manuscript_id`,`content_hash`),
+  KEY `idx_version_blob_base` (`base_blob_id`),
+  CONSTRAINT `fk_version_blob_manuscript` FOREIGN KEY (`manuscript_id`) REFERENCES `manuscripts` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `fk_version_blob_base` FOREIGN KEY (`base_blob_id`) REFERENCES `manuscript_version_blobs` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE `manuscript_version_scenes` (
+  `id` binary(16) NOT NULL,
+  `version_id` binary(16) NOT NULL,
+  `scene_id` varchar(191) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `blob_id` binary(16) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_version_scene` (`version_id`,`scene_id`),
+  KEY `idx_version_scene_blob` (`blob_id`),
+  CONSTRAINT `fk_version_scene_version` FOREIGN KEY (`version_id`) REFERENCES `manuscript_versions` (`id`) ON DELETE CASCADE,
+  CONSTRAINT `fk_version_scene_blob` FOREIGN KEY (`blob_id`) REFERENCES `manuscript_version_blobs` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- Backfill every scene of valid JSON object snapshots as full blobs. Strings
+-- are unquoted; numbers, booleans and nested values keep their JSON text.
+-- JSON null has no blob form, so a snapshot containing one keeps its
+-- sections_json. Malformed snapshots are left in place too; the application
+-- keeps reading them as a legacy fallback.
+CREATE TEMPORARY TABLE `version_blob_backfill` AS
+SELECT source.id AS version_id,
+       source.manuscript_id,
+       scene_key.scene_id,
+       CASE JSON_TYPE(JSON_EXTRACT(source.sections, CONCAT('$."', scene_key.scene_id, '"')))
+         WHEN 'STRING' THEN JSON_UNQUOTE(JSON_EXTRACT(source.sections, CONCAT('$."', scene_key.scene_id, '"')))
+         ELSE CAST(JSON_EXTRACT(source.sections, CONCAT('$."', scene_key.scene_id, '"')) AS CHAR)
+       END AS content
+FROM (
+  SELECT id,
+         manuscript_id,
+         CAST(IF(JSON_VALID(sections_json), sections_json, '{}') AS JSON) AS sections
+  FROM manuscript_versions
+  WHERE sections_json IS NOT NULL
+    AND JSON_VALID(sections_json)
+    AND JSON_TYPE(IF(JSON_VALID(sections_json), sections_json, '{}')) = 'OBJECT'
+) source
+JOIN JSON_TABLE(JSON_KEYS(source.sections), '$[*]' COLUMNS (`scene_id` varchar(191) PATH '$')) scene_key
+WHERE JSON_TYPE(JSON_EXTRACT(source.sections, CONCAT('$."', scene_key.scene_id, '"'))) <> 'NULL';
+
+INSERT IGNORE INTO `manuscript_version_blobs`
+  (`id`, `manuscript_id`, `content_hash`, `encoding`, `content`, `content_chars`, `stored_chars`, `created_at`)
+SELECT UNHEX(REPLACE(UUID(), '-', '')),
+       manuscript_id,
+       SHA2(content, 256),
+       'full',
+       content,
+       CHAR_LENGTH(content),
+       CHAR_LENGTH(content),
+       CURRENT_TIMESTAMP(6)
+FROM `version_blob_backfill`;
+
+INSERT INTO `manuscript_version_scenes` (`id`, `version_id`, `scene_id`, `blob_id`)
+SELECT UNHEX(REPLACE(UUID(), '-', '')),
+       backfill.version_id,
+       backfill.scene_id,
+       stored.id
+FROM `version_blob_backfill` backfill
+JOIN `manuscript_version_blobs` stored
+  ON stored.manuscript_id = backfill.manuscript_id
+ AND stored.content_hash = SHA2(backfill.content, 256);
+
+DROP TEMPORARY TABLE `version_blob_backfill`;
+
+-- Clear a snapshot only where every scene now has a row, so nothing the
+-- backfill could not copy is lost.
+UPDATE `manuscript_versions`
+SET `sections_json` = NULL
+WHERE `sections_json` IS NOT NULL
+  AND JSON_VALID(`sections_json`)
+  AND JSON_TYPE(IF(JSON_VALID(`sections_json`), `sections_json`, '{}')) = 'OBJECT'
+  AND JSON_LENGTH(IF(JSON_VALID(`sections_json`), `sections_json`, '{}')) = (
+    SELECT COUNT(*) FROM `manuscript_version_scenes` copied WHERE copied.`version_id` = `manuscript_versions`.`id`
+  );
@@ -0,0 +1,5 @@
+-- Every autosave computes the branch's next version number and looks for
+-- auto snapshots beyond the newest N. These indexes let both walk only the
+-- top of one branch instead of its whole history.
+CREATE INDEX `idx_version_branch_number` ON `manuscript_versions` (`branch_id`, `version_number`);
+CREATE INDEX `idx_version_branch_type_number` ON `manuscript_versions` (`branch_id`, `snapshot_type`, `version_number` DESC);
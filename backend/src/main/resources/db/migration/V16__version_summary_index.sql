@@ -0,0 +1,6 @@
+-- The unfiltered version history list pages a manuscript's versions newest first
+-- by (created_at, id); version numbers restart on every branch, so they cannot
+-- order versions across branches. Without this index MySQL reads every version
+-- of the manuscript through idx_version_manuscript and sorts them for each page.
+-- The branch-filtered list walks idx_version_branch_number (V15).
+CREATE INDEX `idx_version_manuscript_created_id` ON `manuscript_versions` (`manuscript_id`, `created_at`, `id`);
@@ -0,0 +1,60 @@
+package com.ainovel.app.ai;
+
+import com.ainovel.app.integration.AiGatewayGrpcClient;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class AiProgressContextTest {
+    private final List<String> drafts = new ArrayList<>();
+    private final AtomicLong tokens = new AtomicLong();
+    private final AiGatewayGrpcClient.StreamProgressListener progress = (outputTokens, estimated) -> tokens.set(outputTokens);
+    private final AiProgressContext.DraftListener draftListener = new AiProgressContext.DraftListener() {
+        @Override public void onDraftDelta(int attempt, boolean reset, String text) {
+            drafts.add((reset ? "reset:" + attempt + ":" : "") + text);
+        }
+        @Override public void onDraftAccepted(String text) {
+            drafts.add("accepted:" + text);
+        }
+    };
+
+    @Test
+    void forwardsOnlyDraftCallContentAndKeepsTokenProgress() {
+        AiProgressContext.withListener(progress, () -> AiProgressContext.withDraftListener(draftListener, () -> {
+            AiProgressContext.streamDraft(2, () -> {
+                stream("第一段", 3);
+                stream("第二段", 6);
+                return null;
+            });
+            // A quality check inside the same operation is not part of the draft.
+            stream("{\"score\":1}", 9);
+            AiProgressContext.acceptDraft("定稿");
+            return null;
+        }));
+
+        assertEquals(List.of("reset:2:", "第一段", "第二段", "accepted:定稿"), drafts);
+        assertEquals(9, tokens.get());
+        assertNull(AiProgressContext.current());
+    }
+
+    @Test
+    void streamDraftIsPlainCallOutsideAnOperation() {
+        String result = AiProgressContext.streamDraft(1, () -> "text");
+        AiProgressContext.acceptDraft("text");
+
+        assertEquals("text", result);
+        assertEquals(List.of(), drafts);
+    }
+
+    /** What the gateway does for one CONTENT_DELTA event. */
+    private void stream(String delta, long outputTokens) {
+        AiGatewayGrpcClient.StreamProgressListener listener = AiProgressContext.current();
+        listener.onContent(delta);
+        listener.onDelta(outputTokens, true);
+    }
+}
@@ -0,0 +1,53 @@
+package com.ainovel.app.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamProgressCoalescerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final List<Long> writes = new ArrayList<>();
+    private final StreamProgressCoalescer progress = new StreamProgressCoalescer(
+            (outputTokens, estimated) -> writes.add(outputTokens), 250, now::get);
+
+    @Test
+    void writesAtMostOncePerIntervalAndFlushesTheTail() {
+        // 4000 tokens arriving every millisecond: one write up front, then one per 250 ms.
+        for (int token = 1; token <= 4_000; token++) {
+            progress.offer(token, true);
+            advanceMillis(1);
+        }
+        assertEquals(16, writes.size());
+        assertEquals(1L, writes.getFirst());
+        assertEquals(4_000L, progress.current().outputTokens());
+
+        progress.flush();
+        progress.flush();
+        assertEquals(17, writes.size());
+        assertEquals(4_000L, writes.getLast());
+    }
+
+    @Test
+    void ignoresOutOfOrderDeltasAndLetsSettleReset() {
+        progress.offer(120, true);
+        progress.offer(80, true);
+        assertEquals(120L, progress.current().outputTokens());
+
+        progress.settle(0, true);
+        progress.flush();
+        assertEquals(List.of(120L), writes);
+
+        advanceMillis(300);
+        progress.offer(5, true);
+        assertEquals(List.of(120L, 5L), writes);
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
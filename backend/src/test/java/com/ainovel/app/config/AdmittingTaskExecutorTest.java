@@ -0,0 +1,121 @@
+package com.ainovel.app.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmittingTaskExecutorTest {
+
+    @Test
+    void runsOverTheLimitShouldWaitInsteadOfStarting() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(5);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        try (AdmittingTaskExecutor executor = new AdmittingTaskExecutor("test-", 2, 16, 1_000)) {
+            for (int i = 0; i < 5; i++) {
+                executor.execute(() -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                        finished.countDown();
+                    }
+                });
+            }
+
+            awaitRunning(running, 2);
+            Thread.sleep(50);
+            assertEquals(2, running.get());
+
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            assertEquals(2, peak.get());
+        }
+    }
+
+    @Test
+    void rejectsOnceTheWaitingLimitIsReachedAndAdmitsAgainWhenTasksFinish() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(3);
+        AtomicInteger running = new AtomicInteger();
+
+        try (AdmittingTaskExecutor executor = new AdmittingTaskExecutor("test-", 1, 2, 1_000)) {
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    running.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        finished.countDown();
+                    }
+                });
+            }
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+
+            release.countDown();
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+            CountDownLatch admitted = new CountDownLatch(1);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (System.nanoTime() < deadline) {
+                try {
+                    executor.execute(admitted::countDown);
+                    break;
+                } catch (RejectedExecutionException ex) {
+                    // The last finished task has not released its slot yet.
+                    Thread.sleep(5);
+                }
+            }
+            assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void closeInterruptsTasksStillWaitingForTheirTurn() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger started = new AtomicInteger();
+        AdmittingTaskExecutor executor = new AdmittingTaskExecutor("test-", 1, 4, 100);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.incrementAndGet();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            executor.execute(started::incrementAndGet);
+        }
+        awaitRunning(running, 1);
+
+        long closing = System.nanoTime();
+        executor.close();
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - closing) < 2_000);
+        Thread.sleep(50);
+        assertEquals(0, started.get());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+    }
+
+    private void awaitRunning(AtomicInteger running, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (running.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.jdbc.datasource.init.ScriptUtils;
 import org.testcontainers.containers.MySQLContainer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FlywaySchemaGovernanceTest {
@@ -33,7 +34,7 @@ class FlywaySchemaGovernanceTest {
 
             var result = flyway.migrate();
 
-            assertEquals(9, result.migrationsExecuted);
+            assertEquals(16, result.migrationsExecuted);
             assertTableExists(mysql, databaseName, "stories");
             assertTableExists(mysql, databaseName, "slop_patterns");
             assertTableExists(mysql, databaseName, "workspace_layouts");
@@ -43,6 +44,17 @@ class FlywaySchemaGovernanceTest {
             assertTableExists(mysql, databaseName, "async_jobs");
             assertTableExists(mysql, databaseName, "ai_operation_runs");
             assertTableExists(mysql, databaseName, "ai_operation_steps");
+            assertTableExists(mysql, databaseName, "manuscript_sections");
+            assertTableExists(mysql, databaseName, "outline_nodes");
+            assertTableExists(mysql, databaseName, "material_chunks");
+            assertTableExists(mysql, databaseName, "material_term_postings");
+            assertColumnExists(mysql, databaseName, "manuscript_sections", "lock_version");
+            assertColumnExists(mysql, databaseName, "worlds", "lock_version");
+            assertTableExists(mysql, databaseName, "manuscript_version_blobs");
+            assertTableExists(mysql, databaseName, "manuscript_version_scenes");
+            assertIndexExists(mysql, databaseName, "manuscript_versions", "idx_version_branch_number");
+            assertIndexExists(mysql, databaseName, "manuscript_versions", "idx_version_branch_type_number");
+            assertIndexExists(mysql, databaseName, "manuscript_versions", "idx_version_manuscript_created_id");
             assertRowCount(mysql, databaseName, "slop_patterns", 38);
             assertTableExists(mysql, databaseName, "flyway_schema_history");
         }
@@ -66,7 +78,7 @@ class FlywaySchemaGovernanceTest {
             var migrateResult = flyway.migrate();
 
             assertTrue(baselineResult.successfullyBaselined);
-            assertEquals(8, migrateResult.migrationsExecuted);
+            assertEquals(15, migrateResult.migrationsExecuted);
             assertHistoryType(mysql, databaseName, "1", "BASELINE");
             assertTableExists(mysql, databaseName, "slop_patterns");
             assertTableExists(mysql, databaseName, "workspace_layouts");
@@ -94,7 +106,7 @@ class FlywaySchemaGovernanceTest {
             flyway.baseline();
             var migrateResult = flyway.migrate();
 
-            assertEquals(8, migrateResult.migrationsExecuted);
+            assertEquals(15, migrateResult.migrationsExecuted);
             assertHistoryType(mysql, databaseName, "1", "BASELINE");
             assertV2PersistenceTablesExist(mysql, databaseName);
             assertTableExists(mysql, databaseName, "project_credit_accounts");
@@ -127,7 +139,7 @@ class FlywaySchemaGovernanceTest {
             flyway.baseline();
             var migrateResult = flyway.migrate();
 
-            assertEquals(8, migrateResult.migrationsExecuted);
+            assertEquals(15, migrateResult.migrationsExecuted);
             for (String column : List.of(
                     "char_start", "char_end", "quote", "module", "pattern_id", "issue_type",
                     "evidence_level", "alternative_explanations_json", "repair_hint")) {
@@ -187,7 +199,7 @@ class FlywaySchemaGovernanceTest {
 
             var result = Flyway.configure().dataSource(databaseUrl, mysql.getUsername(), mysql.getPassword())
                     .locations("classpath:db/migration").load().migrate();
-            assertEquals(1, result.migrationsExecuted);
+            assertEquals(8, result.migrationsExecuted);
 
             try (Connection connection = DriverManager.getConnection(databaseUrl, mysql.getUsername(), mysql.getPassword());
                  Statement statement = connection.createStatement()) {
@@ -201,6 +213,149 @@ class FlywaySchemaGovernanceTest {
         }
     }
 
+    @Test
+    void backfillsManuscriptSectionsFromLegacySectionsJson() throws Exception {
+        try (MySQLContainer<?> mysql = new MySQLContainer<>(MYSQL_IMAGE)) {
+            mysql.start();
+            String databaseName = mysql.getDatabaseName();
+            String databaseUrl = databaseUrl(mysql, databaseName);
+
+            Flyway.configure().dataSource(databaseUrl, mysql.getUsername(), mysql.getPassword())
+                    .locations("classpath:db/migration").target("9").load().migrate();
+
+            try (Connection connection = DriverManager.getConnection(databaseUrl, mysql.getUsername(), mysql.getPassword());
+                 Statement statement = connection.createStatement()) {
+                insertStoryTreeWithQualityIssues(statement);
+                statement.execute("UPDATE manuscripts SET sections_json='{\"scene-1\":\"<p>雨夜</p>\",\"scene-2\":\"<p>铜扣</p>\"}' WHERE id=UNHEX('05050505050505050505050505050505')");
+                statement.execute("INSERT INTO manuscripts (id,outline_id,title,sections_json) VALUES (UNHEX('0C0C0C0C0C0C0C0C0C0C0C0C0C0C0C0C'),UNHEX('04040404040404040404040404040404'),'broken','not-json')");
+                statement.execute("INSERT INTO manuscripts (id,outline_id,title,sections_json) VALUES (UNHEX('0F0F0F0F0F0F0F0F0F0F0F0F0F0F0F0F'),UNHEX('04040404040404040404040404040404'),'mixed',"
+                        + "'{\"scene-3\":42,\"scene-4\":{\"draft\":true},\"scene-5\":null}')");
+            }
+
+            var result = Flyway.configure().dataSource(databaseUrl, mysql.getUsername(), mysql.getPassword())
+                    .locations("classpath:db/migration").load().migrate();
+            assertEquals(7, result.migrationsExecuted);
+            assertRowCount(mysql, databaseName, "manuscript_sections", 5);
+
+            try (Connection connection = DriverManager.getConnection(databaseUrl, mysql.getUsername(), mysql.getPassword());
+                 Statement statement = connection.createStatement()) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT content FROM manuscript_sections WHERE scene_id='scene-2'")) {
+                    assertTrue(resultSet.next());
+                    assertEquals("<p>铜扣</p>", resultSet.getString(1));
+                }
+                // Non-string values are kept as their JSON text rather than dropped.
+                try (ResultSet resultSet = statement.executeQuery("SELECT scene_id, content FROM manuscript_sections "
+                        + "WHERE manuscript_id=UNHEX('0F0F0F0F0F0F0F0F0F0F0F0F0F0F0F0F') ORDER BY scene_id")) {
+                    assertTrue(resultSet.next());
+                    assertEquals("42", resultSet.getString(2));
+                    assertTrue(resultSet.next());
+                    assertEquals("{\"draft\": true}", resultSet.getString(2));
+                    assertTrue(resultSet.next());
+                    assertEquals("scene-5", resultSet.getString(1));
+                    assertEquals(null, resultSet.getString(2));
+                }
+                try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM manuscripts WHERE sections_json IS NOT NULL")) {
+                    assertTrue(resultSet.next());
+                    assertEquals(1, resultSet.getInt(1));
+                }
+                statement.execute("DELETE FROM stories WHERE id=UNHEX('02020202020202020202020202020202')");
+            }
+            assertRowCount(mysql, databaseName, "manuscript_sections", 0);
+        }
+    }
+
+    @Test
+    void indexesChapterAndSceneIdsOfExistingOutlines() throws Exception {
+        try (MySQLContainer<?> mysql = new MySQLContainer<>(MYSQL_IMAGE)) {
+            mysql.start();
+            String databaseName = mysql.getDatabaseName();
+            String databaseUrl = databaseUrl(mysql, databaseName);
+
+            Flyway.configure().dataSource(databaseUrl, mysql.getUsername(), mysql.getPassword())
+                    .locations("classpath:db/migration").target("10").load().migrate();
+
+            try (Connection connection = DriverManager.getConnection(databaseUrl, mysql.getUsername(), mysql.getPassword());
+                 Statement statement = connection.createStatement()) {
+                insertStoryTreeWithQualityIssues(statement);
+                statement.execute("UPDATE outlines SET content_json='{\"chapters\":[{\"id\":\"11111111-1111-1111-1111-111111111111\",\"scenes\":["
+                        + "{\"id\":\"22222222-2222-2222-2222-222222222222\"},{\"id\":\"not-a-uuid\"}]}]}' "
+                        + "WHERE id=UNHEX('04040404040404040404040404040404')");
+            }
+
+            var result = Flyway.configure().dataSource(databaseUrl, mysql.getUsername(), mysql.getPassword())
+                    .locations("classpath:db/migration").load().migrate();
+            assertEquals(6, result.migrationsExecuted);
+            assertRowCount(mysql, databaseName, "outline_nodes", 2);
+
+            try (Connection connection = DriverManager.getConnection(databaseUrl, mysql.getUsername(), mysql.getPassword());
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT HEX(outline_id) FROM outline_nodes "
+                         + "WHERE node_type='SCENE' AND node_id=UNHEX('22222222222222222222222222222222')")) {
+                assertTrue(resultSet.next());
+                assertEquals("04040404040404040404040404040404", resultSet.getString(1));
+            }
+        }
+    }
+
+    @Test
+    void movesLegacyVersionSnapshotsIntoSharedSceneBlobs() throws Exception {
+        try (MySQLContainer<?> mysql = new MySQLContainer<>(MYSQL_IMAGE)) {
+            mysql.start();
+            String databaseName = mysql.getDatabaseName();
+            String databaseUrl = databaseUrl(mysql, databaseName);
+
+            Flyway.configure().dataSource(databaseUrl, mysql.getUsername(), mysql.getPassword())
+                    .locations("classpath:db/migration").target("13").load().migrate();
+
+            try (Connection connection = DriverManager.getConnection(databaseUrl, mysql.getUsername(), mysql.getPassword());
+                 Statement statement = connection.createStatement()) {
+                insertStoryTreeWithQualityIssues(statement);
+                statement.execute("INSERT INTO manuscript_branches (id,manuscript_id,name,status,is_main) VALUES (UNHEX('0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D'),UNHEX('05050505050505050505050505050505'),'main','active',1)");
+                statement.execute("INSERT INTO manuscript_versions (id,manuscript_id,branch_id,version_number,snapshot_type,content_hash,sections_json,created_by) VALUES "
+                        + "(UNHEX('0E0E0E0E0E0E0E0E0E0E0E0E0E0E0E01'),UNHEX('05050505050505050505050505050505'),UNHEX('0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D'),1,'auto','h1','{\"scene-1\":\"<p>雨夜</p>\",\"scene-2\":\"<p>铜扣</p>\"}',UNHEX('01010101010101010101010101010101')),"
+                        + "(UNHEX('0E0E0E0E0E0E0E0E0E0E0E0E0E0E0E02'),UNHEX('05050505050505050505050505050505'),UNHEX('0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D'),2,'auto','h2','{\"scene-1\":\"<p>雨夜</p>\",\"scene-2\":\"<p>铜扣落地</p>\"}',UNHEX('01010101010101010101010101010101')),"
+                        + "(UNHEX('0E0E0E0E0E0E0E0E0E0E0E0E0E0E0E03'),UNHEX('05050505050505050505050505050505'),UNHEX('0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D'),3,'auto','h3','not-json',UNHEX('01010101010101010101010101010101')),"
+                        + "(UNHEX('0E0E0E0E0E0E0E0E0E0E0E0E0E0E0E04'),UNHEX('05050505050505050505050505050505'),UNHEX('0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D'),4,'auto','h4','{\"scene-1\":\"<p>雨夜</p>\",\"scene-3\":7}',UNHEX('01010101010101010101010101010101')),"
+                        + "(UNHEX('0E0E0E0E0E0E0E0E0E0E0E0E0E0E0E05'),UNHEX('05050505050505050505050505050505'),UNHEX('0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D0D'),5,'auto','h5','{\"scene-3\":7,\"scene-4\":null}',UNHEX('01010101010101010101010101010101'))");
+            }
+
+            var result = Flyway.configure().dataSource(databaseUrl, mysql.getUsername(), mysql.getPassword())
+                    .locations("classpath:db/migration").load().migrate();
+            assertEquals(3, result.migrationsExecuted);
+            assertRowCount(mysql, databaseName, "manuscript_version_scenes", 7);
+            // scene-1 is unchanged across versions and the numeric scene-3 is shared, so each is stored once.
+            assertRowCount(mysql, databaseName, "manuscript_version_blobs", 4);
+
+            try (Connection connection = DriverManager.getConnection(databaseUrl, mysql.getUsername(), mysql.getPassword());
+                 Statement statement = connection.createStatement()) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT b.content FROM manuscript_version_scenes s "
+                        + "JOIN manuscript_version_blobs b ON b.id = s.blob_id "
+                        + "WHERE s.version_id = UNHEX('0E0E0E0E0E0E0E0E0E0E0E0E0E0E0E02') AND s.scene_id = 'scene-2'")) {
+                    assertTrue(resultSet.next());
+                    assertEquals("<p>铜扣落地</p>", resultSet.getString(1));
+                }
+                try (ResultSet resultSet = statement.executeQuery("SELECT b.content FROM manuscript_version_scenes s "
+                        + "JOIN manuscript_version_blobs b ON b.id = s.blob_id "
+                        + "WHERE s.version_id = UNHEX('0E0E0E0E0E0E0E0E0E0E0E0E0E0E0E04') AND s.scene_id = 'scene-3'")) {
+                    assertTrue(resultSet.next());
+                    assertEquals("7", resultSet.getString(1));
+                }
+                // The malformed snapshot and the one with a null scene keep their sections_json.
+                try (ResultSet resultSet = statement.executeQuery("SELECT version_number FROM manuscript_versions "
+                        + "WHERE sections_json IS NOT NULL ORDER BY version_number")) {
+                    assertTrue(resultSet.next());
+                    assertEquals(3, resultSet.getInt(1));
+                    assertTrue(resultSet.next());
+                    assertEquals(5, resultSet.getInt(1));
+                    assertFalse(resultSet.next());
+                }
+                statement.execute("DELETE FROM stories WHERE id=UNHEX('02020202020202020202020202020202')");
+            }
+            assertRowCount(mysql, databaseName, "manuscript_version_scenes", 0);
+            assertRowCount(mysql, databaseName, "manuscript_version_blobs", 0);
+        }
+    }
+
     private static void insertStoryTreeWithQualityIssues(Statement statement) throws Exception {
         statement.execute("INSERT INTO users (id,banned,credits,email,password_hash,username) VALUES (UNHEX('01010101010101010101010101010101'),0,0,'cascade@test','x','cascade-user')");
         statement.execute("INSERT INTO stories (id,user_id,title) VALUES (UNHEX('02020202020202020202020202020202'),UNHEX('01010101010101010101010101010101'),'cascade')");
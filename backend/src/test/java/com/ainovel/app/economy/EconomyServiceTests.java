@@ -22,6 +22,10 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -29,6 +33,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -51,6 +56,7 @@ class EconomyServiceTests {
     private RedeemCodeUsageRepository usageRepository;
 
     private EconomyService economyService;
+    private final AtomicLong clockNanos = new AtomicLong();
 
     @BeforeEach
     void setUp() {
@@ -59,6 +65,8 @@ class EconomyServiceTests {
         ReflectionTestUtils.setField(economyService, "ledgerRepository", ledgerRepository);
         ReflectionTestUtils.setField(economyService, "redeemCodeRepository", redeemCodeRepository);
         ReflectionTestUtils.setField(economyService, "redeemCodeUsageRepository", usageRepository);
+        ReflectionTestUtils.setField(economyService, "publicBalanceRefreshExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(economyService, "nanoClock", (LongSupplier) clockNanos::get);
     }
 
     @Test
@@ -80,6 +88,61 @@ class EconomyServiceTests {
         assertEquals(150L, result.totalCredits());
     }
 
+    @Test
+    void currentBalance_shouldServeCachedPublicBalanceAndRefreshItOnceStale() {
+        User user = user();
+        when(accountRepository.findByUser(user)).thenReturn(Optional.of(account(user, 120L)));
+        when(billingGrpcClient.publicBalance(42L)).thenReturn(30L, 45L);
+
+        assertEquals(30L, economyService.currentBalance(user).publicCredits());
+        advanceMillis(2_000);
+        EconomyService.BalanceSnapshot cached = economyService.currentBalance(user);
+        assertEquals(30L, cached.publicCredits());
+        assertEquals(2_000L, cached.publicCreditsAgeMs());
+        verify(billingGrpcClient, times(1)).publicBalance(42L);
+
+        advanceMillis(8_000);
+        EconomyService.BalanceSnapshot stale = economyService.currentBalance(user);
+        assertEquals(30L, stale.publicCredits());
+        assertEquals(10_000L, stale.publicCreditsAgeMs());
+        EconomyService.BalanceSnapshot refreshed = economyService.currentBalance(user);
+        assertEquals(45L, refreshed.publicCredits());
+        assertEquals(0L, refreshed.publicCreditsAgeMs());
+        verify(billingGrpcClient, times(2)).publicBalance(42L);
+    }
+
+    @Test
+    void currentBalance_shouldReloadSynchronouslyPastStalenessBound() {
+        User user = user();
+        when(accountRepository.findByUser(user)).thenReturn(Optional.of(account(user, 120L)));
+        when(billingGrpcClient.publicBalance(42L)).thenReturn(30L, 60L);
+
+        economyService.currentBalance(user);
+        advanceMillis(61_000);
+        EconomyService.BalanceSnapshot result = economyService.currentBalance(user);
+
+        assertEquals(60L, result.publicCredits());
+        assertEquals(180L, result.totalCredits());
+        assertEquals(0L, result.publicCreditsAgeMs());
+    }
+
+    @Test
+    void chargeAiUsage_shouldNotTriggerBillingBalanceReads() {
+        User user = user();
+        ProjectCreditAccount account = account(user, 10L);
+        when(accountRepository.findForUpdateByUserId(user.getId())).thenReturn(Optional.of(account));
+        when(accountRepository.findByUser(user)).thenReturn(Optional.of(account));
+        when(billingGrpcClient.publicBalance(42L)).thenReturn(30L);
+
+        for (int i = 0; i < 5; i++) {
+            economyService.chargeAiUsage(user, 1L, 1L, "ai-" + i);
+            EconomyService.BalanceSnapshot balance = economyService.currentBalance(user);
+            assertEquals(10L - (i + 1), balance.projectCredits());
+            assertEquals(30L, balance.publicCredits());
+        }
+        verify(billingGrpcClient, times(1)).publicBalance(42L);
+    }
+
     @Test
     void chargeAiUsage_shouldDebitLocalProjectAccountWithoutPayServiceUsageDeduction() {
         User user = user();
@@ -113,6 +176,8 @@ class EconomyServiceTests {
         assertEquals(130L, result.projectAfter());
         assertEquals(80L, result.publicBefore());
         assertEquals(50L, result.publicAfter());
+        assertEquals(50L, economyService.currentBalance(user).publicCredits());
+        verify(billingGrpcClient, times(1)).publicBalance(42L);
     }
 
     @Test
@@ -144,6 +209,10 @@ class EconomyServiceTests {
         return user;
     }
 
+    private void advanceMillis(long millis) {
+        clockNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
     private ProjectCreditAccount account(User user, long balance) {
         ProjectCreditAccount account = new ProjectCreditAccount();
         account.setUser(user);
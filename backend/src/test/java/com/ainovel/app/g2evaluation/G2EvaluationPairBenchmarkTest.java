@@ -0,0 +1,65 @@
+package com.ainovel.app.g2evaluation;
+
+import com.ainovel.app.config.AdmittingTaskExecutor;
+import com.ainovel.app.manuscript.SceneGenerationService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * G2 pair samples per second at AI call budgets of 2 to 16, on the stub gateway of
+ * {@link G2EvaluationPairConcurrencyTest}. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class G2EvaluationPairBenchmarkTest {
+
+    @Test
+    void samplesPerSecondScaleWithTheAiCallBudget(TestReporter reporter) throws Exception {
+        int samples = 24;
+        long latencyMs = 50;
+        double previous = 0;
+        for (int budget : new int[]{2, 4, 8, 16}) {
+            G2EvaluationPairConcurrencyTest fixture = new G2EvaluationPairConcurrencyTest();
+            SceneGenerationService service = fixture.service(latencyMs);
+            CountDownLatch done = new CountDownLatch(samples);
+            List<Throwable> failures = new ArrayList<>();
+
+            long started = System.nanoTime();
+            try (AdmittingTaskExecutor executor = new G2EvaluationAsyncConfig().g2EvaluationExecutor(budget, samples, 1_000)) {
+                for (int i = 0; i < samples; i++) {
+                    executor.execute(() -> {
+                        try {
+                            service.generateEvaluationPair(fixture.manuscript, fixture.sceneId, UUID.randomUUID());
+                        } catch (RuntimeException ex) {
+                            synchronized (failures) {
+                                failures.add(ex);
+                            }
+                        } finally {
+                            done.countDown();
+                        }
+                    });
+                }
+                assertTrue(done.await(60, TimeUnit.SECONDS));
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            double perSecond = samples / seconds;
+            int peak = fixture.peakInFlight.get();
+
+            reporter.publishEntry("g2 pairs budget " + budget, String.format(
+                    "%d samples at once, %d samples in %.2f s = %.1f samples/s, peak calls %d",
+                    G2EvaluationAsyncConfig.samplesFor(budget), samples, seconds, perSecond, peak));
+            assertTrue(failures.isEmpty(), failures.toString());
+            assertTrue(peak <= budget, "peak calls " + peak + " over budget " + budget);
+            assertTrue(perSecond > previous * 1.5, "throughput did not grow with the budget: " + perSecond);
+            previous = perSecond;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.ainovel.app.g2evaluation;
+
+import com.ainovel.app.ai.AiService;
+import com.ainovel.app.ai.dto.AiChatRequest;
+import com.ainovel.app.ai.dto.AiChatResponse;
+import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
+import com.ainovel.app.manuscript.SceneGenerationPromptBuilder;
+import com.ainovel.app.manuscript.SceneGenerationService;
+import com.ainovel.app.manuscript.ScenePlotQualitySupport;
+import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
+import com.ainovel.app.material.MaterialRetrievalService;
+import com.ainovel.app.metrics.GenerationContextMetrics;
+import com.ainovel.app.metrics.StageLatencyMetrics;
+import com.ainovel.app.prompt.AssembledPrompt;
+import com.ainovel.app.prompt.PromptAssemblyService;
+import com.ainovel.app.quality.SlopPatternSamplingService;
+import com.ainovel.app.quality.SlopQualityGate;
+import com.ainovel.app.quality.SlopQualityResult;
+import com.ainovel.app.quality.SlopQualityStatus;
+import com.ainovel.app.quality.SlopSeverity;
+import com.ainovel.app.story.ParsedOutlineCache;
+import com.ainovel.app.story.dto.OutlineSaveRequest;
+import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.Story;
+import com.ainovel.app.story.repo.CharacterCardRepository;
+import com.ainovel.app.style.StyleContextProvider;
+import com.ainovel.app.user.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Fast/crafted pair generation against a stub gateway whose calls take {@code latencyMs}. Throughput figures
+ * come from {@link G2EvaluationPairBenchmarkTest}, which reuses this fixture.
+ */
+class G2EvaluationPairConcurrencyTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonColumnCodec jsonColumnCodec = new JsonColumnCodec(objectMapper);
+    private final CharacterCardRepository characterCardRepository = mock(CharacterCardRepository.class);
+    private final ManuscriptSectionRepository sectionRepository = mock(ManuscriptSectionRepository.class);
+    private final AiService aiService = mock(AiService.class);
+    private final SlopQualityGate slopQualityGate = mock(SlopQualityGate.class);
+    private final MaterialRetrievalService materialRetrievalService = mock(MaterialRetrievalService.class);
+    private final StyleContextProvider styleContextProvider = mock(StyleContextProvider.class);
+    private final GenerationContextMetrics generationContextMetrics = new GenerationContextMetrics();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private final User owner = user();
+    private final UUID previousSceneId = UUID.randomUUID();
+    final UUID sceneId = UUID.randomUUID();
+    final Manuscript manuscript = manuscript();
+
+    @Test
+    void generatesBothCandidatesAtOnceFromOnePlan() {
+        SceneGenerationService service = service(100);
+
+        long started = System.nanoTime();
+        SceneGenerationService.EvaluationPair pair = service.generateEvaluationPair(manuscript, sceneId, UUID.randomUUID());
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertEquals("稿".repeat(2900), pair.fastText());
+        assertEquals("稿".repeat(2900), pair.craftedText());
+        assertEquals(2, peakInFlight.get());
+        // Draft + gate per candidate: two call rounds for the pair instead of four.
+        assertTrue(elapsedMs < 350, "pair took " + elapsedMs + " ms");
+        verify(characterCardRepository, times(1)).findByStory(any());
+        // The plan reads the previous scene's row once; the rest of the book is never loaded.
+        verify(sectionRepository, times(1)).findByManuscriptIdAndSceneId(manuscript.getId(), previousSceneId.toString());
+        verify(sectionRepository, never()).findByManuscriptId(any());
+        verify(materialRetrievalService, times(1)).search(eq(owner), any());
+        verify(styleContextProvider, times(1)).buildSlopContext(any());
+        assertEquals(new GenerationContextMetrics.Snapshot(1, 1), generationContextMetrics.snapshot());
+    }
+
+    @Test
+    void failsWithTheFirstFailingCandidateAndCancelsTheOther() {
+        SceneGenerationService service = service(0);
+        when(aiService.chat(eq(owner), any(), any())).thenAnswer(invocation -> {
+            if (invocation.<com.ainovel.app.ai.AiUsageContext>getArgument(2).operation().contains("crafted")) {
+                throw new IllegalStateException("ai-service unavailable");
+            }
+            Thread.sleep(5_000);
+            return new AiChatResponse("assistant", "文".repeat(2900), null, 0);
+        });
+
+        long started = System.nanoTime();
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> service.generateEvaluationPair(manuscript, sceneId, UUID.randomUUID()));
+
+        assertEquals("ai-service unavailable", ex.getMessage());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 2_000);
+    }
+
+    SceneGenerationService service(long latencyMs) {
+        PromptAssemblyService promptAssemblyService = mock(PromptAssemblyService.class);
+        AssembledPrompt prompt = new AssembledPrompt(List.of(new AiChatRequest.Message("user", "生成本场景")), 128000);
+        when(promptAssemblyService.assembleSceneDraft(any())).thenReturn(prompt);
+        when(promptAssemblyService.assembleWithCreativeConstraints(any(), any(), anyInt())).thenReturn(prompt);
+        when(materialRetrievalService.search(eq(owner), any())).thenReturn(List.of());
+        SlopPatternSamplingService slopPatternSamplingService = mock(SlopPatternSamplingService.class);
+        when(slopPatternSamplingService.sample(any())).thenReturn(List.of("不要写套话"));
+        when(styleContextProvider.buildSlopContext(any())).thenReturn("冷峻");
+        when(characterCardRepository.findByStory(any())).thenReturn(List.of());
+
+        when(aiService.chat(eq(owner), any(), any())).thenAnswer(invocation -> {
+            stubCall(latencyMs);
+            return new AiChatResponse("assistant", "文".repeat(2900), null, 0);
+        });
+        when(slopQualityGate.evaluateAndRepair(eq(owner), any(), any())).thenAnswer(invocation -> {
+            stubCall(latencyMs);
+            return new SlopQualityResult(UUID.randomUUID(), "稿".repeat(2900), 12, SlopSeverity.LOW, false, 0,
+                    SlopQualityStatus.ACCEPTED, List.of());
+        });
+
+        SceneGenerationPromptBuilder promptBuilder = new SceneGenerationPromptBuilder();
+        ReflectionTestUtils.setField(promptBuilder, "promptAssemblyService", promptAssemblyService);
+        ReflectionTestUtils.setField(promptBuilder, "materialRetrievalService", materialRetrievalService);
+        ReflectionTestUtils.setField(promptBuilder, "slopPatternSamplingService", slopPatternSamplingService);
+        ScenePlotQualitySupport plotQualitySupport = new ScenePlotQualitySupport();
+        ReflectionTestUtils.setField(plotQualitySupport, "styleContextProvider", styleContextProvider);
+
+        SceneGenerationService service = new SceneGenerationService();
+        ReflectionTestUtils.setField(service, "characterCardRepository", characterCardRepository);
+        ReflectionTestUtils.setField(service, "aiService", aiService);
+        ReflectionTestUtils.setField(service, "slopQualityGate", slopQualityGate);
+        ReflectionTestUtils.setField(service, "sceneGenerationPromptBuilder", promptBuilder);
+        ReflectionTestUtils.setField(service, "scenePlotQualitySupport", plotQualitySupport);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "sectionStore", new ManuscriptSectionStore(sectionRepository, jsonColumnCodec));
+        ReflectionTestUtils.setField(service, "parsedOutlineCache", new ParsedOutlineCache(objectMapper, 16));
+        ReflectionTestUtils.setField(service, "stageLatencyMetrics", new StageLatencyMetrics());
+        ReflectionTestUtils.setField(service, "generationContextMetrics", generationContextMetrics);
+        return service;
+    }
+
+    private void stubCall(long latencyMs) throws InterruptedException {
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(latencyMs);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private Manuscript manuscript() {
+        Story story = new Story();
+        story.setId(UUID.randomUUID());
+        story.setUser(owner);
+        story.setTitle("雨城疑案");
+        story.setGenre("悬疑");
+        story.setTone("冷峻");
+
+        Outline outline = new Outline();
+        outline.setId(UUID.randomUUID());
+        outline.setStory(story);
+        outline.setTitle("案件大纲");
+        outline.setContentJson(jsonColumnCodec.write(Map.of("chapters", List.of(new OutlineSaveRequest.ChapterPayload(
+                UUID.randomUUID(), "第一章", "旧案重启", 1, Map.of(),
+                List.of(new OutlineSaveRequest.ScenePayload(previousSceneId, "线索浮现", "发现铜扣", null, 1, Map.of()),
+                        new OutlineSaveRequest.ScenePayload(sceneId, "追入雨巷", "主角追查误导线索", null, 2, Map.of()))
+        ))), "{}"));
+
+        Manuscript manuscript = new Manuscript();
+        manuscript.setId(UUID.randomUUID());
+        manuscript.setOutline(outline);
+        manuscript.setTitle("第一稿");
+        manuscript.setSectionsJson("{}");
+        return manuscript;
+    }
+
+    private User user() {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername("g2_author");
+        user.setRemoteUid(10004L);
+        return user;
+    }
+}
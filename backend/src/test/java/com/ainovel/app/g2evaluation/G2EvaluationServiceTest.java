@@ -14,7 +14,10 @@ import com.ainovel.app.g2evaluation.repo.G2EvaluationExperimentRepository;
 import com.ainovel.app.g2evaluation.repo.G2EvaluationInviteRepository;
 import com.ainovel.app.g2evaluation.repo.G2EvaluationSampleRepository;
 import com.ainovel.app.g2evaluation.repo.G2EvaluationVoteRepository;
+import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
+import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.Story;
 import com.ainovel.app.user.User;
 import com.ainovel.app.user.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -22,12 +25,16 @@ import org.mockito.ArgumentCaptor;
 
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -87,6 +94,33 @@ class G2EvaluationServiceTest {
         assertFalse(response.gatePassed());
     }
 
+    @Test
+    void sampleFailsWhenTheGenerationQueueIsFull() {
+        Fixtures fixtures = new Fixtures(command -> {
+            throw new RejectedExecutionException("full");
+        });
+        fixtures.experiment.setStatus(G2EvaluationStatus.COLLECTING);
+        UUID manuscriptId = UUID.randomUUID();
+        when(fixtures.manuscriptRepository.findWithStoryById(manuscriptId))
+                .thenReturn(Optional.of(manuscript(manuscriptId, fixtures.author)));
+
+        G2EvaluationDtos.SampleSubmissionResponse response = fixtures.service.submitSample(
+                fixtures.author, fixtures.experimentId, new G2EvaluationDtos.SubmitSampleRequest(manuscriptId, UUID.randomUUID()));
+
+        verify(fixtures.worker).reject(eq(response.sampleId()), contains("队列已满"));
+    }
+
+    private static Manuscript manuscript(UUID manuscriptId, User author) {
+        Story story = new Story();
+        story.setUser(author);
+        Outline outline = new Outline();
+        outline.setStory(story);
+        Manuscript manuscript = new Manuscript();
+        manuscript.setId(manuscriptId);
+        manuscript.setOutline(outline);
+        return manuscript;
+    }
+
     private static class Fixtures {
         private final UUID experimentId = UUID.randomUUID();
         private final UUID sampleId = UUID.randomUUID();
@@ -104,6 +138,10 @@ class G2EvaluationServiceTest {
         private final G2EvaluationService service;
 
         private Fixtures() {
+            this(Runnable::run);
+        }
+
+        private Fixtures(Executor executor) {
             experiment.setTitle("G2 第一轮");
             experiment.setStatus(G2EvaluationStatus.REVIEWING);
             experiment.setCreatedBy(user("admin"));
@@ -122,7 +160,7 @@ class G2EvaluationServiceTest {
             when(voteRepository.existsBySampleAndReviewer(readySample, reviewer)).thenReturn(false);
             service = new G2EvaluationService(
                     experimentRepository, inviteRepository, sampleRepository, voteRepository,
-                    userRepository, manuscriptRepository, worker, Runnable::run
+                    userRepository, manuscriptRepository, worker, executor
             );
         }
 
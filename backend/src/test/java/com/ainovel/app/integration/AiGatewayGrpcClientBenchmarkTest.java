@@ -0,0 +1,66 @@
+package com.ainovel.app.integration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 500 concurrent streaming generations, each a blocking call on its own virtual thread, against the
+ * one-second gateway of {@link AiGatewayGrpcClientConcurrencyTest}. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class AiGatewayGrpcClientBenchmarkTest {
+    private final AiGatewayGrpcClientConcurrencyTest fixture = new AiGatewayGrpcClientConcurrencyTest();
+
+    @AfterEach
+    void tearDown() {
+        fixture.tearDown();
+    }
+
+    @Test
+    void runsFiveHundredConcurrentStreamingGenerationsWithoutGrowingPlatformThreads(TestReporter reporter) throws Exception {
+        int generations = 500;
+        fixture.start(generations, 1_000);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baseline = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        AtomicLong deltas = new AtomicLong();
+
+        long started = System.nanoTime();
+        List<Future<AiGatewayGrpcClient.ChatResult>> calls = new ArrayList<>(generations);
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < generations; i++) {
+                long userId = i + 1L;
+                calls.add(callers.submit(() -> fixture.client.chatCompletionsStream(userId, "model",
+                        AiGatewayGrpcClientConcurrencyTest.MESSAGES, (outputTokens, estimated) -> deltas.incrementAndGet())));
+            }
+            for (Future<AiGatewayGrpcClient.ChatResult> call : calls) {
+                call.get(60, TimeUnit.SECONDS);
+            }
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        int platformThreadGrowth = threads.getPeakThreadCount() - baseline;
+        int peak = fixture.gateway.peak.get();
+
+        reporter.publishEntry("ai gateway load", String.format("%d streaming generations, peak in flight %d, %d ms, platform threads +%d",
+                generations, peak, elapsedMs, platformThreadGrowth));
+        assertEquals(generations, deltas.get());
+        assertEquals(generations, peak);
+        assertTrue(elapsedMs < 10_000, "generations were serialized: " + elapsedMs + " ms");
+        assertTrue(platformThreadGrowth < 64, "platform threads grew by " + platformThreadGrowth);
+    }
+}
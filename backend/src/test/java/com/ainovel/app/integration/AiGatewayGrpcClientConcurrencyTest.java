@@ -0,0 +1,166 @@
+package com.ainovel.app.integration;
+
+import com.ainovel.app.ai.dto.AiChatRequest;
+import fireflychat.ai.v1.AiGatewayServiceGrpc;
+import fireflychat.ai.v1.ChatCompletionsRequest;
+import fireflychat.ai.v1.ChatCompletionsResponse;
+import fireflychat.ai.v1.ChatCompletionsStreamEvent;
+import fireflychat.ai.v1.ChatMessage;
+import fireflychat.ai.v1.ChatStreamEventType;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link AiGatewayGrpcClient} against an in-process gateway that answers after a fixed latency. Load figures
+ * come from {@link AiGatewayGrpcClientBenchmarkTest}, which reuses this fixture.
+ */
+class AiGatewayGrpcClientConcurrencyTest {
+    static final List<AiChatRequest.Message> MESSAGES = List.of(new AiChatRequest.Message("user", "写一段开场"));
+
+    final FakeGateway gateway = new FakeGateway();
+    private Server server;
+    AiGatewayGrpcClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) client.shutdown();
+        if (server != null) server.shutdownNow();
+        gateway.timer.shutdownNow();
+    }
+
+    @Test
+    void boundsCallsInFlightByConfiguredLimitRatherThanCallerThreads() throws Exception {
+        start(4, 20);
+
+        List<Future<AiGatewayGrpcClient.ChatResult>> calls = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 40; i++) {
+                calls.add(callers.submit(() -> client.chatCompletions(7L, "model", MESSAGES)));
+            }
+            for (Future<AiGatewayGrpcClient.ChatResult> call : calls) {
+                call.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        assertEquals("片段", calls.getFirst().resultNow().content());
+        assertEquals(40, gateway.calls.get());
+        assertTrue(gateway.peak.get() <= 4, "peak in flight " + gateway.peak.get());
+    }
+
+    @Test
+    void earlyStopBillsThePromptFromThePreCallEstimate() throws Exception {
+        start(4, 0);
+        long[] billed = new long[2];
+
+        AiGatewayGrpcClient.ChatResult result = client.chatCompletionsStream(7L, "model", MESSAGES,
+                new AiGatewayGrpcClient.StreamProgressListener() {
+                    @Override public void onDelta(long outputTokens, boolean estimated) {
+                    }
+                    @Override public boolean stopRequested() {
+                        return true;
+                    }
+                    @Override public void onCompleted(long completionTokens, long promptTokens, long cacheTokens) {
+                        billed[0] = completionTokens;
+                        billed[1] = promptTokens;
+                    }
+                });
+
+        // STARTED carries no prompt usage: four framing tokens plus one per Han character of "写一段开场".
+        assertEquals(9, result.promptTokens());
+        assertEquals(2, result.completionTokens());
+        assertEquals(2, billed[0]);
+        assertEquals(9, billed[1]);
+    }
+
+    @Test
+    void promptEstimateCountsHanCharsAndQuartersOfOtherText() {
+        ChatCompletionsRequest request = ChatCompletionsRequest.newBuilder()
+                .addMessages(ChatMessage.newBuilder().setRole("system").setContent("You are a novelist.").build())
+                .addMessages(ChatMessage.newBuilder().setRole("user").setContent("续写：雨夜").build())
+                .build();
+
+        // "Youareanovelist." is 16 characters -> 4 tokens; "续写：雨夜" is 4 Han plus one mark -> 5.
+        assertEquals(4 + 4 + 4 + 4 + 1, AiGatewayGrpcClient.estimatePromptTokens(request));
+    }
+
+    void start(int maxInFlight, long latencyMs) throws Exception {
+        gateway.latencyMs = latencyMs;
+        String name = "fake-ai-" + UUID.randomUUID();
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(gateway).build().start();
+
+        ExternalServiceProperties properties = new ExternalServiceProperties();
+        properties.setTimeoutMs(30_000);
+        properties.setAiMaxInFlight(maxInFlight);
+        properties.getAiserviceGrpc().setAddress("static://fake-ai:9000");
+        properties.getSecurity().getAi().setHmacCaller("ainovel");
+        properties.getSecurity().getAi().setHmacSecret("secret");
+        GrpcChannelFactory channelFactory = mock(GrpcChannelFactory.class);
+        when(channelFactory.create(anyString(), anyInt()))
+                .thenAnswer(invocation -> InProcessChannelBuilder.forName(name).directExecutor().build());
+        client = new AiGatewayGrpcClient(properties, channelFactory);
+    }
+
+    /** Answers after {@code latencyMs} from a two-thread timer, like a remote model that holds no server thread. */
+    static final class FakeGateway extends AiGatewayServiceGrpc.AiGatewayServiceImplBase {
+        private final ScheduledExecutorService timer = Executors.newScheduledThreadPool(2);
+        private final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile long latencyMs;
+
+        @Override
+        public void chatCompletions(ChatCompletionsRequest request, StreamObserver<ChatCompletionsResponse> responses) {
+            enter();
+            timer.schedule(() -> {
+                active.decrementAndGet();
+                responses.onNext(ChatCompletionsResponse.newBuilder()
+                        .setContent("片段").setModelKey("fake").setPromptTokens(10).setCompletionTokens(2).build());
+                responses.onCompleted();
+            }, latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void chatCompletionsStream(ChatCompletionsRequest request, StreamObserver<ChatCompletionsStreamEvent> events) {
+            enter();
+            String requestId = request.getRequestId();
+            events.onNext(ChatCompletionsStreamEvent.newBuilder().setRequestId(requestId).setSequence(1)
+                    .setEventType(ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_STARTED).setModelKey("fake").build());
+            timer.schedule(() -> {
+                active.decrementAndGet();
+                events.onNext(ChatCompletionsStreamEvent.newBuilder().setRequestId(requestId).setSequence(2)
+                        .setEventType(ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_CONTENT_DELTA)
+                        .setContentDelta("片段").setOutputTokensSoFar(2).setOutputTokensEstimated(true).build());
+                events.onNext(ChatCompletionsStreamEvent.newBuilder().setRequestId(requestId).setSequence(3)
+                        .setEventType(ChatStreamEventType.CHAT_STREAM_EVENT_TYPE_COMPLETED).setModelKey("fake")
+                        .setPromptTokens(10).setCompletionTokens(2).build());
+                events.onCompleted();
+            }, latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void enter() {
+            calls.incrementAndGet();
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ainovel.app.integration;
+
+import com.ainovel.app.integration.GrpcEndpointManagerTest.FakeClient;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link GrpcEndpointManager#getOrCreate} throughput from 64 threads, against the previous
+ * monitor-plus-parse per call. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class GrpcEndpointManagerBenchmarkTest {
+
+    @Test
+    void sixtyFourThreadsCallingStubShouldNotSerialize(TestReporter reporter) throws Exception {
+        ExternalServiceProperties.ServiceTarget target = new ExternalServiceProperties.ServiceTarget();
+        target.setAddress("static://aiservice.seekerhut.com:443");
+        GrpcChannelFactory channelFactory = mock(GrpcChannelFactory.class);
+        when(channelFactory.create(anyString(), anyInt()))
+                .thenAnswer(invocation -> InProcessChannelBuilder.forName("endpoint-benchmark").build());
+        GrpcEndpointManager<FakeClient> manager = new GrpcEndpointManager<>("aiservice-grpc",
+                () -> ConsulServiceResolver.parseAddress(target.getAddress()), channelFactory, 4, 5_000,
+                Runnable::run, System::nanoTime);
+        GrpcEndpointManager.ClientFactory<FakeClient> factory =
+                (endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel);
+        Object monitor = new Object();
+
+        int threads = 64;
+        int callsPerThread = 200_000;
+        try {
+            long lockFree = contention(threads, callsPerThread, () -> manager.getOrCreate(factory));
+            // Reference: the previous behaviour, one monitor plus an address parse per call.
+            long synchronizedParse = contention(threads, callsPerThread, () -> {
+                synchronized (monitor) {
+                    ConsulServiceResolver.parseAddress(target.getAddress());
+                    return manager.getOrCreate(factory);
+                }
+            });
+            long total = (long) threads * callsPerThread;
+            reporter.publishEntry("grpc endpoint stub()", String.format("%d threads x %d calls, lock-free %.1f M/s, synchronized %.1f M/s",
+                    threads, callsPerThread, total * 1_000.0 / lockFree, total * 1_000.0 / synchronizedParse));
+            verify(channelFactory, times(4)).create("aiservice.seekerhut.com", 443);
+        } finally {
+            manager.shutdown();
+        }
+    }
+
+    private static long contention(int threads, int callsPerThread, Supplier<FakeClient> call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < callsPerThread; i++) {
+                        if (call.get() == null) {
+                            throw new IllegalStateException("no client");
+                        }
+                    }
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+            return System.nanoTime() - started;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.ainovel.app.integration;
 
+import io.grpc.ConnectivityState;
 import io.grpc.ManagedChannel;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -20,7 +31,7 @@ class GrpcEndpointManagerTest {
         ManagedChannel channel = mock(ManagedChannel.class);
         when(channelFactory.create("payservice.seekerhut.com", 443)).thenReturn(channel);
 
-        GrpcEndpointManager<FakeClient> manager = new GrpcEndpointManager<>(target, "payservice-grpc", channelFactory);
+        GrpcEndpointManager<FakeClient> manager = manager(target, channelFactory, 1);
 
         FakeClient first = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
         FakeClient second = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
@@ -39,7 +50,7 @@ class GrpcEndpointManagerTest {
         when(channelFactory.create("payservice.seekerhut.com", 443)).thenReturn(firstChannel);
         when(channelFactory.create("payservice-backup.seekerhut.com", 8443)).thenReturn(secondChannel);
 
-        GrpcEndpointManager<FakeClient> manager = new GrpcEndpointManager<>(target, "payservice-grpc", channelFactory);
+        GrpcEndpointManager<FakeClient> manager = manager(target, channelFactory, 1);
 
         FakeClient first = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
         target.setAddress("static://payservice-backup.seekerhut.com:8443");
@@ -58,7 +69,7 @@ class GrpcEndpointManagerTest {
         ManagedChannel channel = mock(ManagedChannel.class);
         when(channelFactory.create("aiservice.seekerhut.com", 443)).thenReturn(channel);
 
-        GrpcEndpointManager<FakeClient> manager = new GrpcEndpointManager<>(target, "aiservice-grpc", channelFactory);
+        GrpcEndpointManager<FakeClient> manager = manager(target, channelFactory, 1);
 
         FakeClient client = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
         manager.shutdown();
@@ -67,13 +78,91 @@ class GrpcEndpointManagerTest {
         verify(channel).shutdownNow();
     }
 
-    private static final class FakeClient implements GrpcEndpointManager.ManagedClient {
+    @Test
+    void getOrCreateShouldRoundRobinAcrossPooledChannels() {
+        ExternalServiceProperties.ServiceTarget target = new ExternalServiceProperties.ServiceTarget();
+        target.setAddress("static://aiservice.seekerhut.com:443");
+        GrpcChannelFactory channelFactory = mock(GrpcChannelFactory.class);
+        ManagedChannel firstChannel = mock(ManagedChannel.class);
+        ManagedChannel secondChannel = mock(ManagedChannel.class);
+        when(channelFactory.create("aiservice.seekerhut.com", 443)).thenReturn(firstChannel, secondChannel);
+
+        GrpcEndpointManager<FakeClient> manager = manager(target, channelFactory, 2);
+
+        FakeClient first = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
+        FakeClient second = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
+        FakeClient third = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
+
+        assertNotSame(first, second);
+        assertSame(first, third);
+        verify(channelFactory, times(2)).create("aiservice.seekerhut.com", 443);
+    }
+
+    @Test
+    void getOrCreateShouldSkipFailingChannels() {
+        ExternalServiceProperties.ServiceTarget target = new ExternalServiceProperties.ServiceTarget();
+        target.setAddress("static://aiservice.seekerhut.com:443");
+        GrpcChannelFactory channelFactory = mock(GrpcChannelFactory.class);
+        ManagedChannel failingChannel = mock(ManagedChannel.class);
+        ManagedChannel readyChannel = mock(ManagedChannel.class);
+        when(failingChannel.getState(false)).thenReturn(ConnectivityState.TRANSIENT_FAILURE);
+        when(readyChannel.getState(false)).thenReturn(ConnectivityState.READY);
+        when(channelFactory.create("aiservice.seekerhut.com", 443)).thenReturn(failingChannel, readyChannel);
+
+        GrpcEndpointManager<FakeClient> manager = manager(target, channelFactory, 2);
+
+        for (int i = 0; i < 4; i++) {
+            FakeClient client = manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
+            assertSame(readyChannel, client.channel);
+        }
+    }
+
+    @Test
+    void endpointChangesShouldBePickedUpByTheBackgroundRefresh() {
+        ExternalServiceProperties.ServiceTarget target = new ExternalServiceProperties.ServiceTarget();
+        target.setAddress("static://payservice.seekerhut.com:443");
+        GrpcChannelFactory channelFactory = mock(GrpcChannelFactory.class);
+        when(channelFactory.create(anyString(), anyInt())).thenAnswer(invocation -> mock(ManagedChannel.class));
+        AtomicLong clock = new AtomicLong();
+        List<Runnable> refreshes = new ArrayList<>();
+
+        GrpcEndpointManager<FakeClient> manager = new GrpcEndpointManager<>("payservice-grpc",
+                () -> ConsulServiceResolver.parseAddress(target.getAddress()), channelFactory, 1, 1_000,
+                refreshes::add, clock::get);
+        Supplier<FakeClient> call = () -> manager.getOrCreate((endpoint, createdChannel) -> new FakeClient(endpoint.host(), endpoint.port(), createdChannel));
+
+        FakeClient first = call.get();
+        target.setAddress("static://payservice-backup.seekerhut.com:8443");
+        assertSame(first, call.get());
+        assertTrue(refreshes.isEmpty());
+
+        clock.set(TimeUnit.SECONDS.toNanos(1));
+        assertSame(first, call.get());
+        assertEquals(1, refreshes.size());
+        call.get();
+        assertEquals(1, refreshes.size(), "only one refresh may be in flight");
+
+        refreshes.getFirst().run();
+        FakeClient second = call.get();
+        assertEquals("payservice-backup.seekerhut.com", second.host);
+        assertTrue(first.closed);
+    }
+
+    private static GrpcEndpointManager<FakeClient> manager(ExternalServiceProperties.ServiceTarget target,
+                                                           GrpcChannelFactory channelFactory,
+                                                           int channelsPerEndpoint) {
+        // Refresh on every call, inline, so an address change is visible to the very next call.
+        return new GrpcEndpointManager<>("test-grpc", () -> ConsulServiceResolver.parseAddress(target.getAddress()),
+                channelFactory, channelsPerEndpoint, 0, Runnable::run, System::nanoTime);
+    }
+
+    static final class FakeClient implements GrpcEndpointManager.ManagedClient {
         private final String host;
         private final int port;
         private final ManagedChannel channel;
-        private boolean closed;
+        private volatile boolean closed;
 
-        private FakeClient(String host, int port, ManagedChannel channel) {
+        FakeClient(String host, int port, ManagedChannel channel) {
             this.host = host;
             this.port = port;
             this.channel = channel;
@@ -89,6 +178,11 @@ class GrpcEndpointManagerTest {
             return port;
         }
 
+        @Override
+        public ManagedChannel channel() {
+            return channel;
+        }
+
         @Override
         public void close() {
             closed = true;
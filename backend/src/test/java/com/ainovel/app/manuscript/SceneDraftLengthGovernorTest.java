@@ -0,0 +1,78 @@
+package com.ainovel.app.manuscript;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SceneDraftLengthGovernorTest {
+
+    @Test
+    void stopsPastTheToleranceAndCutsAtTheLastParagraphWithinTheLimit() {
+        SceneDraftLengthGovernor governor = new SceneDraftLengthGovernor(15, 25, 3);
+        StringBuilder streamed = new StringBuilder();
+        for (String delta : new String[]{"夜色", "落在城头。".repeat(2), "\n\n", "风声一阵紧过一阵，", "他握紧长刀。\n\n", "远处传来马蹄声"}) {
+            if (governor.stopRequested()) {
+                break;
+            }
+            streamed.append(delta);
+            governor.onContent(delta);
+        }
+
+        assertTrue(governor.stopRequested());
+        assertEquals(SceneDraftLengthGovernor.Outcome.TOO_LONG, governor.outcome());
+        assertEquals(30, governor.hanCount());
+        assertEquals("夜色落在城头。落在城头。\n\n风声一阵紧过一阵，他握紧长刀。\n", governor.cut(streamed.toString()));
+    }
+
+    @Test
+    void keepsTheWholeDraftWhenNoParagraphBoundaryReachesTheMinimum() {
+        SceneDraftLengthGovernor governor = new SceneDraftLengthGovernor(20, 30, 0);
+        String content = "开头。\n" + "雨".repeat(40);
+        governor.onContent(content);
+
+        assertEquals(SceneDraftLengthGovernor.Outcome.TOO_LONG, governor.outcome());
+        assertSame(content, governor.cut(content));
+    }
+
+    @Test
+    void stopsAShortDraftAsSoonAsItWritesAnEndMarker() {
+        SceneDraftLengthGovernor governor = new SceneDraftLengthGovernor(20, 30, 5);
+        governor.onContent("他推门而出。");
+        assertFalse(governor.stopRequested());
+        governor.onContent("（完）\n");
+
+        assertTrue(governor.stopRequested());
+        assertEquals(SceneDraftLengthGovernor.Outcome.TOO_SHORT, governor.outcome());
+    }
+
+    @Test
+    void leavesAShortDraftWithoutAnEndMarkerToTheFinalLengthCheck() {
+        SceneDraftLengthGovernor governor = new SceneDraftLengthGovernor(20, 30, 5);
+        governor.onContent("他推门而出。\n");
+        governor.onContent("门外只有风。");
+
+        assertFalse(governor.stopRequested());
+        assertEquals(SceneDraftLengthGovernor.Outcome.RUNNING, governor.outcome());
+    }
+
+    @Test
+    void countsSupplementaryHanSplitAcrossDeltasOnce() {
+        SceneDraftLengthGovernor governor = new SceneDraftLengthGovernor(1, 10, 0);
+        String rare = new String(Character.toChars(0x20000));
+        governor.onContent("甲" + rare.charAt(0));
+        governor.onContent(rare.charAt(1) + "乙");
+
+        assertEquals(3, governor.hanCount());
+    }
+
+    @Test
+    void leavesWrappedOutputAlone() {
+        SceneDraftLengthGovernor governor = new SceneDraftLengthGovernor(1, 3, 0);
+        governor.onContent("{\"content\": \"" + "字".repeat(10) + "\"}");
+
+        assertFalse(governor.stopRequested());
+    }
+}
@@ -43,16 +43,18 @@ class SceneGenerationPromptBuilderTest {
                 sceneId, "第一章", "旧案重启", 1, "雨夜门外", "发现铜扣", 2, List.of(), List.of());
         List<String> patterns = List.of("套路 A", "套路 B");
         AssembledPrompt expected = new AssembledPrompt(List.of(), 128000);
-        when(materialRetrievalService.search(eq(owner), any())).thenReturn(List.of());
         when(samplingService.sample(sceneId)).thenReturn(patterns);
         when(promptAssemblyService.assembleWithCreativeConstraints(any(), eq(patterns), eq(2))).thenReturn(expected);
 
-        AssembledPrompt actual = builder.build(
-                owner, story, scene, "角色设定", "前文", "", 0, 1, 2800, 3200, GenerationMode.CRAFTED);
+        SceneGenerationPlan plan = new SceneGenerationPlan(
+                null, story, owner, scene, "角色设定", "前文", "冷峻", List.of());
+
+        AssembledPrompt actual = builder.build(plan, "", 0, 1, 2800, 3200, GenerationMode.CRAFTED);
 
         assertSame(expected, actual);
         verify(samplingService).sample(sceneId);
         verify(promptAssemblyService).assembleWithCreativeConstraints(any(), eq(patterns), eq(2));
         verify(promptAssemblyService, never()).assembleSceneDraft(any());
+        verify(materialRetrievalService, never()).search(any(), any());
     }
 }
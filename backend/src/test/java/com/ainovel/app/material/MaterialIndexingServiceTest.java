@@ -0,0 +1,213 @@
+package com.ainovel.app.material;
+
+import com.ainovel.app.integration.AiGatewayGrpcClient;
+import com.ainovel.app.material.model.Material;
+import com.ainovel.app.material.model.MaterialUploadJob;
+import com.ainovel.app.material.repo.MaterialRepository;
+import com.ainovel.app.material.repo.MaterialUploadJobRepository;
+import com.ainovel.app.user.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MaterialIndexingServiceTest {
+    private MaterialRepository materialRepository;
+    private MaterialUploadJobRepository uploadJobRepository;
+    private final Map<UUID, MaterialUploadJob> jobs = new HashMap<>();
+    private final List<String> progressHistory = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        materialRepository = mock(MaterialRepository.class);
+        uploadJobRepository = mock(MaterialUploadJobRepository.class);
+        when(uploadJobRepository.save(any(MaterialUploadJob.class))).thenAnswer(invocation -> {
+            MaterialUploadJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(UUID.randomUUID());
+            }
+            jobs.put(job.getId(), job);
+            progressHistory.add(job.getStatus() + ":" + job.getProgress());
+            return job;
+        });
+        when(uploadJobRepository.findById(any(UUID.class))).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.getArgument(0))));
+    }
+
+    @Test
+    void scheduledIndexingShouldReportBatchProgressThroughUploadJob() {
+        Material material = approvedMaterial("雾里的货船在码头靠岸，灯光闪了三次。".repeat(2_000));
+        List<Integer> upserted = new ArrayList<>();
+        MaterialIndexingService service = service((user, text) -> new float[]{0.5f, 0.5f}, upserted);
+
+        service.schedule(material);
+
+        MaterialUploadJob job = jobs.values().iterator().next();
+        assertEquals(material.getId(), job.getResultMaterialId());
+        assertEquals("completed", job.getStatus());
+        assertEquals(100, job.getProgress());
+        assertEquals(new MaterialChunker().chunks(material).size(), upserted.stream().mapToInt(Integer::intValue).sum());
+        List<Integer> processing = progressHistory.stream()
+                .filter(entry -> entry.startsWith("processing:"))
+                .map(entry -> Integer.parseInt(entry.substring("processing:".length())))
+                .toList();
+        assertTrue(processing.size() > 2, "expected intermediate progress updates, got " + progressHistory);
+        for (int i = 1; i < processing.size(); i++) {
+            assertTrue(processing.get(i) >= processing.get(i - 1));
+        }
+    }
+
+    @Test
+    void failedEmbeddingShouldMarkJobFailed() {
+        Material material = approvedMaterial("陆家码头在雨夜停用。");
+        MaterialIndexingService service = service((user, text) -> {
+            throw new IllegalStateException("gateway down");
+        }, new ArrayList<>());
+
+        service.schedule(material);
+
+        MaterialUploadJob job = jobs.values().iterator().next();
+        assertEquals("failed", job.getStatus());
+        assertEquals("素材索引失败", job.getMessage());
+    }
+
+    @Test
+    void failedVectorUpsertShouldMarkJobFailed() {
+        Material material = approvedMaterial("陆家码头在雨夜停用。");
+        MaterialIndexingService service = service((user, text) -> new float[]{0.5f, 0.5f}, new MaterialVectorIndex() {
+            @Override
+            public void upsert(MaterialChunk chunk, float[] vector) {
+                throw new IllegalStateException("Qdrant returned 503");
+            }
+
+            @Override
+            public List<VectorMatch> search(float[] vector, int limit) {
+                return List.of();
+            }
+        });
+
+        service.schedule(material);
+
+        MaterialUploadJob job = jobs.values().iterator().next();
+        assertEquals("failed", job.getStatus());
+        assertEquals("素材索引失败", job.getMessage());
+    }
+
+    @Test
+    void rejectedIndexingRunShouldMarkJobFailed() {
+        Material material = approvedMaterial("陆家码头在雨夜停用。");
+        MaterialIndexingService service = service((user, text) -> new float[]{0.5f, 0.5f}, new ArrayList<>(), task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        service.schedule(material);
+
+        MaterialUploadJob job = jobs.values().iterator().next();
+        assertEquals("failed", job.getStatus());
+        assertEquals("索引队列已满，请稍后重试", job.getMessage());
+    }
+
+    @Test
+    void aiServiceClientShouldSendChunksInBatchesAndKeepPositions() {
+        AiGatewayGrpcClient gateway = mock(AiGatewayGrpcClient.class);
+        List<Integer> requestSizes = new ArrayList<>();
+        when(gateway.embeddings(anyLong(), anyString(), anyList(), eq(true))).thenAnswer(invocation -> {
+            List<String> input = invocation.getArgument(2);
+            requestSizes.add(input.size());
+            List<float[]> vectors = input.stream().map(text -> new float[]{text.length()}).toList();
+            return new AiGatewayGrpcClient.EmbeddingResult("embed", 1, vectors, 0);
+        });
+        AiServiceTextEmbeddingClient client = new AiServiceTextEmbeddingClient(gateway, 2);
+
+        List<float[]> vectors = client.embedAll(owner(), List.of("a", " ", "bb", "ccc", "dddd"));
+
+        assertEquals(List.of(2, 2), requestSizes);
+        assertArrayEquals(new float[]{1f}, vectors.get(0));
+        assertEquals(0, vectors.get(1).length);
+        assertArrayEquals(new float[]{2f}, vectors.get(2));
+        assertArrayEquals(new float[]{4f}, vectors.get(4));
+    }
+
+    private MaterialIndexingService service(TextEmbeddingClient embeddingClient, List<Integer> upserted) {
+        return service(embeddingClient, upserted, Runnable::run);
+    }
+
+    private MaterialIndexingService service(TextEmbeddingClient embeddingClient, List<Integer> upserted, Executor executor) {
+        return service(embeddingClient, new MaterialVectorIndex() {
+            @Override
+            public void upsert(MaterialChunk chunk, float[] vector) {
+                upserted.add(1);
+            }
+
+            @Override
+            public void upsertAll(List<MaterialChunk> chunks, List<float[]> vectors) {
+                upserted.add(chunks.size());
+            }
+
+            @Override
+            public List<VectorMatch> search(float[] vector, int limit) {
+                return List.of();
+            }
+        }, executor);
+    }
+
+    private MaterialIndexingService service(TextEmbeddingClient embeddingClient, MaterialVectorIndex vectorIndex) {
+        return service(embeddingClient, vectorIndex, Runnable::run);
+    }
+
+    private MaterialIndexingService service(TextEmbeddingClient embeddingClient, MaterialVectorIndex vectorIndex,
+                                            Executor executor) {
+        MaterialRetrievalService retrievalService = new MaterialRetrievalService(
+                mock(MaterialTermIndex.class),
+                new MaterialChunker(),
+                embeddingClient,
+                vectorIndex,
+                32
+        );
+        return new MaterialIndexingService(
+                materialRepository,
+                uploadJobRepository,
+                retrievalService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                executor
+        );
+    }
+
+    private Material approvedMaterial(String content) {
+        Material material = new Material();
+        material.setId(UUID.randomUUID());
+        material.setUser(owner());
+        material.setStatus("approved");
+        material.setTitle("码头旧报");
+        material.setContent(content);
+        when(materialRepository.findById(material.getId())).thenReturn(Optional.of(material));
+        return material;
+    }
+
+    private User owner() {
+        User user = new User();
+        user.setId(UUID.fromString("6c7f4f7b-3d61-4c8e-9d8a-0e6f4b3a2c11"));
+        user.setUsername("indexing_owner");
+        user.setRemoteUid(9000011L);
+        return user;
+    }
+}
@@ -3,10 +3,10 @@ package com.ainovel.app.material;
 import com.ainovel.app.material.dto.MaterialSearchRequest;
 import com.ainovel.app.material.dto.MaterialSearchResultDto;
 import com.ainovel.app.material.model.Material;
-import com.ainovel.app.material.repo.MaterialRepository;
 import com.ainovel.app.user.User;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -14,7 +14,6 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 class MaterialRetrievalServiceTest {
 
@@ -30,11 +29,11 @@ class MaterialRetrievalServiceTest {
         material.setSummary("关于陆家码头的旧资料");
         material.setContent("十年前，陆家码头在雨夜停用。后来仍有人看见货船靠岸，船灯在雾里闪了三次。");
 
-        MaterialRepository repository = mock(MaterialRepository.class);
-        when(repository.findAll()).thenReturn(List.of(material));
+        MaterialTermIndex termIndex = MaterialTermIndexTest.inMemoryIndex(new ArrayList<>(), new ArrayList<>());
+        termIndex.reindex(material);
 
         MaterialRetrievalService service = new MaterialRetrievalService(
-                repository,
+                termIndex,
                 new MaterialChunker(),
                 (embeddingUser, text) -> {
                     throw new RuntimeException("embedding unavailable");
@@ -48,7 +47,8 @@ class MaterialRetrievalServiceTest {
                     public List<VectorMatch> search(float[] vector, int limit) {
                         throw new RuntimeException("qdrant unavailable");
                     }
-                }
+                },
+                32
         );
 
         List<MaterialSearchResultDto> results = service.search(user, new MaterialSearchRequest("陆家码头 雨夜", 5));
@@ -62,6 +62,67 @@ class MaterialRetrievalServiceTest {
         assertTrue(first.matchReasons().contains("content"));
     }
 
+    @Test
+    void indexMaterialShouldEmbedAndUpsertChunksInBatches() {
+        User user = user();
+        Material material = new Material();
+        material.setId(UUID.fromString("33333333-3333-3333-3333-333333333333"));
+        material.setUser(user);
+        material.setStatus("approved");
+        material.setTitle("码头志");
+        material.setContent("雨夜的码头只剩一盏灯，货船在雾里靠岸。".repeat(2_000));
+        int totalChunks = new MaterialChunker().chunks(material).size();
+        int batchSize = 16;
+
+        List<Integer> embedBatchSizes = new ArrayList<>();
+        List<Integer> upsertBatchSizes = new ArrayList<>();
+        List<String> progress = new ArrayList<>();
+        MaterialRetrievalService service = new MaterialRetrievalService(
+                mock(MaterialTermIndex.class),
+                new MaterialChunker(),
+                new TextEmbeddingClient() {
+                    @Override
+                    public float[] embed(User embeddingUser, String text) {
+                        throw new AssertionError("chunks must be embedded in batches");
+                    }
+
+                    @Override
+                    public List<float[]> embedAll(User embeddingUser, List<String> texts) {
+                        embedBatchSizes.add(texts.size());
+                        return texts.stream().map(text -> new float[]{1f, 0f}).toList();
+                    }
+                },
+                new MaterialVectorIndex() {
+                    @Override
+                    public void upsert(MaterialChunk chunk, float[] vector) {
+                        throw new AssertionError("points must be upserted in bulk");
+                    }
+
+                    @Override
+                    public void upsertAll(List<MaterialChunk> chunks, List<float[]> vectors) {
+                        assertEquals(chunks.size(), vectors.size());
+                        upsertBatchSizes.add(chunks.size());
+                    }
+
+                    @Override
+                    public List<VectorMatch> search(float[] vector, int limit) {
+                        return List.of();
+                    }
+                },
+                batchSize
+        );
+
+        service.indexMaterial(user, material, (indexed, total) -> progress.add(indexed + "/" + total));
+
+        int batches = (totalChunks + batchSize - 1) / batchSize;
+        assertTrue(batches > 1);
+        assertEquals(batches, embedBatchSizes.size());
+        assertEquals(batchSize, embedBatchSizes.getFirst());
+        assertEquals(embedBatchSizes, upsertBatchSizes);
+        assertEquals(totalChunks, upsertBatchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(totalChunks + "/" + totalChunks, progress.getLast());
+    }
+
     private User user() {
         User user = new User();
         user.setId(UUID.fromString("0f41d89f-e04f-47e2-aa87-c2bf9a29fd0f"));
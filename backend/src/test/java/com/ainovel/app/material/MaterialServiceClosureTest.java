@@ -1,8 +1,10 @@
 package com.ainovel.app.material;
 
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
 import com.ainovel.app.material.model.Material;
 import com.ainovel.app.material.repo.MaterialRepository;
 import com.ainovel.app.material.repo.MaterialUploadJobRepository;
@@ -43,9 +45,12 @@ class MaterialServiceClosureTest {
                 mock(MaterialUploadJobRepository.class),
                 accessGuard,
                 mock(MaterialRetrievalService.class),
+                mock(MaterialIndexingService.class),
+                mock(MaterialTermIndex.class),
                 manuscriptRepository,
                 new ObjectMapper(),
-                new JsonColumnCodec(new ObjectMapper())
+                new JsonColumnCodec(new ObjectMapper()),
+                new ManuscriptSectionStore(mock(ManuscriptSectionRepository.class), new JsonColumnCodec(new ObjectMapper()))
         );
 
         user = new User();
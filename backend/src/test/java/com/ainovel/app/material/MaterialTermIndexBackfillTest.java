@@ -0,0 +1,58 @@
+package com.ainovel.app.material;
+
+import com.ainovel.app.material.model.Material;
+import com.ainovel.app.material.repo.MaterialRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MaterialTermIndexBackfillTest {
+
+    @Test
+    void backfillShouldRunOnTheExecutorInKeysetPages() {
+        MaterialRepository materialRepository = mock(MaterialRepository.class);
+        MaterialTermIndex termIndex = mock(MaterialTermIndex.class);
+        Material first = material();
+        Material broken = material();
+        Material last = material();
+        when(materialRepository.findApprovedIdsWithoutIndexedChunks(new UUID(0L, 0L), PageRequest.of(0, 2)))
+                .thenReturn(List.of(first.getId(), broken.getId()));
+        when(materialRepository.findApprovedIdsWithoutIndexedChunks(broken.getId(), PageRequest.of(0, 2)))
+                .thenReturn(List.of(last.getId()));
+        when(materialRepository.findById(first.getId())).thenReturn(Optional.of(first));
+        when(materialRepository.findById(broken.getId())).thenThrow(new IllegalStateException("boom"));
+        when(materialRepository.findById(last.getId())).thenReturn(Optional.of(last));
+        List<Runnable> queued = new ArrayList<>();
+        MaterialTermIndexBackfill backfill = new MaterialTermIndexBackfill(materialRepository, termIndex, queued::add, 2);
+
+        backfill.run(null);
+        verify(materialRepository, never()).findApprovedIdsWithoutIndexedChunks(any(), any());
+
+        int pages = 0;
+        while (!queued.isEmpty()) {
+            queued.removeFirst().run();
+            pages++;
+        }
+        assertEquals(2, pages);
+        verify(termIndex).reindex(first);
+        verify(termIndex).reindex(last);
+    }
+
+    private static Material material() {
+        Material material = new Material();
+        material.setId(UUID.randomUUID());
+        material.setStatus("approved");
+        return material;
+    }
+}
@@ -0,0 +1,227 @@
+package com.ainovel.app.material;
+
+import com.ainovel.app.material.model.Material;
+import com.ainovel.app.material.model.MaterialIndexedChunk;
+import com.ainovel.app.material.model.MaterialTermPosting;
+import com.ainovel.app.material.repo.MaterialIndexedChunkRepository;
+import com.ainovel.app.material.repo.MaterialTermPostingRepository;
+import com.ainovel.app.user.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MaterialTermIndexTest {
+    private static final long STATS_TTL_MS = 60_000;
+
+    private final List<MaterialIndexedChunk> chunkRows = new ArrayList<>();
+    private final List<MaterialTermPosting> postingRows = new ArrayList<>();
+    private final MaterialTermIndex index = inMemoryIndex(chunkRows, postingRows);
+
+    @Test
+    void tokenizerShouldEmitHanBigramsAndLowercaseWords() {
+        assertEquals(List.of("陆家", "家码", "码头", "qdrant", "v2", "雨", "夜色"),
+                MaterialTermTokenizer.terms("陆家码头QDRANT v2，雨 夜色"));
+    }
+
+    @Test
+    void indexTermsShouldAddHanUnigramsAndAsciiWordPrefixes() {
+        assertEquals(List.of("长", "剑", "长剑", "dr", "dra", "drag", "drago", "dragon", "雨"),
+                MaterialTermTokenizer.indexTerms("长剑 Dragon，雨"));
+    }
+
+    @Test
+    void singleHanCharQueryShouldMatchInsideLongerRuns() {
+        User owner = user("owner");
+        index.reindex(material(owner, "江湖旧事", "[]", "", "长剑出鞘，寒光照亮了渡口。"));
+
+        List<MaterialTermIndex.Hit> hits = index.search(owner, "剑", 5);
+
+        assertEquals(1, hits.size());
+        assertEquals(List.of("content"), hits.getFirst().reasons());
+    }
+
+    @Test
+    void asciiPrefixQueryShouldMatchLongerWords() {
+        User owner = user("owner");
+        index.reindex(material(owner, "Bestiary", "[]", "", "The dragon sleeps under the harbour."));
+
+        assertEquals(1, index.search(owner, "drag", 5).size());
+        assertEquals(1, index.search(owner, "Dragon", 5).size());
+        assertTrue(index.search(owner, "ragon", 5).isEmpty());
+    }
+
+    @Test
+    void searchShouldRankRarerTermsAndReportMatchedFields() {
+        User owner = user("owner");
+        index.reindex(material(owner, "码头旧报", "[\"码头\"]", "雨夜的码头。", "码头停船，码头无人。"));
+        index.reindex(material(owner, "灯塔日志", "[\"灯塔\"]", "", "码头外的灯塔闪了三次，守塔人记下了货船的编号。"));
+
+        List<MaterialTermIndex.Hit> hits = index.search(owner, "灯塔 货船", 5);
+
+        assertEquals(1, hits.size());
+        assertEquals("灯塔日志", hits.getFirst().chunk().title());
+        assertEquals(List.of("title", "tags", "content"), hits.getFirst().reasons());
+        assertEquals(2, index.search(owner, "码头", 5).size());
+    }
+
+    @Test
+    void reindexShouldReplaceChunksAndDropUnapprovedOrRemovedMaterials() {
+        User owner = user("owner");
+        Material material = material(owner, "旧档案", "[]", "", "陆家码头在雨夜停用。");
+        index.reindex(material);
+        assertEquals(1, index.search(owner, "陆家码头", 5).size());
+
+        material.setContent("王都的宴会礼仪。");
+        index.reindex(material);
+        assertTrue(index.search(owner, "陆家码头", 5).isEmpty());
+        assertEquals(1, index.search(owner, "宴会", 5).size());
+        assertEquals(1, chunkRows.size());
+
+        material.setStatus("rejected");
+        index.reindex(material);
+        assertTrue(chunkRows.isEmpty());
+        assertTrue(postingRows.isEmpty());
+
+        material.setStatus("approved");
+        index.reindex(material);
+        index.remove(material.getId());
+        assertTrue(index.search(owner, "宴会", 5).isEmpty());
+    }
+
+    @Test
+    void searchShouldOnlyReadChunksVisibleToTheUser() {
+        User owner = user("owner");
+        User other = user("other");
+        index.reindex(material(owner, "私人笔记", "[]", "", "铜扣藏在码头的铁皮棚下。"));
+        index.reindex(material(null, "公共资料", "[]", "", "铜扣是旧时船工的信物。"));
+
+        assertEquals(2, index.search(owner, "铜扣", 5).size());
+        assertEquals(List.of("公共资料"), index.search(other, "铜扣", 5).stream().map(hit -> hit.chunk().title()).toList());
+        assertEquals(2, index.search(null, "铜扣", 5).size());
+    }
+
+    @Test
+    void corpusStatsShouldBeCachedPerUserUntilTheTtlOrAnIndexWrite() {
+        AtomicLong clock = new AtomicLong();
+        MaterialIndexedChunkRepository chunkRepository = mock(MaterialIndexedChunkRepository.class);
+        MaterialTermIndex cachedIndex = inMemoryIndex(chunkRows, postingRows, chunkRepository, clock::get);
+        User owner = user("owner");
+        cachedIndex.reindex(material(owner, "码头志", "[]", "", "码头的灯一夜未灭。"));
+
+        cachedIndex.search(owner, "码头", 5);
+        cachedIndex.search(owner, "灯", 5);
+        cachedIndex.search(null, "码头", 5);
+        verify(chunkRepository, times(1)).corpusStatsVisibleTo(owner.getId());
+        verify(chunkRepository, times(1)).corpusStats();
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(STATS_TTL_MS));
+        cachedIndex.search(owner, "码头", 5);
+        verify(chunkRepository, times(2)).corpusStatsVisibleTo(owner.getId());
+
+        cachedIndex.reindex(material(null, "公共资料", "[]", "", "码头边有一座旧仓库。"));
+        assertEquals(2, cachedIndex.search(owner, "码头", 5).size());
+        verify(chunkRepository, times(3)).corpusStatsVisibleTo(owner.getId());
+    }
+
+    static MaterialTermIndex inMemoryIndex(List<MaterialIndexedChunk> chunkRows, List<MaterialTermPosting> postingRows) {
+        return inMemoryIndex(chunkRows, postingRows, mock(MaterialIndexedChunkRepository.class), System::nanoTime);
+    }
+
+    private static MaterialTermIndex inMemoryIndex(List<MaterialIndexedChunk> chunkRows, List<MaterialTermPosting> postingRows,
+                                                   MaterialIndexedChunkRepository chunkRepository, LongSupplier clock) {
+        MaterialTermPostingRepository postingRepository = mock(MaterialTermPostingRepository.class);
+        when(chunkRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<MaterialIndexedChunk> rows = invocation.getArgument(0);
+            rows.forEach(chunkRows::add);
+            return rows;
+        });
+        when(postingRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<MaterialTermPosting> rows = invocation.getArgument(0);
+            rows.forEach(postingRows::add);
+            return rows;
+        });
+        when(chunkRepository.deleteByMaterialId(any())).thenAnswer(invocation -> {
+            UUID materialId = invocation.getArgument(0);
+            int before = chunkRows.size();
+            chunkRows.removeIf(row -> row.getMaterialId().equals(materialId));
+            return before - chunkRows.size();
+        });
+        when(postingRepository.deleteByMaterialId(any())).thenAnswer(invocation -> {
+            UUID materialId = invocation.getArgument(0);
+            int before = postingRows.size();
+            postingRows.removeIf(row -> row.getMaterialId().equals(materialId));
+            return before - postingRows.size();
+        });
+        when(chunkRepository.findByChunkIdIn(any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return chunkRows.stream().filter(row -> ids.contains(row.getChunkId())).toList();
+        });
+        when(postingRepository.findByTermIn(any())).thenAnswer(invocation -> {
+            Collection<String> terms = invocation.getArgument(0);
+            return postingRows.stream().filter(row -> terms.contains(row.getTerm())).toList();
+        });
+        when(postingRepository.findVisible(any(), any())).thenAnswer(invocation -> {
+            UUID userId = invocation.getArgument(0);
+            Collection<String> terms = invocation.getArgument(1);
+            return postingRows.stream()
+                    .filter(row -> terms.contains(row.getTerm()) && visible(userId, row.getUserId()))
+                    .toList();
+        });
+        when(chunkRepository.corpusStats()).thenAnswer(invocation -> corpusStats(chunkRows, null));
+        when(chunkRepository.corpusStatsVisibleTo(any()))
+                .thenAnswer(invocation -> corpusStats(chunkRows, invocation.getArgument(0)));
+        return new MaterialTermIndex(new MaterialChunker(), chunkRepository, postingRepository, STATS_TTL_MS, clock);
+    }
+
+    private static MaterialIndexedChunkRepository.CorpusStats corpusStats(List<MaterialIndexedChunk> chunkRows, UUID userId) {
+        List<MaterialIndexedChunk> visible = chunkRows.stream().filter(row -> visible(userId, row.getUserId())).toList();
+        return new MaterialIndexedChunkRepository.CorpusStats() {
+            @Override
+            public long getChunks() {
+                return visible.size();
+            }
+
+            @Override
+            public double getAverageTermCount() {
+                return visible.stream().mapToInt(MaterialIndexedChunk::getTermCount).average().orElse(0);
+            }
+        };
+    }
+
+    private static boolean visible(UUID userId, UUID ownerId) {
+        return userId == null || ownerId == null || userId.equals(ownerId);
+    }
+
+    private static Material material(User owner, String title, String tagsJson, String summary, String content) {
+        Material material = new Material();
+        material.setId(UUID.randomUUID());
+        material.setUser(owner);
+        material.setStatus("approved");
+        material.setTitle(title);
+        material.setTagsJson(tagsJson);
+        material.setSummary(summary);
+        material.setContent(content);
+        return material;
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setId(UUID.randomUUID());
+        user.setUsername(username);
+        return user;
+    }
+}
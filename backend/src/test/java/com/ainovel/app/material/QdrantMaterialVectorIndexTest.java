@@ -0,0 +1,74 @@
+package com.ainovel.app.material;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QdrantMaterialVectorIndexTest {
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private volatile int pointsStatus = 200;
+    private volatile int searchStatus = 200;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.add(exchange.getRequestMethod() + " " + path);
+            exchange.getRequestBody().readAllBytes();
+            int status = path.endsWith("/points") ? pointsStatus : path.endsWith("/points/search") ? searchStatus : 200;
+            byte[] body = "{\"result\":[]}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void upsertFailuresReachTheCallerSoTheIndexingJobFails() {
+        pointsStatus = 503;
+        QdrantMaterialVectorIndex index = index();
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> index.upsertAll(List.of(chunk()), List.of(new float[]{1f, 0f})));
+
+        assertTrue(ex.getMessage().startsWith("Qdrant"), ex.getMessage());
+        assertEquals(List.of("PUT /collections/materials", "PUT /collections/materials/points"), requests);
+    }
+
+    @Test
+    void searchFailuresFallBackToNoVectorMatches() {
+        searchStatus = 503;
+
+        assertEquals(List.of(), index().search(new float[]{1f, 0f}, 5));
+        assertEquals("POST /collections/materials/points/search", requests.getLast());
+    }
+
+    private QdrantMaterialVectorIndex index() {
+        return new QdrantMaterialVectorIndex(new ObjectMapper(), "http://127.0.0.1", server.getAddress().getPort(), "materials", 128);
+    }
+
+    private MaterialChunk chunk() {
+        return new MaterialChunk(UUID.randomUUID() + ":0", UUID.randomUUID(), "码头志", "雨夜的码头只剩一盏灯。", 0, "");
+    }
+}
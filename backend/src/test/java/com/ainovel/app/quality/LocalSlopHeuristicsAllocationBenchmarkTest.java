@@ -0,0 +1,58 @@
+package com.ainovel.app.quality;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes allocated per {@link LocalSlopHeuristics#evaluate(String)} vs the separate text walks it
+ * replaced. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class LocalSlopHeuristicsAllocationBenchmarkTest {
+    private static final int WARMUP = 200;
+    private static final int ROUNDS = 100;
+    private static final String PARAGRAPH = "雨水顺着铁皮棚的缝隙落下来，他把铜扣在掌心里转了一圈。想起码头上那盏迟迟没灭的灯！\n";
+
+    private final SlopPatternRegistry registry = new SlopPatternRegistry();
+
+    @ParameterizedTest(name = "{0} chars")
+    @ValueSource(ints = {3_000, 10_000})
+    void evaluateAllocatesAtLeastFiveTimesLessThanSeparateWalks(int length, TestReporter reporter) {
+        String text = PARAGRAPH.repeat(length / PARAGRAPH.length() + 1).substring(0, length);
+        LocalSlopHeuristics heuristics = new LocalSlopHeuristics(registry);
+        SlopPatternMatcher matcher = new SlopPatternMatcher(registry);
+        LegacySlopRepetitionDetector legacyRepetition = new LegacySlopRepetitionDetector();
+        LegacySlopShadowAnalyzer legacyShadow = new LegacySlopShadowAnalyzer(matcher);
+        Runnable legacy = () -> {
+            matcher.match(text, registry.activeRules());
+            legacyRepetition.detect(text);
+            legacyShadow.analyze(text, registry.shadowRules());
+        };
+
+        long legacyBytes = allocatedPerRun(legacy);
+        long fusedBytes = allocatedPerRun(() -> heuristics.evaluate(text));
+
+        reporter.publishEntry("slop heuristics " + length + " chars", String.format("separate walks=%dB, fused evaluate=%dB (%.1fx)",
+                legacyBytes, fusedBytes, legacyBytes / (double) Math.max(1, fusedBytes)));
+        assertTrue(fusedBytes * 5 <= legacyBytes, "fused " + fusedBytes + "B vs legacy " + legacyBytes + "B");
+    }
+
+    private long allocatedPerRun(Runnable run) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP; i++) {
+            run.run();
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < ROUNDS; i++) {
+            run.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / ROUNDS;
+    }
+}
@@ -4,10 +4,13 @@ import com.ainovel.app.ai.AiService;
 import com.ainovel.app.ai.dto.AiChatResponse;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
-import com.ainovel.app.manuscript.repo.ManuscriptRepository;
+import com.ainovel.app.manuscript.model.ManuscriptSection;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
 import com.ainovel.app.quality.model.PlotQualityRun;
 import com.ainovel.app.quality.repo.PlotQualityRunRepository;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.CharacterCard;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
@@ -33,18 +36,18 @@ class PlotQualityServiceTest {
     @Test
     void analyzeSceneShouldBuildContextAndParsePlotIssues() {
         AiService aiService = mock(AiService.class);
-        ManuscriptRepository manuscriptRepository = mock(ManuscriptRepository.class);
         CharacterCardRepository characterCardRepository = mock(CharacterCardRepository.class);
         PlotQualityRunRepository repository = mock(PlotQualityRunRepository.class);
         SlopQualityGate slopQualityGate = mock(SlopQualityGate.class);
         PlotQualityService service = new PlotQualityService(
                 aiService,
                 new ObjectMapper(),
-                manuscriptRepository,
                 characterCardRepository,
                 repository,
                 slopQualityGate,
-                new JsonColumnCodec(new ObjectMapper())
+                new JsonColumnCodec(new ObjectMapper()),
+                sectionStore(mock(ManuscriptSectionRepository.class)),
+                new ParsedOutlineCache(new ObjectMapper(), 16)
         );
         User user = user();
         UUID sceneId = UUID.randomUUID();
@@ -105,11 +108,12 @@ class PlotQualityServiceTest {
         PlotQualityService service = new PlotQualityService(
                 mock(AiService.class),
                 new ObjectMapper(),
-                mock(ManuscriptRepository.class),
                 mock(CharacterCardRepository.class),
                 repository,
                 mock(SlopQualityGate.class),
-                new JsonColumnCodec(new ObjectMapper())
+                new JsonColumnCodec(new ObjectMapper()),
+                sectionStore(mock(ManuscriptSectionRepository.class)),
+                new ParsedOutlineCache(new ObjectMapper(), 16)
         );
         UUID manuscriptId = UUID.randomUUID();
         UUID sceneA = UUID.randomUUID();
@@ -137,11 +141,12 @@ class PlotQualityServiceTest {
         PlotQualityService service = new PlotQualityService(
                 mock(AiService.class),
                 new ObjectMapper(),
-                mock(ManuscriptRepository.class),
                 mock(CharacterCardRepository.class),
                 repository,
                 mock(SlopQualityGate.class),
-                new JsonColumnCodec(new ObjectMapper())
+                new JsonColumnCodec(new ObjectMapper()),
+                sectionStore(mock(ManuscriptSectionRepository.class)),
+                new ParsedOutlineCache(new ObjectMapper(), 16)
         );
         UUID runId = UUID.randomUUID();
         PlotQualityRun run = new PlotQualityRun();
@@ -162,17 +167,18 @@ class PlotQualityServiceTest {
 
     @Test
     void applyRevisionShouldPersistAcceptedTextIntoManuscript() {
-        ManuscriptRepository manuscriptRepository = mock(ManuscriptRepository.class);
+        ManuscriptSectionRepository sectionRepository = mock(ManuscriptSectionRepository.class);
         PlotQualityRunRepository repository = mock(PlotQualityRunRepository.class);
         SlopQualityGate slopQualityGate = mock(SlopQualityGate.class);
         PlotQualityService service = new PlotQualityService(
                 mock(AiService.class),
                 new ObjectMapper(),
-                manuscriptRepository,
                 mock(CharacterCardRepository.class),
                 repository,
                 slopQualityGate,
-                new JsonColumnCodec(new ObjectMapper())
+                new JsonColumnCodec(new ObjectMapper()),
+                sectionStore(sectionRepository),
+                new ParsedOutlineCache(new ObjectMapper(), 16)
         );
         UUID runId = UUID.randomUUID();
         UUID sceneId = UUID.randomUUID();
@@ -186,7 +192,6 @@ class PlotQualityServiceTest {
         manuscript.setId(run.getManuscriptId());
 
         when(repository.findById(runId)).thenReturn(Optional.of(run));
-        when(manuscriptRepository.save(any(Manuscript.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(repository.save(any(PlotQualityRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(slopQualityGate.evaluateAndRepair(any(), any())).thenReturn(new SlopQualityResult(
                 runId,
@@ -203,11 +208,17 @@ class PlotQualityServiceTest {
 
         assertTrue(revised.isRevisionApplied());
         assertEquals(PlotQualityService.hashText("修订后正文"), revised.getSourceTextHash());
-        assertTrue(manuscript.getSectionsJson().contains("<p>修订后正文</p>"));
-        verify(manuscriptRepository).save(manuscript);
+        ArgumentCaptor<ManuscriptSection> sectionCaptor = ArgumentCaptor.forClass(ManuscriptSection.class);
+        verify(sectionRepository).save(sectionCaptor.capture());
+        assertEquals(sceneId.toString(), sectionCaptor.getValue().getSceneId());
+        assertTrue(sectionCaptor.getValue().getContent().contains("<p>修订后正文</p>"));
         verify(repository).save(run);
     }
 
+    private ManuscriptSectionStore sectionStore(ManuscriptSectionRepository sectionRepository) {
+        return new ManuscriptSectionStore(sectionRepository, new JsonColumnCodec(new ObjectMapper()));
+    }
+
     private PlotQualityRun run(UUID manuscriptId, UUID sceneId, int chapterOrder, int sceneOrder, int risk, PlotQualitySeverity severity) {
         PlotQualityRun run = new PlotQualityRun();
         run.setId(UUID.randomUUID());
@@ -4,9 +4,12 @@ import com.ainovel.app.ai.AiService;
 import com.ainovel.app.ai.dto.AiChatResponse;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
 import com.ainovel.app.quality.model.SlopQualityRun;
 import com.ainovel.app.quality.repo.SlopQualityRunRepository;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
 import com.ainovel.app.story.repo.CharacterCardRepository;
@@ -41,7 +44,9 @@ class SlopDiagnosticServiceTest {
                 characterCardRepository,
                 styleContextProvider,
                 repository,
-                new JsonColumnCodec(new ObjectMapper())
+                new JsonColumnCodec(new ObjectMapper()),
+                new ManuscriptSectionStore(mock(ManuscriptSectionRepository.class), new JsonColumnCodec(new ObjectMapper())),
+                new ParsedOutlineCache(new ObjectMapper(), 16)
         );
         UUID manuscriptId = UUID.randomUUID();
         UUID sceneId = UUID.randomUUID();
@@ -3,9 +3,12 @@ package com.ainovel.app.quality;
 import com.ainovel.app.ai.AiService;
 import com.ainovel.app.ai.dto.AiChatResponse;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
 import com.ainovel.app.quality.model.SlopDriftRun;
 import com.ainovel.app.quality.repo.SlopDriftRunRepository;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
 import com.ainovel.app.user.User;
@@ -28,7 +31,9 @@ class SlopDriftServiceTest {
     void analyzeShouldPersistLlmWindowComparison() {
         AiService aiService = mock(AiService.class);
         SlopDriftRunRepository repository = mock(SlopDriftRunRepository.class);
-        SlopDriftService service = new SlopDriftService(aiService, new ObjectMapper(), repository, new JsonColumnCodec(new ObjectMapper()));
+        SlopDriftService service = new SlopDriftService(aiService, new ObjectMapper(), repository, new JsonColumnCodec(new ObjectMapper()),
+                new ManuscriptSectionStore(mock(ManuscriptSectionRepository.class), new JsonColumnCodec(new ObjectMapper())),
+                new ParsedOutlineCache(new ObjectMapper(), 16));
         Manuscript manuscript = manuscriptWithRepeatedSections("雨水砸在铁皮棚上，林烬记住了铜扣的划痕。", 12);
 
         when(aiService.chat(any(), any())).thenReturn(new AiChatResponse("assistant", """
@@ -96,7 +101,9 @@ class SlopDriftServiceTest {
     void analyzeShouldSkipAiWhenTextHasTooFewWindows() {
         AiService aiService = mock(AiService.class);
         SlopDriftRunRepository repository = mock(SlopDriftRunRepository.class);
-        SlopDriftService service = new SlopDriftService(aiService, new ObjectMapper(), repository, new JsonColumnCodec(new ObjectMapper()));
+        SlopDriftService service = new SlopDriftService(aiService, new ObjectMapper(), repository, new JsonColumnCodec(new ObjectMapper()),
+                new ManuscriptSectionStore(mock(ManuscriptSectionRepository.class), new JsonColumnCodec(new ObjectMapper())),
+                new ParsedOutlineCache(new ObjectMapper(), 16));
         Manuscript manuscript = manuscriptWithRepeatedSections("短稿。", 2);
 
         when(repository.save(any(SlopDriftRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -0,0 +1,71 @@
+package com.ainovel.app.quality;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Automaton-backed matcher vs the per-literal {@code indexOf} reference on the bundled
+ * {@code quality/slop-patterns} corpus. Both medians go to the test report; only the hits are asserted,
+ * since wall-clock comparisons are noise on a shared host. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SlopPatternMatcherBenchmarkTest {
+    private static final int WARMUP = 30;
+    private static final int SAMPLES = 60;
+    private static final String FILLER = "雨水顺着铁皮棚的缝隙落下来，他把铜扣在掌心里转了一圈，想起码头上那盏迟迟没灭的灯。";
+
+    private final SlopPatternRegistry registry = new SlopPatternRegistry();
+
+    @ParameterizedTest(name = "{0} chars")
+    @ValueSource(ints = {3_000, 10_000, 50_000})
+    void reportsAutomatonAndIndexOfScanTimes(int length, TestReporter reporter) {
+        SlopPatternMatcher matcher = new SlopPatternMatcher(registry);
+        IndexOfSlopPatternMatcher reference = new IndexOfSlopPatternMatcher(registry);
+        List<SlopPatternRule> rules = registry.activeRules();
+        String text = input(length);
+
+        assertEquals(SlopPatternMatcherTest.normalized(reference.match(text, rules)),
+                SlopPatternMatcherTest.normalized(matcher.match(text, rules)));
+        long referenceNanos = median(() -> reference.match(text, rules));
+        long automatonNanos = median(() -> matcher.match(text, rules));
+
+        reporter.publishEntry("slop pattern match " + length + " chars", String.format("indexOf=%dus, automaton=%dus (%.1fx)",
+                referenceNanos / 1_000, automatonNanos / 1_000, referenceNanos / (double) Math.max(1, automatonNanos)));
+    }
+
+    private String input(int length) {
+        String corpus = SlopPatternMatcherTest.sampleCorpus(registry);
+        StringBuilder text = new StringBuilder(length + corpus.length());
+        int cursor = 0;
+        while (text.length() < length) {
+            // Mostly clean prose with a sample snippet every few sentences, like a real draft.
+            text.append(FILLER).append(FILLER).append(FILLER);
+            int end = Math.min(corpus.length(), cursor + 40);
+            text.append(corpus, cursor, end);
+            cursor = end == corpus.length() ? 0 : end;
+        }
+        return text.substring(0, length);
+    }
+
+    private long median(Supplier<List<SlopPatternHit>> run) {
+        for (int i = 0; i < WARMUP; i++) {
+            run.get();
+        }
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            run.get();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
@@ -0,0 +1,72 @@
+package com.ainovel.app.quality;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlopPatternMatcherTest {
+    private final SlopPatternRegistry registry = new SlopPatternRegistry();
+
+    @Test
+    void automatonMatchesIndexOfReferenceOnBundledSamples() {
+        SlopPatternMatcher matcher = new SlopPatternMatcher(registry);
+        IndexOfSlopPatternMatcher reference = new IndexOfSlopPatternMatcher(registry);
+        String text = sampleCorpus(registry);
+
+        for (List<SlopPatternRule> rules : List.of(registry.activeRules(), registry.shadowRules())) {
+            assertEquals(normalized(reference.match(text, rules)), normalized(matcher.match(text, rules)));
+        }
+    }
+
+    @Test
+    void automatonKeepsNonOverlappingScanPerLiteral() {
+        SlopPatternRule rule = literalRule("OVERLAP_RULE", false, "哈哈", "哈哈哈");
+        SlopLiteralAutomaton automaton = SlopLiteralAutomaton.build(List.of(rule), false);
+        List<String> hits = new ArrayList<>();
+
+        automaton.scan("哈哈哈哈", (pattern, start, end) -> hits.add(pattern + ":" + start + "-" + end));
+
+        assertEquals(List.of("0:0-2", "1:0-3", "0:1-3", "1:1-4", "0:2-4"), hits);
+    }
+
+    @Test
+    void ignoreCaseAutomatonReportsOffsetsInOriginalText() {
+        SlopPatternRule rule = literalRule("CASE_RULE", true, "As An AI");
+        SlopLiteralAutomaton automaton = SlopLiteralAutomaton.build(List.of(rule), true);
+        List<String> hits = new ArrayList<>();
+
+        automaton.scan("他说：as an ai，然后沉默。AS AN AI", (pattern, start, end) -> hits.add(start + "-" + end));
+
+        assertEquals(List.of("3-11", "17-25"), hits);
+    }
+
+    static String sampleCorpus(SlopPatternRegistry registry) {
+        StringBuilder text = new StringBuilder();
+        for (SlopPatternRule rule : registry.activeRules()) {
+            rule.positiveSamples().forEach(sample -> text.append(sample).append('\n'));
+            rule.contextualSamples().forEach(sample -> text.append(sample.text()).append('\n'));
+        }
+        for (SlopPatternRule rule : registry.shadowRules()) {
+            rule.positiveSamples().forEach(sample -> text.append(sample).append('\n'));
+        }
+        return text.toString();
+    }
+
+    static List<String> normalized(List<SlopPatternHit> hits) {
+        return hits.stream()
+                .sorted(Comparator.comparingInt(SlopPatternHit::start)
+                        .thenComparing(hit -> hit.rule().id())
+                        .thenComparingInt(SlopPatternHit::end))
+                .map(hit -> hit.rule().id() + "@" + hit.start() + "-" + hit.end() + ":" + hit.evidence())
+                .toList();
+    }
+
+    private static SlopPatternRule literalRule(String id, boolean ignoreCase, String... literals) {
+        return new SlopPatternRule(id, "PHRASE", SlopPatternStatus.ACTIVE, List.of(literals), List.of(), ignoreCase,
+                null, null, null, List.of(), null, null, List.of(), null, List.of(), List.of(), List.of(), List.of());
+    }
+}
@@ -0,0 +1,63 @@
+package com.ainovel.app.quality;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SlopTextProfileTest {
+    private static final String[] PIECES = {
+            "他", "说", "雨", "水", "。", "！", "？", "!", " ", "\n", "a", "B", "1", "，",
+            "首先", "其次", "最后", "此外", "同时", "因此", "值得注意的是", "林烬记住了铜扣", "𠀀"
+    };
+
+    private final SlopPatternRegistry registry = new SlopPatternRegistry();
+    private final SlopPatternMatcher matcher = new SlopPatternMatcher(registry);
+
+    @Test
+    void repetitionMatchesLegacyDetectorIncludingUnsampledFirstOccurrence() {
+        String text = "开头一句话。" + "x林烬记住了铜扣的划痕。" + " 林烬记住了铜扣的划痕。".repeat(3);
+
+        assertEquals(String.valueOf(new LegacySlopRepetitionDetector().detect(text)),
+                String.valueOf(new SlopRepetitionDetector().detect(SlopTextProfile.of(text))));
+    }
+
+    @Test
+    void fusedDetectorsMatchLegacyOnRandomDrafts() {
+        LegacySlopRepetitionDetector legacyRepetition = new LegacySlopRepetitionDetector();
+        LegacySlopShadowAnalyzer legacyShadow = new LegacySlopShadowAnalyzer(matcher);
+        SlopRepetitionDetector repetition = new SlopRepetitionDetector();
+        SlopShadowAnalyzer shadow = new SlopShadowAnalyzer(matcher);
+        Random random = new Random(7);
+        for (int round = 0; round < 2_000; round++) {
+            String text = randomDraft(random, round);
+            SlopTextProfile profile = SlopTextProfile.of(text);
+
+            assertEquals(String.valueOf(legacyRepetition.detect(text)), String.valueOf(repetition.detect(profile)), text);
+            assertEquals(legacyShadow.analyze(text, registry.shadowRules()), shadow.analyze(profile, registry.shadowRules()), text);
+        }
+    }
+
+    @Test
+    void uniformSentenceSpansIgnoreSurroundingWhitespace() {
+        String text = "  雨水落在铁皮棚上面。\n他把铜扣握进掌心里！ 码头那盏灯没有灭？港口的风吹得更急。远处的船慢慢靠岸。";
+        SlopTextProfile profile = SlopTextProfile.of(text);
+
+        assertEquals(5, profile.sentenceCount());
+        assertEquals(2, profile.sentenceStart(0));
+        assertEquals("雨水落在铁皮棚上面".length(), profile.sentenceLength(0));
+        assertEquals(new LegacySlopShadowAnalyzer(matcher).analyze(text, registry.shadowRules()),
+                new SlopShadowAnalyzer(matcher).analyze(profile, registry.shadowRules()));
+    }
+
+    private String randomDraft(Random random, int round) {
+        StringBuilder text = new StringBuilder();
+        int pieces = random.nextInt(round % 2 == 0 ? 80 : 600);
+        int alphabet = 2 + random.nextInt(PIECES.length - 1);
+        for (int i = 0; i < pieces; i++) {
+            text.append(PIECES[random.nextInt(alphabet)]);
+        }
+        return text.toString();
+    }
+}
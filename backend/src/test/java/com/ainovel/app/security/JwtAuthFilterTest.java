@@ -1,5 +1,6 @@
 package com.ainovel.app.security;
 
+import com.ainovel.app.security.remote.UserSessionValidationProperties;
 import com.ainovel.app.security.remote.UserSessionValidator;
 import com.ainovel.app.user.SsoUserProvisioningService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -28,6 +29,7 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -49,7 +51,7 @@ class JwtAuthFilterTest {
 
         SsoUserProvisioningService provisioningService = mock(SsoUserProvisioningService.class);
         UserSessionValidator validator = mock(UserSessionValidator.class);
-        when(validator.validate(18L, "sid-001")).thenReturn(true);
+        when(validator.check(18L, "sid-001")).thenReturn(UserSessionValidator.Verdict.VALID);
         @SuppressWarnings("unchecked")
         ObjectProvider<UserSessionValidator> provider = mock(ObjectProvider.class);
         when(provider.getIfAvailable()).thenReturn(validator);
@@ -134,11 +136,71 @@ class JwtAuthFilterTest {
         verify(provisioningService).ensureExistsBestEffort("signed-user", "USER", 99L);
     }
 
+    @Test
+    void shouldReuseCachedSessionValidationAndPrincipalUntilInvalidated() throws Exception {
+        JwtService jwtService = mock(JwtService.class);
+        doThrow(new RuntimeException("bad-signature")).when(jwtService).parseClaims(anyString());
+
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("goodboy95"))
+                .thenReturn(User.withUsername("goodboy95").password("n/a").authorities("ROLE_USER").build());
+        SsoUserProvisioningService provisioningService = mock(SsoUserProvisioningService.class);
+        UserSessionValidator validator = mock(UserSessionValidator.class);
+        when(validator.check(18L, "sid-001")).thenReturn(UserSessionValidator.Verdict.VALID);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<UserSessionValidator> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(validator);
+
+        SessionAuthenticationCache cache = new SessionAuthenticationCache(new UserSessionValidationProperties());
+        JwtAuthFilter filter = createFilter(jwtService, userDetailsService, provisioningService, provider, cache);
+        String token = jwtToken(Map.of(
+                "sub", "goodboy95",
+                "uid", 18,
+                "sid", "sid-001",
+                "role", "USER",
+                "exp", Instant.now().plusSeconds(3600).getEpochSecond()
+        ));
+
+        for (int i = 0; i < 3; i++) {
+            authenticate(filter, token);
+            assertEquals("goodboy95", SecurityContextHolder.getContext().getAuthentication().getName());
+        }
+        verify(validator, times(1)).check(18L, "sid-001");
+        verify(provisioningService, times(1)).ensureExistsBestEffort("goodboy95", "USER", 18L);
+        verify(userDetailsService, times(1)).loadUserByUsername("goodboy95");
+
+        cache.invalidateSession(18L, "sid-001");
+        when(validator.check(18L, "sid-001")).thenReturn(UserSessionValidator.Verdict.INVALID);
+        authenticate(filter, token);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        authenticate(filter, token);
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(validator, times(2)).check(18L, "sid-001");
+    }
+
+    private void authenticate(JwtAuthFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
     private JwtAuthFilter createFilter(
             JwtService jwtService,
             UserDetailsService userDetailsService,
             SsoUserProvisioningService provisioningService,
             ObjectProvider<UserSessionValidator> provider
+    ) {
+        return createFilter(jwtService, userDetailsService, provisioningService, provider,
+                new SessionAuthenticationCache(new UserSessionValidationProperties()));
+    }
+
+    private JwtAuthFilter createFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            SsoUserProvisioningService provisioningService,
+            ObjectProvider<UserSessionValidator> provider,
+            SessionAuthenticationCache sessionCache
     ) {
         JwtAuthFilter filter = new JwtAuthFilter();
         ReflectionTestUtils.setField(filter, "jwtService", jwtService);
@@ -146,6 +208,7 @@ class JwtAuthFilterTest {
         ReflectionTestUtils.setField(filter, "provisioningService", provisioningService);
         ReflectionTestUtils.setField(filter, "objectMapper", new ObjectMapper());
         ReflectionTestUtils.setField(filter, "userSessionValidatorProvider", provider);
+        ReflectionTestUtils.setField(filter, "sessionCache", sessionCache);
         return filter;
     }
 
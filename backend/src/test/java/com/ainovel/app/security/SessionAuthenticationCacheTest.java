@@ -0,0 +1,99 @@
+package com.ainovel.app.security;
+
+import com.ainovel.app.security.remote.UserSessionValidationProperties;
+import com.ainovel.app.security.remote.UserSessionValidator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SessionAuthenticationCacheTest {
+    private final AtomicLong now = new AtomicLong();
+    private final UserSessionValidationProperties properties = new UserSessionValidationProperties();
+    private final SessionAuthenticationCache cache = new SessionAuthenticationCache(properties, now::get);
+
+    @Test
+    void validSessionsUseLongerTtlThanRejectedOnes() {
+        properties.setCacheTtlMs(30_000);
+        properties.setNegativeCacheTtlMs(5_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertTrue(cache.isSessionValid(1L, "good", () -> verdict(calls.incrementAndGet() > 0)));
+        assertFalse(cache.isSessionValid(2L, "bad", () -> verdict(calls.incrementAndGet() < 0)));
+        advanceMillis(10_000);
+        assertTrue(cache.isSessionValid(1L, "good", () -> verdict(calls.incrementAndGet() > 0)));
+        assertFalse(cache.isSessionValid(2L, "bad", () -> verdict(calls.incrementAndGet() < 0)));
+        assertEquals(3, calls.get());
+
+        advanceMillis(25_000);
+        assertTrue(cache.isSessionValid(1L, "good", () -> verdict(calls.incrementAndGet() > 0)));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    void unreachableUserserviceIsNotCachedAsRejection() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertFalse(cache.isSessionValid(3L, "sid", () -> {
+            calls.incrementAndGet();
+            return UserSessionValidator.Verdict.UNAVAILABLE;
+        }));
+        assertTrue(cache.isSessionValid(3L, "sid", () -> verdict(calls.incrementAndGet() > 0)));
+        assertTrue(cache.isSessionValid(3L, "sid", () -> verdict(calls.incrementAndGet() > 0)));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void invalidationForcesRevalidation() {
+        AtomicInteger calls = new AtomicInteger();
+        cache.isSessionValid(7L, "a", () -> verdict(calls.incrementAndGet() > 0));
+        cache.isSessionValid(7L, "b", () -> verdict(calls.incrementAndGet() > 0));
+
+        cache.invalidateSession(7L, "a");
+        cache.isSessionValid(7L, "a", () -> verdict(calls.incrementAndGet() > 0));
+        cache.isSessionValid(7L, "b", () -> verdict(calls.incrementAndGet() > 0));
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    void principalIsReloadedWhenRoleOrUidChanges() {
+        AtomicInteger loads = new AtomicInteger();
+        UserDetails first = cache.principal("writer", "USER", 9L, () -> load(loads));
+
+        assertSame(first, cache.principal("writer", "USER", 9L, () -> load(loads)));
+        cache.principal("writer", "ADMIN", 9L, () -> load(loads));
+        cache.invalidateUser("writer");
+        cache.principal("writer", "ADMIN", 9L, () -> load(loads));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void cacheStaysBounded() {
+        properties.setCacheMaxEntries(100);
+        for (long uid = 1; uid <= 1_000; uid++) {
+            cache.isSessionValid(uid, "sid", () -> UserSessionValidator.Verdict.VALID);
+        }
+        assertTrue(cache.size() <= 100);
+    }
+
+    private UserSessionValidator.Verdict verdict(boolean valid) {
+        return valid ? UserSessionValidator.Verdict.VALID : UserSessionValidator.Verdict.INVALID;
+    }
+
+    private UserDetails load(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return User.withUsername("writer").password("n/a").authorities("ROLE_USER").build();
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,84 @@
+package com.ainovel.app.security.remote;
+
+import com.ainovel.app.integration.ExternalServiceProperties;
+import com.ainovel.app.integration.GrpcChannelFactory;
+import com.ainovel.app.security.SessionAuthenticationCache;
+import fireflychat.user.v1.UserAuthServiceGrpc;
+import fireflychat.user.v1.ValidateSessionRequest;
+import fireflychat.user.v1.ValidateSessionResponse;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** {@link UserSessionValidator} against an in-process userservice that goes away and comes back. */
+class UserSessionValidatorRecoveryTest {
+    private final String name = "fake-userservice-" + UUID.randomUUID();
+    private final UserSessionValidationProperties properties = new UserSessionValidationProperties();
+    private Server server;
+    private UserSessionValidator validator;
+
+    @AfterEach
+    void tearDown() {
+        if (validator != null) validator.shutdown();
+        if (server != null) server.shutdownNow();
+    }
+
+    @Test
+    void sessionsRecoverAsSoonAsUserserviceIsBack() throws Exception {
+        startServer();
+        validator = validator();
+        SessionAuthenticationCache cache = new SessionAuthenticationCache(properties);
+        assertEquals(UserSessionValidator.Verdict.VALID, validator.check(18L, "sid-001"));
+
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        assertEquals(UserSessionValidator.Verdict.UNAVAILABLE, validator.check(18L, "sid-002"));
+        assertFalse(cache.isSessionValid(18L, "sid-002", () -> validator.check(18L, "sid-002")));
+
+        startServer();
+        // gRPC's first reconnect backoff is about a second; the validator skips it instead of waiting it out.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        boolean recovered = false;
+        while (!recovered && System.nanoTime() < deadline) {
+            recovered = cache.isSessionValid(18L, "sid-002", () -> validator.check(18L, "sid-002"));
+        }
+        assertTrue(recovered, "session still rejected after userservice came back");
+    }
+
+    private void startServer() throws IOException {
+        server = InProcessServerBuilder.forName(name).directExecutor().addService(new UserAuthServiceGrpc.UserAuthServiceImplBase() {
+            @Override
+            public void validateSession(ValidateSessionRequest request, StreamObserver<ValidateSessionResponse> observer) {
+                observer.onNext(ValidateSessionResponse.newBuilder().setValid(true).build());
+                observer.onCompleted();
+            }
+        }).build().start();
+    }
+
+    private UserSessionValidator validator() {
+        properties.setGrpcAddress("static://userservice:10001");
+        properties.setTimeoutMs(2_000);
+        ExternalServiceProperties externalProperties = new ExternalServiceProperties();
+        externalProperties.getGrpc().setChannelsPerEndpoint(1);
+        externalProperties.getSecurity().getUser().setInternalGrpcToken("internal-token");
+        GrpcChannelFactory channelFactory = mock(GrpcChannelFactory.class);
+        when(channelFactory.create(anyString(), anyInt()))
+                .thenAnswer(invocation -> InProcessChannelBuilder.forName(name).directExecutor().build());
+        return new UserSessionValidator(new ConsulUserGrpcEndpointResolver(properties), properties,
+                externalProperties, channelFactory);
+    }
+}
@@ -1,21 +1,27 @@
 package com.ainovel.app.story;
 
 import com.ainovel.app.ai.AiService;
+import com.ainovel.app.aioperation.AiOperationService;
+import com.ainovel.app.aioperation.CoreAiOperationHandler;
 import com.ainovel.app.ai.dto.AiChatRequest;
 import com.ainovel.app.ai.dto.AiChatResponse;
+import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.ManuscriptService;
 import com.ainovel.app.manuscript.SceneGenerationPromptBuilder;
 import com.ainovel.app.manuscript.SceneGenerationService;
 import com.ainovel.app.manuscript.ScenePlotQualitySupport;
 import com.ainovel.app.manuscript.dto.ManuscriptDto;
 import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.model.ManuscriptSection;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
 import com.ainovel.app.material.MaterialRetrievalService;
+import com.ainovel.app.metrics.GenerationContextMetrics;
+import com.ainovel.app.metrics.StageLatencyMetrics;
 import com.ainovel.app.prompt.AssembledPrompt;
 import com.ainovel.app.prompt.PromptAssemblyService;
-import com.ainovel.app.quality.PlotQualityRequest;
-import com.ainovel.app.quality.PlotQualityService;
 import com.ainovel.app.quality.SlopQualityGate;
 import com.ainovel.app.quality.SlopQualityRequest;
 import com.ainovel.app.quality.SlopQualityResult;
@@ -33,18 +39,23 @@ import com.ainovel.app.user.User;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -56,6 +67,11 @@ class ManuscriptServiceTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final JsonColumnCodec jsonColumnCodec = new JsonColumnCodec(objectMapper);
+    private final Map<String, ManuscriptSection> storedSections = new LinkedHashMap<>();
+    private final ManuscriptSectionRepository sectionRepository = sectionRepository();
+    private final ManuscriptSectionStore sectionStore = new ManuscriptSectionStore(sectionRepository, jsonColumnCodec);
+    private final StageLatencyMetrics stageLatencyMetrics = new StageLatencyMetrics();
+    private final GenerationContextMetrics generationContextMetrics = new GenerationContextMetrics();
 
     @Test
     void generateForSceneShouldPersistAcceptedGateResult() {
@@ -64,7 +80,7 @@ class ManuscriptServiceTest {
         AiService aiService = mock(AiService.class);
         ResourceAccessGuard accessGuard = mock(ResourceAccessGuard.class);
         SlopQualityGate slopQualityGate = mock(SlopQualityGate.class);
-        PlotQualityService plotQualityService = mock(PlotQualityService.class);
+        AiOperationService aiOperations = mock(AiOperationService.class);
         PromptAssemblyService promptAssemblyService = mock(PromptAssemblyService.class);
         MaterialRetrievalService materialRetrievalService = mock(MaterialRetrievalService.class);
         StyleContextProvider styleContextProvider = mock(StyleContextProvider.class);
@@ -75,7 +91,7 @@ class ManuscriptServiceTest {
                 aiService,
                 accessGuard,
                 slopQualityGate,
-                plotQualityService,
+                aiOperations,
                 promptAssemblyService,
                 materialRetrievalService,
                 styleContextProvider
@@ -103,7 +119,6 @@ class ManuscriptServiceTest {
         String acceptedText = "稿".repeat(2900);
 
         when(manuscriptRepository.findWithStoryById(manuscript.getId())).thenReturn(Optional.of(manuscript));
-        when(manuscriptRepository.save(any(Manuscript.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(characterCardRepository.findByStory(story)).thenReturn(List.of(character));
         when(promptAssemblyService.assembleSceneDraft(any())).thenReturn(new AssembledPrompt(
                 List.of(new AiChatRequest.Message("user", "生成本场景")),
@@ -129,7 +144,8 @@ class ManuscriptServiceTest {
         assertTrue(dto.sections().get(targetSceneId.toString()).startsWith("<p>稿稿稿"));
         assertEquals("<p>上一场景留下铜扣线索。</p>", dto.sections().get(previousSceneId.toString()));
         verify(accessGuard).assertOwner(owner);
-        verify(manuscriptRepository).save(manuscript);
+        verify(manuscriptRepository, never()).save(any(Manuscript.class));
+        assertEquals(dto.sections().get(targetSceneId.toString()), storedSections.get(targetSceneId.toString()).getContent());
 
         ArgumentCaptor<SlopQualityRequest> gateRequestCaptor = ArgumentCaptor.forClass(SlopQualityRequest.class);
         verify(slopQualityGate).evaluateAndRepair(eq(owner), gateRequestCaptor.capture());
@@ -139,10 +155,24 @@ class ManuscriptServiceTest {
         assertTrue(gateRequest.previousContext().contains("铜扣线索"));
         assertEquals("冷峻、压迫感强", gateRequest.styleContext());
 
-        ArgumentCaptor<PlotQualityRequest> plotRequestCaptor = ArgumentCaptor.forClass(PlotQualityRequest.class);
-        verify(plotQualityService).analyze(eq(owner), plotRequestCaptor.capture());
-        assertEquals(targetSceneId, plotRequestCaptor.getValue().sceneId());
-        assertEquals(acceptedText, plotRequestCaptor.getValue().sceneText());
+        // Plot quality is queued for after the commit rather than analyzed inside generation.
+        ArgumentCaptor<Object> payloadCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(aiOperations).submitAfterCommit(eq(owner), eq(CoreAiOperationHandler.TYPE),
+                eq(ScenePlotQualitySupport.PLOT_QUALITY_SCOPE), eq(targetSceneId), payloadCaptor.capture(), anyInt(), any());
+        CoreAiOperationHandler.CorePayload payload = (CoreAiOperationHandler.CorePayload) payloadCaptor.getValue();
+        assertEquals(CoreAiOperationHandler.SCENE_PLOT_QUALITY, payload.action());
+        assertEquals(manuscript.getId(), payload.primaryId());
+        assertEquals(targetSceneId, payload.secondaryId());
+        verify(aiService, times(1)).chat(eq(owner), any());
+        // Only the previous scene is read for the prompt; the whole book is loaded once, for the returned DTO.
+        verify(sectionRepository).findByManuscriptIdAndSceneId(manuscript.getId(), previousSceneId.toString());
+        verify(sectionRepository, times(1)).findByManuscriptId(manuscript.getId());
+
+        Map<String, StageLatencyMetrics.Snapshot> stages = stageLatencyMetrics.snapshot();
+        assertEquals(1, stages.get(StageLatencyMetrics.SCENE_DRAFT).count());
+        assertEquals(1, stages.get(StageLatencyMetrics.SCENE_SLOP_GATE).count());
+        assertEquals(1, stages.get(StageLatencyMetrics.SCENE_GENERATION).count());
+        assertFalse(stages.containsKey(StageLatencyMetrics.SCENE_PLOT_QUALITY));
     }
 
     @Test
@@ -151,6 +181,7 @@ class ManuscriptServiceTest {
         CharacterCardRepository characterCardRepository = mock(CharacterCardRepository.class);
         AiService aiService = mock(AiService.class);
         ResourceAccessGuard accessGuard = mock(ResourceAccessGuard.class);
+        AiOperationService aiOperations = mock(AiOperationService.class);
         PromptAssemblyService promptAssemblyService = mock(PromptAssemblyService.class);
         MaterialRetrievalService materialRetrievalService = mock(MaterialRetrievalService.class);
         StyleContextProvider styleContextProvider = mock(StyleContextProvider.class);
@@ -161,7 +192,7 @@ class ManuscriptServiceTest {
                 aiService,
                 accessGuard,
                 mock(SlopQualityGate.class),
-                mock(PlotQualityService.class),
+                aiOperations,
                 promptAssemblyService,
                 materialRetrievalService,
                 styleContextProvider
@@ -197,7 +228,89 @@ class ManuscriptServiceTest {
         assertTrue(ex.getMessage().contains("重试 3 次"));
         verify(aiService, times(3)).chat(eq(owner), any());
         verify(promptAssemblyService, times(3)).assembleSceneDraft(any());
+        // Retries rebuild the prompt from the first attempt's plan instead of searching materials again.
+        verify(materialRetrievalService, times(1)).search(eq(owner), any());
+        verify(characterCardRepository, times(1)).findByStory(story);
+        verify(styleContextProvider, times(1)).buildSlopContext(story);
+        assertEquals(new GenerationContextMetrics.Snapshot(1, 2), generationContextMetrics.snapshot());
         verify(manuscriptRepository, never()).save(any(Manuscript.class));
+        verify(sectionRepository, never()).save(any(ManuscriptSection.class));
+        verify(aiOperations, never()).submitAfterCommit(any(), any(), any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void generateForSceneShouldNotOverwriteASceneSavedDuringGeneration() {
+        ManuscriptRepository manuscriptRepository = mock(ManuscriptRepository.class);
+        CharacterCardRepository characterCardRepository = mock(CharacterCardRepository.class);
+        AiService aiService = mock(AiService.class);
+        SlopQualityGate slopQualityGate = mock(SlopQualityGate.class);
+        AiOperationService aiOperations = mock(AiOperationService.class);
+        PromptAssemblyService promptAssemblyService = mock(PromptAssemblyService.class);
+        MaterialRetrievalService materialRetrievalService = mock(MaterialRetrievalService.class);
+        StyleContextProvider styleContextProvider = mock(StyleContextProvider.class);
+        ManuscriptService service = service(
+                manuscriptRepository,
+                mock(OutlineRepository.class),
+                characterCardRepository,
+                aiService,
+                mock(ResourceAccessGuard.class),
+                slopQualityGate,
+                aiOperations,
+                promptAssemblyService,
+                materialRetrievalService,
+                styleContextProvider
+        );
+
+        User owner = user("conflict_author");
+        UUID targetSceneId = UUID.randomUUID();
+        Story story = story(owner);
+        Outline outline = outline(story, List.of(
+                new OutlineSaveRequest.ChapterPayload(
+                        UUID.randomUUID(),
+                        "第一章",
+                        "章摘要",
+                        1,
+                        Map.of(),
+                        List.of(new OutlineSaveRequest.ScenePayload(targetSceneId, "目标场景", "场景摘要", null, 1, Map.of()))
+                )
+        ));
+        Manuscript manuscript = manuscript(UUID.randomUUID(), outline, Map.of());
+
+        when(manuscriptRepository.findWithStoryById(manuscript.getId())).thenReturn(Optional.of(manuscript));
+        when(characterCardRepository.findByStory(story)).thenReturn(List.of());
+        when(promptAssemblyService.assembleSceneDraft(any())).thenReturn(new AssembledPrompt(
+                List.of(new AiChatRequest.Message("user", "生成本场景")),
+                128000
+        ));
+        when(materialRetrievalService.search(eq(owner), any())).thenReturn(List.of());
+        when(styleContextProvider.buildSlopContext(story)).thenReturn("暂无风格画像");
+        when(aiService.chat(eq(owner), any())).thenAnswer(invocation -> {
+            // The author saves the scene by hand while the model is still writing.
+            ManuscriptSection edited = new ManuscriptSection();
+            edited.setManuscriptId(manuscript.getId());
+            edited.setSceneId(targetSceneId.toString());
+            edited.setContent("<p>作者手写的版本。</p>");
+            ReflectionTestUtils.setField(edited, "lockVersion", 1L);
+            storedSections.put(targetSceneId.toString(), edited);
+            return new AiChatResponse("assistant", "文".repeat(2900), null, 0);
+        });
+        when(slopQualityGate.evaluateAndRepair(eq(owner), any())).thenReturn(new SlopQualityResult(
+                UUID.randomUUID(),
+                "稿".repeat(2900),
+                18,
+                SlopSeverity.LOW,
+                false,
+                0,
+                SlopQualityStatus.ACCEPTED,
+                List.of()
+        ));
+
+        BusinessException ex = assertThrows(BusinessException.class, () -> service.generateForScene(manuscript.getId(), targetSceneId));
+
+        assertTrue(ex.getMessage().contains("已被修改"));
+        assertEquals("<p>作者手写的版本。</p>", storedSections.get(targetSceneId.toString()).getContent());
+        verify(sectionRepository, never()).save(any(ManuscriptSection.class));
+        verify(aiOperations, never()).submitAfterCommit(any(), any(), any(), any(), any(), anyInt(), any());
     }
 
     private ManuscriptService service(
@@ -207,7 +320,7 @@ class ManuscriptServiceTest {
             AiService aiService,
             ResourceAccessGuard accessGuard,
             SlopQualityGate slopQualityGate,
-            PlotQualityService plotQualityService,
+            AiOperationService aiOperations,
             PromptAssemblyService promptAssemblyService,
             MaterialRetrievalService materialRetrievalService,
             StyleContextProvider styleContextProvider
@@ -217,14 +330,18 @@ class ManuscriptServiceTest {
         ReflectionTestUtils.setField(service, "outlineRepository", outlineRepository);
         ReflectionTestUtils.setField(service, "accessGuard", accessGuard);
         ReflectionTestUtils.setField(service, "jsonColumnCodec", jsonColumnCodec);
+        ReflectionTestUtils.setField(service, "sectionStore", sectionStore);
+        ScenePlotQualitySupport plotQualitySupport = plotQualitySupport(aiOperations, styleContextProvider);
+        ReflectionTestUtils.setField(service, "scenePlotQualitySupport", plotQualitySupport);
+        ReflectionTestUtils.setField(service, "stageLatencyMetrics", stageLatencyMetrics);
+        ReflectionTestUtils.setField(service, "transactionManager", mock(PlatformTransactionManager.class));
         ReflectionTestUtils.setField(service, "sceneGenerationService", sceneGenerationService(
                 characterCardRepository,
                 aiService,
                 slopQualityGate,
-                plotQualityService,
+                plotQualitySupport,
                 promptAssemblyService,
-                materialRetrievalService,
-                styleContextProvider
+                materialRetrievalService
         ));
         return service;
     }
@@ -233,27 +350,51 @@ class ManuscriptServiceTest {
             CharacterCardRepository characterCardRepository,
             AiService aiService,
             SlopQualityGate slopQualityGate,
-            PlotQualityService plotQualityService,
+            ScenePlotQualitySupport plotQualitySupport,
             PromptAssemblyService promptAssemblyService,
-            MaterialRetrievalService materialRetrievalService,
-            StyleContextProvider styleContextProvider
+            MaterialRetrievalService materialRetrievalService
     ) {
         SceneGenerationService service = new SceneGenerationService();
         SceneGenerationPromptBuilder promptBuilder = new SceneGenerationPromptBuilder();
-        ScenePlotQualitySupport plotQualitySupport = new ScenePlotQualitySupport();
         ReflectionTestUtils.setField(service, "characterCardRepository", characterCardRepository);
         ReflectionTestUtils.setField(service, "aiService", aiService);
         ReflectionTestUtils.setField(service, "slopQualityGate", slopQualityGate);
         ReflectionTestUtils.setField(promptBuilder, "promptAssemblyService", promptAssemblyService);
         ReflectionTestUtils.setField(promptBuilder, "materialRetrievalService", materialRetrievalService);
-        ReflectionTestUtils.setField(plotQualitySupport, "plotQualityService", plotQualityService);
-        ReflectionTestUtils.setField(plotQualitySupport, "styleContextProvider", styleContextProvider);
         ReflectionTestUtils.setField(service, "sceneGenerationPromptBuilder", promptBuilder);
         ReflectionTestUtils.setField(service, "scenePlotQualitySupport", plotQualitySupport);
         ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "sectionStore", sectionStore);
+        ReflectionTestUtils.setField(service, "parsedOutlineCache", new ParsedOutlineCache(objectMapper, 16));
+        ReflectionTestUtils.setField(service, "stageLatencyMetrics", stageLatencyMetrics);
+        ReflectionTestUtils.setField(service, "generationContextMetrics", generationContextMetrics);
         return service;
     }
 
+    @SuppressWarnings("unchecked")
+    private ScenePlotQualitySupport plotQualitySupport(AiOperationService aiOperations,
+                                                      StyleContextProvider styleContextProvider) {
+        ObjectProvider<AiOperationService> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(aiOperations);
+        ScenePlotQualitySupport plotQualitySupport = new ScenePlotQualitySupport();
+        ReflectionTestUtils.setField(plotQualitySupport, "aiOperations", provider);
+        ReflectionTestUtils.setField(plotQualitySupport, "styleContextProvider", styleContextProvider);
+        return plotQualitySupport;
+    }
+
+    private ManuscriptSectionRepository sectionRepository() {
+        ManuscriptSectionRepository repository = mock(ManuscriptSectionRepository.class);
+        when(repository.findByManuscriptId(any())).thenAnswer(invocation -> List.copyOf(storedSections.values()));
+        when(repository.findByManuscriptIdAndSceneId(any(), any()))
+                .thenAnswer(invocation -> Optional.ofNullable(storedSections.get(invocation.<String>getArgument(1))));
+        when(repository.save(any(ManuscriptSection.class))).thenAnswer(invocation -> {
+            ManuscriptSection section = invocation.getArgument(0);
+            storedSections.put(section.getSceneId(), section);
+            return section;
+        });
+        return repository;
+    }
+
     private Manuscript manuscript(UUID manuscriptId, Outline outline, Map<String, String> sections) {
         Manuscript manuscript = new Manuscript();
         manuscript.setId(manuscriptId);
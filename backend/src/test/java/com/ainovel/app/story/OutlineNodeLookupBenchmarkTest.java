@@ -0,0 +1,120 @@
+package com.ainovel.app.story;
+
+import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.OutlineNodeType;
+import com.ainovel.app.story.model.Story;
+import com.ainovel.app.story.repo.OutlineRepository;
+import com.ainovel.app.user.User;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scene → outline lookup latency at 100 and 100k outlines. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+class OutlineNodeLookupBenchmarkTest {
+    private static final int INSERT_BATCH = 1_000;
+    private static final int LOOKUPS = 500;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutlineRepository outlineRepository;
+
+    @Test
+    void sceneLookupStaysFlatFrom100To100kOutlines(TestReporter reporter) {
+        Story story = persistStory(persistUser("outline-bench"));
+        List<UUID> sceneIds = new ArrayList<>();
+
+        insertOutlines(story, 100, sceneIds);
+        long smallMedian = medianLookupNanos(sceneIds);
+
+        insertOutlines(story, 100_000 - 100, sceneIds);
+        long largeMedian = medianLookupNanos(sceneIds);
+
+        reporter.publishEntry("outline scene lookup median", String.format("100 outlines=%dus, 100k outlines=%dus",
+                smallMedian / 1_000, largeMedian / 1_000));
+        assertTrue(largeMedian <= Math.max(smallMedian * 5, smallMedian + 2_000_000),
+                "lookup grew from " + smallMedian + "ns to " + largeMedian + "ns");
+    }
+
+    private void insertOutlines(Story story, int count, List<UUID> sceneIds) {
+        List<Object[]> outlines = new ArrayList<>(INSERT_BATCH);
+        List<Object[]> nodes = new ArrayList<>(INSERT_BATCH * 2);
+        for (int i = 0; i < count; i++) {
+            UUID outlineId = UUID.randomUUID();
+            UUID chapterId = UUID.randomUUID();
+            UUID sceneId = UUID.randomUUID();
+            sceneIds.add(sceneId);
+            outlines.add(new Object[] {outlineId, story.getId(), "大纲", "{\"chapters\":[]}"});
+            nodes.add(new Object[] {UUID.randomUUID(), outlineId, OutlineNodeType.CHAPTER.name(), chapterId});
+            nodes.add(new Object[] {UUID.randomUUID(), outlineId, OutlineNodeType.SCENE.name(), sceneId});
+            if (outlines.size() == INSERT_BATCH || i == count - 1) {
+                jdbcTemplate.batchUpdate("insert into outlines (id, story_id, title, content_json) values (?, ?, ?, ?)", outlines);
+                jdbcTemplate.batchUpdate("insert into outline_nodes (id, outline_id, node_type, node_id) values (?, ?, ?, ?)", nodes);
+                outlines.clear();
+                nodes.clear();
+            }
+        }
+    }
+
+    private long medianLookupNanos(List<UUID> sceneIds) {
+        Random random = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            lookup(sceneIds.get(random.nextInt(sceneIds.size())));
+        }
+        long[] samples = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            UUID sceneId = sceneIds.get(random.nextInt(sceneIds.size()));
+            long start = System.nanoTime();
+            List<Outline> found = lookup(sceneId);
+            samples[i] = System.nanoTime() - start;
+            assertEquals(1, found.size());
+        }
+        Arrays.sort(samples);
+        return samples[LOOKUPS / 2];
+    }
+
+    private List<Outline> lookup(UUID sceneId) {
+        entityManager.clear();
+        return outlineRepository.findByNodeWithStoryUser(OutlineNodeType.SCENE, sceneId);
+    }
+
+    private User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("x");
+        user.setRemoteUid((long) username.hashCode());
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Story persistStory(User user) {
+        Story story = new Story();
+        story.setUser(user);
+        story.setTitle("基准故事");
+        story.setStatus("draft");
+        entityManager.persistAndFlush(story);
+        return story;
+    }
+}
@@ -10,15 +10,20 @@ import com.ainovel.app.story.dto.OutlineDto;
 import com.ainovel.app.story.dto.OutlineSaveRequest;
 import com.ainovel.app.story.dto.SceneUpdateRequest;
 import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.OutlineNode;
+import com.ainovel.app.story.model.OutlineNodeType;
 import com.ainovel.app.story.model.Story;
+import com.ainovel.app.story.repo.OutlineNodeRepository;
 import com.ainovel.app.story.repo.OutlineRepository;
 import com.ainovel.app.story.repo.StoryRepository;
 import com.ainovel.app.user.User;
 import com.ainovel.app.user.UserRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,6 +35,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,6 +44,7 @@ class OutlineServiceTest {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final JsonColumnCodec jsonColumnCodec = new JsonColumnCodec(objectMapper);
+    private final OutlineNodeRepository nodeRepository = mock(OutlineNodeRepository.class);
 
     @Test
     void saveOutlineShouldNormalizeNestedChapterTree() {
@@ -87,6 +94,38 @@ class OutlineServiceTest {
         assertTrue(outline.getContentJson().contains("第一章"));
         verify(accessGuard).assertOwner(owner);
         verify(outlineRepository).save(outline);
+        assertEquals(List.of(
+                new IndexedNode(OutlineNodeType.CHAPTER, chapter.id()),
+                new IndexedNode(OutlineNodeType.SCENE, scene.id())
+        ), savedNodes(outline.getId()));
+    }
+
+    @Test
+    void saveOutlineShouldDropIndexEntriesForRemovedScenes() {
+        OutlineRepository outlineRepository = mock(OutlineRepository.class);
+        OutlineService service = service(outlineRepository, mock(StoryRepository.class), mock(ResourceAccessGuard.class), mock(AiService.class), mock(UserRepository.class));
+        UUID chapterId = UUID.randomUUID();
+        UUID keptSceneId = UUID.randomUUID();
+        Outline outline = outline(outlineId(), story(user("index_author")), Map.of("planning", Map.of(), "chapters", List.of()));
+        OutlineNode chapterNode = new OutlineNode(outline.getId(), OutlineNodeType.CHAPTER, chapterId);
+        OutlineNode keptNode = new OutlineNode(outline.getId(), OutlineNodeType.SCENE, keptSceneId);
+        OutlineNode removedNode = new OutlineNode(outline.getId(), OutlineNodeType.SCENE, UUID.randomUUID());
+
+        when(outlineRepository.findByIdWithStoryUser(outline.getId())).thenReturn(Optional.of(outline));
+        when(nodeRepository.findByOutlineId(outline.getId())).thenReturn(List.of(chapterNode, keptNode, removedNode));
+
+        service.saveOutline(outline.getId(), new OutlineSaveRequest(
+                null,
+                "world-1",
+                Map.of(),
+                List.of(new OutlineSaveRequest.ChapterPayload(
+                        chapterId, "第一章", "摘要", 1, Map.of(),
+                        List.of(new OutlineSaveRequest.ScenePayload(keptSceneId, "保留", "摘要", null, 1, Map.of()))
+                ))
+        ));
+
+        verify(nodeRepository).deleteAll(List.of(removedNode));
+        verify(nodeRepository, never()).saveAll(any());
     }
 
     @Test
@@ -109,7 +148,7 @@ class OutlineServiceTest {
                 ))
         ));
 
-        when(outlineRepository.findAllWithStoryUser()).thenReturn(List.of(outline));
+        when(outlineRepository.findByNodeWithStoryUser(OutlineNodeType.CHAPTER, chapterId)).thenReturn(List.of(outline));
         when(outlineRepository.findByIdWithStoryUser(outline.getId())).thenReturn(Optional.of(outline));
         when(outlineRepository.save(any(Outline.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -148,7 +187,7 @@ class OutlineServiceTest {
                 ))
         ));
 
-        when(outlineRepository.findAllWithStoryUser()).thenReturn(List.of(outline));
+        when(outlineRepository.findByNodeWithStoryUser(OutlineNodeType.SCENE, targetSceneId)).thenReturn(List.of(outline));
         when(outlineRepository.findByIdWithStoryUser(outline.getId())).thenReturn(Optional.of(outline));
         when(outlineRepository.save(any(Outline.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -233,9 +272,25 @@ class OutlineServiceTest {
         ReflectionTestUtils.setField(service, "userRepository", userRepository);
         ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
         ReflectionTestUtils.setField(service, "jsonColumnCodec", jsonColumnCodec);
+        ReflectionTestUtils.setField(service, "outlineNodeIndex", new OutlineNodeIndex(nodeRepository, jsonColumnCodec));
         return service;
     }
 
+    @SuppressWarnings("unchecked")
+    private List<IndexedNode> savedNodes(UUID outlineId) {
+        ArgumentCaptor<Iterable<OutlineNode>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(nodeRepository).saveAll(captor.capture());
+        List<IndexedNode> nodes = new ArrayList<>();
+        for (OutlineNode node : captor.getValue()) {
+            assertEquals(outlineId, node.getOutlineId());
+            nodes.add(new IndexedNode(node.getNodeType(), node.getNodeId()));
+        }
+        return nodes;
+    }
+
+    private record IndexedNode(OutlineNodeType type, UUID nodeId) {
+    }
+
     private Outline outline(UUID outlineId, Story story, Map<String, Object> content) {
         Outline outline = new Outline();
         outline.setId(outlineId);
@@ -0,0 +1,99 @@
+package com.ainovel.app.story;
+
+import com.ainovel.app.story.model.Outline;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParsedOutlineCacheTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parseShouldIndexScenesAndPreviousSceneIdsPerChapter() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        ParsedOutline parsed = ParsedOutline.parse("""
+                {"planning":{"acts":3},"chapters":[
+                  {"title":"第一章","order":1,"scenes":[
+                    {"id":"%s","title":"雨夜"},
+                    {"id":"not-a-uuid","title":"残页"},
+                    {"id":"%s","order":"3"}
+                  ]},
+                  {"title":"第二章","scenes":[{"id":"%s","summary":"追踪"}]}
+                ]}
+                """.formatted(first, second, third), objectMapper);
+
+        assertEquals("{\"acts\":3}", parsed.planningJson());
+        assertEquals(4, parsed.orderedScenes().size());
+        ParsedOutline.Scene secondScene = parsed.scene(second).orElseThrow();
+        assertEquals(List.of(first), secondScene.previousSceneIds());
+        assertEquals(2, secondScene.index());
+        assertEquals(3, secondScene.order());
+        assertNull(secondScene.title());
+        assertEquals("第一章", parsed.chapterOf(secondScene).title());
+        ParsedOutline.Scene thirdScene = parsed.scene(third).orElseThrow();
+        assertTrue(thirdScene.previousSceneIds().isEmpty());
+        assertEquals(1, parsed.chapterOf(thirdScene).index());
+    }
+
+    @Test
+    void parseShouldTreatMalformedJsonAsEmptyOutline() {
+        ParsedOutline parsed = ParsedOutline.parse("{broken", objectMapper);
+
+        assertSame(ParsedOutline.EMPTY, parsed);
+        assertTrue(parsed.scene(UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void cacheShouldReuseModelUntilOutlineVersionChanges() {
+        ParsedOutlineCache cache = new ParsedOutlineCache(objectMapper, 16);
+        Outline outline = outline("{\"chapters\":[]}", Instant.parse("2026-01-01T00:00:00Z"));
+
+        ParsedOutline first = cache.get(outline);
+        assertSame(first, cache.get(outline));
+
+        outline.setContentJson("{\"chapters\":[{\"title\":\"新章\"}]}");
+        outline.setUpdatedAt(Instant.parse("2026-01-01T00:00:01Z"));
+        ParsedOutline second = cache.get(outline);
+
+        assertNotSame(first, second);
+        assertEquals("新章", second.chapters().get(0).title());
+    }
+
+    @Test
+    void cacheShouldEvictLeastRecentlyUsedEntriesBeyondCapacity() {
+        ParsedOutlineCache cache = new ParsedOutlineCache(objectMapper, 2);
+        Instant version = Instant.parse("2026-01-01T00:00:00Z");
+        Outline a = outline("{}", version);
+        Outline b = outline("{}", version);
+        Outline c = outline("{}", version);
+
+        ParsedOutline cachedA = cache.get(a);
+        cache.get(b);
+        cache.get(a);
+        ParsedOutline cachedB = cache.get(b);
+        cache.get(c);
+
+        assertEquals(2, cache.size());
+        assertSame(cachedB, cache.get(b));
+        assertNotSame(cachedA, cache.get(a));
+    }
+
+    private Outline outline(String contentJson, Instant updatedAt) {
+        Outline outline = new Outline();
+        outline.setId(UUID.randomUUID());
+        outline.setContentJson(contentJson);
+        outline.setUpdatedAt(updatedAt);
+        return outline;
+    }
+}
@@ -1,8 +1,10 @@
 package com.ainovel.app.user;
 
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
 import com.ainovel.app.manuscript.repo.ManuscriptRepository;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
 import com.ainovel.app.story.repo.StoryRepository;
 import com.ainovel.app.user.dto.UserSummaryResponse;
 import com.ainovel.app.world.model.World;
@@ -44,7 +46,8 @@ class UserSummaryQueryServiceTest {
                 storyRepository,
                 worldRepository,
                 manuscriptRepository,
-                jsonColumnCodec
+                jsonColumnCodec,
+                new ManuscriptSectionStore(mock(ManuscriptSectionRepository.class), jsonColumnCodec)
         );
 
         UserSummaryResponse result = service.summary(user);
@@ -0,0 +1,69 @@
+package com.ainovel.app.v2;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link CjkPdfWriter} pages per second on a 500,000-character manuscript, with the standard CJK font and
+ * with an embedded TrueType subset. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class CjkPdfWriterBenchmarkTest {
+
+    @Test
+    void pagesPerSecondForAHalfMillionCharacterManuscript(TestReporter reporter) throws Exception {
+        Random random = new Random(5);
+        List<String> paragraphs = new ArrayList<>();
+        int chars = 0;
+        while (chars < 500_000) {
+            String paragraph = CjkPdfWriterTest.paragraph(random, 400);
+            paragraphs.add(paragraph);
+            chars += paragraph.length();
+        }
+        String used = paragraphs.stream().flatMapToInt(String::codePoints).boxed().collect(Collectors.toCollection(TreeSet::new))
+                .stream().map(Character::toString).collect(Collectors.joining());
+        TrueTypeSubset.Font embedded = TrueTypeSubset.Font.parse(CjkPdfWriterTest.trueTypeFont(used, '品'));
+
+        for (String fontName : List.of("STSong-Light", "embedded TrueType")) {
+            for (int run = 0; run < 4; run++) {
+                CountingStream out = new CountingStream();
+                long started = System.nanoTime();
+                CjkPdfWriter pdf = new CjkPdfWriter(out, fontName.startsWith("STSong")
+                        ? new CjkPdfWriter.StandardCjkFont() : new TrueTypeSubset(embedded), "基准");
+                for (String paragraph : paragraphs) pdf.paragraph(paragraph);
+                int pages = pdf.pages();
+                pdf.finish();
+                double seconds = (System.nanoTime() - started) / 1e9;
+                assertTrue(pages > 300, "expected a book-length PDF, got " + pages + " pages");
+                if (run > 0) {
+                    reporter.publishEntry("pdf " + fontName + " run " + run, String.format("%,d chars: %d pages in %.0f ms, %.0f pages/s, %,d bytes",
+                            chars, pages, seconds * 1000, pages / seconds, out.size));
+                }
+            }
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private long size;
+
+        @Override
+        public void write(int b) {
+            size++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            size += len;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.ainovel.app.v2;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.IntUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Layout, streaming and font embedding of {@link CjkPdfWriter}. Text is checked by reading it back out of the
+ * generated PDF through its cross-reference table, as a viewer would. Pages per second are measured by
+ * {@link CjkPdfWriterBenchmarkTest}.
+ */
+class CjkPdfWriterTest {
+    private static final String[] CLAUSES = {
+            "雨从屋檐上连成一线", "他把铜扣攥在掌心", "巷口的灯忽明忽暗", "“她没有回头。”", "远处传来第三声更鼓",
+            "墙上的影子慢慢拉长", "纸伞边缘滴着冷水", "没人知道那封信去了哪里……", "《旧城志》第12卷", "（后来才知道）"
+    };
+    private static final String NO_LINE_START = "，。、；：？！）」』】》”’…";
+    private static final String NO_LINE_END = "（「『【《“‘";
+    private static final IntUnaryOperator HALF_WIDTH_ASCII = cp -> cp < 0x80 ? 500 : 1000;
+
+    @Test
+    void hanLinesBreakAnywhereButHangOrPushDownPunctuation() {
+        assertEquals(List.of("一二三四五六七八九十。", "下一行"),
+                CjkPdfWriter.breakLines("一二三四五六七八九十。下一行", HALF_WIDTH_ASCII, 10_000));
+        assertEquals(List.of("一二三四五六七八九", "十。」」下"),
+                CjkPdfWriter.breakLines("一二三四五六七八九十。」」下", HALF_WIDTH_ASCII, 10_000));
+        assertEquals(List.of("一二三四五六七八九", "“十一”"),
+                CjkPdfWriter.breakLines("一二三四五六七八九“十一”", HALF_WIDTH_ASCII, 10_000));
+
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            String text = paragraph(random, 300);
+            List<String> lines = CjkPdfWriter.breakLines(text, HALF_WIDTH_ASCII, 20_000);
+            assertEquals(text.replace(" ", ""), String.join("", lines).replace(" ", ""));
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                assertTrue(width(line) <= 22_000, "wider than the hanging allowance: " + line);
+                if (i > 0) assertTrue(NO_LINE_START.indexOf(line.charAt(0)) < 0, "line starts with a closing mark: " + line);
+                if (i < lines.size() - 1) assertTrue(NO_LINE_END.indexOf(line.charAt(line.length() - 1)) < 0, "line ends with an opening mark: " + line);
+            }
+        }
+    }
+
+    @Test
+    void latinWordsStayTogetherUnlessWiderThanALine() {
+        assertEquals(List.of("abc", "defgh", "ijk"), CjkPdfWriter.breakLines("abc defgh ijk", HALF_WIDTH_ASCII, 3_000));
+        assertEquals(List.of("abcdef", "ghij"), CjkPdfWriter.breakLines("abcdefghij", HALF_WIDTH_ASCII, 3_000));
+    }
+
+    @Test
+    void chineseTextWithTheStandardFontReadsBackFromThePdf() throws Exception {
+        List<String> paragraphs = List.of(
+                "“走吧。”他说。",
+                "雨从屋檐上连成一线，他把铜扣攥在掌心，巷口的灯忽明忽暗，她没有回头。远处传来第三声更鼓，墙上的影子慢慢拉长，纸伞边缘滴着冷水。",
+                "Chapter 3 of 《旧城志》 𠀋");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CjkPdfWriter pdf = new CjkPdfWriter(out, new CjkPdfWriter.StandardCjkFont(), "雨夜");
+        pdf.heading("雨夜");
+        for (String paragraph : paragraphs) pdf.paragraph(paragraph);
+        pdf.finish();
+
+        PdfText text = PdfText.read(out.toByteArray());
+
+        assertEquals("雨夜", text.pages().get(0).get(0));
+        assertEquals("雨夜" + String.join("", paragraphs), String.join("", text.lines()));
+        assertTrue(text.lines().size() > paragraphs.size() + 1, "long paragraph should wrap: " + text.lines());
+        assertEquals("/UniGB-UTF16-H", text.encoding());
+        assertFalse(new String(out.toByteArray(), StandardCharsets.ISO_8859_1).contains("/FontFile2"));
+    }
+
+    @Test
+    void trueTypeFontIsEmbeddedWithOnlyTheGlyphsUsed() throws Exception {
+        String chars = "口夜雨他推开门。，";
+        byte[] fontFile = trueTypeFont(chars, '品');
+        TrueTypeSubset.Font font = TrueTypeSubset.Font.parse(fontFile);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CjkPdfWriter pdf = new CjkPdfWriter(out, new TrueTypeSubset(font), "雨");
+        pdf.paragraph("雨，他推开门。品");
+        pdf.finish();
+
+        PdfText text = PdfText.read(out.toByteArray());
+        assertEquals(List.of("雨，他推开门。品"), text.lines());
+        assertEquals("/Identity-H", text.encoding());
+        assertTrue(text.fontName().matches("[A-Z]{6}\\+TestSans"), text.fontName());
+
+        byte[] subset = text.fontFile();
+        assertEquals(text.fontFileLength1(), subset.length);
+        Map<String, int[]> tables = tables(subset);
+        assertEquals(List.of("glyf", "head", "hhea", "hmtx", "loca", "maxp"), new ArrayList<>(tables.keySet()));
+        assertEquals(0xB1B0AFBAL, checksum(subset, 0, subset.length));
+        ByteBuffer loca = ByteBuffer.wrap(subset, tables.get("loca")[0], tables.get("loca")[1]);
+        List<Integer> kept = new ArrayList<>();
+        for (int glyph = 0; glyph < chars.length() + 2; glyph++) {
+            int start = loca.getInt(loca.position() + glyph * 4);
+            if (loca.getInt(loca.position() + glyph * 4 + 4) > start) kept.add(glyph);
+        }
+        // .notdef, 口 (only as a component of 品), 雨 他 推 开 门 。 ， and 品; 夜 is left empty.
+        assertEquals(List.of(0, 1, 3, 4, 5, 6, 7, 8, 9, 10), kept);
+    }
+
+    @Test
+    void pagesReachTheOutputBeforeTheDocumentIsFinished() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CjkPdfWriter pdf = new CjkPdfWriter(out, new CjkPdfWriter.StandardCjkFont(), "长篇");
+        Random random = new Random(3);
+        while (pdf.pages() < 4) pdf.paragraph(paragraph(random, 200));
+
+        String written = new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+        assertEquals(3, count(written, "/Type /Page /Parent"));
+        assertFalse(written.contains("xref"));
+
+        pdf.finish();
+        PdfText text = PdfText.read(out.toByteArray());
+        assertEquals(4, text.pages().size());
+    }
+
+    static String paragraph(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < length) {
+            text.append(CLAUSES[random.nextInt(CLAUSES.length)]).append(random.nextBoolean() ? "，" : "。");
+            if (random.nextInt(10) == 0) text.append("Mr Li ");
+        }
+        return text.toString();
+    }
+
+    private static int width(String line) {
+        return line.codePoints().map(HALF_WIDTH_ASCII).sum();
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int at = text.indexOf(part); at >= 0; at = text.indexOf(part, at + 1)) count++;
+        return count;
+    }
+
+    private static Map<String, int[]> tables(byte[] font) {
+        ByteBuffer buffer = ByteBuffer.wrap(font);
+        Map<String, int[]> tables = new TreeMap<>();
+        for (int i = 0; i < buffer.getShort(4); i++) {
+            int record = 12 + i * 16;
+            tables.put(new String(font, record, 4, StandardCharsets.US_ASCII), new int[] {buffer.getInt(record + 8), buffer.getInt(record + 12)});
+        }
+        return tables;
+    }
+
+    private static long checksum(byte[] data, int offset, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i += 4) {
+            long word = 0;
+            for (int j = 0; j < 4; j++) word = (word << 8) | (i + j < length ? data[offset + i + j] & 0xFF : 0);
+            sum += word;
+        }
+        return sum & 0xFFFFFFFFL;
+    }
+
+    /**
+     * A minimal TrueType font named TestSans: {@code .notdef}, a box glyph per character of {@code chars} (ASCII
+     * 500 units wide, everything else 1000), and a last glyph for {@code composite} built from glyph 1.
+     */
+    static byte[] trueTypeFont(String chars, int composite) {
+        int[] codePoints = chars.codePoints().toArray();
+        int glyphs = codePoints.length + 2;
+        ByteBuffer glyf = ByteBuffer.allocate(glyphs * 36);
+        ByteBuffer loca = ByteBuffer.allocate((glyphs + 1) * 4);
+        ByteBuffer hmtx = ByteBuffer.allocate(glyphs * 4);
+        for (int glyph = 0; glyph < glyphs; glyph++) {
+            loca.putInt(glyf.position());
+            hmtx.putShort((short) (glyph > 0 && glyph <= codePoints.length && codePoints[glyph - 1] < 0x80 ? 500 : 1000)).putShort((short) 0);
+            if (glyph == glyphs - 1) {
+                glyf.putShort((short) -1).putShort((short) 0).putShort((short) 0).putShort((short) 800).putShort((short) 800);
+                glyf.putShort((short) 0x0003).putShort((short) 1).putShort((short) 100).putShort((short) 0);
+            } else {
+                short size = (short) (100 + glyph);
+                glyf.putShort((short) 1).putShort((short) 0).putShort((short) 0).putShort(size).putShort(size);
+                glyf.putShort((short) 3).putShort((short) 0).put(new byte[] {1, 1, 1, 1});
+                glyf.putShort((short) 0).putShort(size).putShort((short) 0).putShort((short) -size);
+                glyf.putShort((short) 0).putShort((short) 0).putShort(size).putShort((short) 0);
+            }
+            while (glyf.position() % 4 != 0) glyf.put((byte) 0);
+        }
+        loca.putInt(glyf.position());
+
+        ByteBuffer head = ByteBuffer.allocate(54);
+        head.putInt(0x00010000).putInt(0x00010000).putInt(0).putInt(0x5F0F3CF5).putShort((short) 0).putShort((short) 1000)
+                .putLong(0).putLong(0).putShort((short) 0).putShort((short) -120).putShort((short) 1000).putShort((short) 880)
+                .putShort((short) 0).putShort((short) 8).putShort((short) 2).putShort((short) 1).putShort((short) 0);
+        ByteBuffer hhea = ByteBuffer.allocate(36);
+        hhea.putInt(0x00010000).putShort((short) 880).putShort((short) -120).putShort((short) 0).putShort((short) 1000)
+                .putShort((short) 0).putShort((short) 0).putShort((short) 1000).putShort((short) 1).putShort((short) 0)
+                .putShort((short) 0).putLong(0).putShort((short) 0).putShort((short) glyphs);
+        ByteBuffer maxp = ByteBuffer.allocate(6).putInt(0x00005000).putShort((short) glyphs);
+
+        TreeMap<Integer, Integer> glyphByCodePoint = new TreeMap<>();
+        for (int i = 0; i < codePoints.length; i++) glyphByCodePoint.put(codePoints[i], i + 1);
+        glyphByCodePoint.put(composite, glyphs - 1);
+        ByteBuffer cmap = ByteBuffer.allocate(12 + 16 + glyphByCodePoint.size() * 12);
+        cmap.putShort((short) 0).putShort((short) 1).putShort((short) 3).putShort((short) 10).putInt(12);
+        cmap.putShort((short) 12).putShort((short) 0).putInt(16 + glyphByCodePoint.size() * 12).putInt(0).putInt(glyphByCodePoint.size());
+        glyphByCodePoint.forEach((codePoint, glyph) -> cmap.putInt(codePoint).putInt(codePoint).putInt(glyph));
+
+        byte[] psName = "TestSans".getBytes(StandardCharsets.UTF_16BE);
+        ByteBuffer name = ByteBuffer.allocate(18 + psName.length);
+        name.putShort((short) 0).putShort((short) 1).putShort((short) 18)
+                .putShort((short) 3).putShort((short) 1).putShort((short) 0x409).putShort((short) 6).putShort((short) psName.length).putShort((short) 0)
+                .put(psName);
+        ByteBuffer post = ByteBuffer.allocate(32).putInt(0x00030000);
+
+        Map<String, byte[]> tables = new TreeMap<>(Map.of("head", head.array(), "hhea", hhea.array(), "maxp", maxp.array(),
+                "hmtx", hmtx.array(), "loca", loca.array(), "glyf", glyf.array(), "cmap", cmap.array(), "name", name.array(), "post", post.array()));
+        int length = 12 + 16 * tables.size();
+        for (byte[] table : tables.values()) length += (table.length + 3) & ~3;
+        ByteBuffer font = ByteBuffer.allocate(length);
+        font.putInt(0x00010000).putShort((short) tables.size()).putShort((short) 128).putShort((short) 3).putShort((short) (tables.size() * 16 - 128));
+        int offset = 12 + 16 * tables.size();
+        for (Map.Entry<String, byte[]> table : tables.entrySet()) {
+            font.put(table.getKey().getBytes(StandardCharsets.US_ASCII)).putInt(0).putInt(offset).putInt(table.getValue().length);
+            font.put(offset, table.getValue());
+            offset += (table.getValue().length + 3) & ~3;
+        }
+        return font.array();
+    }
+
+    /**
+     * Reads a PDF the way a viewer finds text: trailer, cross-reference table, catalog, page tree, content streams,
+     * then glyph codes back to Unicode through the font's CMap (UTF-16 for UniGB-UTF16-H, ToUnicode for Identity-H).
+     */
+    record PdfText(List<List<String>> pages, String encoding, String fontName, byte[] fontFile, int fontFileLength1) {
+        private static final Pattern SHOW_TEXT = Pattern.compile("<([0-9A-F]*)> Tj");
+        private static final Pattern BFCHAR = Pattern.compile("<([0-9A-F]{4})> <([0-9A-F]+)>");
+
+        List<String> lines() {
+            return pages.stream().flatMap(List::stream).toList();
+        }
+
+        static PdfText read(byte[] pdf) throws IOException {
+            String raw = new String(pdf, StandardCharsets.ISO_8859_1);
+            assertTrue(raw.startsWith("%PDF-1.7\n"));
+            Matcher startxref = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$").matcher(raw);
+            assertTrue(startxref.find(), "missing startxref");
+            int xref = Integer.parseInt(startxref.group(1));
+            Matcher header = Pattern.compile("xref\n0 (\\d+)\n").matcher(raw).region(xref, raw.length());
+            assertTrue(header.lookingAt(), "startxref does not point at the xref table");
+            int size = Integer.parseInt(header.group(1));
+            Map<Integer, Integer> offsets = new HashMap<>();
+            for (int i = 1; i < size; i++) {
+                String entry = raw.substring(header.end() + i * 20, header.end() + i * 20 + 20);
+                assertTrue(entry.endsWith(" 00000 n \n"), entry);
+                int offset = Integer.parseInt(entry.substring(0, 10));
+                assertTrue(raw.startsWith(i + " 0 obj\n", offset), "xref entry " + i + " does not point at its object");
+                offsets.put(i, offset);
+            }
+            String trailer = raw.substring(raw.indexOf("trailer", header.end()));
+            Reader reader = new Reader(pdf, raw, offsets);
+
+            String catalog = reader.dictionary(ref(trailer, "Root"));
+            String pageTree = reader.dictionary(ref(catalog, "Pages"));
+            Matcher kids = Pattern.compile("(\\d+) 0 R").matcher(pageTree.substring(pageTree.indexOf("/Kids")));
+            int fontObject = 0;
+            List<List<String>> pages = new ArrayList<>();
+            List<String> shown = new ArrayList<>();
+            while (kids.find()) {
+                String page = reader.dictionary(Integer.parseInt(kids.group(1)));
+                fontObject = ref(page, "F1");
+                String content = new String(reader.stream(ref(page, "Contents")), StandardCharsets.ISO_8859_1);
+                List<String> lines = new ArrayList<>();
+                for (Matcher show = SHOW_TEXT.matcher(content); show.find(); ) lines.add(show.group(1));
+                shown.addAll(lines);
+                pages.add(lines);
+            }
+            int pageCount = Integer.parseInt(between(pageTree, "/Count ", " "));
+            assertEquals(pages.size(), pageCount);
+
+            String font = reader.dictionary(fontObject);
+            String encoding = between(font, "/Encoding ", " ");
+            Map<String, String> toUnicode = new HashMap<>();
+            byte[] fontFile = null;
+            int length1 = 0;
+            String fontName = between(font, "/BaseFont /", " ");
+            if ("/Identity-H".equals(encoding)) {
+                String cmap = new String(reader.stream(ref(font, "ToUnicode")), StandardCharsets.US_ASCII);
+                for (Matcher entry = BFCHAR.matcher(cmap); entry.find(); ) {
+                    toUnicode.put(entry.group(1), new String(HexFormat.of().parseHex(entry.group(2)), StandardCharsets.UTF_16BE));
+                }
+                String descendant = reader.dictionary(Integer.parseInt(between(font, "/DescendantFonts [", " ")));
+                String descriptor = reader.dictionary(ref(descendant, "FontDescriptor"));
+                int fontFileObject = ref(descriptor, "FontFile2");
+                fontFile = reader.stream(fontFileObject);
+                length1 = Integer.parseInt(between(reader.dictionary(fontFileObject), "/Length1 ", " "));
+            }
+            List<List<String>> decoded = new ArrayList<>();
+            for (List<String> page : pages) {
+                List<String> lines = new ArrayList<>();
+                for (String hex : page) {
+                    if ("/Identity-H".equals(encoding)) {
+                        StringBuilder line = new StringBuilder();
+                        for (int i = 0; i < hex.length(); i += 4) line.append(toUnicode.getOrDefault(hex.substring(i, i + 4), "�"));
+                        lines.add(line.toString());
+                    } else {
+                        lines.add(new String(HexFormat.of().parseHex(hex), StandardCharsets.UTF_16BE));
+                    }
+                }
+                decoded.add(lines);
+            }
+            return new PdfText(decoded, encoding, fontName, fontFile, length1);
+        }
+
+        private static int ref(String dictionary, String key) {
+            Matcher matcher = Pattern.compile("/" + key + " (\\d+) 0 R").matcher(dictionary);
+            assertTrue(matcher.find(), "no /" + key + " in " + dictionary);
+            return Integer.parseInt(matcher.group(1));
+        }
+
+        private static String between(String text, String before, String after) {
+            int start = text.indexOf(before) + before.length();
+            assertTrue(start >= before.length(), "no " + before + " in " + text);
+            return text.substring(start, text.indexOf(after, start));
+        }
+    }
+
+    private record Reader(byte[] pdf, String raw, Map<Integer, Integer> offsets) {
+        String dictionary(int object) {
+            int start = offsets.get(object);
+            int stream = raw.indexOf("\nstream\n", start);
+            int end = raw.indexOf("\nendobj\n", start);
+            return raw.substring(start, stream >= 0 && stream < end ? stream : end);
+        }
+
+        byte[] stream(int object) {
+            String dictionary = dictionary(object);
+            int length = Integer.parseInt(PdfText.between(dictionary, "/Length ", " "));
+            int start = offsets.get(object) + dictionary.length() + "\nstream\n".length();
+            assertTrue(raw.startsWith("\nendstream\nendobj\n", start + length), "stream length of object " + object + " is wrong");
+            Inflater inflater = new Inflater();
+            inflater.setInput(pdf, start, length);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            try {
+                while (!inflater.finished()) {
+                    int inflated = inflater.inflate(buffer);
+                    assertTrue(inflated > 0 || !inflater.needsInput(), "truncated stream in object " + object);
+                    out.write(buffer, 0, inflated);
+                }
+            } catch (DataFormatException ex) {
+                throw new AssertionError("object " + object + " is not Flate data", ex);
+            } finally {
+                inflater.end();
+            }
+            return out.toByteArray();
+        }
+    }
+}
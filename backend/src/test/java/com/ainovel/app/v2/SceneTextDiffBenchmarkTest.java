@@ -0,0 +1,58 @@
+package com.ainovel.app.v2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link SceneTextDiff} time and stored patch size on 5,000-character scenes at 1%, 10% and 50% edits.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+class SceneTextDiffBenchmarkTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void diffTimeAndStoredBytesOnFiveThousandCharScenes(TestReporter reporter) throws Exception {
+        Random random = new Random(7);
+        int scenes = 200;
+        for (double editRatio : new double[]{0.01, 0.10, 0.50}) {
+            List<String[]> pairs = new ArrayList<>();
+            for (int i = 0; i < scenes; i++) {
+                String before = SceneTextDiffTest.scene(random, 5_000);
+                pairs.add(new String[]{before, SceneTextDiffTest.edit(before, random, editRatio)});
+            }
+            for (String[] pair : pairs.subList(0, 20)) {
+                SceneTextDiff.diff(pair[0], pair[1]);
+            }
+            long fullBytes = 0;
+            long patchBytes = 0;
+            long[] nanos = new long[scenes];
+            for (int i = 0; i < scenes; i++) {
+                String[] pair = pairs.get(i);
+                long started = System.nanoTime();
+                List<SceneTextDiff.Edit> patch = SceneTextDiff.diff(pair[0], pair[1]);
+                nanos[i] = System.nanoTime() - started;
+                assertEquals(pair[1], SceneTextDiff.apply(pair[0], patch));
+                fullBytes += objectMapper.writeValueAsBytes(List.of(pair[0], pair[1])).length;
+                patchBytes += objectMapper.writeValueAsString(SceneTextDiff.encode(patch)).getBytes(StandardCharsets.UTF_8).length;
+            }
+            Arrays.sort(nanos);
+            reporter.publishEntry(String.format("scene diff %.0f%% edits", editRatio * 100),
+                    String.format("median %.3f ms, p95 %.3f ms, stored %d B/scene vs %d B full copies (%.1f%%)",
+                            nanos[scenes / 2] / 1e6, nanos[scenes * 95 / 100] / 1e6,
+                            patchBytes / scenes, fullBytes / scenes, 100.0 * patchBytes / fullBytes));
+            assertTrue(patchBytes < fullBytes);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.ainovel.app.v2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Diff, patch and hunk behaviour of {@link SceneTextDiff}. Diff time and stored size are measured by
+ * {@link SceneTextDiffBenchmarkTest}.
+ */
+class SceneTextDiffTest {
+    private static final String[] CLAUSES = {
+            "雨从屋檐上连成一线", "他把铜扣攥在掌心", "巷口的灯忽明忽暗", "她没有回头",
+            "远处传来第三声更鼓", "墙上的影子慢慢拉长", "纸伞边缘滴着冷水", "没人知道那封信去了哪里"
+    };
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void splitsParagraphsAndHanSentencesKeepingClosingQuotes() {
+        String text = "<p>“走吧。”他说。雨停了！</p><p>Then he left. It was 3.5 km.</p>";
+
+        List<String> tokens = tokens(text);
+
+        assertEquals(List.of("<p>“走吧。”", "他说。", "雨停了！", "</p>", "<p>Then he left.", " It was 3.5 km.", "</p>"), tokens);
+    }
+
+    @Test
+    void oneWordEditStoresOnlyTheChangedCharacters() {
+        String before = "<p>雨夜，他推开门。铜扣落在门外。巷口灯灭。</p><p>天亮了。</p>";
+        String after = "<p>雨夜，他推开门。铜扣滚进水沟。巷口灯灭。</p><p>天亮了。</p>";
+
+        List<SceneTextDiff.Edit> patch = SceneTextDiff.diff(before, after);
+
+        assertEquals(List.of(new SceneTextDiff.Edit(before.indexOf("落在门外"), "落在门外", "滚进水沟")), patch);
+        assertEquals(after, SceneTextDiff.apply(before, patch));
+        assertEquals(before, SceneTextDiff.revert(after, patch));
+    }
+
+    @Test
+    void insertedAndDeletedParagraphsBecomeSeparateEdits() {
+        String before = "<p>第一段。</p><p>第二段。</p><p>第三段。</p>";
+        String after = "<p>新开头。</p><p>第一段。</p><p>第三段。</p><p>尾声。</p>";
+
+        List<SceneTextDiff.Edit> patch = SceneTextDiff.diff(before, after);
+
+        assertEquals(3, patch.size());
+        assertEquals(after, SceneTextDiff.apply(before, patch));
+        assertEquals(before, SceneTextDiff.revert(after, patch));
+    }
+
+    @Test
+    void patchesRoundTripOnRandomEditsAndSupplementaryCharacters() throws Exception {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            String before = scene(random, 300 + random.nextInt(1_500)) + (round % 3 == 0 ? "<p>𠀋𠀌🙂。</p>" : "");
+            String after = edit(before, random, random.nextDouble() * 0.6);
+
+            List<SceneTextDiff.Edit> patch = SceneTextDiff.diff(before, after);
+            List<SceneTextDiff.Edit> stored = SceneTextDiff.decode(objectMapper.readValue(
+                    objectMapper.writeValueAsString(SceneTextDiff.encode(patch)), List.class));
+
+            assertEquals(patch, stored);
+            assertEquals(after, SceneTextDiff.apply(before, stored), "round " + round);
+            assertEquals(before, SceneTextDiff.revert(after, stored), "round " + round);
+        }
+    }
+
+    @Test
+    void hunksLocateEditsInBothTextsWithContext() {
+        String before = "<p>甲。乙。丙。</p>";
+        String after = "<p>甲。乙乙乙。丙。</p>";
+        List<SceneTextDiff.Edit> patch = SceneTextDiff.diff(before, after);
+
+        SceneTextDiff.Hunk hunk = SceneTextDiff.hunks(before, patch, 3).get(0);
+
+        assertEquals("", hunk.deleted());
+        assertEquals("乙乙", hunk.inserted());
+        assertEquals(hunk.beforeOffset(), hunk.afterOffset());
+        assertEquals(before.substring(hunk.beforeOffset() - 3, hunk.beforeOffset()), hunk.contextBefore());
+        assertEquals(before.substring(hunk.beforeOffset(), hunk.beforeOffset() + 3), hunk.contextAfter());
+    }
+
+    @Test
+    void refusesPatchesThatDoNotMatchTheText() {
+        List<SceneTextDiff.Edit> patch = SceneTextDiff.diff("甲。乙。", "甲。丙。");
+
+        assertThrows(IllegalArgumentException.class, () -> SceneTextDiff.apply("甲。丁。", patch));
+        assertThrows(IllegalArgumentException.class, () -> SceneTextDiff.revert("甲。丁。", patch));
+    }
+
+    private static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        for (int end : SceneTextDiff.tokenBounds(text)) {
+            tokens.add(text.substring(start, end));
+            start = end;
+        }
+        return tokens;
+    }
+
+    /** About {@code chars} characters of paragraphs of short Han sentences. */
+    static String scene(Random random, int chars) {
+        StringBuilder text = new StringBuilder(chars + 64);
+        while (text.length() < chars) {
+            text.append("<p>");
+            int sentences = 3 + random.nextInt(5);
+            for (int i = 0; i < sentences; i++) {
+                text.append(CLAUSES[random.nextInt(CLAUSES.length)]).append('，')
+                        .append(CLAUSES[random.nextInt(CLAUSES.length)]).append(random.nextInt(4) == 0 ? "！" : "。");
+            }
+            text.append("</p>");
+        }
+        return text.toString();
+    }
+
+    /** Rewrites, drops or inserts sentences until about {@code ratio} of the characters are touched. */
+    static String edit(String text, Random random, double ratio) {
+        StringBuilder out = new StringBuilder(text);
+        int budget = (int) (text.length() * ratio);
+        while (budget > 0) {
+            int at = random.nextInt(out.length());
+            int start = Math.max(out.lastIndexOf("。", at), out.lastIndexOf("</p>", at) + 3) + 1;
+            int end = out.indexOf("。", start);
+            if (end < 0 || out.indexOf("<", start) < end) {
+                budget--;
+                continue;
+            }
+            String replacement = switch (random.nextInt(3)) {
+                case 0 -> CLAUSES[random.nextInt(CLAUSES.length)] + "，又停了";
+                case 1 -> "";
+                default -> out.substring(start, end) + "，" + CLAUSES[random.nextInt(CLAUSES.length)];
+            };
+            budget -= Math.max(1, Math.max(end - start, replacement.length()));
+            out.replace(start, end, replacement);
+        }
+        return out.toString();
+    }
+}
@@ -1,35 +1,52 @@
 package com.ainovel.app.v2;
 
+import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
 import com.ainovel.app.security.ResourceAccessGuard;
+import com.ainovel.app.story.ParsedOutlineCache;
 import com.ainovel.app.story.model.Outline;
 import com.ainovel.app.story.model.Story;
 import com.ainovel.app.user.User;
+import com.ainovel.app.v2.repo.V2ExportJobRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class V2ExportControllerTests {
 
+    private static final String SCENE_ONE = "6f1c1c52-7d0e-4c57-9a44-3c1f0c1a0001";
+    private static final String SCENE_TWO = "6f1c1c52-7d0e-4c57-9a44-3c1f0c1a0002";
+
+    @TempDir
+    Path exportDir;
+
     private ResourceAccessGuard accessGuard;
     private V2ExportPersistenceService exportService;
+    private V2ExportJobService jobService;
     private V2ExportController controller;
+    private List<Runnable> scheduled;
     private UserDetails principal;
     private User user;
     private Manuscript manuscript;
@@ -39,7 +56,12 @@ class V2ExportControllerTests {
     void setUp() {
         accessGuard = mock(ResourceAccessGuard.class);
         exportService = mock(V2ExportPersistenceService.class);
-        controller = new V2ExportController(accessGuard, exportService, new ObjectMapper());
+        scheduled = new ArrayList<>();
+        jobService = new V2ExportJobService(mock(V2ExportJobRepository.class), exportService,
+                new ManuscriptSectionStore(mock(ManuscriptSectionRepository.class), new JsonColumnCodec(new ObjectMapper())),
+                new ParsedOutlineCache(new ObjectMapper(), 16), new V2Json(new ObjectMapper()), mock(TransactionTemplate.class),
+                scheduled::add, exportDir.toString(), 48, "", false);
+        controller = new V2ExportController(accessGuard, exportService, jobService);
 
         principal = mock(UserDetails.class);
         user = new User();
@@ -53,18 +75,18 @@ class V2ExportControllerTests {
         outline.setContentJson("""
                 {
                   "chapters": [
-                    {"id":"ch1","title":"第一章","scenes":[{"id":"s1","title":"场景一"}]},
-                    {"id":"ch2","title":"第二章","scenes":[{"id":"s2","title":"场景二"}]}
+                    {"id":"ch1","title":"第一章","scenes":[{"id":"%s","title":"场景一"}]},
+                    {"id":"ch2","title":"第二章","scenes":[{"id":"%s","title":"场景二"}]}
                   ]
                 }
-                """);
+                """.formatted(SCENE_ONE, SCENE_TWO));
 
         manuscript = new Manuscript();
         manuscriptId = UUID.randomUUID();
         manuscript.setId(manuscriptId);
         manuscript.setTitle("测试导出");
         manuscript.setOutline(outline);
-        manuscript.setSectionsJson("{\"s1\":\"hello one\",\"s2\":\"hello two\"}");
+        manuscript.setSectionsJson("{\"" + SCENE_ONE + "\":\"hello one\",\"" + SCENE_TWO + "\":\"hello two\"}");
 
         when(accessGuard.currentUser(any())).thenReturn(user);
         when(accessGuard.requireOwnedManuscript(manuscriptId, user)).thenReturn(manuscript);
@@ -80,33 +102,45 @@ class V2ExportControllerTests {
         assertEquals(429, ex.getStatusCode().value());
         verify(exportService).cleanupExpiredJobs();
         verify(exportService).countActiveJobs(user.getId());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void createExportJobShouldQueueOneBackgroundRun() {
+        UUID jobId = UUID.randomUUID();
+        Map<String, Object> queued = exportJob(jobId, "docx", Map.of(), "all", "测试导出.docx");
+        when(exportService.createJob(any(), any(), any(), any(), any())).thenReturn(queued);
+
+        Map<String, Object> job = controller.createExportJob(principal, manuscriptId, Map.of("format", "docx"));
+
+        assertEquals("queued", job.get("status"));
+        assertEquals(1, scheduled.size());
     }
 
     @Test
-    void shouldGenerateDownloadableDocx() {
+    void shouldGenerateDownloadableDocx() throws Exception {
         UUID jobId = UUID.randomUUID();
-        Map<String, Object> job = exportJob(jobId, "docx", Map.of("includeTitlePage", true), "all", "测试导出.docx");
+        Map<String, Object> job = completedJob(jobId, "docx", Map.of("includeTitlePage", true), "all", "测试导出.docx");
         when(exportService.getJob(manuscriptId, jobId)).thenReturn(job);
 
-        ResponseEntity<byte[]> response = controller.download(principal, manuscriptId, jobId);
-        assertNotNull(response.getBody());
-        assertTrue(response.getBody().length > 4);
+        ResponseEntity<Resource> response = controller.download(principal, manuscriptId, jobId);
+        byte[] body = response.getBody().getContentAsByteArray();
+        assertTrue(body.length > 4);
         assertEquals("application/vnd.openxmlformats-officedocument.wordprocessingml.document", response.getHeaders().getFirst("Content-Type"));
-        assertEquals('P', response.getBody()[0]);
-        assertEquals('K', response.getBody()[1]);
+        assertEquals('P', body[0]);
+        assertEquals('K', body[1]);
         verify(exportService).cleanupExpiredJobs();
         verify(exportService).getJob(manuscriptId, jobId);
-        verify(exportService).updateJob(eq(manuscriptId), eq(jobId), any(Map.class));
     }
 
     @Test
-    void shouldRespectChapterRangeAndSceneSelectionForTxt() {
+    void shouldRespectChapterRangeAndSceneSelectionForTxt() throws Exception {
         UUID jobId = UUID.randomUUID();
-        Map<String, Object> job = exportJob(jobId, "txt", Map.of("selectedSceneIds", List.of("s2"), "includeMetadata", false), "2-2", "测试导出.txt");
+        Map<String, Object> job = completedJob(jobId, "txt", Map.of("selectedSceneIds", List.of(SCENE_TWO), "includeMetadata", false), "2-2", "测试导出.txt");
         when(exportService.getJob(manuscriptId, jobId)).thenReturn(job);
 
-        ResponseEntity<byte[]> response = controller.download(principal, manuscriptId, jobId);
-        String text = new String(response.getBody(), StandardCharsets.UTF_8);
+        ResponseEntity<Resource> response = controller.download(principal, manuscriptId, jobId);
+        String text = response.getBody().getContentAsString(StandardCharsets.UTF_8);
         assertTrue(text.contains("第二章"));
         assertTrue(text.contains("hello two"));
         assertFalse(text.contains("第一章"));
@@ -114,12 +148,12 @@ class V2ExportControllerTests {
     }
 
     @Test
-    void shouldEncodeUnicodeDownloadFileNameAsAsciiSafeContentDisposition() {
+    void shouldEncodeUnicodeDownloadFileNameAsAsciiSafeContentDisposition() throws Exception {
         UUID jobId = UUID.randomUUID();
-        Map<String, Object> job = exportJob(jobId, "txt", Map.of(), "all", "正文稿-验收.txt");
+        Map<String, Object> job = completedJob(jobId, "txt", Map.of(), "all", "正文稿-验收.txt");
         when(exportService.getJob(manuscriptId, jobId)).thenReturn(job);
 
-        ResponseEntity<byte[]> response = controller.download(principal, manuscriptId, jobId);
+        ResponseEntity<Resource> response = controller.download(principal, manuscriptId, jobId);
         String disposition = response.getHeaders().getFirst("Content-Disposition");
 
         assertNotNull(disposition);
@@ -128,6 +162,29 @@ class V2ExportControllerTests {
         assertFalse(disposition.contains("正文稿"));
     }
 
+    @Test
+    void downloadShouldRefuseUnfinishedJob() {
+        UUID jobId = UUID.randomUUID();
+        when(exportService.getJob(manuscriptId, jobId)).thenReturn(exportJob(jobId, "txt", Map.of(), "all", "测试导出.txt"));
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> controller.download(principal, manuscriptId, jobId));
+
+        assertEquals(409, ex.getStatusCode().value());
+    }
+
+    @Test
+    void downloadShouldReportPrunedFileAsGone() {
+        UUID jobId = UUID.randomUUID();
+        Map<String, Object> job = exportJob(jobId, "txt", Map.of(), "all", "测试导出.txt");
+        job.put("status", "completed");
+        job.put("filePath", "0000.txt");
+        when(exportService.getJob(manuscriptId, jobId)).thenReturn(job);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> controller.download(principal, manuscriptId, jobId));
+
+        assertEquals(410, ex.getStatusCode().value());
+    }
+
     @Test
     void listTemplatesShouldDelegateToPersistenceService() {
         Map<String, Object> template = Map.of(
@@ -144,6 +201,18 @@ class V2ExportControllerTests {
         verify(exportService).listTemplates(user);
     }
 
+    /** A job whose document was written by the job service, as a finished background run leaves it. */
+    private Map<String, Object> completedJob(UUID jobId, String format, Map<String, Object> config, String chapterRange,
+                                             String fileName) throws Exception {
+        V2ExportJobService.ExportFile file = jobService.export(jobService.book(manuscript, config, chapterRange), format, config, () -> { });
+        Map<String, Object> job = exportJob(jobId, format, config, chapterRange, fileName);
+        job.put("status", "completed");
+        job.put("progress", 100);
+        job.put("filePath", file.fileName());
+        job.put("fileSizeBytes", file.sizeBytes());
+        return job;
+    }
+
     private Map<String, Object> exportJob(UUID jobId, String format, Map<String, Object> config, String chapterRange, String fileName) {
         Map<String, Object> job = new java.util.HashMap<>();
         job.put("id", jobId);
@@ -162,7 +231,6 @@ class V2ExportControllerTests {
         job.put("createdAt", Instant.now().minusSeconds(10));
         job.put("filePath", null);
         job.put("errorMessage", null);
-        job.put("contentBytes", null);
         job.put("startedAt", null);
         job.put("completedAt", null);
         return job;
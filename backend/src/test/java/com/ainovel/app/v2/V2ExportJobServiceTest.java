@@ -0,0 +1,327 @@
+package com.ainovel.app.v2;
+
+import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
+import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.manuscript.repo.ManuscriptSectionRepository;
+import com.ainovel.app.story.ParsedOutlineCache;
+import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.Story;
+import com.ainovel.app.v2.model.V2ExportJob;
+import com.ainovel.app.v2.repo.V2ExportJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class V2ExportJobServiceTest {
+    private static final int SCENES = 120;
+
+    @TempDir
+    Path exportDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private V2ExportJobRepository jobRepository;
+    private V2ExportPersistenceService exportService;
+    private ManuscriptSectionRepository sectionRepository;
+    private TransactionTemplate transactions;
+    private V2ExportJobService jobService;
+    private Manuscript manuscript;
+    private List<String> sceneIds;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        jobRepository = mock(V2ExportJobRepository.class);
+        exportService = mock(V2ExportPersistenceService.class);
+        sectionRepository = mock(ManuscriptSectionRepository.class);
+        transactions = mock(TransactionTemplate.class);
+        when(transactions.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        jobService = service(Runnable::run);
+
+        sceneIds = new ArrayList<>();
+        List<Map<String, Object>> chapters = new ArrayList<>();
+        Map<String, String> sections = new LinkedHashMap<>();
+        for (int c = 0; c < 3; c++) {
+            List<Map<String, Object>> scenes = new ArrayList<>();
+            for (int s = 0; s < SCENES / 3; s++) {
+                String sceneId = UUID.randomUUID().toString();
+                sceneIds.add(sceneId);
+                scenes.add(Map.of("id", sceneId, "title", "场景 " + sceneIds.size()));
+                sections.put(sceneId, "<p>第 " + sceneIds.size() + " 场：雨夜，他推开门。</p>");
+            }
+            chapters.add(Map.of("id", UUID.randomUUID().toString(), "title", "第" + (c + 1) + "章", "scenes", scenes));
+        }
+        Story story = new Story();
+        story.setId(UUID.randomUUID());
+        Outline outline = new Outline();
+        outline.setStory(story);
+        outline.setContentJson(objectMapper.writeValueAsString(Map.of("chapters", chapters)));
+        manuscript = new Manuscript();
+        manuscript.setId(UUID.randomUUID());
+        manuscript.setTitle("雨夜");
+        manuscript.setOutline(outline);
+        manuscript.setSectionsJson(objectMapper.writeValueAsString(sections));
+    }
+
+    @Test
+    void runStreamsScenesInBatchesAndReportsProgressPerScene() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        when(jobRepository.findByManuscriptIdAndId(manuscript.getId(), jobId)).thenReturn(Optional.of(job("epub", "{}")));
+
+        jobService.schedule(manuscript.getId(), jobId);
+
+        List<Map<String, Object>> patches = patches(jobId);
+        List<Integer> progress = patches.stream().map(patch -> (Integer) patch.get("progress")).toList();
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) > progress.get(i - 1), "progress went back: " + progress);
+        }
+        assertTrue(progress.size() > 90, "expected a progress update per percent of scenes: " + progress);
+        Map<String, Object> done = patches.get(patches.size() - 1);
+        assertEquals("completed", done.get("status"));
+        assertEquals(100, done.get("progress"));
+
+        Path file = jobService.file((String) done.get("filePath"));
+        assertNotNull(file);
+        assertEquals(Files.size(file), done.get("fileSizeBytes"));
+        String chapter = null;
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(file))) {
+            assertEquals("mimetype", zip.getNextEntry().getName());
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if ("OEBPS/chapter.xhtml".equals(entry.getName())) {
+                    chapter = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                }
+            }
+        }
+        assertNotNull(chapter);
+        assertTrue(chapter.contains("<p>第 1 场：雨夜，他推开门。</p>"));
+        assertTrue(chapter.contains("<p>第 " + SCENES + " 场：雨夜，他推开门。</p>"));
+        assertTrue(chapter.indexOf("第3章") > chapter.indexOf("第 80 场"));
+        // Only writing reads the scenes, 32 at a time; the cache key comes from the scene revisions.
+        verify(sectionRepository, times(4)).findByManuscriptIdAndSceneIdIn(eq(manuscript.getId()), anyCollection());
+        verify(sectionRepository).findRevisionsByManuscriptId(manuscript.getId());
+        verify(sectionRepository, never()).findByManuscriptId(any());
+    }
+
+    @Test
+    void unchangedBookIsServedFromCacheWithoutRendering() throws Exception {
+        Map<String, Object> cfg = Map.of("includeMetadata", false);
+        AtomicInteger written = new AtomicInteger();
+
+        V2ExportJobService.ExportFile first = jobService.export(jobService.book(manuscript, cfg, "all"), "docx", cfg, written::incrementAndGet);
+        V2ExportJobService.ExportFile again = jobService.export(jobService.book(manuscript, cfg, "all"), "docx", cfg, written::incrementAndGet);
+
+        assertFalse(first.cached());
+        assertTrue(again.cached());
+        assertEquals(first.fileName(), again.fileName());
+        assertEquals(SCENES, written.get());
+
+        V2ExportJobService.ExportFile otherOptions = jobService.export(
+                jobService.book(manuscript, Map.of("includeMetadata", true), "all"), "docx", Map.of("includeMetadata", true), () -> { });
+        V2ExportJobService.ExportFile otherFormat = jobService.export(jobService.book(manuscript, cfg, "all"), "txt", cfg, () -> { });
+        manuscript.setSectionsJson(manuscript.getSectionsJson().replace("第 7 场", "第七场"));
+        V2ExportJobService.ExportFile edited = jobService.export(jobService.book(manuscript, cfg, "all"), "docx", cfg, () -> { });
+
+        assertEquals(4, List.of(first.fileName(), otherOptions.fileName(), otherFormat.fileName(), edited.fileName())
+                .stream().distinct().count());
+        assertFalse(edited.cached());
+    }
+
+    @Test
+    void cacheKeyFollowsSceneRevisionsWithoutReadingBodies() throws Exception {
+        Map<String, Object> cfg = Map.of();
+        String sceneId = sceneIds.getFirst();
+        when(sectionRepository.findRevisionsByManuscriptId(manuscript.getId())).thenReturn(List.of(revision(sceneId, 3)));
+
+        V2ExportJobService.ExportFile first = jobService.export(jobService.book(manuscript, cfg, "1"), "txt", cfg, () -> { });
+        V2ExportJobService.ExportFile again = jobService.export(jobService.book(manuscript, cfg, "1"), "txt", cfg, () -> { });
+        // Chapter 1 holds 40 scenes: two batched reads for the one render, none for the cache hit.
+        verify(sectionRepository, times(2)).findByManuscriptIdAndSceneIdIn(eq(manuscript.getId()), anyCollection());
+        assertTrue(again.cached());
+
+        when(sectionRepository.findRevisionsByManuscriptId(manuscript.getId())).thenReturn(List.of(revision(sceneId, 4)));
+        V2ExportJobService.ExportFile saved = jobService.export(jobService.book(manuscript, cfg, "1"), "txt", cfg, () -> { });
+
+        assertFalse(saved.cached());
+        assertNotEquals(first.fileName(), saved.fileName());
+    }
+
+    @Test
+    void missingPdfFontFallsBackUnlessRequired() throws Exception {
+        assertDoesNotThrow(() -> service(Runnable::run, "classpath:fonts/missing.ttf", false).requirePdfFont());
+        IllegalStateException missing = assertThrows(IllegalStateException.class,
+                () -> service(Runnable::run, "classpath:fonts/missing.ttf", true).requirePdfFont());
+        assertTrue(missing.getMessage().contains("classpath:fonts/missing.ttf"), missing.getMessage());
+
+        Path broken = Files.writeString(exportDir.resolveSibling(exportDir.getFileName() + "-broken.ttf"), "not a font");
+        Path font = Files.write(exportDir.resolveSibling(exportDir.getFileName() + "-font.ttf"),
+                CjkPdfWriterTest.trueTypeFont("雨夜", '品'));
+        try {
+            assertThrows(IllegalStateException.class, () -> service(Runnable::run, "file:" + broken, true).requirePdfFont());
+            assertDoesNotThrow(() -> service(Runnable::run, "file:" + font, true).requirePdfFont());
+
+            Map<String, Object> cfg = Map.of("includeMetadata", false);
+            V2ExportJobService fallback = service(Runnable::run, "file:" + broken, false);
+            fallback.requirePdfFont();
+            V2ExportJobService.ExportFile file = fallback.export(fallback.book(manuscript, cfg, "1"), "pdf", cfg, () -> { });
+            CjkPdfWriterTest.PdfText text = CjkPdfWriterTest.PdfText.read(Files.readAllBytes(fallback.file(file.fileName())));
+            assertEquals("/UniGB-UTF16-H", text.encoding());
+            assertTrue(String.join("", text.lines()).contains("雨夜，他推开门。"));
+        } finally {
+            Files.delete(broken);
+            Files.delete(font);
+        }
+    }
+
+    @Test
+    void writingAnExportPrunesFilesUnusedForLongerThanTheTtl() throws Exception {
+        Path stale = Files.writeString(exportDir.resolve("stale.txt"), "old");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(3, ChronoUnit.DAYS)));
+
+        V2ExportJobService.ExportFile file = jobService.export(jobService.book(manuscript, Map.of(), "1"), "txt", Map.of(), () -> { });
+
+        assertFalse(Files.exists(stale));
+        assertNotNull(jobService.file(file.fileName()));
+        Path outside = Files.writeString(exportDir.resolveSibling(exportDir.getFileName() + "-outside.txt"), "x");
+        try {
+            assertNull(jobService.file("../" + outside.getFileName()));
+        } finally {
+            Files.delete(outside);
+        }
+    }
+
+    @Test
+    void pdfKeepsChineseTextWithEitherFontAndCachesPerFont() throws Exception {
+        Map<String, Object> cfg = Map.of("includeMetadata", false);
+        Path font = Files.write(exportDir.resolveSibling(exportDir.getFileName() + "-font.ttf"),
+                CjkPdfWriterTest.trueTypeFont("0123456789 =第章场景：雨夜，他推开门。", '品'));
+        try {
+            V2ExportJobService embedding = service(Runnable::run, "file:" + font);
+
+            V2ExportJobService.ExportFile standard = jobService.export(jobService.book(manuscript, cfg, "1"), "pdf", cfg, () -> { });
+            V2ExportJobService.ExportFile embedded = embedding.export(embedding.book(manuscript, cfg, "1"), "pdf", cfg, () -> { });
+
+            assertNotEquals(standard.fileName(), embedded.fileName());
+            CjkPdfWriterTest.PdfText standardText = CjkPdfWriterTest.PdfText.read(Files.readAllBytes(jobService.file(standard.fileName())));
+            CjkPdfWriterTest.PdfText embeddedText = CjkPdfWriterTest.PdfText.read(Files.readAllBytes(embedding.file(embedded.fileName())));
+            assertEquals("/UniGB-UTF16-H", standardText.encoding());
+            assertEquals("/Identity-H", embeddedText.encoding());
+            assertEquals(standardText.lines(), embeddedText.lines());
+            String text = String.join("", standardText.lines()).replace(" ", "");
+            assertTrue(text.startsWith("雨夜第1章场景1========第1场：雨夜，他推开门。"), text);
+            assertTrue(text.contains("第40场：雨夜，他推开门。"));
+            assertFalse(text.contains("第41场"));
+        } finally {
+            Files.delete(font);
+        }
+    }
+
+    @Test
+    void failedRunRecordsTheError() {
+        UUID jobId = UUID.randomUUID();
+        when(jobRepository.findByManuscriptIdAndId(manuscript.getId(), jobId)).thenReturn(Optional.of(job("xls", "{}")));
+
+        jobService.schedule(manuscript.getId(), jobId);
+
+        Map<String, Object> done = patches(jobId).get(patches(jobId).size() - 1);
+        assertEquals("failed", done.get("status"));
+        assertEquals("不支持的导出格式: xls", done.get("errorMessage"));
+    }
+
+    @Test
+    void runRejectedByAFullQueueFailsTheJob() {
+        UUID jobId = UUID.randomUUID();
+        V2ExportJobService full = service(task -> {
+            throw new RejectedExecutionException("full");
+        });
+
+        full.schedule(manuscript.getId(), jobId);
+
+        Map<String, Object> done = patches(jobId).get(0);
+        assertEquals("failed", done.get("status"));
+        assertEquals("导出队列已满，请稍后重试", done.get("errorMessage"));
+    }
+
+    private V2ExportJobService service(java.util.concurrent.Executor executor) {
+        return service(executor, "");
+    }
+
+    private V2ExportJobService service(java.util.concurrent.Executor executor, String pdfFont) {
+        return service(executor, pdfFont, false);
+    }
+
+    private V2ExportJobService service(java.util.concurrent.Executor executor, String pdfFont, boolean pdfFontRequired) {
+        return new V2ExportJobService(jobRepository, exportService,
+                new ManuscriptSectionStore(sectionRepository, new JsonColumnCodec(objectMapper)),
+                new ParsedOutlineCache(objectMapper, 16), new V2Json(objectMapper), transactions,
+                executor, exportDir.toString(), 24, pdfFont, pdfFontRequired);
+    }
+
+    private static ManuscriptSectionRepository.SceneRevision revision(String sceneId, long lockVersion) {
+        return new ManuscriptSectionRepository.SceneRevision() {
+            @Override
+            public String getSceneId() {
+                return sceneId;
+            }
+
+            @Override
+            public long getLockVersion() {
+                return lockVersion;
+            }
+
+            @Override
+            public Instant getUpdatedAt() {
+                return Instant.parse("2026-01-01T00:00:00Z");
+            }
+        };
+    }
+
+    private V2ExportJob job(String format, String configJson) {
+        V2ExportJob job = new V2ExportJob();
+        job.setManuscript(manuscript);
+        job.setFormat(format);
+        job.setConfigJson(configJson);
+        job.setChapterRange("all");
+        job.setStatus("queued");
+        return job;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> patches(UUID jobId) {
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(exportService, atLeastOnce()).updateJob(eq(manuscript.getId()), eq(jobId), captor.capture());
+        return captor.getAllValues();
+    }
+}
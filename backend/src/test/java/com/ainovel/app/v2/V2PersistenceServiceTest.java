@@ -1,10 +1,12 @@
 package com.ainovel.app.v2;
 
 import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
 import com.ainovel.app.story.model.Story;
 import com.ainovel.app.user.User;
 import com.ainovel.app.config.AppTimeProvider;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -12,12 +14,18 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.ainovel.app.v2.V2PersistenceServiceTest$RecordingStatementInspector")
 @Import({
         JsonColumnCodec.class,
         V2Json.class,
@@ -26,6 +34,8 @@ import static org.junit.jupiter.api.Assertions.*;
         V2WorkspacePersistenceService.class,
         V2AnalysisPersistenceService.class,
         V2VersionPersistenceService.class,
+        V2VersionBlobStore.class,
+        ManuscriptSectionStore.class,
         V2ExportPersistenceService.class,
         AppTimeProvider.class,
         V2PersistenceServiceTest.TestBeans.class
@@ -52,11 +62,26 @@ class V2PersistenceServiceTest {
     @Autowired
     private V2ExportPersistenceService exportService;
 
+    @Autowired
+    private V2VersionBlobStore blobStore;
+
     @TestConfiguration
     static class TestBeans {
         @Bean
         ObjectMapper objectMapper() {
-            return new ObjectMapper();
+            // Cached diffs carry an Instant, which the plain mapper cannot write.
+            return new ObjectMapper().findAndRegisterModules();
+        }
+    }
+
+    /** Keeps the SQL Hibernate prepares so tests can check which columns a query reads. */
+    public static class RecordingStatementInspector implements StatementInspector {
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
         }
     }
 
@@ -171,6 +196,182 @@ class V2PersistenceServiceTest {
         assertEquals(60, versionService.getAutoSave(user).get("autoSaveIntervalSeconds"));
     }
 
+    @Test
+    void versionsShareUnchangedScenesAndStoreSmallEditsAsDeltas() throws Exception {
+        User user = persistUser("v2-version-blobs");
+        Story story = persistStory(user);
+        String opening = "雨夜，".repeat(400) + "铜扣落在门外。" + "巷口灯灭。".repeat(400);
+        String edited = opening.replace("铜扣落在门外。", "铜扣被人踢进了水沟。");
+        String ending = "天亮了。".repeat(300);
+        ManuscriptFixture fixture = persistManuscript(story, sectionsJson(opening, ending));
+
+        versionService.ensureMainBranchAndInitialVersion(fixture.manuscript, user);
+        Map<String, Object> first = versionService.listVersions(fixture.manuscript.getId()).get(0);
+        fixture.manuscript.setSectionsJson(sectionsJson(edited, ending));
+        Map<String, Object> second = versionService.createVersion(fixture.manuscript, user, Map.of("label", "edit"));
+
+        entityManager.flush();
+        entityManager.clear();
+
+        // Version details carry no scene text; it is read only through the snapshot endpoint.
+        assertFalse(second.containsKey("sectionsJson"));
+        assertFalse(versionService.getVersion(fixture.manuscript, user, (java.util.UUID) second.get("id")).containsKey("sectionsJson"));
+        assertEquals(Map.of("scene-1", opening, "scene-2", ending),
+                versionService.getSnapshot(fixture.manuscript, user, (java.util.UUID) first.get("id")).get("sections"));
+        assertEquals(Map.of("scene-1", edited, "scene-2", ending),
+                versionService.getSnapshot(fixture.manuscript, user, (java.util.UUID) second.get("id")).get("sections"));
+
+        Map<String, Object> report = versionService.storageReport(fixture.manuscript.getId());
+        assertEquals(2L, report.get("versions"));
+        assertEquals(4L, report.get("sceneReferences"));
+        // scene-2 is stored once; the edited scene-1 keeps only the changed middle.
+        assertEquals(3L, report.get("blobs"));
+        assertEquals(1L, report.get("deltaBlobs"));
+        assertEquals((long) (opening.length() + edited.length() + 2 * ending.length()), report.get("snapshotChars"));
+        assertTrue((long) report.get("storedChars") < opening.length() + ending.length() + 20);
+
+        // Forgetting the edit leaves its delta unreferenced while the base it was built on stays.
+        assertEquals(1, blobStore.deleteUnreferenced(blobStore.forgetVersions(List.of((java.util.UUID) second.get("id")))));
+        entityManager.clear();
+        assertEquals(Map.of("scene-1", opening, "scene-2", ending),
+                versionService.getSnapshot(fixture.manuscript, user, (java.util.UUID) first.get("id")).get("sections"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void versionDiffStoresPatchesAndRendersTheSameHunksFromCache() throws Exception {
+        User user = persistUser("v2-version-diff");
+        Story story = persistStory(user);
+        String opening = "<p>" + "雨夜，他推开门。".repeat(300) + "铜扣落在门外。" + "巷口灯灭。".repeat(300) + "</p>";
+        String ending = "<p>天亮了。</p>";
+        ManuscriptFixture fixture = persistManuscript(story, sectionsJson(opening, ending));
+        versionService.ensureMainBranchAndInitialVersion(fixture.manuscript, user);
+        UUID firstId = (UUID) versionService.listVersions(fixture.manuscript.getId()).get(0).get("id");
+        fixture.manuscript.setSectionsJson(sectionsJson(opening.replace("落在门外", "滚进水沟"), ending));
+        UUID secondId = (UUID) versionService.createVersion(fixture.manuscript, user, Map.of("label", "edit")).get("id");
+
+        Map<String, Object> fresh = versionService.diff(fixture.manuscript, user, firstId, secondId);
+        entityManager.flush();
+        entityManager.clear();
+        Map<String, Object> cached = versionService.diff(fixture.manuscript, user, firstId, secondId);
+
+        String stored = entityManager.getEntityManager()
+                .createQuery("select d.diffJson from V2VersionDiff d", String.class).getSingleResult();
+        assertTrue(stored.length() < 500, "diff stored full scene text: " + stored.length() + " chars");
+        assertFalse(stored.contains("巷口灯灭"));
+        assertEquals(fresh.get("changes"), cached.get("changes"));
+        List<Map<String, Object>> changes = (List<Map<String, Object>>) cached.get("changes");
+        assertEquals(1, changes.size());
+        assertEquals("scene-1", changes.get(0).get("sceneId"));
+        Map<String, Object> hunk = ((List<Map<String, Object>>) changes.get(0).get("hunks")).get(0);
+        assertEquals("落在门外", hunk.get("deleted"));
+        assertEquals("滚进水沟", hunk.get("inserted"));
+        assertEquals(opening.indexOf("落在门外"), hunk.get("beforeOffset"));
+        assertTrue(((String) hunk.get("contextBefore")).endsWith("铜扣"));
+        assertTrue(((String) hunk.get("contextAfter")).startsWith("。巷口灯灭"));
+    }
+
+    @Test
+    void autoSnapshotCleanupKeepsTheNewestAndDropsTheirDiffs() {
+        User user = persistUser("v2-version-cleanup");
+        Story story = persistStory(user);
+        ManuscriptFixture fixture = persistManuscript(story, "{\"scene-1\":\"稿 0\"}");
+        versionService.updateAutoSave(user, Map.of("maxAutoVersions", 10));
+        versionService.ensureMainBranchAndInitialVersion(fixture.manuscript, user);
+        UUID initialId = (UUID) versionService.listVersions(fixture.manuscript.getId()).get(0).get("id");
+
+        UUID thirdId = null;
+        for (int i = 1; i <= 12; i++) {
+            fixture.manuscript.setSectionsJson("{\"scene-1\":\"稿 " + i + "\"}");
+            String type = i == 6 ? "manual" : i == 1 ? "AUTO" : "auto";
+            Map<String, Object> created = versionService.createVersion(fixture.manuscript, user, Map.of("snapshotType", type));
+            if (i == 2) {
+                thirdId = (UUID) created.get("id");
+                versionService.diff(fixture.manuscript, user, initialId, thirdId);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // v1 (initial) and v2 are the two autos beyond the newest ten; the manual v7 is never counted.
+        List<Map<String, Object>> remaining = versionService.listVersions(fixture.manuscript.getId());
+        assertEquals(11, remaining.size());
+        assertEquals(3, remaining.get(remaining.size() - 1).get("versionNumber"));
+        assertEquals(0L, entityManager.getEntityManager()
+                .createQuery("select count(d) from V2VersionDiff d", Long.class).getSingleResult());
+        assertNull(remaining.get(remaining.size() - 1).get("parentVersionId"));
+        assertEquals(11L, versionService.storageReport(fixture.manuscript.getId()).get("sceneReferences"));
+        for (Map<String, Object> row : remaining) {
+            int number = (Integer) row.get("versionNumber");
+            assertEquals(Map.of("scene-1", "稿 " + (number - 1)),
+                    versionService.getSnapshot(fixture.manuscript, user, (UUID) row.get("id")).get("sections"));
+        }
+        assertEquals(thirdId, remaining.get(remaining.size() - 1).get("id"));
+    }
+
+    @Test
+    void versionListPagesBySummaryWithoutReadingSnapshots() {
+        User user = persistUser("v2-version-list");
+        Story story = persistStory(user);
+        ManuscriptFixture fixture = persistManuscript(story, "{\"scene-1\":\"<p>第 0 稿</p>\"}");
+        versionService.ensureMainBranchAndInitialVersion(fixture.manuscript, user);
+        for (int i = 1; i <= 4; i++) {
+            fixture.manuscript.setSectionsJson("{\"scene-1\":\"<p>第 " + i + " 稿</p>\"}");
+            versionService.createVersion(fixture.manuscript, user, Map.of("label", "edit-" + i));
+        }
+        Map<String, Object> branch = versionService.createBranch(fixture.manuscript, user, Map.of("name", "alt"));
+        entityManager.flush();
+        entityManager.clear();
+
+        RecordingStatementInspector.STATEMENTS.clear();
+        List<Map<String, Object>> seen = new ArrayList<>();
+        List<Map<String, Object>> page = versionService.listVersions(fixture.manuscript.getId(), null, null, null, null, 2);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 2);
+            seen.addAll(page);
+            Map<String, Object> last = page.get(page.size() - 1);
+            page = versionService.listVersions(fixture.manuscript.getId(), null, null,
+                    (java.time.Instant) last.get("createdAt"), (UUID) last.get("id"), 2);
+        }
+
+        List<String> versionQueries = RecordingStatementInspector.STATEMENTS.stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.contains("manuscript_versions"))
+                .toList();
+        assertFalse(versionQueries.isEmpty());
+        assertTrue(versionQueries.stream().noneMatch(sql -> sql.contains("sections_json")), versionQueries.toString());
+
+        // main holds v1..v5, alt holds its branch point as v1: the newer alt v1 leads, both v1 rows are listed once.
+        assertEquals(6, seen.size());
+        Set<Object> ids = new HashSet<>();
+        seen.forEach(row -> ids.add(row.get("id")));
+        assertEquals(6, ids.size());
+        assertEquals(List.of(1, 5, 4, 3, 2, 1), seen.stream().map(row -> row.get("versionNumber")).toList());
+        assertEquals(branch.get("id"), seen.get(0).get("branchId"));
+        assertFalse(seen.get(1).containsKey("sectionsJson"));
+        assertEquals(3, map(seen.get(1).get("metadata")).get("wordCount"));
+
+        List<Map<String, Object>> altOnly = versionService.listVersions(fixture.manuscript.getId(), (UUID) branch.get("id"), null, null, null, 10);
+        assertEquals(1, altOnly.size());
+        assertEquals("branch_point", altOnly.get(0).get("snapshotType"));
+
+        Map<String, Object> snapshot = versionService.getSnapshot(fixture.manuscript, user, (UUID) seen.get(1).get("id"));
+        assertEquals(Map.of("scene-1", "<p>第 4 稿</p>"), snapshot.get("sections"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    @Test
+    void versionsWrittenBeforeSceneBlobsAreReadFromTheirSnapshot() {
+        com.ainovel.app.v2.model.V2ManuscriptVersion legacy = new com.ainovel.app.v2.model.V2ManuscriptVersion();
+        legacy.setSectionsJson("{\"scene-1\":\"旧稿\"}");
+
+        assertEquals(Map.of("scene-1", "旧稿"), blobStore.read(legacy));
+    }
+
     @Test
     void exportTemplatesAndJobsShouldPersist() {
         User user = persistUser("v2-export");
@@ -230,6 +431,10 @@ class V2PersistenceServiceTest {
         return new ManuscriptFixture(manuscript);
     }
 
+    private String sectionsJson(String first, String second) throws Exception {
+        return new ObjectMapper().writeValueAsString(Map.of("scene-1", first, "scene-2", second));
+    }
+
     private record ManuscriptFixture(com.ainovel.app.manuscript.model.Manuscript manuscript) {
     }
 }
@@ -0,0 +1,172 @@
+package com.ainovel.app.v2;
+
+import com.ainovel.app.common.JsonColumnCodec;
+import com.ainovel.app.manuscript.ManuscriptSectionStore;
+import com.ainovel.app.manuscript.model.Manuscript;
+import com.ainovel.app.story.model.Outline;
+import com.ainovel.app.story.model.Story;
+import com.ainovel.app.user.User;
+import com.ainovel.app.v2.model.V2ManuscriptBranch;
+import com.ainovel.app.v2.model.V2ManuscriptVersion;
+import com.ainovel.app.v2.model.V2VersionBlob;
+import com.ainovel.app.v2.model.V2VersionScene;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Auto snapshot cleanup time after 100 and 10,000 prior snapshots on one branch. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Import({
+        JsonColumnCodec.class,
+        V2Json.class,
+        V2VersionPersistenceService.class,
+        V2VersionBlobStore.class,
+        ManuscriptSectionStore.class,
+        V2VersionCleanupBenchmarkTest.TestBeans.class
+})
+class V2VersionCleanupBenchmarkTest {
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private V2VersionPersistenceService versionService;
+
+    @TestConfiguration
+    static class TestBeans {
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Test
+    void autoSnapshotCleanupCostDoesNotGrowWithBranchHistory(TestReporter reporter) {
+        int keep = 100;
+        double small = medianCleanupMillis("v2-cleanup-100", 100, keep);
+        double large = medianCleanupMillis("v2-cleanup-10k", 10_000, keep);
+        reporter.publishEntry("auto snapshot cleanup median", String.format(
+                "100 prior snapshots %.3f ms, 10000 prior snapshots %.3f ms", small, large));
+        assertTrue(large < small * 3 + 1.0, "cleanup grew with history: " + small + " ms -> " + large + " ms");
+    }
+
+    /**
+     * Seeds {@code history} versions of one branch, the newest {@code keep} of them auto snapshots and all sharing
+     * one scene blob, then times cleanup after each of a series of new auto snapshots.
+     */
+    private double medianCleanupMillis(String username, int history, int keep) {
+        User user = persistUser(username);
+        Manuscript manuscript = persistManuscript(persistStory(user));
+        versionService.ensureMainBranchAndInitialVersion(manuscript, user);
+        UUID manuscriptId = manuscript.getId();
+        UUID branchId = (UUID) versionService.listBranches(manuscriptId).get(0).get("id");
+        V2ManuscriptBranch branch = entityManager.find(V2ManuscriptBranch.class, branchId);
+
+        V2VersionBlob blob = new V2VersionBlob();
+        blob.setManuscriptId(manuscriptId);
+        blob.setContentHash(V2VersionBlobStore.sha256(username));
+        blob.setEncoding(V2VersionBlob.FULL);
+        blob.setContent("旧稿");
+        blob.setContentChars(2);
+        blob.setStoredChars(2);
+        entityManager.persist(blob);
+
+        int number = 1;
+        for (int i = 0; i < history; i++) {
+            persistSnapshot(manuscript, branch, user, blob, ++number, i >= history - keep ? "auto" : "manual");
+            if (i % 500 == 499) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        versionService.cleanupAutoSnapshots(manuscriptId, branchId, keep);
+
+        int rounds = 40;
+        double[] millis = new double[rounds];
+        for (int round = 0; round < rounds; round++) {
+            persistSnapshot(manuscript, branch, user, blob, ++number, "auto");
+            entityManager.flush();
+            long started = System.nanoTime();
+            versionService.cleanupAutoSnapshots(manuscriptId, branchId, keep);
+            entityManager.flush();
+            millis[round] = (System.nanoTime() - started) / 1e6;
+            entityManager.clear();
+        }
+        assertEquals((long) keep, entityManager.getEntityManager().createQuery(
+                        "select count(v) from V2ManuscriptVersion v where v.branch.id = :branchId and v.snapshotType = 'auto'", Long.class)
+                .setParameter("branchId", branchId)
+                .getSingleResult());
+        Arrays.sort(millis);
+        return millis[rounds / 2];
+    }
+
+    private void persistSnapshot(Manuscript manuscript, V2ManuscriptBranch branch, User user, V2VersionBlob blob,
+                                 int number, String type) {
+        V2ManuscriptVersion version = new V2ManuscriptVersion();
+        version.setManuscript(manuscript);
+        version.setBranch(branch);
+        version.setVersionNumber(number);
+        version.setLabel("v" + number);
+        version.setSnapshotType(type);
+        version.setContentHash("seed-" + number);
+        version.setCreatedBy(user);
+        entityManager.persist(version);
+        V2VersionScene scene = new V2VersionScene();
+        scene.setVersionId(version.getId());
+        scene.setSceneId("scene-1");
+        scene.setBlobId(blob.getId());
+        entityManager.persist(scene);
+    }
+
+    private User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("x");
+        user.setRemoteUid((long) username.hashCode());
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Story persistStory(User user) {
+        Story story = new Story();
+        story.setUser(user);
+        story.setTitle("基准故事");
+        story.setStatus("draft");
+        entityManager.persist(story);
+        return story;
+    }
+
+    private Manuscript persistManuscript(Story story) {
+        Outline outline = new Outline();
+        outline.setStory(story);
+        outline.setTitle("主线");
+        outline.setContentJson("{\"chapters\":[]}");
+        entityManager.persist(outline);
+
+        Manuscript manuscript = new Manuscript();
+        manuscript.setOutline(outline);
+        manuscript.setTitle("基准正文");
+        manuscript.setSectionsJson("{\"scene-1\":\"旧稿\"}");
+        entityManager.persist(manuscript);
+        return manuscript;
+    }
+}
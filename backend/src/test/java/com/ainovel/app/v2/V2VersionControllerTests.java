@@ -9,6 +9,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.lang.reflect.Field;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -62,6 +63,31 @@ class V2VersionControllerTests {
         assertFalse(fieldNames.contains("initLocks"));
     }
 
+    @Test
+    void listVersionsShouldPassKeysetCursor() {
+        UUID beforeId = UUID.randomUUID();
+        Instant beforeCreatedAt = Instant.parse("2026-05-01T08:00:00.123456Z");
+        List<Map<String, Object>> page = List.of(Map.of("id", UUID.randomUUID(), "versionNumber", 6));
+        when(versionService.listVersions(manuscript, user, null, 7, beforeCreatedAt, beforeId, 20)).thenReturn(page);
+
+        List<Map<String, Object>> result = controller.listVersions(principal, manuscriptId, null, 7, beforeCreatedAt, beforeId, 20);
+
+        assertEquals(page, result);
+        verify(versionService).listVersions(manuscript, user, null, 7, beforeCreatedAt, beforeId, 20);
+    }
+
+    @Test
+    void getSnapshotShouldRequireOwnedManuscript() {
+        UUID versionId = UUID.randomUUID();
+        Map<String, Object> snapshot = Map.of("versionId", versionId, "sections", Map.of("scene-1", "正文"));
+        when(versionService.getSnapshot(manuscript, user, versionId)).thenReturn(snapshot);
+
+        Map<String, Object> result = controller.getSnapshot(principal, manuscriptId, versionId);
+
+        assertEquals(snapshot, result);
+        verify(accessGuard).requireOwnedManuscript(manuscriptId, user);
+    }
+
     @Test
     void createVersionShouldDelegateEmptyPayloadWhenBodyMissing() {
         Map<String, Object> version = Map.of("id", UUID.randomUUID(), "label", "v1");
@@ -1,5 +1,6 @@
 package com.ainovel.app.workflow;
 
+import com.ainovel.app.ai.StreamProgressCoalescer;
 import com.ainovel.app.common.BusinessException;
 import com.ainovel.app.common.JsonColumnCodec;
 import com.ainovel.app.user.User;
@@ -22,9 +23,15 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -79,6 +86,29 @@ class GuidedCreationJobServiceTest {
         verify(fixtures.runRepository).save(fixtures.run);
     }
 
+    @Test
+    void coalescesStreamDeltasAndServesLiveProgressWithoutLockingTheJob() {
+        Fixtures fixtures = new Fixtures();
+        UUID jobId = UUID.randomUUID();
+        StreamProgressCoalescer progress = fixtures.service.openStreamProgress(jobId,
+                (outputTokens, estimated) -> fixtures.service.updateStreamProgress(jobId, outputTokens, estimated));
+
+        for (int token = 1; token <= 4_000; token++) {
+            progress.offer(token, true);
+        }
+
+        assertEquals(4_000L, fixtures.service.liveStreamProgress(jobId).outputTokens());
+        verify(fixtures.jobRepository, atMost(5)).updateStreamProgress(eq(jobId), eq(AsyncJobStatus.CALLING_AI),
+                anyLong(), anyBoolean(), anyInt(), any());
+        verify(fixtures.jobRepository, never()).findByIdForUpdate(any());
+
+        progress.flush();
+        verify(fixtures.jobRepository).updateStreamProgress(eq(jobId), eq(AsyncJobStatus.CALLING_AI),
+                eq(4_000L), eq(true), eq(35), any());
+        fixtures.service.closeStreamProgress(jobId);
+        assertNull(fixtures.service.liveStreamProgress(jobId));
+    }
+
     @Test
     void safelyRequeuesWorkThatHadNotStartedCallingAi() {
         Fixtures fixtures = new Fixtures();
@@ -0,0 +1,46 @@
+package com.ainovel.app.workflow;
+
+import com.ainovel.app.ai.AiProgressContext;
+import com.ainovel.app.ai.StreamProgressCoalescer;
+import com.ainovel.app.workflow.model.GuidedCreationOperation;
+import com.ainovel.app.workflow.model.GuidedCreationStep;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuidedCreationJobWorkerTest {
+
+    @Test
+    void failedStreamShouldFlushTheLastCoalescedTokenCount() {
+        GuidedCreationJobService jobService = mock(GuidedCreationJobService.class);
+        GuidedCreationGenerationService generationService = mock(GuidedCreationGenerationService.class);
+        UUID jobId = UUID.randomUUID();
+        when(jobService.claim(jobId)).thenReturn(new GuidedCreationJobService.JobClaim(
+                jobId, UUID.randomUUID(), GuidedCreationStep.values()[0], GuidedCreationOperation.values()[0]));
+        when(jobService.markCallingAi(jobId)).thenReturn(new GuidedCreationJobService.GenerationContext(null, null, Map.of()));
+        // A frozen clock: only the first delta passes the interval, the rest wait for a flush.
+        when(jobService.openStreamProgress(eq(jobId), any()))
+                .thenAnswer(invocation -> new StreamProgressCoalescer(invocation.getArgument(1), 60_000, () -> 0L));
+        IllegalStateException failure = new IllegalStateException("stream reset");
+        when(generationService.generate(any(), any(), anyMap())).thenAnswer(invocation -> {
+            AiProgressContext.current().onDelta(10, true);
+            AiProgressContext.current().onDelta(42, true);
+            throw failure;
+        });
+
+        new GuidedCreationJobWorker(jobService, generationService, mock(GuidedCreationWorkflowService.class)).process(jobId);
+
+        verify(jobService).updateStreamProgress(jobId, 10, true);
+        verify(jobService).updateStreamProgress(jobId, 42, true);
+        verify(jobService).closeStreamProgress(jobId);
+        verify(jobService).fail(jobId, failure);
+    }
+}
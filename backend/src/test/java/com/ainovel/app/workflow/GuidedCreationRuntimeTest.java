@@ -0,0 +1,43 @@
+package com.ainovel.app.workflow;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuidedCreationRuntimeTest {
+
+    @Test
+    void dispatchShouldAdmitOnlyAsManyJobsAsThereAreFreeSlots() {
+        GuidedCreationJobService jobService = mock(GuidedCreationJobService.class);
+        GuidedCreationJobWorker worker = mock(GuidedCreationJobWorker.class);
+        List<Runnable> started = new ArrayList<>();
+        GuidedCreationRuntime runtime = new GuidedCreationRuntime(jobService, mock(GuidedCreationWorkflowService.class),
+                worker, started::add, 2);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(jobService.queuedJobIds()).thenReturn(List.of(first, second, third));
+
+        runtime.dispatchQueuedJobs();
+        assertEquals(2, started.size());
+        runtime.onQueued(new GuidedCreationJobQueuedEvent(third));
+        assertEquals(2, started.size());
+
+        started.getFirst().run();
+        verify(worker).process(first);
+        when(jobService.queuedJobIds()).thenReturn(List.of(third));
+        runtime.dispatchQueuedJobs();
+        assertEquals(3, started.size());
+        started.getLast().run();
+        verify(worker).process(third);
+        verify(worker, never()).process(second);
+    }
+}
@@ -88,7 +88,8 @@ class GuidedCreationWorkflowServiceTest {
                 mock(com.ainovel.app.story.repo.CharacterCardRepository.class),
                 mock(com.ainovel.app.story.repo.OutlineRepository.class),
                 new GuidedCreationJsonSupport(new com.ainovel.app.common.JsonColumnCodec(mapper)),
-                new com.ainovel.app.common.JsonColumnCodec(mapper));
+                new com.ainovel.app.common.JsonColumnCodec(mapper),
+                mock(com.ainovel.app.story.OutlineNodeIndex.class));
 
         CreationWorkflowRun result = materializer.confirm(
                 runId, userId, GuidedCreationStep.PREMISE, "same", null, null, false);
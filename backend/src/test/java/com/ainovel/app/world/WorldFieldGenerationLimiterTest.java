@@ -0,0 +1,72 @@
+package com.ainovel.app.world;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorldFieldGenerationLimiterTest {
+
+    @Test
+    void capsEachUserSeparately() throws Exception {
+        WorldFieldGenerationLimiter limiter = new WorldFieldGenerationLimiter(2);
+        UUID busyUser = UUID.randomUUID();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                calls.add(executor.submit(() -> limiter.run(busyUser, () -> {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    started.countDown();
+                    try {
+                        assertTrue(release.await(5, TimeUnit.SECONDS));
+                    } catch (InterruptedException ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                    running.decrementAndGet();
+                    return 1;
+                })));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Another user is not held up by the first one's full slots.
+            assertEquals("free", executor.submit(() -> limiter.run(UUID.randomUUID(), () -> "free")).get(5, TimeUnit.SECONDS));
+            assertEquals(2, running.get());
+
+            release.countDown();
+            for (Future<Integer> call : calls) {
+                assertEquals(1, call.get(5, TimeUnit.SECONDS));
+            }
+        }
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void releasesTheSlotWhenTheCallFails() {
+        WorldFieldGenerationLimiter limiter = new WorldFieldGenerationLimiter(1);
+        UUID user = UUID.randomUUID();
+
+        RuntimeException failure = new RuntimeException("ai-service unavailable");
+        assertSame(failure, assertThrows(RuntimeException.class, () -> limiter.run(user, () -> {
+            throw failure;
+        })));
+
+        assertEquals("next", limiter.run(user, () -> "next"));
+    }
+}
@@ -0,0 +1,238 @@
+package com.ainovel.app.world;
+
+import com.ainovel.app.ai.AiProgressContext;
+import com.ainovel.app.ai.AiService;
+import com.ainovel.app.ai.dto.AiRefineResponse;
+import com.ainovel.app.ai.dto.AiUsageDto;
+import com.ainovel.app.integration.AiGatewayGrpcClient;
+import com.ainovel.app.user.User;
+import com.ainovel.app.user.UserRepository;
+import com.ainovel.app.world.dto.WorldDetailDto;
+import com.ainovel.app.world.model.World;
+import com.ainovel.app.world.repo.WorldRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WorldModuleGenerationTransactionTests {
+    @Autowired
+    private WorldService worldService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private WorldRepository worldRepository;
+    @Autowired
+    private DataSource dataSource;
+    @MockBean
+    private AiService aiService;
+
+    @Test
+    @WithMockUser(username = "world_pool_user", roles = {"USER"})
+    void slowModelCallHoldsNoPooledConnectionAndKeepsFieldsSavedMeanwhile() throws Exception {
+        World world = saveWorld("world_pool_user", "Slow World");
+
+        CountDownLatch modelCalled = new CountDownLatch(1);
+        CountDownLatch releaseModel = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean transactionDuringCall = new AtomicBoolean();
+        when(aiService.refine(any(), any())).thenAnswer(invocation -> {
+            if (calls.getAndIncrement() == 0) {
+                transactionDuringCall.set(TransactionSynchronizationManager.isActualTransactionActive());
+                modelCalled.countDown();
+                assertTrue(releaseModel.await(10, TimeUnit.SECONDS));
+            }
+            return new AiRefineResponse("港口议会按潮汐季轮换席位。", new AiUsageDto(1, 1, 0, 0, 0), 100);
+        });
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            Future<WorldDetailDto> generation = executor.submit(() -> worldService.generateModule(world.getId(), "society"));
+            assertTrue(modelCalled.await(10, TimeUnit.SECONDS));
+            // The other two fields are generated alongside the blocked one and report their progress.
+            assertTrue(waitForCompletedFields(world.getId(), 2));
+
+            assertFalse(transactionDuringCall.get());
+            assertTrue(waitForIdlePool(), "a pooled connection stayed checked out during the model call");
+
+            // The author fills in a field by hand while the model is still generating.
+            World edited = worldRepository.findById(world.getId()).orElseThrow();
+            edited.setModulesJson("{\"society\":{\"economy\":\"作者手写的盐税制度。\"}}");
+            worldRepository.save(edited);
+
+            releaseModel.countDown();
+            WorldDetailDto detail = generation.get(10, TimeUnit.SECONDS);
+
+            assertEquals("作者手写的盐税制度。", detail.modules().get("society").get("economy"));
+            assertEquals("港口议会按潮汐季轮换席位。", detail.modules().get("society").get("politics"));
+            assertEquals("COMPLETED", detail.moduleProgress().get("society"));
+        } finally {
+            releaseModel.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "world_cancel_user", roles = {"USER"})
+    void interruptingTheCallerCancelsRunningFieldCallsThatSeeItsProgressListener() throws Exception {
+        World world = saveWorld("world_cancel_user", "Cancelled World");
+        AiGatewayGrpcClient.StreamProgressListener listener = (outputTokens, estimated) -> { };
+        List<AiGatewayGrpcClient.StreamProgressListener> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch allCalled = new CountDownLatch(3);
+        AtomicInteger interrupted = new AtomicInteger();
+        when(aiService.refine(any(), any())).thenAnswer(invocation -> {
+            seen.add(AiProgressContext.current());
+            allCalled.countDown();
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException ex) {
+                interrupted.incrementAndGet();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("model call interrupted", ex);
+            }
+            return new AiRefineResponse("不该写入。", new AiUsageDto(1, 1, 0, 0, 0), 100);
+        });
+
+        AtomicReference<RuntimeException> outcome = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            Future<?> generation = executor.submit(() -> {
+                try {
+                    AiProgressContext.withListener(listener, () -> worldService.generateModule(world.getId(), "society"));
+                } catch (RuntimeException ex) {
+                    outcome.set(ex);
+                } finally {
+                    finished.countDown();
+                }
+            });
+            assertTrue(allCalled.await(10, TimeUnit.SECONDS));
+
+            generation.cancel(true);
+
+            assertTrue(finished.await(10, TimeUnit.SECONDS), "generation kept waiting on the model calls");
+            assertEquals("世界模块生成已取消", outcome.get().getMessage());
+            assertEquals(3, interrupted.get());
+            // Every field call streams into a child listener of its own rather than the caller's.
+            assertEquals(3, Set.copyOf(seen).size());
+            assertFalse(seen.contains(listener));
+            assertFalse(worldRepository.findById(world.getId()).orElseThrow().getModulesJson().contains("不该写入"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "world_stream_user", roles = {"USER"})
+    void overlappingFieldStreamsReachTheOperationListenerAsOneStream() throws Exception {
+        World world = saveWorld("world_stream_user", "Streaming World");
+        CyclicBarrier overlapping = new CyclicBarrier(3);
+        when(aiService.refine(any(), any())).thenAnswer(invocation -> {
+            AiGatewayGrpcClient.StreamProgressListener stream = AiProgressContext.current();
+            stream.onStarted("req-" + UUID.randomUUID(), "fake-model");
+            stream.onDelta(10, true);
+            // All three field streams are open at once before any of them moves on.
+            overlapping.await(10, TimeUnit.SECONDS);
+            stream.onDelta(20, true);
+            overlapping.await(10, TimeUnit.SECONDS);
+            stream.onCompleted(25, 7, 1);
+            return new AiRefineResponse("港口议会按潮汐季轮换席位。", new AiUsageDto(7, 25, 0, 0, 0), 100);
+        });
+
+        AtomicInteger started = new AtomicInteger();
+        List<Long> deltas = new CopyOnWriteArrayList<>();
+        List<long[]> completions = new CopyOnWriteArrayList<>();
+        AiGatewayGrpcClient.StreamProgressListener operation = new AiGatewayGrpcClient.StreamProgressListener() {
+            @Override public void onStarted(String requestId, String modelKey) {
+                started.incrementAndGet();
+            }
+            @Override public void onDelta(long outputTokens, boolean estimated) {
+                deltas.add(outputTokens);
+            }
+            @Override public void onCompleted(long completionTokens, long promptTokens, long cacheTokens) {
+                completions.add(new long[]{completionTokens, promptTokens, cacheTokens});
+            }
+        };
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            executor.submit(() -> AiProgressContext.withListener(operation,
+                    () -> worldService.generateModule(world.getId(), "society"))).get(20, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, started.get());
+        assertEquals(1, completions.size());
+        assertArrayEquals(new long[]{75, 21, 3}, completions.getFirst());
+        assertEquals(6, deltas.size());
+        assertEquals(60L, deltas.stream().mapToLong(Long::longValue).max().orElseThrow());
+    }
+
+    private World saveWorld(String username, String name) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("x");
+        user.setRoles(Set.of("ROLE_USER"));
+        userRepository.save(user);
+
+        World world = new World();
+        world.setUser(user);
+        world.setName(name);
+        world.setStatus("generating");
+        world.setVersion("0.1.0");
+        world.setModulesJson("{}");
+        world.setModuleProgressJson("{\"society\":\"AWAITING_GENERATION\"}");
+        return worldRepository.save(world);
+    }
+
+    private boolean waitForCompletedFields(UUID worldId, int completed) throws InterruptedException {
+        for (int i = 0; i < 250; i++) {
+            var status = worldService.generationStatus(worldId).queue().getFirst();
+            if ("GENERATING".equals(status.status()) && Integer.valueOf(completed).equals(status.completedFields())) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+
+    /** Background jobs may borrow a connection briefly; a transaction held across the model call never lets go. */
+    private boolean waitForIdlePool() throws InterruptedException {
+        var pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        for (int i = 0; i < 50; i++) {
+            if (pool.getActiveConnections() == 0) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
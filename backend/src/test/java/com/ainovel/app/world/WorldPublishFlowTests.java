@@ -3,6 +3,7 @@ package com.ainovel.app.world;
 import com.ainovel.app.user.User;
 import com.ainovel.app.user.UserRepository;
 import com.ainovel.app.ai.AiService;
+import com.ainovel.app.ai.dto.AiRefineRequest;
 import com.ainovel.app.ai.dto.AiRefineResponse;
 import com.ainovel.app.ai.dto.AiUsageDto;
 import com.ainovel.app.world.dto.WorldDetailDto;
@@ -16,8 +17,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,6 +36,8 @@ class WorldPublishFlowTests {
     private UserRepository userRepository;
     @Autowired
     private WorldRepository worldRepository;
+    @Autowired
+    private WorldFieldGenerationLimiter fieldGenerationLimiter;
     @MockBean
     private AiService aiService;
 
@@ -60,25 +66,23 @@ class WorldPublishFlowTests {
         assertEquals("AWAITING_GENERATION", afterPublish.moduleProgress().get("society"));
         assertEquals("AWAITING_GENERATION", afterPublish.moduleProgress().get("magic_tech"));
 
-        when(aiService.refine(any(), any()))
-                .thenReturn(new AiRefineResponse("雨都议会按港口税权划分派系，商会控制粮运，平民节庆围绕潮汐钟展开。",
-                        new AiUsageDto(1, 1, 0, 0, 0),
-                        100))
-                .thenReturn(new AiRefineResponse("商会以粮运和海盐为核心产业，税契由港口议会逐季审定。",
-                        new AiUsageDto(1, 1, 0, 0, 0),
-                        100))
-                .thenReturn(new AiRefineResponse("市民节庆围绕潮汐钟和雾灯巡游展开，外来者需先登记船印。",
-                        new AiUsageDto(1, 1, 0, 0, 0),
-                        100))
-                .thenReturn(new AiRefineResponse("灵潮科技",
-                        new AiUsageDto(1, 1, 0, 0, 0),
-                        100))
-                .thenReturn(new AiRefineResponse("灵潮科技以潮汐晶体供能，越界使用会造成记忆回潮和城市停摆。",
-                        new AiUsageDto(1, 1, 0, 0, 0),
-                        100))
-                .thenReturn(new AiRefineResponse("核心限制是晶体过载会反噬使用者记忆，并让附近设备短暂停摆。",
-                        new AiUsageDto(1, 1, 0, 0, 0),
-                        100));
+        // Fields of a module are generated concurrently, so answer by the field named in the prompt.
+        Map<String, String> answers = Map.of(
+                "字段：政治体制", "雨都议会按港口税权划分派系，商会控制粮运，平民节庆围绕潮汐钟展开。",
+                "字段：经济结构", "商会以粮运和海盐为核心产业，税契由港口议会逐季审定。",
+                "字段：文化", "市民节庆围绕潮汐钟和雾灯巡游展开，外来者需先登记船印。",
+                "字段：体系名称", "灵潮科技",
+                "字段：规则", "灵潮科技以潮汐晶体供能，越界使用会造成记忆回潮和城市停摆。",
+                "字段：限制", "核心限制是晶体过载会反噬使用者记忆，并让附近设备短暂停摆。");
+        when(aiService.refine(any(), any())).thenAnswer(invocation -> {
+            AiRefineRequest request = invocation.getArgument(1);
+            String answer = answers.entrySet().stream()
+                    .filter(entry -> request.text().endsWith(entry.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElseThrow();
+            return new AiRefineResponse(answer, new AiUsageDto(1, 1, 0, 0, 0), 100);
+        });
 
         WorldDetailDto afterSociety = worldService.generateModule(world.getId(), "society");
         assertFalse(afterSociety.modules().get("society").get("politics").contains("占位"));
@@ -94,6 +98,52 @@ class WorldPublishFlowTests {
         assertFalse(afterMagic.modules().get("magic_tech").get("limitations").contains("占位"));
     }
 
+    @Test
+    @WithMockUser(username = "world_fanout_user", roles = {"USER"})
+    void generateModulesFansFieldsOutUpToThePerUserLimit() {
+        User user = new User();
+        user.setUsername("world_fanout_user");
+        user.setEmail("world_fanout_user@example.com");
+        user.setPasswordHash("x");
+        user.setRoles(Set.of("ROLE_USER"));
+        userRepository.save(user);
+
+        World world = new World();
+        world.setUser(user);
+        world.setName("Fan-out World");
+        world.setStatus("draft");
+        world.setVersion("0.1.0");
+        world.setModulesJson("{}");
+        world.setModuleProgressJson("{}");
+        worldRepository.save(world);
+        worldService.publish(world.getId());
+
+        long callMs = 150;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(aiService.refine(any(), any())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(callMs);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return new AiRefineResponse("潮汐晶体决定城邦兴衰。", new AiUsageDto(1, 1, 0, 0, 0), 100);
+        });
+        List<String> progress = new ArrayList<>();
+
+        long started = System.nanoTime();
+        WorldDetailDto detail = worldService.generateModules(world.getId(), List.of("geography", "society", "magic_tech"),
+                (completed, total) -> progress.add(completed + "/" + total));
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000L;
+
+        assertEquals("active", detail.status());
+        assertEquals(List.of("1/9", "2/9", "3/9", "4/9", "5/9", "6/9", "7/9", "8/9", "9/9"), progress);
+        assertEquals(fieldGenerationLimiter.perUser(), peak.get());
+        // Nine calls, three at a time: about three call rounds instead of nine.
+        assertTrue(elapsedMs < 6 * callMs, "world build took " + elapsedMs + " ms");
+    }
+
     @Test
     @WithMockUser(username = "world_failed_user", roles = {"USER"})
     void generateModuleShouldRecordFailureInsteadOfWritingPlaceholderContent() {
@@ -59,6 +59,10 @@ export const AuthProvider = ({ children }: { children: React.ReactNode }) => {
   }, []);
 
   const logout = useCallback(() => {
+    if (localStorage.getItem("token")) {
+      // Best effort: lets the backend drop its cached session check right away.
+      void api.sso.logout().catch(() => undefined);
+    }
     localStorage.removeItem("token");
     setUser(null);
   }, []);
@@ -1,6 +1,6 @@
 import { useSyncExternalStore } from "react";
 import { api } from "@/lib/api-client";
-import type { AiOperationAccepted, AiOperationProgress } from "@/types";
+import type { AiOperationAccepted, AiOperationDraftEvent, AiOperationProgress } from "@/types";
 
 const STORAGE_KEY = "ainovel.active-ai-operation";
 let current: AiOperationProgress | null = null;
@@ -53,7 +53,10 @@ function refreshRecoveredResult(final: AiOperationProgress) {
 
 export const useTrackedAiOperation = () => useSyncExternalStore(subscribe, () => current, () => null);
 
-async function watch(operationId: string): Promise<AiOperationProgress> {
+async function watch(
+  operationId: string,
+  onDraft?: (event: AiOperationDraftEvent) => void,
+): Promise<AiOperationProgress> {
   watching = operationId;
   window.sessionStorage.setItem(STORAGE_KEY, operationId);
   const controller = new AbortController();
@@ -67,7 +70,7 @@ async function watch(operationId: string): Promise<AiOperationProgress> {
   try {
     final = await api.aiOperations.wait(operationId, (progress) => {
       if (watching === operationId) emit(progress);
-    }, controller.signal);
+    }, controller.signal, onDraft);
   } catch (error) {
     if (watchState.timedOut) {
       await api.aiOperations.cancel(operationId).catch(() => undefined);
@@ -99,9 +102,12 @@ async function watch(operationId: string): Promise<AiOperationProgress> {
   return final;
 }
 
-export async function runTrackedAiOperation(start: Promise<AiOperationAccepted>): Promise<AiOperationProgress> {
+export async function runTrackedAiOperation(
+  start: Promise<AiOperationAccepted>,
+  onDraft?: (event: AiOperationDraftEvent) => void,
+): Promise<AiOperationProgress> {
   const accepted = await start;
-  const final = await watch(accepted.operationId);
+  const final = await watch(accepted.operationId, onDraft);
   if (final.status !== "SUCCEEDED") throw new Error(final.errorMessage || "AI 操作未完成");
   return final;
 }
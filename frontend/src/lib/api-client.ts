@@ -37,6 +37,7 @@ import {
   GuidedCreationStep,
   AiOperationAccepted,
   AiOperationProgress,
+  AiOperationDraftEvent,
 } from "@/types";
 
 const API_BASE = "/api";
@@ -183,11 +184,13 @@ async function streamAiOperation(
   operationId: string,
   onProgress: (progress: AiOperationProgress) => void,
   signal?: AbortSignal,
+  onDraft?: (event: AiOperationDraftEvent) => void,
 ): Promise<void> {
   const headers = new Headers({ Accept: "text/event-stream" });
   const token = getToken();
   if (token) headers.set("Authorization", `Bearer ${token}`);
-  const response = await fetch(`${API_BASE}/v1/ai-operations/${operationId}/events`, { headers, signal });
+  const query = onDraft ? "?draft=true" : "";
+  const response = await fetch(`${API_BASE}/v1/ai-operations/${operationId}/events${query}`, { headers, signal });
   if (!response.ok || !response.body) throw new ApiError(response.status, await safeErrorMessage(response));
   const reader = response.body.getReader();
   const decoder = new TextDecoder();
@@ -200,9 +203,13 @@ async function streamAiOperation(
     while (boundary >= 0) {
       const event = buffer.slice(0, boundary);
       buffer = buffer.slice(boundary + 2);
-      const data = event.split(/\r?\n/).filter((line) => line.startsWith("data:"))
+      const lines = event.split(/\r?\n/);
+      const name = lines.find((line) => line.startsWith("event:"))?.slice(6).trim() || "progress";
+      const data = lines.filter((line) => line.startsWith("data:"))
         .map((line) => line.slice(5).trim()).join("\n");
-      if (data) {
+      if (data && (name === "draft" || name === "accepted")) {
+        onDraft?.({ ...JSON.parse(data), type: name });
+      } else if (data) {
         const progress = JSON.parse(data) as AiOperationProgress;
         onProgress(progress);
         if (TERMINAL_AI_OPERATION_STATES.has(progress.status)) {
@@ -220,9 +227,10 @@ async function waitForAiOperation(
   operationId: string,
   onProgress: (progress: AiOperationProgress) => void,
   signal?: AbortSignal,
+  onDraft?: (event: AiOperationDraftEvent) => void,
 ): Promise<AiOperationProgress> {
   try {
-    await streamAiOperation(operationId, onProgress, signal);
+    await streamAiOperation(operationId, onProgress, signal, onDraft);
   } catch (error) {
     if (signal?.aborted) throw error;
   }
@@ -314,6 +322,7 @@ function toUser(profile: any): User {
     projectCredits,
     publicCredits,
     totalCredits,
+    publicCreditsAgeMs: Number(profile.publicCreditsAgeMs ?? 0),
     isBanned: Boolean(profile.isBanned ?? false),
   };
 }
@@ -708,6 +717,12 @@ export const api = {
     },
   },
 
+  sso: {
+    logout: async (): Promise<void> => {
+      await requestVoid("/v1/sso/logout", { method: "POST", body: "{}" });
+    },
+  },
+
   user: {
     getProfile: async () => {
       const profile = await requestJson<any>("/v1/user/profile", { method: "GET" });
@@ -794,6 +809,7 @@ export const api = {
         projectCredits: Number(u.projectCredits ?? 0),
         publicCredits: Number(u.publicCredits ?? 0),
         totalCredits: Number(u.totalCredits ?? ((u.projectCredits ?? 0) + (u.publicCredits ?? 0))),
+        publicCreditsAgeMs: Number(u.publicCreditsAgeMs ?? 0),
         isBanned: Boolean(u.isBanned ?? false),
         storyCount: Number(u.storyCount ?? 0),
         worldCount: Number(u.worldCount ?? 0),
@@ -1438,7 +1454,15 @@ export const api = {
     },
 
     version: {
-      listVersions: async (manuscriptId: string) => requestJson<any[]>(`/v2/manuscripts/${manuscriptId}/versions`, { method: "GET" }),
+      listVersions: async (manuscriptId: string, cursor?: { beforeCreatedAt: string; beforeId: string }) =>
+        requestJson<any[]>(
+          cursor
+            ? `/v2/manuscripts/${manuscriptId}/versions?beforeCreatedAt=${encodeURIComponent(cursor.beforeCreatedAt)}&beforeId=${cursor.beforeId}`
+            : `/v2/manuscripts/${manuscriptId}/versions`,
+          { method: "GET" },
+        ),
+      getVersionSnapshot: async (manuscriptId: string, versionId: string) =>
+        requestJson<any>(`/v2/manuscripts/${manuscriptId}/versions/${versionId}/snapshot`, { method: "GET" }),
       createVersion: async (manuscriptId: string, payload: any = {}) =>
         requestJson<any>(`/v2/manuscripts/${manuscriptId}/versions`, { method: "POST", body: JSON.stringify(payload) }),
       getVersion: async (manuscriptId: string, versionId: string) =>
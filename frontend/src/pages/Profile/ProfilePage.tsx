@@ -130,6 +130,11 @@ const ProfilePage = () => {
               <div className="p-3 rounded-md border bg-background">
                 <div className="text-xs text-muted-foreground">通用积分（payService）</div>
                 <div className="text-xl font-semibold">{user.publicCredits.toLocaleString()}</div>
+                {user.publicCreditsAgeMs >= 10_000 && (
+                  <div className="text-xs text-muted-foreground mt-1">
+                    {Math.round(user.publicCreditsAgeMs / 1000)} 秒前同步
+                  </div>
+                )}
               </div>
               <div className="p-3 rounded-md border bg-background">
                 <div className="text-xs text-muted-foreground">总余额</div>
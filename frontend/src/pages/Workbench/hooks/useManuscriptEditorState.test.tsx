@@ -62,9 +62,10 @@ describe("useManuscriptEditorState", () => {
       }) as any,
     );
 
+    const replaceManuscript = vi.fn();
     const { result } = renderHook(() =>
       useManuscriptEditorState({
-        replaceManuscript: vi.fn(),
+        replaceManuscript,
         selectedManuscriptId: "manuscript-1",
         selectedSceneId: "scene-1",
         selectedStoryId: "story-1",
@@ -86,6 +87,7 @@ describe("useManuscriptEditorState", () => {
 
     expect(api.manuscripts.saveSection).toHaveBeenCalledTimes(1);
     expect(api.manuscripts.saveSection).toHaveBeenCalledWith("manuscript-1", "scene-1", "<p>second</p>");
+    expect(replaceManuscript).toHaveBeenCalledWith(expect.objectContaining({ id: "manuscript-1" }), { mergeSections: true });
     expect(result.current.dirtyScenes["scene-1"]).toBe(false);
     expect(result.current.sceneDrafts["scene-1"]).toBe("<p>second</p>");
   });
@@ -12,7 +12,7 @@ type ToastFn = (options: {
 
 type UseManuscriptEditorStateOptions = {
   autoSaveIntervalSeconds?: number | null;
-  replaceManuscript: (manuscript: Manuscript) => void;
+  replaceManuscript: (manuscript: Manuscript, options?: { mergeSections?: boolean }) => void;
   selectedManuscript?: Manuscript | null;
   selectedManuscriptId: string;
   selectedSceneId: string;
@@ -114,7 +114,7 @@ export function useManuscriptEditorState({
       setIsSaving(true);
       try {
         const saved = await api.manuscripts.saveSection(selectedManuscriptId, sceneId, html);
-        replaceManuscript(saved);
+        replaceManuscript(saved, { mergeSections: true });
         setSceneDrafts((prev) => ({ ...prev, [sceneId]: saved.sections?.[sceneId] || html }));
         setDirtyScenes((prev) => ({ ...prev, [sceneId]: false }));
         setLastSavedAt(new Date().toLocaleTimeString());
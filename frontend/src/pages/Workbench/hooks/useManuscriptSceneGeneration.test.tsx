@@ -1,9 +1,13 @@
-import { act, renderHook } from "@testing-library/react";
-import { afterEach, describe, expect, it, vi } from "vitest";
+import { act, renderHook, waitFor } from "@testing-library/react";
+import { afterEach, beforeEach, describe, expect, it, vi } from "vitest";
 import { api } from "@/lib/api-client";
 import { useManuscriptSceneGeneration } from "./useManuscriptSceneGeneration";
 
 describe("useManuscriptSceneGeneration", () => {
+  beforeEach(() => {
+    vi.spyOn(api.aiOperations, "active").mockRejectedValue(new Error("no active operation"));
+  });
+
   afterEach(() => {
     vi.restoreAllMocks();
   });
@@ -54,6 +58,45 @@ describe("useManuscriptSceneGeneration", () => {
     expect(result.current.isGenerating).toBe(false);
   });
 
+  it("reloads plot quality once the queued background analysis finishes", async () => {
+    const saved = {
+      id: "manuscript-2",
+      outlineId: "outline-1",
+      title: "正文稿",
+      updatedAt: "2026-10-17T00:00:00Z",
+      sections: { "scene-1": "<p>generated</p>" },
+    };
+    vi.spyOn(api.manuscripts, "startGenerateScene").mockResolvedValue({ operationId: "operation-1" });
+    vi.spyOn(api.aiOperations, "active").mockResolvedValue(queuedOperation("operation-plot"));
+    vi.spyOn(api.aiOperations, "wait").mockImplementation(async (id, onProgress) => {
+      const completed = completedOperation(id);
+      onProgress(completed);
+      return completed;
+    });
+    vi.spyOn(api.manuscripts, "get").mockResolvedValue(saved as any);
+    const loadPlotQuality = vi.fn().mockResolvedValue({ run: null, trend: null });
+
+    const { result } = renderHook(() =>
+      useManuscriptSceneGeneration({
+        loadPlotQuality,
+        loadSlopQuality: vi.fn().mockResolvedValue({ status: "ACCEPTED", maxSeverity: "LOW" }),
+        applyServerSection: vi.fn(),
+        cancelPendingSectionSave: vi.fn(),
+        selectedManuscriptId: "manuscript-1",
+        selectedSceneId: "scene-1",
+        toast: vi.fn(),
+      }),
+    );
+
+    await act(async () => {
+      await result.current.generateScene();
+    });
+
+    expect(api.aiOperations.active).toHaveBeenCalledWith("SCENE_PLOT_QUALITY", "scene-1");
+    await waitFor(() => expect(loadPlotQuality).toHaveBeenCalledTimes(2));
+    expect(api.aiOperations.wait).toHaveBeenCalledWith("operation-plot", expect.any(Function));
+  });
+
   it("shows a destructive toast when generation fails", async () => {
     vi.spyOn(api.manuscripts, "startGenerateScene").mockRejectedValue(new Error("network down"));
     const toast = vi.fn();
@@ -161,3 +204,11 @@ function completedOperation(id: string) {
     currentStepOutputTokens: 3200, outputTokensEstimated: false, attemptCount: 1,
   } as any;
 }
+
+function queuedOperation(id: string) {
+  return {
+    id, operationType: "AINOVEL_LONG_TASK", status: "QUEUED",
+    totalSteps: 2, completedSteps: 0, remainingSteps: 2,
+    currentStepOutputTokens: 0, outputTokensEstimated: true, attemptCount: 0,
+  } as any;
+}
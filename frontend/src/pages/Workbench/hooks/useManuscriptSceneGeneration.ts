@@ -1,7 +1,7 @@
 import { useCallback, useState } from "react";
 import { api } from "@/lib/api-client";
 import { runTrackedAiOperation } from "@/lib/ai-operation-store";
-import type { Manuscript } from "@/types";
+import type { AiOperationDraftEvent, Manuscript } from "@/types";
 import { qualityStatusText, stripHtml } from "@/pages/Workbench/tabs/manuscript-writer/shared";
 
 type GenerationMode = "fast" | "crafted";
@@ -22,6 +22,8 @@ type UseManuscriptSceneGenerationOptions = {
   toast: ToastFn;
 };
 
+const PLOT_QUALITY_SCOPE = "SCENE_PLOT_QUALITY";
+
 const wait = (ms: number) => new Promise((resolve) => window.setTimeout(resolve, ms));
 
 async function readGeneratedManuscript(manuscriptId: string, sceneId: string): Promise<Manuscript> {
@@ -35,6 +37,18 @@ async function readGeneratedManuscript(manuscriptId: string, sceneId: string): P
   throw new Error("生成结果没有可用正文，请重试");
 }
 
+// Plot quality is analyzed by a background operation queued after the scene is saved; reload once it ends.
+async function reloadPlotQualityWhenAnalyzed(
+  sceneId: string,
+  manuscriptId: string,
+  loadPlotQuality: UseManuscriptSceneGenerationOptions["loadPlotQuality"],
+) {
+  const operation = await api.aiOperations.active(PLOT_QUALITY_SCOPE, sceneId).catch((): null => null);
+  if (!operation) return;
+  await api.aiOperations.wait(operation.id, () => undefined).catch((): null => null);
+  await loadPlotQuality(sceneId, manuscriptId).catch((): null => null);
+}
+
 export function useManuscriptSceneGeneration({
   loadPlotQuality,
   loadSlopQuality,
@@ -46,14 +60,20 @@ export function useManuscriptSceneGeneration({
 }: UseManuscriptSceneGenerationOptions) {
   const [isGenerating, setIsGenerating] = useState(false);
   const [generationMode, setGenerationMode] = useState<GenerationMode>("fast");
+  const [draftText, setDraftText] = useState("");
 
   const generateScene = useCallback(async () => {
     if (!selectedManuscriptId || !selectedSceneId) return;
     const sceneId = selectedSceneId;
     cancelPendingSectionSave(sceneId);
     setIsGenerating(true);
+    setDraftText("");
+    const onDraft = (event: AiOperationDraftEvent) => {
+      if (event.type === "accepted" || event.reset) setDraftText(event.text);
+      else setDraftText((previous) => previous + event.text);
+    };
     try {
-      await runTrackedAiOperation(api.manuscripts.startGenerateScene(selectedManuscriptId, sceneId, generationMode));
+      await runTrackedAiOperation(api.manuscripts.startGenerateScene(selectedManuscriptId, sceneId, generationMode), onDraft);
       const saved = await readGeneratedManuscript(selectedManuscriptId, sceneId);
       const generatedHtml = saved.sections?.[sceneId];
       if (typeof generatedHtml !== "string" || !stripHtml(generatedHtml)) {
@@ -62,6 +82,7 @@ export function useManuscriptSceneGeneration({
       applyServerSection(saved, sceneId);
       const latestRun = await loadSlopQuality(sceneId, saved.id).catch((): null => null);
       await loadPlotQuality(sceneId, saved.id).catch((): { run: null; trend: null } => ({ run: null, trend: null }));
+      void reloadPlotQualityWhenAnalyzed(sceneId, saved.id, loadPlotQuality);
       toast({
         title: "已生成场景正文",
         description: qualityStatusText(latestRun as any),
@@ -70,6 +91,7 @@ export function useManuscriptSceneGeneration({
       toast({ variant: "destructive", title: "生成失败", description: e.message });
     } finally {
       setIsGenerating(false);
+      setDraftText("");
     }
   }, [
     generationMode,
@@ -83,6 +105,7 @@ export function useManuscriptSceneGeneration({
   ]);
 
   return {
+    draftText,
     generateScene,
     generationMode,
     isGenerating,
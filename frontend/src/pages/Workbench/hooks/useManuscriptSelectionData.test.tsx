@@ -167,4 +167,47 @@ describe("useManuscriptSelectionData", () => {
     expect(outlinesSpy).toHaveBeenCalledTimes(1);
     expect(manuscriptsSpy).toHaveBeenCalledTimes(1);
   });
+
+  it("merges a single saved scene into the cached manuscript without dropping other scenes", async () => {
+    vi.spyOn(api.stories, "list").mockResolvedValue([makeStory("story-1", "故事一")] as any);
+    vi.spyOn(api.stories, "listCharacters").mockResolvedValue([] as any);
+    vi.spyOn(api.outlines, "listByStory").mockResolvedValue([makeOutline("outline-1", "story-1")] as any);
+    vi.spyOn(api.manuscripts, "listByOutline").mockResolvedValue([makeManuscript("manuscript-1", "outline-1")] as any);
+
+    const queryClient = createTestQueryClient();
+    const wrapper = createQueryClientWrapper(queryClient);
+    const { result } = renderHook(
+      () =>
+        useManuscriptSelectionData({
+          toast: vi.fn(),
+        }),
+      { wrapper },
+    );
+
+    await waitFor(() => {
+      expect(result.current.selectedManuscript?.id).toBe("manuscript-1");
+    });
+
+    act(() => {
+      result.current.replaceManuscript(
+        {
+          id: "manuscript-1",
+          outlineId: "outline-1",
+          title: "manuscript-manuscript-1",
+          updatedAt: "2026-07-07T00:00:00Z",
+          sections: { "scene-2": "<p>scene 2 saved</p>" },
+        },
+        { mergeSections: true },
+      );
+    });
+
+    await waitFor(() => {
+      expect(result.current.selectedManuscript?.updatedAt).toBe("2026-07-07T00:00:00Z");
+    });
+    expect(result.current.selectedManuscript?.sections).toEqual({
+      "scene-1": "<p>scene 1</p>",
+      "scene-2": "<p>scene 2 saved</p>",
+      "scene-3": "<p>scene 3</p>",
+    });
+  });
 });
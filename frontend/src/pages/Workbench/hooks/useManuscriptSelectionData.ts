@@ -146,10 +146,15 @@ export function useManuscriptSelectionData({
   const chapters = outlineDraft?.chapters || [];
 
   const replaceManuscript = useCallback(
-    (manuscript: Manuscript) => {
+    (manuscript: Manuscript, options?: { mergeSections?: boolean }) => {
       if (!selectedOutlineId) return;
       queryClient.setQueryData<Manuscript[] | undefined>(manuscriptsQueryKey(selectedOutlineId), (prev) =>
-        Array.isArray(prev) ? prev.map((item) => (item.id === manuscript.id ? manuscript : item)) : prev,
+        Array.isArray(prev)
+          ? prev.map((item) => {
+              if (item.id !== manuscript.id) return item;
+              return options?.mergeSections ? { ...manuscript, sections: { ...item.sections, ...manuscript.sections } } : manuscript;
+            })
+          : prev,
       );
     },
     [queryClient, selectedOutlineId],
@@ -21,6 +21,8 @@ type UseManuscriptSidebarDataOptions = {
 };
 
 const VERSION_PAGE_SIZE = 10;
+// Page size the version list endpoint uses when none is given; a full page means older versions may follow.
+const VERSION_SERVER_PAGE_SIZE = 50;
 const WORKBENCH_QUERY_STALE_TIME = 60_000;
 
 const goalsQueryKey = ["workbench", "sidebar", "goals"] as const;
@@ -80,6 +82,8 @@ export function useManuscriptSidebarData({
   const [diffResult, setDiffResult] = useState<any>(null);
   const [diffViewMode, setDiffViewMode] = useState<"split" | "unified">("split");
   const [versionVisibleCount, setVersionVisibleCount] = useState(VERSION_PAGE_SIZE);
+  const [olderVersions, setOlderVersions] = useState<any[]>([]);
+  const [hasOlderVersions, setHasOlderVersions] = useState(false);
   const [aiDiffSummary, setAiDiffSummary] = useState("");
   const [autoSaveConfig, setAutoSaveConfig] = useState<any>(null);
   const [exportFormat, setExportFormat] = useState("txt");
@@ -165,14 +169,15 @@ export function useManuscriptSidebarData({
 
   const goals = goalsQuery.data ?? [];
   const contextPreview = contextPreviewQuery.data ?? null;
-  const versions = versionDataQuery.data?.versions ?? [];
+  const firstVersionPage = versionDataQuery.data?.versions;
+  const versions = useMemo(() => [...(firstVersionPage ?? []), ...olderVersions], [firstVersionPage, olderVersions]);
   const branches = versionDataQuery.data?.branches ?? [];
   const exportJobs = exportDataQuery.data?.jobs ?? [];
   const exportTemplates = exportDataQuery.data?.templates ?? [];
   const workspaceStats = statsQuery.data ?? null;
 
   const visibleVersions = useMemo(() => versions.slice(0, versionVisibleCount), [versionVisibleCount, versions]);
-  const hasMoreVersions = versionVisibleCount < versions.length;
+  const hasMoreVersions = versionVisibleCount < versions.length || hasOlderVersions;
 
   const loadGoals = useCallback(async () => {
     return await queryClient.fetchQuery({
@@ -553,6 +558,8 @@ export function useManuscriptSidebarData({
     if (!versionDataQuery.data) return;
     const { autoSaveConfig: nextConfig, branches: nextBranches } = versionDataQuery.data;
     setVersionVisibleCount(VERSION_PAGE_SIZE);
+    setOlderVersions([]);
+    setHasOlderVersions(versionDataQuery.data.versions.length >= VERSION_SERVER_PAGE_SIZE);
     setAutoSaveConfig(nextConfig);
     const activeBranch = nextBranches.find((branch) => String(branch.status) === "active" && branch.isMain);
     setCurrentBranchId(activeBranch ? String(activeBranch.id) : "");
@@ -563,6 +570,28 @@ export function useManuscriptSidebarData({
     });
   }, [versionDataQuery.data]);
 
+  useEffect(() => {
+    if (!selectedManuscriptId || !hasOlderVersions || versionVisibleCount <= versions.length) return;
+    const last = versions[versions.length - 1];
+    if (!last) return;
+    let cancelled = false;
+    api.v2.version
+      .listVersions(selectedManuscriptId, { beforeCreatedAt: String(last.createdAt), beforeId: String(last.id) })
+      .then((page) => {
+        if (cancelled) return;
+        setOlderVersions((prev) => [...prev, ...page]);
+        setHasOlderVersions(page.length >= VERSION_SERVER_PAGE_SIZE);
+      })
+      .catch((e: any) => {
+        if (cancelled) return;
+        setHasOlderVersions(false);
+        toast({ variant: "destructive", title: "加载版本失败", description: e.message });
+      });
+    return () => {
+      cancelled = true;
+    };
+  }, [hasOlderVersions, selectedManuscriptId, toast, versionVisibleCount, versions]);
+
   useEffect(() => {
     const templates = exportDataQuery.data?.templates ?? [];
     setExportTemplateId((prev) => {
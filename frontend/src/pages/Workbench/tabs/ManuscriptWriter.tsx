@@ -319,6 +319,7 @@ const ManuscriptWriter = ({ initialStoryId }: ManuscriptWriterProps) => {
   }, [showRightPanel]);
 
   const {
+    draftText,
     generateScene,
     generationMode,
     isGenerating,
@@ -443,6 +444,7 @@ const ManuscriptWriter = ({ initialStoryId }: ManuscriptWriterProps) => {
             content={content}
             currentWordCount={currentWordCount}
             dirtyScenes={dirtyScenes}
+            draftText={draftText}
             draggingTabId={draggingTabId}
             focusMode={focusMode}
             generationMode={generationMode}
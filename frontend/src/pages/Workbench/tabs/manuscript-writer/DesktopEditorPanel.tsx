@@ -15,6 +15,7 @@ type DesktopEditorPanelProps = {
   content: string;
   currentWordCount: number;
   dirtyScenes: Record<string, boolean>;
+  draftText: string;
   draggingTabId: string;
   focusMode: boolean;
   generationMode: GenerationMode;
@@ -48,6 +49,7 @@ export function DesktopEditorPanel({
   content,
   currentWordCount,
   dirtyScenes,
+  draftText,
   draggingTabId,
   focusMode,
   generationMode,
@@ -180,6 +182,13 @@ export function DesktopEditorPanel({
         </ScrollArea>
       </div>
 
+      {isGenerating && draftText ? (
+        <div className="mx-2 mb-2 max-h-48 overflow-y-auto rounded-lg border border-dashed bg-muted/30 px-3 py-2 text-sm">
+          <div className="mb-1 text-xs text-muted-foreground">正文生成中，质量检查通过后写入编辑器</div>
+          <div className="whitespace-pre-wrap leading-relaxed">{draftText}</div>
+        </div>
+      ) : null}
+
       <div className="flex-1 border rounded-lg overflow-hidden bg-background shadow-sm mx-2">
         <TiptapEditor
           key={`desktop-editor-${focusMode ? "zen" : "normal"}`}
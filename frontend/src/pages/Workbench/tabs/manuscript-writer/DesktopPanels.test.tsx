@@ -34,6 +34,7 @@ describe("desktop manuscript workbench panels", () => {
         content=""
         currentWordCount={120}
         dirtyScenes={{ "scene-1": true }}
+        draftText=""
         draggingTabId=""
         focusMode={false}
         generationMode="fast"
@@ -7,7 +7,7 @@ import { Input } from "@/components/ui/input";
 import { ScrollArea } from "@/components/ui/scroll-area";
 import { Select, SelectContent, SelectItem, SelectTrigger, SelectValue } from "@/components/ui/select";
 import { TabsContent } from "@/components/ui/tabs";
-import { formatDateTime, snapshotTypeLabel, versionWordCount } from "./shared";
+import { formatDateTime, snapshotTypeLabel, stripHtml, versionWordCount } from "./shared";
 
 type VersionSidebarPanelProps = {
   aiDiffSummary: string;
@@ -222,17 +222,33 @@ export function VersionSidebarPanel({
             {(diffResult.changes || []).slice(0, 6).map((change: any) => (
               <div key={change.sceneId} className="rounded border p-2">
                 <div className="font-medium mb-1">场景 {change.sceneId}</div>
-                {diffViewMode === "split" ? (
-                  <div className="grid grid-cols-2 gap-2">
-                    <div className="bg-rose-50/40 rounded p-1 whitespace-pre-wrap">{change.beforeContent || "<empty>"}</div>
-                    <div className="bg-emerald-50/40 rounded p-1 whitespace-pre-wrap">{change.afterContent || "<empty>"}</div>
-                  </div>
-                ) : (
-                  <div className="space-y-1">
-                    <div className="text-rose-600 whitespace-pre-wrap">- {change.beforeContent || "<empty>"}</div>
-                    <div className="text-emerald-600 whitespace-pre-wrap">+ {change.afterContent || "<empty>"}</div>
-                  </div>
-                )}
+                {(change.hunks || []).map((hunk: any) => {
+                  const before = stripHtml(hunk.contextBefore);
+                  const after = stripHtml(hunk.contextAfter);
+                  const deleted = stripHtml(hunk.deleted);
+                  const inserted = stripHtml(hunk.inserted);
+                  return diffViewMode === "split" ? (
+                    <div key={hunk.beforeOffset} className="grid grid-cols-2 gap-2 mb-1">
+                      <div className="bg-rose-50/40 rounded p-1 whitespace-pre-wrap">
+                        …{before}
+                        <span className="bg-rose-200/70 line-through">{deleted}</span>
+                        {after}…
+                      </div>
+                      <div className="bg-emerald-50/40 rounded p-1 whitespace-pre-wrap">
+                        …{before}
+                        <span className="bg-emerald-200/70">{inserted}</span>
+                        {after}…
+                      </div>
+                    </div>
+                  ) : (
+                    <div key={hunk.beforeOffset} className="space-y-1 mb-1">
+                      <div className="text-muted-foreground whitespace-pre-wrap">…{before}</div>
+                      {!!deleted && <div className="text-rose-600 whitespace-pre-wrap">- {deleted}</div>}
+                      {!!inserted && <div className="text-emerald-600 whitespace-pre-wrap">+ {inserted}</div>}
+                      <div className="text-muted-foreground whitespace-pre-wrap">{after}…</div>
+                    </div>
+                  );
+                })}
               </div>
             ))}
           </div>
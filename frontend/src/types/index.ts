@@ -8,6 +8,7 @@ export interface User {
   projectCredits: number;
   publicCredits: number;
   totalCredits: number;
+  publicCreditsAgeMs: number; // how long ago billing confirmed publicCredits
   isBanned: boolean;
 }
 
@@ -618,6 +619,10 @@ export interface AiOperationProgress {
   completedAt?: string | null;
 }
 
+export type AiOperationDraftEvent =
+  | { type: "draft"; operationId: string; attempt: number; reset: boolean; text: string }
+  | { type: "accepted"; operationId: string; text: string };
+
 export interface CreationWorkflow {
   id: string;
   templateKey: string;